@@ -18,6 +18,8 @@ package com.ericsson.bos.dr.configuration;
 
 import java.util.concurrent.TimeUnit;
 
+import com.ericsson.bos.dr.service.utils.JQ;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.context.annotation.Bean;
@@ -40,6 +42,20 @@ public class CacheConfiguration {
     @Value("${spring.caches.asset.access-expiry}")
     private Long assetCacheExpiry;
 
+    @Value("${spring.caches.jq-expression.max-size}")
+    private Long jqExpressionCacheMaxSize;
+
+    @Value("${spring.caches.jq-expression.access-expiry}")
+    private Long jqExpressionCacheExpiry;
+
+    /**
+     * Configure the compiled jq expression cache.
+     */
+    @PostConstruct
+    public void configureJqExpressionCache() {
+        JQ.configureCache(jqExpressionCacheMaxSize, jqExpressionCacheExpiry);
+    }
+
     /**
      * Properties cache.
      *
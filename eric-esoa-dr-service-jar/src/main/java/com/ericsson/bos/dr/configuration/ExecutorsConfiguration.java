@@ -18,6 +18,7 @@ package com.ericsson.bos.dr.configuration;
 
 import java.time.Duration;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.task.TaskExecutorBuilder;
@@ -58,6 +59,23 @@ public class ExecutorsConfiguration {
                 .build();
     }
 
+    /**
+     * Fork-join pool to evaluate discovery filters in parallel. The pool is shared by all jobs,
+     * the number of concurrent tasks per job is limited by the job filter parallelism.
+     * Worker threads use the application class loader so groovy filter scripts can be evaluated.
+     * @param parallelism pool parallelism
+     * @return ForkJoinPool
+     */
+    @Bean(name = "filtersExecutor")
+    public ForkJoinPool filtersExecutor(@Value("${service.jobs.execution.filter-executor.parallelism}") final int parallelism) {
+        return new ForkJoinPool(parallelism, pool -> {
+            final var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("filterExecutor-" + thread.getPoolIndex());
+            thread.setContextClassLoader(ExecutorsConfiguration.class.getClassLoader());
+            return thread;
+        }, null, false);
+    }
+
     /**
      * Executor to execute jobs.
      * Starts a tracing span prior to executing the runnable and is configured to propagate the tracing context.
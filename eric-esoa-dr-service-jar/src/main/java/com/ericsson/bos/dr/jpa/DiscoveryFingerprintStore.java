@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+
+package com.ericsson.bos.dr.jpa;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import com.ericsson.bos.dr.jpa.model.DiscoveryFingerprint;
+import com.ericsson.bos.dr.service.utils.JSON;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Store for the fingerprints recorded by incremental discovery jobs, keyed on job id and object key, together with
+ * the enriched properties of the objects.
+ * The fingerprints are written in chunks of the configured batch size, each in its own transaction.
+ * The enriched properties and matched filters of a previous job are read with a cursor which fetches rows in chunks
+ * of the configured batch size, so that the previous job is never held in memory.
+ */
+@Component
+public class DiscoveryFingerprintStore {
+
+    private static final String SELECT_FINGERPRINTS = "SELECT object_key, fingerprint FROM discovery_fingerprint WHERE job_id = ?";
+    private static final String SELECT_ENRICHED_PROPERTIES = "SELECT object_key, source_properties, target_properties "
+            + "FROM discovery_fingerprint WHERE job_id = ? AND (source_properties IS NOT NULL OR target_properties IS NOT NULL)";
+    private static final String SELECT_MATCHED_FILTERS = "SELECT d.object_key, f.name FROM discovered_object d "
+            + "JOIN filter f ON f.discovered_object_id = d.id "
+            + "WHERE d.job_id = ? AND d.object_key IS NOT NULL AND (d.source_properties IS NOT NULL) = ?";
+    private static final String INSERT_FINGERPRINT = "INSERT INTO discovery_fingerprint (job_id, object_key, fingerprint, "
+            + "source_properties, target_properties) VALUES (?, ?, ?, CAST(? AS jsonb), CAST(? AS jsonb))";
+    private static final TypeReference<Map<String, Object>> PROPERTIES_TYPE = new TypeReference<>() {};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${service.jobs.execution.persistence.write-batch-size}")
+    private int batchSize;
+
+    /**
+     * Find the fingerprints recorded by a job.
+     *
+     * @param jobId job id
+     * @return fingerprints keyed on object key
+     */
+    public Map<String, String> findByJobId(final long jobId) {
+        final Map<String, String> fingerprints = new HashMap<>();
+        jdbcTemplate.query(SELECT_FINGERPRINTS, rs -> {
+            fingerprints.put(rs.getString(1), rs.getString(2));
+        }, jobId);
+        return fingerprints;
+    }
+
+    /**
+     * Find the enriched properties recorded by a job for the selected object keys.
+     *
+     * @param jobId job id
+     * @param objectKeys selects the object keys to read
+     * @param consumer consumer of the enriched properties, the fingerprint is not set
+     */
+    public void findEnrichedProperties(final long jobId, final Predicate<String> objectKeys,
+                                       final Consumer<DiscoveryFingerprint> consumer) {
+        query(SELECT_ENRICHED_PROPERTIES, rs -> {
+            final String objectKey = rs.getString(1);
+            if (objectKeys.test(objectKey)) {
+                consumer.accept(new DiscoveryFingerprint(objectKey, null, toProperties(rs.getString(2)),
+                        toProperties(rs.getString(3))));
+            }
+        }, jobId);
+    }
+
+    /**
+     * Find the names of the filters matched by the source or target objects saved by an incremental discovery job.
+     *
+     * @param jobId job id
+     * @param sources true to find the filters of the source objects, false for the target objects
+     * @param consumer consumer of the object key and filter name
+     */
+    public void findMatchedFilters(final long jobId, final boolean sources, final BiConsumer<String, String> consumer) {
+        query(SELECT_MATCHED_FILTERS, rs -> consumer.accept(rs.getString(1), rs.getString(2)), jobId, sources);
+    }
+
+    /**
+     * Insert the fingerprints for a job.
+     *
+     * @param jobId job id
+     * @param fingerprints fingerprints
+     */
+    public void insert(final long jobId, final List<DiscoveryFingerprint> fingerprints) {
+        for (int from = 0; from < fingerprints.size(); from += batchSize) {
+            final List<DiscoveryFingerprint> chunk = fingerprints.subList(from, Math.min(from + batchSize, fingerprints.size()));
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_FINGERPRINT, chunk, chunk.size(), (ps, fingerprint) -> {
+                        ps.setLong(1, jobId);
+                        ps.setString(2, fingerprint.getObjectKey());
+                        ps.setString(3, fingerprint.getFingerprint());
+                        ps.setString(4, toJson(fingerprint.getSourceProperties()));
+                        ps.setString(5, toJson(fingerprint.getTargetProperties()));
+                    }));
+        }
+    }
+
+    private void query(final String sql, final RowCallbackHandler rowCallbackHandler, final Object... args) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            final var preparedStatement = connection.prepareStatement(sql);
+            preparedStatement.setFetchSize(batchSize);
+            for (int i = 0; i < args.length; i++) {
+                preparedStatement.setObject(i + 1, args[i]);
+            }
+            return preparedStatement;
+        }, rowCallbackHandler));
+    }
+
+    private static String toJson(final Map<String, Object> properties) {
+        return properties == null ? null : JSON.toString(properties);
+    }
+
+    private static Map<String, Object> toProperties(final String json) {
+        return json == null ? null : JSON.read(json, PROPERTIES_TYPE);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+
+package com.ericsson.bos.dr.jpa;
+
+import java.sql.Timestamp;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.ericsson.bos.dr.jpa.model.DiscoveryObjectEntity;
+import com.ericsson.bos.dr.jpa.model.FilterEntity;
+import com.ericsson.bos.dr.service.utils.JSON;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Bulk writer for <code>DiscoveryObjectEntity</code> and their <code>FilterEntity</code> children.
+ * <p>
+ * Bypasses the JPA persistence context, which inserts each object and filter individually due to the identity id
+ * generation. The ids for a chunk are reserved from the table sequences in a single query and the rows are then
+ * inserted using JDBC batches, which the postgres driver rewrites to multi-row inserts when
+ * <code>reWriteBatchedInserts</code> is enabled. Each chunk is written in its own transaction, so the size
+ * of a transaction is bounded by the configured batch size. If a chunk fails, the objects of the chunks already
+ * committed are deleted, together with their filters, so that no partial set of objects is left.
+ * </p>
+ * The generated ids, version and dates are set on the entities once written.
+ */
+@Component
+public class DiscoveryObjectBulkWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DiscoveryObjectBulkWriter.class);
+
+    private static final String INSERT_DISCOVERED_OBJECT = "INSERT INTO discovered_object (id, job_id, source_properties, "
+            + "target_properties, status, error_message, object_key, version, creation_date, modified_date) "
+            + "VALUES (?, ?, CAST(? AS jsonb), CAST(? AS jsonb), ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_FILTER = "INSERT INTO filter (id, name, status, discrepancy, reconcile_action, "
+            + "command, command_response, error_msg, discovered_object_id, version, creation_date, modified_date) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String NEXT_DISCOVERED_OBJECT_IDS =
+            "SELECT nextval('discovered_object_id_seq') FROM generate_series(1, ?)";
+    private static final String NEXT_FILTER_IDS = "SELECT nextval('filter_id_seq') FROM generate_series(1, ?)";
+    private static final String DELETE_DISCOVERED_OBJECT = "DELETE FROM discovered_object WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${service.jobs.execution.persistence.write-batch-size}")
+    private int batchSize;
+
+    /**
+     * Insert the discovery objects and their filters, in chunks of the configured batch size.
+     * Each chunk is committed in a separate transaction. If a chunk fails, the objects already inserted are deleted
+     * and the failure is rethrown.
+     *
+     * @param entities discovery object entities to insert
+     */
+    public void insert(final List<DiscoveryObjectEntity> entities) {
+        int from = 0;
+        try {
+            for (; from < entities.size(); from += batchSize) {
+                final List<DiscoveryObjectEntity> chunk = entities.subList(from, Math.min(from + batchSize, entities.size()));
+                transactionTemplate.executeWithoutResult(status -> insertChunk(chunk));
+            }
+        } catch (final RuntimeException e) {
+            deleteInserted(entities.subList(0, from), e);
+            throw e;
+        }
+    }
+
+    private void deleteInserted(final List<DiscoveryObjectEntity> entities, final RuntimeException cause) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        LOGGER.warn("Deleting {} discovery objects inserted before the insert failed", entities.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(DELETE_DISCOVERED_OBJECT, entities, batchSize,
+                    (ps, entity) -> ps.setLong(1, entity.getId())));
+        } catch (final RuntimeException e) {
+            LOGGER.error("Failed to delete the discovery objects inserted before the insert failed", e);
+            cause.addSuppressed(e);
+        }
+    }
+
+    private void insertChunk(final List<DiscoveryObjectEntity> entities) {
+        final var now = new Timestamp(System.currentTimeMillis());
+        final Iterator<Long> objectIds = nextIds(NEXT_DISCOVERED_OBJECT_IDS, entities.size()).iterator();
+        entities.forEach(entity -> {
+            entity.setId(objectIds.next());
+            entity.setVersion(0L);
+            entity.setCreationDate(now);
+            entity.setModifiedDate(now);
+        });
+        jdbcTemplate.batchUpdate(INSERT_DISCOVERED_OBJECT, entities, entities.size(), (ps, entity) -> {
+            ps.setLong(1, entity.getId());
+            ps.setLong(2, entity.getJobId());
+            ps.setString(3, toJson(entity.getSourceProperties()));
+            ps.setString(4, toJson(entity.getTargetProperties()));
+            ps.setString(5, entity.getStatus());
+            ps.setString(6, entity.getErrorMessage());
+            ps.setString(7, entity.getObjectKey());
+            ps.setLong(8, entity.getVersion());
+            ps.setTimestamp(9, now);
+            ps.setTimestamp(10, now);
+        });
+
+        final List<FilterEntity> filters = entities.stream().flatMap(entity -> entity.getFilters().stream()).toList();
+        if (filters.isEmpty()) {
+            return;
+        }
+        final Iterator<Long> filterIds = nextIds(NEXT_FILTER_IDS, filters.size()).iterator();
+        filters.forEach(filter -> {
+            filter.setId(filterIds.next());
+            filter.setVersion(0L);
+            filter.setCreationDate(now);
+            filter.setModifiedDate(now);
+        });
+        jdbcTemplate.batchUpdate(INSERT_FILTER, filters, filters.size(), (ps, filter) -> {
+            ps.setLong(1, filter.getId());
+            ps.setString(2, filter.getName());
+            ps.setString(3, filter.getReconcileStatus());
+            ps.setString(4, filter.getDiscrepancy());
+            ps.setString(5, filter.getReconcileAction());
+            ps.setString(6, filter.getCommand());
+            ps.setString(7, filter.getCommandResponse());
+            ps.setString(8, filter.getErrorMsg());
+            ps.setLong(9, filter.getDiscoveryObject().getId());
+            ps.setLong(10, filter.getVersion());
+            ps.setTimestamp(11, now);
+            ps.setTimestamp(12, now);
+        });
+    }
+
+    private List<Long> nextIds(final String sql, final int count) {
+        return jdbcTemplate.queryForList(sql, Long.class, count);
+    }
+
+    private static String toJson(final Map<String, Object> properties) {
+        return properties == null ? null : JSON.toString(properties);
+    }
+}
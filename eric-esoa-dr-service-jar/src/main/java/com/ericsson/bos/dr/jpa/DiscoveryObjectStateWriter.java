@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.jpa;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ericsson.bos.dr.jpa.model.DiscoveryObjectEntity;
+import com.ericsson.bos.dr.jpa.model.FilterEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writer for the reconcile state of a <code>DiscoveryObjectEntity</code> and its <code>FilterEntity</code> children.
+ * <p>
+ * Updates the status and error of the object and the status, command, response and error of each filter using a
+ * single JDBC batch in one transaction, rather than merging the entity through the JPA persistence context, which
+ * reads the entity and updates each changed row with a separate statement. Each row is updated only if its version
+ * is unchanged, as for the JPA optimistic lock, and the versions and modified date are set on the entities once
+ * written.
+ * </p>
+ */
+@Component
+public class DiscoveryObjectStateWriter {
+
+    private static final String UPDATE_DISCOVERED_OBJECT = "UPDATE discovered_object SET status = ?, error_message = ?, "
+            + "version = version + 1, modified_date = ? WHERE id = ? AND version = ?";
+    private static final String UPDATE_FILTER = "UPDATE filter SET status = ?, command = ?, command_response = ?, error_msg = ?, "
+            + "version = version + 1, modified_date = ? WHERE id = ? AND version = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Update the reconcile state of the discovery object and its filters.
+     *
+     * @param entity discovery object entity
+     * @return the updated entity
+     * @throws ObjectOptimisticLockingFailureException if the object or a filter was modified since read
+     */
+    public DiscoveryObjectEntity updateState(final DiscoveryObjectEntity entity) {
+        final var now = new Timestamp(System.currentTimeMillis());
+        final List<FilterEntity> filters = new ArrayList<>(entity.getFilters());
+        transactionTemplate.executeWithoutResult(status -> {
+            final int updated = jdbcTemplate.update(UPDATE_DISCOVERED_OBJECT, entity.getStatus(), entity.getErrorMessage(), now,
+                    entity.getId(), entity.getVersion());
+            if (updated == 0) {
+                throw new ObjectOptimisticLockingFailureException(DiscoveryObjectEntity.class, entity.getId());
+            }
+            if (filters.isEmpty()) {
+                return;
+            }
+            final int[][] filtersUpdated = jdbcTemplate.batchUpdate(UPDATE_FILTER, filters, filters.size(), (ps, filter) -> {
+                ps.setString(1, filter.getReconcileStatus());
+                ps.setString(2, filter.getCommand());
+                ps.setString(3, filter.getCommandResponse());
+                ps.setString(4, filter.getErrorMsg());
+                ps.setTimestamp(5, now);
+                ps.setLong(6, filter.getId());
+                ps.setLong(7, filter.getVersion());
+            });
+            for (int i = 0; i < filters.size(); i++) {
+                if (filtersUpdated[0][i] == 0) {
+                    throw new ObjectOptimisticLockingFailureException(FilterEntity.class, filters.get(i).getId());
+                }
+            }
+        });
+        entity.setVersion(entity.getVersion() + 1);
+        entity.setModifiedDate(now);
+        filters.forEach(filter -> {
+            filter.setVersion(filter.getVersion() + 1);
+            filter.setModifiedDate(now);
+        });
+        return entity;
+    }
+}
\ No newline at end of file
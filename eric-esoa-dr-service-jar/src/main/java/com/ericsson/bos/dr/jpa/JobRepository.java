@@ -19,6 +19,7 @@ import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 import com.ericsson.bos.dr.jpa.model.JobEntity;
 import jakarta.persistence.LockModeType;
@@ -103,4 +104,14 @@ public interface JobRepository extends PagingAndSortingRepository<JobEntity, Lon
      */
     List<JobEntity> findByJobScheduleIdIsNotNullAndJobStatusIn(Collection<String> status);
 
+    /**
+     * Find the most recent job for a schedule, created before the specified job, which is in any of the specified states.
+     * @param jobScheduleId job schedule id
+     * @param jobId job id
+     * @param statuses job statuses
+     * @return optional JobEntity
+     */
+    Optional<JobEntity> findFirstByJobScheduleIdAndIdLessThanAndJobStatusInOrderByIdDesc(long jobScheduleId, long jobId,
+                                                                                          Collection<String> statuses);
+
 }
\ No newline at end of file
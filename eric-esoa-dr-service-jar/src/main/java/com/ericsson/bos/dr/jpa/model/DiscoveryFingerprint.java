@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+
+package com.ericsson.bos.dr.jpa.model;
+
+import java.util.Map;
+
+/**
+ * Fingerprint recorded by an incremental discovery job for an object key, together with the enriched properties
+ * of the source and target, which are reused when the object is unchanged in the next job of the schedule.
+ * The properties are null when the source or target is not enriched.
+ */
+public class DiscoveryFingerprint {
+
+    private final String objectKey;
+    private final String fingerprint;
+    private final Map<String, Object> sourceProperties;
+    private final Map<String, Object> targetProperties;
+
+    /**
+     * DiscoveryFingerprint.
+     * @param objectKey object key
+     * @param fingerprint fingerprint
+     * @param sourceProperties enriched source properties, or null
+     * @param targetProperties enriched target properties, or null
+     */
+    public DiscoveryFingerprint(final String objectKey, final String fingerprint, final Map<String, Object> sourceProperties,
+                                final Map<String, Object> targetProperties) {
+        this.objectKey = objectKey;
+        this.fingerprint = fingerprint;
+        this.sourceProperties = sourceProperties;
+        this.targetProperties = targetProperties;
+    }
+
+    public String getObjectKey() {
+        return objectKey;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public Map<String, Object> getSourceProperties() {
+        return sourceProperties;
+    }
+
+    public Map<String, Object> getTargetProperties() {
+        return targetProperties;
+    }
+}
\ No newline at end of file
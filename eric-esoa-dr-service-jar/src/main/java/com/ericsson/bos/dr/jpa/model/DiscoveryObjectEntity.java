@@ -76,6 +76,9 @@ public class DiscoveryObjectEntity  {
     @Column(name="error_message")
     private String errorMessage;
 
+    @Column(name = "object_key")
+    private String objectKey;
+
     @Version
     @Column(nullable = false)
     private Long version;
@@ -189,4 +192,12 @@ public class DiscoveryObjectEntity  {
     public void setErrorMessage(String errorMessage) {
         this.errorMessage = errorMessage;
     }
+
+    public String getObjectKey() {
+        return objectKey;
+    }
+
+    public void setObjectKey(String objectKey) {
+        this.objectKey = objectKey;
+    }
 }
\ No newline at end of file
@@ -23,6 +23,7 @@ import java.util.Map;
 import com.ericsson.bos.dr.service.job.JobEventPublisher;
 import com.ericsson.bos.dr.service.job.JobStatusCondition;
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationJobDto;
+import com.ericsson.bos.dr.web.v1.api.model.DiscoveryDeltaDto;
 import com.ericsson.bos.dr.web.v1.api.model.ExecuteJobDtoExecutionOptions;
 import com.ericsson.bos.dr.web.v1.api.model.ExecuteReconcileDto;
 import com.vladmihalcea.hibernate.type.json.JsonBinaryType;
@@ -111,6 +112,10 @@ public class JobEntity  {
     @Type(JsonBinaryType.class)
     private ExecuteReconcileDto reconcileRequest;
 
+    @Column(name = "discovery_delta", columnDefinition = "jsonb")
+    @Type(JsonBinaryType.class)
+    private DiscoveryDeltaDto discoveryDelta;
+
     public String getJobStatus() {
         return jobStatus;
     }
@@ -313,6 +318,14 @@ public class JobEntity  {
         this.reconcileRequest = reconcileRequest;
     }
 
+    public DiscoveryDeltaDto getDiscoveryDelta() {
+        return discoveryDelta;
+    }
+
+    public void setDiscoveryDelta(DiscoveryDeltaDto discoveryDelta) {
+        this.discoveryDelta = discoveryDelta;
+    }
+
     public Long getLockTime() {
         return lockTime;
     }
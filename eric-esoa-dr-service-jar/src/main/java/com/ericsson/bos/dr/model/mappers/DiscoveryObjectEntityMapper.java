@@ -44,6 +44,7 @@ public class DiscoveryObjectEntityMapper implements Mapper<DiscoveredObject, Dis
             entity.setTargetProperties(discoveredObject.getProperties());
         }
         entity.setStatus(StatusEnum.DISCOVERED.toString());
+        entity.setObjectKey(discoveredObject.getObjectKey());
         discoveredObject.getFilterResults().stream()
                 .filter(FilterResult::isMatched) // exclude filters which were not matched
                 .forEach(f -> {
@@ -53,6 +53,7 @@ public class JobMapper implements Mapper<JobEntity, JobDto> {
         jobDto.setReconciledObjectsCount(jobEntity.getReconciledObjectsCount());
         jobDto.setReconciledObjectsErrorCount(jobEntity.getReconciledObjectsErrorCount());
         jobDto.setErrorMessage(jobEntity.getErrorMessage());
+        jobDto.setDiscoveryDelta(jobEntity.getDiscoveryDelta());
         Optional.ofNullable(jobEntity.getJobScheduleId()).ifPresent(id -> jobDto.setJobScheduleId(id.toString()));
         return jobDto;
     }
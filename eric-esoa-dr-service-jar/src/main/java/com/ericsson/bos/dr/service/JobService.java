@@ -63,6 +63,7 @@ import com.ericsson.bos.dr.service.job.CreateJobValidator;
 import com.ericsson.bos.dr.service.job.DeleteJobValidator;
 import com.ericsson.bos.dr.service.job.FailedJobAlarmPredicate;
 import com.ericsson.bos.dr.web.v1.api.model.DeleteJobsResponseDto;
+import com.ericsson.bos.dr.web.v1.api.model.DiscoveryDeltaDto;
 import com.ericsson.bos.dr.web.v1.api.model.ExecuteJobDto;
 import com.ericsson.bos.dr.web.v1.api.model.JobDto;
 import com.ericsson.bos.dr.web.v1.api.model.JobListDto;
@@ -347,10 +348,11 @@ public class JobService {
      * Update the job state after discovery completed.
      * @param jobId job id
      * @param discoveredCount discovered object count
+     * @param discoveryDelta changes since the previous job of the schedule, null if not an incremental discovery
      * @return JobEntity
      */
     @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public JobEntity discoveryCompleted(final long jobId, final int discoveredCount) {
+    public JobEntity discoveryCompleted(final long jobId, final int discoveredCount, final DiscoveryDeltaDto discoveryDelta) {
         final var jobEntity = findJobEntity(String.valueOf(jobId));
         final var jobStatus = discoveredCount == 0 ? COMPLETED : DISCOVERED;
         jobEntity.setJobStatus(jobStatus.name());
@@ -358,6 +360,7 @@ public class JobService {
             jobEntity.setCompletedDate(Date.from(Instant.now()));
         }
         jobEntity.setDiscoveredObjectsCount(discoveredCount);
+        jobEntity.setDiscoveryDelta(discoveryDelta);
         jobEntity.unlock();
         return jobRepository.save(jobEntity);
     }
@@ -16,21 +16,49 @@
 
 package com.ericsson.bos.dr.service.compare;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import com.ericsson.bos.dr.service.compare.filters.Condition;
 import com.ericsson.bos.dr.service.compare.filters.FilterContext;
+import com.ericsson.bos.dr.service.compare.filters.FilterPassContext;
 import com.ericsson.bos.dr.service.discovery.DiscoveredObject;
 import com.ericsson.bos.dr.service.discovery.DiscoveryContext;
 import com.ericsson.bos.dr.service.discovery.FilterResult;
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationFilterDto;
+import io.micrometer.context.ContextSnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
  * Comparison engine capable of applying the comparison filters defined in the <code>ApplicationConfigurationActionDto</code>,
  * to identify the discrepancies between discovered source and target objects.
+ * <p>
+ * Filters are applied one after the other. Within a filter, the objects may be partitioned into chunks which are
+ * evaluated concurrently on the filters executor. The number of concurrent chunks is limited by the job filter parallelism,
+ * which defaults to the configured service default if not set in the job execution options. The filter results are the
+ * same as for sequential evaluation.
+ * </p>
+ * <p>
+ * When discovering in chunks, the SOURCE filters are applied to each chunk of sources using filter pass contexts which
+ * are built once and kept in the <code>DiscoveryContext</code>. The TARGET filters are applied once all chunks have been
+ * processed, against the distinct projections of the source properties they require. If the filters require only some
+ * of the target properties, see <code>getRequiredTargetProperties</code>, then the targets are evaluated against a
+ * projection of these properties.
+ * </p>
+ * <p>
+ * When discovering incrementally, the objects whose previous filter results are carried forward are not evaluated,
+ * but remain available to be matched by the other objects, see <code>DiscoveryDelta</code>.
+ * </p>
  */
 @Component
 public class ComparisonEngine {
@@ -38,6 +66,16 @@ public class ComparisonEngine {
     @Autowired
     private List<Condition> conditions;
 
+    @Autowired
+    @Qualifier("filtersExecutor")
+    private ForkJoinPool filtersExecutor;
+
+    @Value("${service.jobs.execution.filter-executor.default-job-parallelism}")
+    private int defaultParallelism;
+
+    @Value("${service.jobs.execution.filter-executor.min-chunk-size}")
+    private int minChunkSize;
+
     /**
      * Executes the filter condition defined in the Job configuration.
      * Each source or target <code>DiscoveryObject</code> is updated with the filter result.
@@ -47,15 +85,126 @@ public class ComparisonEngine {
      */
     public void applyFilters(final DiscoveryContext discoveryContext) {
         final Map<String, ApplicationConfigurationFilterDto> filterDefs = discoveryContext.getJobConf().getDiscover().getFilters();
+        final int parallelism = getParallelism(discoveryContext);
 
         for (Map.Entry<String, ApplicationConfigurationFilterDto> filterDef: filterDefs.entrySet()) {
             final var condition = getCondition(filterDef.getValue());
             if (Condition.TYPE.SOURCE.equals(condition.getType())) {
-                applySourceCondition(condition, filterDef, discoveryContext);
+                applySourceCondition(condition, filterDef, discoveryContext, parallelism);
             } else if (Condition.TYPE.TARGET.equals(condition.getType())) {
-                applyTargetCondition(condition, filterDef, discoveryContext);
+                applyTargetCondition(condition, filterDef, discoveryContext, parallelism);
+            }
+        }
+    }
+
+    /**
+     * Check if the job filters can be applied with the sources processed in chunks. This is the case if all TARGET
+     * conditions can be evaluated against a projection of the source properties.
+     *
+     * @param discoveryContext
+     *         discovery context
+     * @return true if the filters can be applied in chunks, otherwise false
+     */
+    public boolean supportsChunkedComparison(final DiscoveryContext discoveryContext) {
+        return getRequiredSourceProperties(discoveryContext).isPresent();
+    }
+
+    /**
+     * Executes the SOURCE filter conditions defined in the Job configuration for the current chunk of source objects.
+     * The source properties required by the TARGET filter conditions are recorded in the <code>DiscoveryContext</code>,
+     * to be used when applying the TARGET filters.
+     *
+     * @param discoveryContext
+     *         discovery context
+     */
+    public void applySourceFilters(final DiscoveryContext discoveryContext) {
+        final Map<String, ApplicationConfigurationFilterDto> filterDefs = discoveryContext.getJobConf().getDiscover().getFilters();
+        final int parallelism = getParallelism(discoveryContext);
+        for (Map.Entry<String, ApplicationConfigurationFilterDto> filterDef: filterDefs.entrySet()) {
+            final var condition = getCondition(filterDef.getValue());
+            if (Condition.TYPE.SOURCE.equals(condition.getType())) {
+                final var passContext = discoveryContext.getSourceFilterPassContexts().computeIfAbsent(filterDef.getKey(),
+                        k -> new FilterPassContext(discoveryContext.getTargets(), discoveryContext.getFeaturePackId(),
+                                discoveryContext.getInputs()));
+                applyCondition(condition, filterDef, passContext, discoveryContext.getSources(), parallelism);
+            }
+        }
+        final Set<String> requiredSourceProperties = getRequiredSourceProperties(discoveryContext)
+                .orElseThrow(() -> new IllegalStateException("Target filters require all source objects"));
+        if (!requiredSourceProperties.isEmpty()) {
+            for (final DiscoveredObject source : discoveryContext.getSources()) {
+                final Map<String, Object> projection = new HashMap<>();
+                requiredSourceProperties.forEach(p -> projection.put(p, source.getProperties().get(p)));
+                discoveryContext.getSourceProjections().add(projection);
+            }
+        }
+    }
+
+    /**
+     * Executes the TARGET filter conditions defined in the Job configuration, once all chunks of source objects
+     * have been processed. The conditions are evaluated against the recorded source projections.
+     *
+     * @param discoveryContext
+     *         discovery context
+     */
+    public void applyTargetFilters(final DiscoveryContext discoveryContext) {
+        final Map<String, ApplicationConfigurationFilterDto> filterDefs = discoveryContext.getJobConf().getDiscover().getFilters();
+        final int parallelism = getParallelism(discoveryContext);
+        final List<DiscoveredObject> sourceProjections = discoveryContext.getSourceProjections().stream()
+                .map(p -> new DiscoveredObject(discoveryContext.getJobId(), DiscoveredObject.TYPE.SOURCE, p)).toList();
+        for (Map.Entry<String, ApplicationConfigurationFilterDto> filterDef: filterDefs.entrySet()) {
+            final var condition = getCondition(filterDef.getValue());
+            if (Condition.TYPE.TARGET.equals(condition.getType())) {
+                final var passContext = new FilterPassContext(
+                        sourceProjections, discoveryContext.getFeaturePackId(), discoveryContext.getInputs());
+                applyCondition(condition, filterDef, passContext, discoveryContext.getTargets(), parallelism);
+            }
+        }
+    }
+
+    /**
+     * Get the source properties required by the TARGET filter conditions defined in the Job configuration.
+     *
+     * @param discoveryContext
+     *         discovery context
+     * @return the required source properties, or empty if the TARGET filters require all source objects
+     */
+    public Optional<Set<String>> getRequiredSourceProperties(final DiscoveryContext discoveryContext) {
+        final Set<String> requiredSourceProperties = new LinkedHashSet<>();
+        for (final ApplicationConfigurationFilterDto filterDef : discoveryContext.getJobConf().getDiscover().getFilters().values()) {
+            final var condition = getCondition(filterDef);
+            if (Condition.TYPE.TARGET.equals(condition.getType())) {
+                final Optional<Set<String>> properties = condition.getRequiredSourceProperties(filterDef);
+                if (properties.isEmpty()) {
+                    return Optional.empty();
+                }
+                requiredSourceProperties.addAll(properties.get());
             }
         }
+        return Optional.of(requiredSourceProperties);
+    }
+
+    /**
+     * Get the target properties required by the filter conditions defined in the Job configuration.
+     *
+     * @param discoveryContext
+     *         discovery context
+     * @return the required target properties, or empty if the filters require the full target objects
+     */
+    public Optional<Set<String>> getRequiredTargetProperties(final DiscoveryContext discoveryContext) {
+        final Set<String> requiredTargetProperties = new LinkedHashSet<>();
+        for (final ApplicationConfigurationFilterDto filterDef : discoveryContext.getJobConf().getDiscover().getFilters().values()) {
+            final Optional<Set<String>> properties = getCondition(filterDef).getRequiredTargetProperties(filterDef);
+            if (properties.isEmpty()) {
+                return Optional.empty();
+            }
+            requiredTargetProperties.addAll(properties.get());
+        }
+        return Optional.of(requiredTargetProperties);
+    }
+
+    private int getParallelism(final DiscoveryContext discoveryContext) {
+        return Math.min(discoveryContext.getFilterParallelism().orElse(defaultParallelism), filtersExecutor.getParallelism());
     }
 
     private Condition getCondition(ApplicationConfigurationFilterDto filterDef) {
@@ -64,20 +213,53 @@ public class ComparisonEngine {
     }
 
     private void applySourceCondition(final Condition condition, final Map.Entry<String, ApplicationConfigurationFilterDto> filterDef,
-                                   final DiscoveryContext discoveryContext) {
-        for (final DiscoveredObject discoveredObject : discoveryContext.getSources()) {
-            final var filterContext = new FilterContext(
-                    discoveredObject, discoveryContext.getTargets(), discoveryContext.getFeaturePackId(), discoveryContext.getInputs());
-            applyCondition(condition, filterDef, filterContext, discoveredObject);
-        }
+                                   final DiscoveryContext discoveryContext, final int parallelism) {
+        final var passContext = new FilterPassContext(
+                discoveryContext.getTargets(), discoveryContext.getFeaturePackId(), discoveryContext.getInputs());
+        applyCondition(condition, filterDef, passContext, getObjectsToEvaluate(discoveryContext, discoveryContext.getSources()),
+                parallelism);
     }
 
     private void applyTargetCondition(final Condition condition, final Map.Entry<String, ApplicationConfigurationFilterDto> filterDef,
-                                      final DiscoveryContext discoveryContext) {
-        for (final DiscoveredObject discoveredObject : discoveryContext.getTargets()) {
-            final var filterContext = new FilterContext(
-                    discoveredObject, discoveryContext.getSources(), discoveryContext.getFeaturePackId(), discoveryContext.getInputs());
-            applyCondition(condition, filterDef, filterContext, discoveredObject);
+                                      final DiscoveryContext discoveryContext, final int parallelism) {
+        final var passContext = new FilterPassContext(
+                discoveryContext.getSources(), discoveryContext.getFeaturePackId(), discoveryContext.getInputs());
+        applyCondition(condition, filterDef, passContext, getObjectsToEvaluate(discoveryContext, discoveryContext.getTargets()),
+                parallelism);
+    }
+
+    private List<DiscoveredObject> getObjectsToEvaluate(final DiscoveryContext discoveryContext,
+                                                        final List<DiscoveredObject> discoveredObjects) {
+        return discoveryContext.getDiscoveryDelta()
+                .map(delta -> discoveredObjects.stream().filter(o -> !delta.isFilterResultsCarriedForward(o)).toList())
+                .orElse(discoveredObjects);
+    }
+
+    private void applyCondition(final Condition condition, final Map.Entry<String, ApplicationConfigurationFilterDto> filterDef,
+                                final FilterPassContext passContext, final List<DiscoveredObject> discoveredObjects, final int parallelism) {
+        final int chunkSize = Math.max(minChunkSize, (discoveredObjects.size() + parallelism - 1) / Math.max(parallelism, 1));
+        if (parallelism <= 1 || discoveredObjects.size() <= chunkSize) {
+            applyCondition(condition, filterDef, passContext, discoveredObjects);
+            return;
+        }
+        final List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int from = 0; from < discoveredObjects.size(); from += chunkSize) {
+            final List<DiscoveredObject> chunk = discoveredObjects.subList(from, Math.min(from + chunkSize, discoveredObjects.size()));
+            tasks.add(filtersExecutor.submit(ContextSnapshot.captureAll().wrap(
+                    () -> applyCondition(condition, filterDef, passContext, chunk))));
+        }
+        try {
+            tasks.forEach(ForkJoinTask::join);
+        } catch (final RuntimeException e) {
+            tasks.forEach(t -> t.cancel(true));
+            throw e;
+        }
+    }
+
+    private void applyCondition(final Condition condition, final Map.Entry<String, ApplicationConfigurationFilterDto> filterDef,
+                                final FilterPassContext passContext, final List<DiscoveredObject> discoveredObjects) {
+        for (final DiscoveredObject discoveredObject : discoveredObjects) {
+            applyCondition(condition, filterDef, passContext.forObject(discoveredObject), discoveredObject);
         }
     }
 
@@ -16,6 +16,9 @@
 
 package com.ericsson.bos.dr.service.compare.filters;
 
+import java.util.Optional;
+import java.util.Set;
+
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationFilterDto;
 
 /**
@@ -49,4 +52,28 @@ public interface Condition {
      * @return TYPE
      */
     TYPE getType();
+
+    /**
+     * Get the names of the source properties required to evaluate a TARGET condition. This allows the condition to
+     * be evaluated against a projection of the source objects when the full source objects are not retained,
+     * as is the case when discovering in chunks.
+     * @param filterDef filter definition containing the condition and its args
+     * @return optional set of source property names, empty if the full source objects are required
+     */
+    default Optional<Set<String>> getRequiredSourceProperties(ApplicationConfigurationFilterDto filterDef) {
+        return Optional.empty();
+    }
+
+    /**
+     * Get the names of the target properties required to evaluate the condition. These are the properties of the
+     * target objects matched by a SOURCE condition, or of the target object evaluated by a TARGET condition.
+     * This allows the condition to be evaluated against a projection of the target objects when the full target
+     * objects are not retained, as is the case when discovering in chunks. The properties of a linked target are
+     * always available in full.
+     * @param filterDef filter definition containing the condition and its args
+     * @return optional set of target property names, empty if the full target objects are required
+     */
+    default Optional<Set<String>> getRequiredTargetProperties(ApplicationConfigurationFilterDto filterDef) {
+        return Optional.empty();
+    }
 }
\ No newline at end of file
@@ -18,36 +18,26 @@ package com.ericsson.bos.dr.service.compare.filters;
 
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import com.ericsson.bos.dr.service.discovery.DiscoveredObject;
 
 /**
  * Contains the source object that is currently being compared against a filter.
- * Initially contains all the target objects. Target list may get reduced from
- * condition to condition.
+ * This is a lightweight view over the <code>FilterPassContext</code> which holds the target objects and
+ * is shared by all objects evaluated against the same filter.
  */
 public class FilterContext {
     private final DiscoveredObject source;
-    private final Map<String, Object> sourceProperties;
-    private final List<Map<String, Object>> targetsProperties;
-    private final Map<String, Object> inputs;
-    private final long featurePackId;
+    private final FilterPassContext passContext;
 
     /**
      * FilterContext.
-     *  @param source source object
-     * @param targets target objects
-     * @param featurePackId feature pack id
-     * @param inputs job inputs
+     * @param source source object
+     * @param passContext shared context for the filter pass
      */
-    public FilterContext(final DiscoveredObject source, final List<DiscoveredObject> targets,
-                         long featurePackId, final Map<String, Object> inputs) {
+    public FilterContext(final DiscoveredObject source, final FilterPassContext passContext) {
         this.source = source;
-        this.sourceProperties = source.getProperties();
-        this.targetsProperties = targets.stream().map(DiscoveredObject::getProperties).collect(Collectors.toList());
-        this.featurePackId = featurePackId;
-        this.inputs = inputs;
+        this.passContext = passContext;
     }
 
     public DiscoveredObject getSource() {
@@ -60,23 +50,34 @@ public class FilterContext {
      * @return source object properties.
      */
     public Map<String, Object> getSourceProperties() {
-        return sourceProperties;
+        return source.getProperties();
     }
 
     /**
      * Return properties for each target.
      *
-     * @return target list containing the properties of each target.
+     * @return unmodifiable target list containing the properties of each target.
      */
     public List<Map<String, Object>> getTargetsProperties() {
-        return targetsProperties;
+        return passContext.getTargetsProperties();
+    }
+
+    /**
+     * Return the index of the target properties for the given condition arg.
+     *
+     * @param arg condition arg in the format 'sourceProp1:targetProp1&sourceProp2:targetProp2'
+     * @return target properties index
+     * @see FilterPassContext#getTargetsIndex(String)
+     */
+    public TargetPropertiesIndex getTargetsIndex(final String arg) {
+        return passContext.getTargetsIndex(arg);
     }
 
     public long getFeaturePackId() {
-        return featurePackId;
+        return passContext.getFeaturePackId();
     }
 
     public Map<String, Object> getInputs() {
-        return inputs;
+        return passContext.getInputs();
     }
-}
\ No newline at end of file
+}
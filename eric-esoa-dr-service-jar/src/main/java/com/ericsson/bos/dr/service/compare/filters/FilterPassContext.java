@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+
+package com.ericsson.bos.dr.service.compare.filters;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.ericsson.bos.dr.service.discovery.DiscoveredObject;
+
+/**
+ * Context for a single pass of a filter over the source or target objects.
+ * Built once per filter pass and shared read-only by the <code>FilterContext</code> of each object being evaluated.
+ * <p>
+ * The target properties are exposed as an unmodifiable view over the target objects, no copy is made.
+ * Matched targets are not excluded from subsequent matching, as a target may match more than one source object.
+ * </p>
+ */
+public class FilterPassContext {
+
+    private final List<Map<String, Object>> targetsProperties;
+    private final long featurePackId;
+    private final Map<String, Object> inputs;
+    private final Map<String, TargetPropertiesIndex> targetsIndexes = new ConcurrentHashMap<>();
+
+    /**
+     * FilterPassContext.
+     * @param targets target objects
+     * @param featurePackId feature pack id
+     * @param inputs job inputs
+     */
+    public FilterPassContext(final List<DiscoveredObject> targets, long featurePackId, final Map<String, Object> inputs) {
+        this.targetsProperties = new PropertiesView(targets);
+        this.featurePackId = featurePackId;
+        this.inputs = inputs;
+    }
+
+    /**
+     * Create the <code>FilterContext</code> for an object to be evaluated in this pass.
+     * @param source source object
+     * @return FilterContext
+     */
+    public FilterContext forObject(final DiscoveredObject source) {
+        return new FilterContext(source, this);
+    }
+
+    /**
+     * Return properties for each target.
+     *
+     * @return unmodifiable target list containing the properties of each target.
+     */
+    public List<Map<String, Object>> getTargetsProperties() {
+        return targetsProperties;
+    }
+
+    /**
+     * Return the index of the target properties for the given condition arg. The index is built on first request
+     * and reused for all objects evaluated in this pass.
+     *
+     * @param arg condition arg in the format 'sourceProp1:targetProp1&sourceProp2:targetProp2'
+     * @return target properties index
+     */
+    public TargetPropertiesIndex getTargetsIndex(final String arg) {
+        return targetsIndexes.computeIfAbsent(arg, a -> new TargetPropertiesIndex(new PropertiesArg(a), targetsProperties));
+    }
+
+    public long getFeaturePackId() {
+        return featurePackId;
+    }
+
+    public Map<String, Object> getInputs() {
+        return inputs;
+    }
+
+    /**
+     * Unmodifiable list view of the properties of each <code>DiscoveredObject</code>.
+     */
+    private static class PropertiesView extends AbstractList<Map<String, Object>> implements RandomAccess {
+
+        private final List<DiscoveredObject> discoveredObjects;
+
+        PropertiesView(final List<DiscoveredObject> discoveredObjects) {
+            this.discoveredObjects = discoveredObjects;
+        }
+
+        @Override
+        public Map<String, Object> get(final int index) {
+            return discoveredObjects.get(index).getProperties();
+        }
+
+        @Override
+        public int size() {
+            return discoveredObjects.size();
+        }
+    }
+}
@@ -16,6 +16,9 @@
 
 package com.ericsson.bos.dr.service.compare.filters;
 
+import java.util.Optional;
+import java.util.Set;
+
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationFilterDto;
 import org.springframework.stereotype.Component;
 
@@ -36,6 +39,11 @@ public class MatchAllSource implements Condition {
         return filterDef.getCondition() == null;
     }
 
+    @Override
+    public Optional<Set<String>> getRequiredTargetProperties(ApplicationConfigurationFilterDto filterDef) {
+        return Optional.of(Set.of());
+    }
+
     @Override
     public TYPE getType() {
         return TYPE.SOURCE;
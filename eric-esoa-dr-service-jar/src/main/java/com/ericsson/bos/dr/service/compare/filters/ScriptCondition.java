@@ -20,6 +20,7 @@ import java.util.Map;
 
 import com.ericsson.bos.dr.service.AssetService;
 import com.ericsson.bos.dr.service.utils.Groovy;
+import com.ericsson.bos.dr.service.utils.GroovyScriptCache;
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationFilterDto;
 import groovy.lang.Script;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,6 +30,7 @@ import org.springframework.stereotype.Component;
  * Groovy filter condition which executes a custom filter defined as an inline groovy expression or
  * a groovy script.
  * The groovy expression or script must return a valid boolean result.
+ * Inline expressions are compiled once and cached, see <code>GroovyScriptCache</code>.
  */
 @Component
 public abstract class ScriptCondition implements Condition {
@@ -36,6 +38,9 @@ public abstract class ScriptCondition implements Condition {
     @Autowired
     private AssetService assetService;
 
+    @Autowired
+    private GroovyScriptCache groovyScriptCache;
+
     /**
      * Evaluate the groovy expression or script.
      * @param filterDef filter definition
@@ -52,7 +57,7 @@ public abstract class ScriptCondition implements Condition {
             final Class<Script> scriptClass = assetService.getGroovyScript(scriptName, filterCtx.getFeaturePackId());
             result = Groovy.evalScript(scriptClass, scriptArgs);
         } else {
-            result = Groovy.evalExpression(expression, scriptArgs);
+            result = groovyScriptCache.evalExpression(expression, scriptArgs);
         }
 
         if (result == null) {
@@ -17,7 +17,10 @@
 package com.ericsson.bos.dr.service.compare.filters;
 
 import static com.ericsson.bos.dr.web.v1.api.model.FilterConditionDto.NameEnum;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationFilterDto;
 import org.apache.commons.collections4.MapUtils;
@@ -33,9 +36,9 @@ import org.springframework.stereotype.Component;
  * If arg is supplied and source is linked to a target then checks the source and linked target properties.
  * Returns true if the properties are equal.</p>
  * <p>
- * If arg is supplied and there is no linked target object, then checks for a match in the full target list. If
- * a match is found, then the matched target node is removed from the target list to improve efficiency when processing
- * the next source object in the same filter context.
+ * If arg is supplied and there is no linked target object, then checks for a match in the full target list.
+ * The match is performed using the <code>TargetPropertiesIndex</code> for the arg, which is built once per filter
+ * and shared by all source objects.
  * </p>
  */
 @Component
@@ -56,12 +59,11 @@ class SourceInTarget implements Condition {
 
         if (hasLinkedTarget) {
             // linked target so check additional properties
-            return propertiesArg.getParts().stream().allMatch(p -> propertiesPredicate.test(p, filterCtx.getSource().getAdditionalProperties()));
+            final Map<String, Object> linkedTarget = filterCtx.getSource().getAdditionalProperties();
+            return propertiesArg.getParts().stream().allMatch(p -> propertiesPredicate.test(p, linkedTarget));
         } else {
             // no linked target so check all targets
-            filterCtx.getTargetsProperties()
-                    .removeIf(target -> propertiesArg.getParts().stream().anyMatch(p -> propertiesPredicate.negate().test(p, target)));
-            return !filterCtx.getTargetsProperties().isEmpty();
+            return filterCtx.getTargetsIndex(arg).findMatch(source).isPresent();
         }
     }
 
@@ -70,6 +72,12 @@ class SourceInTarget implements Condition {
         return filterDef.getCondition() != null ? NameEnum.SOURCEINTARGET.equals(filterDef.getCondition().getName()) : false;
     }
 
+    @Override
+    public Optional<Set<String>> getRequiredTargetProperties(ApplicationConfigurationFilterDto filterDef) {
+        final String arg = filterDef.getCondition().getArg();
+        return Optional.of(arg == null ? Set.of() : new LinkedHashSet<>(new PropertiesArg(arg).getTargetArgs()));
+    }
+
     @Override
     public TYPE getType() {
         return TYPE.SOURCE;
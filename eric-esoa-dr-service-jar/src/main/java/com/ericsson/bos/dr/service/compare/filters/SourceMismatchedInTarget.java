@@ -16,6 +16,9 @@
 
 package com.ericsson.bos.dr.service.compare.filters;
 
+import java.util.Optional;
+import java.util.Set;
+
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationFilterDto;
 import com.ericsson.bos.dr.web.v1.api.model.FilterConditionDto.NameEnum;
 import org.apache.commons.collections4.MapUtils;
@@ -51,6 +54,11 @@ class SourceMismatchedInTarget implements Condition {
         return filterDef.getCondition() != null ? NameEnum.SOURCEMISMATCHEDINTARGET.equals(filterDef.getCondition().getName()): false;
     }
 
+    @Override
+    public Optional<Set<String>> getRequiredTargetProperties(ApplicationConfigurationFilterDto filterDef) {
+        return Optional.of(Set.of());
+    }
+
     @Override
     public TYPE getType() {
         return TYPE.SOURCE;
@@ -16,7 +16,10 @@
 
 package com.ericsson.bos.dr.service.compare.filters;
 
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationFilterDto;
 import com.ericsson.bos.dr.web.v1.api.model.FilterConditionDto;
@@ -33,8 +36,8 @@ import org.springframework.stereotype.Component;
  * If arg is supplied and source is linked to a target then checks the source and linked target properties.
  * Returns true if the properties are not equal.</p>
  * <p>
- * If arg is supplied and there is no linked target object, then checks for a match in the full target list. If
- * no match is found then returns true.
+ * If arg is supplied and there is no linked target object, then checks for a match in the full target list, using
+ * the <code>TargetPropertiesIndex</code> for the arg. If no match is found then returns true.
  * </p>
  */
 @Component
@@ -56,9 +59,7 @@ class SourceNotInTarget implements Condition {
             return !propertiesArg.getParts().stream()
                     .allMatch(p -> propertiesPredicate.test(p, filterCtx.getSource().getAdditionalProperties()));
         } else {
-            return filterCtx.getTargetsProperties()
-                    .stream()
-                    .noneMatch(target -> propertiesArg.getParts().stream().allMatch(p -> propertiesPredicate.test(p, target)));
+            return !filterCtx.getTargetsIndex(arg).hasMatch(source);
         }
     }
 
@@ -67,6 +68,12 @@ class SourceNotInTarget implements Condition {
         return filterDef.getCondition() != null ? FilterConditionDto.NameEnum.SOURCENOTINTARGET.equals(filterDef.getCondition().getName()) : false;
     }
 
+    @Override
+    public Optional<Set<String>> getRequiredTargetProperties(ApplicationConfigurationFilterDto filterDef) {
+        final String arg = filterDef.getCondition().getArg();
+        return Optional.of(arg == null ? Set.of() : new LinkedHashSet<>(new PropertiesArg(arg).getTargetArgs()));
+    }
+
     @Override
     public TYPE getType() {
         return TYPE.SOURCE;
@@ -16,8 +16,11 @@
 
 package com.ericsson.bos.dr.service.compare.filters;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 import com.ericsson.bos.dr.service.discovery.DiscoveredObject;
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationFilterDto;
@@ -69,6 +72,18 @@ class TargetNotInSource implements Condition {
         return filterDef.getCondition() != null ? FilterConditionDto.NameEnum.TARGETNOTINSOURCE.equals(filterDef.getCondition().getName()) : false;
     }
 
+    @Override
+    public Optional<Set<String>> getRequiredSourceProperties(ApplicationConfigurationFilterDto filterDef) {
+        final String arg = filterDef.getCondition().getArg();
+        return Optional.of(arg == null ? Set.of() : new LinkedHashSet<>(new PropertiesArg(arg).getSourceArgs()));
+    }
+
+    @Override
+    public Optional<Set<String>> getRequiredTargetProperties(ApplicationConfigurationFilterDto filterDef) {
+        final String arg = filterDef.getCondition().getArg();
+        return Optional.of(arg == null ? Set.of() : new LinkedHashSet<>(new PropertiesArg(arg).getTargetArgs()));
+    }
+
     @Override
     public TYPE getType() {
         return TYPE.TARGET;
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+
+package com.ericsson.bos.dr.service.compare.filters;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.commons.collections4.MultiValuedMap;
+import org.apache.commons.collections4.keyvalue.MultiKey;
+import org.apache.commons.collections4.multimap.ArrayListValuedHashMap;
+
+/**
+ * Hash index of target properties, keyed on the values of the target properties defined in a <code>PropertiesArg</code>.
+ * The index is built once and can then be probed for each source object, avoiding a scan of the full target list.
+ * <p>
+ * Number and boolean values are converted to their string representation when building the keys, as done by
+ * <code>MultiKeyBuilder</code>, so that a number or boolean in the source matches its string representation in the target
+ * and vice-versa. Targets having a map or list value for any of the target properties are not indexed and are instead
+ * checked individually, so matching remains consistent with <code>PropertiesEqualsPredicate</code>.
+ * </p>
+ */
+public class TargetPropertiesIndex {
+
+    private final List<String[]> parts;
+    private final List<String> sourceArgs;
+    private final MultiValuedMap<MultiKey<Object>, Map<String, Object>> targetsByKey = new ArrayListValuedHashMap<>();
+    private final List<Map<String, Object>> unindexedTargets = new ArrayList<>();
+
+    /**
+     * TargetPropertiesIndex.
+     *
+     * @param propertiesArg
+     *         source and target properties to be matched
+     * @param targetsProperties
+     *         properties of each target
+     */
+    public TargetPropertiesIndex(final PropertiesArg propertiesArg, final List<Map<String, Object>> targetsProperties) {
+        this.parts = propertiesArg.getParts();
+        this.sourceArgs = propertiesArg.getSourceArgs();
+        final List<String> targetArgs = propertiesArg.getTargetArgs();
+        for (final Map<String, Object> target : targetsProperties) {
+            if (target == null) {
+                continue;
+            }
+            final Optional<MultiKey<Object>> multiKey = buildKey(target, targetArgs);
+            if (multiKey.isPresent()) {
+                targetsByKey.put(multiKey.get(), target);
+            } else {
+                unindexedTargets.add(target);
+            }
+        }
+    }
+
+    /**
+     * Check if there is a target whose properties are equal to the properties of the source.
+     *
+     * @param sourceProperties
+     *         source properties
+     * @return true if a matching target exists, otherwise false
+     */
+    public boolean hasMatch(final Map<String, Object> sourceProperties) {
+        return findMatch(sourceProperties).isPresent();
+    }
+
+    /**
+     * Find a target whose properties are equal to the properties of the source.
+     *
+     * @param sourceProperties
+     *         source properties
+     * @return optional matching target properties
+     */
+    public Optional<Map<String, Object>> findMatch(final Map<String, Object> sourceProperties) {
+        if (sourceProperties == null) {
+            return Optional.empty();
+        }
+        final var propertiesPredicate = new PropertiesEqualsPredicate(sourceProperties);
+        final List<Object> keys = new ArrayList<>(sourceArgs.size());
+        for (final String arg : sourceArgs) {
+            keys.add(String.valueOf(sourceProperties.get(arg)));
+        }
+        final Collection<Map<String, Object>> candidates = targetsByKey.get(new MultiKey<>(keys.toArray()));
+        return candidates.stream().filter(target -> matches(propertiesPredicate, target)).findFirst()
+                .or(() -> unindexedTargets.stream().filter(target -> matches(propertiesPredicate, target)).findFirst());
+    }
+
+    private boolean matches(final PropertiesEqualsPredicate propertiesPredicate, final Map<String, Object> target) {
+        return parts.stream().allMatch(p -> propertiesPredicate.test(p, target));
+    }
+
+    private static Optional<MultiKey<Object>> buildKey(final Map<String, Object> properties, final List<String> args) {
+        final List<Object> keys = new ArrayList<>(args.size());
+        for (final String arg : args) {
+            final Object value = properties.get(arg);
+            if (value != null && !(value instanceof CharSequence || value instanceof Number || value instanceof Boolean)) {
+                return Optional.empty();
+            }
+            keys.add(String.valueOf(value));
+        }
+        return Optional.of(new MultiKey<>(keys.toArray()));
+    }
+}
@@ -35,7 +35,9 @@ public class DiscoveredObject {
     private final Map<String, Object> properties;
 
     private Map<String, Object> additionalProperties = Collections.emptyMap();
-    private final List<FilterResult> filterResults = new ArrayList<>();
+    private String objectKey;
+    private boolean unchanged;
+    private final List<FilterResult> filterResults = Collections.synchronizedList(new ArrayList<>());
 
     /**
      * DiscoveredObject.
@@ -77,12 +79,33 @@ public class DiscoveredObject {
         this.additionalProperties = additionalProperties;
     }
 
+    public String getObjectKey() {
+        return objectKey;
+    }
+
+    public void setObjectKey(final String objectKey) {
+        this.objectKey = objectKey;
+    }
+
+    /**
+     * Check if the object is unchanged since the previous job of the schedule, in which case it is not
+     * enriched and its previous enriched properties are restored.
+     * @return true if unchanged
+     */
+    public boolean isUnchanged() {
+        return unchanged;
+    }
+
+    public void setUnchanged(final boolean unchanged) {
+        this.unchanged = unchanged;
+    }
+
     public List<FilterResult> getFilterResults() {
         return filterResults;
     }
 
     /**
-     * Add filter result.
+     * Add filter result. Safe to be called from concurrent filter evaluation tasks.
      * @param filterResult filter result
      */
     public void addFilterResult(FilterResult filterResult) {
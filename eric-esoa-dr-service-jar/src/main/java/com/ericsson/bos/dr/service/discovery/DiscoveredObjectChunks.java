@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.service.discovery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Hands fetched objects to the discovery flow in chunks of <code>DiscoveredObject</code>, as they are mapped.
+ * The fetch adds the properties of each object, and the flow takes each chunk once it is full. At most one full chunk
+ * is queued, so the fetch waits while the flow processes the previous chunk, and only the objects of the chunk being
+ * filled, the queued chunk and the chunk being processed are retained. The flow does not wait for the fetch, the
+ * next chunk is returned as a future which is completed when the chunk is full.
+ * <p>
+ * The chunks are closed if either the fetch or the flow fails. The fetch then stops at the next object, and the flow
+ * fails when it takes the next chunk.
+ * </p>
+ */
+public class DiscoveredObjectChunks {
+
+    private final long jobId;
+    private final DiscoveredObject.TYPE type;
+    private final int chunkSize;
+    private List<DiscoveredObject> chunk;
+    private int size;
+    private List<DiscoveredObject> queued;
+    private CompletableFuture<Optional<List<DiscoveredObject>>> pending;
+    private boolean completed;
+    private boolean closed;
+
+    /**
+     * DiscoveredObjectChunks.
+     * @param jobId job id
+     * @param type object type, SOURCE or TARGET
+     * @param chunkSize maximum number of objects in a chunk
+     */
+    public DiscoveredObjectChunks(final long jobId, final DiscoveredObject.TYPE type, final int chunkSize) {
+        this.jobId = jobId;
+        this.type = type;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Add the objects mapped by the fetch to the chunks, and complete the chunks once the fetch is done.
+     * If the fetch fails then the chunks are closed and the failure is thrown, unless the chunks were already
+     * closed by the flow, in which case the fetch is stopped and the failure ignored.
+     * @param fetch fetch passing the properties of each mapped object to the given consumer
+     */
+    public void fill(final Consumer<Consumer<Map<String, Object>>> fetch) {
+        try {
+            fetch.accept(this::add);
+            complete();
+        } catch (final RuntimeException e) {
+            if (isClosed()) {
+                return;
+            }
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Add an object to the current chunk, waiting for the flow to take the queued chunk if the current chunk is full.
+     * @param properties object properties
+     * @throws CancellationException if the chunks are closed
+     */
+    public void add(final Map<String, Object> properties) {
+        if (isClosed()) {
+            throw closedException();
+        }
+        if (chunk == null) {
+            chunk = new ArrayList<>(chunkSize);
+        }
+        chunk.add(new DiscoveredObject(jobId, type, properties));
+        size++;
+        if (chunk.size() >= chunkSize) {
+            put(chunk);
+            chunk = null;
+        }
+    }
+
+    /**
+     * Queue the last chunk, once all objects have been added.
+     * @throws CancellationException if the chunks are closed
+     */
+    public void complete() {
+        if (chunk != null) {
+            put(chunk);
+            chunk = null;
+        }
+        put(null);
+    }
+
+    /**
+     * Close the chunks, releasing the fetch if it is waiting and failing the next chunk if the flow is waiting.
+     */
+    public void close() {
+        final CompletableFuture<Optional<List<DiscoveredObject>>> waiting;
+        synchronized (this) {
+            closed = true;
+            queued = null;
+            waiting = pending;
+            pending = null;
+            notifyAll();
+        }
+        if (waiting != null) {
+            waiting.completeExceptionally(closedException());
+        }
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Take the next chunk. The returned future is completed once the fetch has filled the chunk.
+     * @return future of the next chunk, or empty once all chunks have been taken, completed exceptionally with
+     * <code>CancellationException</code> if the chunks are closed
+     */
+    public synchronized CompletableFuture<Optional<List<DiscoveredObject>>> next() {
+        if (closed) {
+            return CompletableFuture.failedFuture(closedException());
+        }
+        if (queued != null) {
+            final List<DiscoveredObject> next = queued;
+            queued = null;
+            notifyAll();
+            return CompletableFuture.completedFuture(Optional.of(next));
+        }
+        if (completed) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        pending = new CompletableFuture<>();
+        return pending;
+    }
+
+    /**
+     * Get the number of objects added so far.
+     * @return object count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Hand the chunk to the flow if it is waiting, otherwise queue it, waiting for the flow to take the queued chunk.
+     * A null chunk marks the end of the chunks.
+     */
+    private void put(final List<DiscoveredObject> objects) {
+        final CompletableFuture<Optional<List<DiscoveredObject>>> waiting;
+        synchronized (this) {
+            while (queued != null && !closed) {
+                try {
+                    wait();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Interrupted waiting to queue chunk of " + type + " objects");
+                }
+            }
+            if (closed) {
+                throw closedException();
+            }
+            if (objects == null) {
+                completed = true;
+            } else if (pending == null) {
+                queued = objects;
+            }
+            waiting = pending;
+            pending = null;
+        }
+        if (waiting != null) {
+            waiting.complete(Optional.ofNullable(objects));
+        }
+    }
+
+    private CancellationException closedException() {
+        return new CancellationException("Chunks of " + type + " objects are closed");
+    }
+}
\ No newline at end of file
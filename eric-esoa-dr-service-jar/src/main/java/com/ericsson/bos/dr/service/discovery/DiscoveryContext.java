@@ -17,12 +17,17 @@ package com.ericsson.bos.dr.service.discovery;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import com.ericsson.bos.dr.jpa.model.ApplicationEntity;
 import com.ericsson.bos.dr.jpa.model.JobEntity;
+import com.ericsson.bos.dr.service.compare.filters.FilterPassContext;
 import com.ericsson.bos.dr.service.exceptions.DRServiceException;
 import com.ericsson.bos.dr.service.exceptions.ErrorCode;
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationActionDto;
@@ -30,6 +35,9 @@ import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationDiscoverDto;
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationDiscoverDtoSource;
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationJobDto;
 import com.ericsson.bos.dr.web.v1.api.model.ExecuteJobDtoExecutionOptions;
+import org.apache.commons.collections4.MultiValuedMap;
+import org.apache.commons.collections4.keyvalue.MultiKey;
+import org.apache.commons.lang3.StringUtils;
 
 /**
  * The Discovery Context for an instance of a discovery job.
@@ -43,7 +51,20 @@ public class DiscoveryContext {
     private long jobId;
     private String jobName;
     private boolean autoReconcile;
+    private Integer filterParallelism;
+    private Integer chunkSize;
+    private Integer taskConcurrency;
+    private Long jobScheduleId;
+    private boolean incrementalDiscovery;
+    private DiscoveryDelta discoveryDelta;
     private List<DiscoveredObject> sources = new ArrayList<>();
+    private DiscoveredObjectChunks sourceChunks;
+    private DiscoveredObjectChunks targetChunks;
+    private List<DiscoveredObject> targetChunk = new ArrayList<>();
+    private TargetPropertiesStore targetStore;
+    private MultiValuedMap<MultiKey<Object>, DiscoveredObject> targetsLinkIndex;
+    private final Map<String, FilterPassContext> sourceFilterPassContexts = new HashMap<>();
+    private final Set<Map<String, Object>> sourceProjections = new LinkedHashSet<>();
     private List<DiscoveredObject> targets = new ArrayList<>();
     private ApplicationConfigurationJobDto jobConf;
     private Map<String, Object> inputs;
@@ -69,6 +90,15 @@ public class DiscoveryContext {
         discoveryContext.inputs = jobEntity.getInputs();
         discoveryContext.autoReconcile = Optional.ofNullable(jobEntity.getExecutionOptions())
                 .map(ExecuteJobDtoExecutionOptions::getAutoReconcile).orElse(false);
+        discoveryContext.filterParallelism = Optional.ofNullable(jobEntity.getExecutionOptions())
+                .map(ExecuteJobDtoExecutionOptions::getFilterParallelism).orElse(null);
+        discoveryContext.chunkSize = Optional.ofNullable(jobEntity.getExecutionOptions())
+                .map(ExecuteJobDtoExecutionOptions::getDiscoveryChunkSize).orElse(null);
+        discoveryContext.taskConcurrency = Optional.ofNullable(jobEntity.getExecutionOptions())
+                .map(ExecuteJobDtoExecutionOptions::getTaskConcurrency).orElse(null);
+        discoveryContext.jobScheduleId = jobEntity.getJobScheduleId();
+        discoveryContext.incrementalDiscovery = Optional.ofNullable(jobEntity.getExecutionOptions())
+                .map(ExecuteJobDtoExecutionOptions::getIncrementalDiscovery).orElse(false);
         discoveryContext.jobConf = Optional.ofNullable(applicationEntity.findJob(jobEntity.getApplicationJobName()))
                 .orElseThrow(() -> new DRServiceException(ErrorCode.JOB_NOT_FOUND, discoveryContext.getJobName()));
         return discoveryContext;
@@ -82,6 +112,142 @@ public class DiscoveryContext {
         this.sources = sources;
     }
 
+    /**
+     * Set the source and target object chunks to be filled by the fetch and processed when discovering in chunks.
+     * @param sourceChunks source object chunks
+     * @param targetChunks target object chunks
+     */
+    public void setChunks(DiscoveredObjectChunks sourceChunks, DiscoveredObjectChunks targetChunks) {
+        this.sourceChunks = sourceChunks;
+        this.targetChunks = targetChunks;
+        this.sources = new ArrayList<>();
+    }
+
+    public DiscoveredObjectChunks getSourceChunks() {
+        return sourceChunks;
+    }
+
+    public DiscoveredObjectChunks getTargetChunks() {
+        return targetChunks;
+    }
+
+    /**
+     * Return true if the source and target objects are processed in chunks.
+     * @return true if chunked, otherwise false
+     */
+    public boolean isChunked() {
+        return sourceChunks != null;
+    }
+
+    /**
+     * Replace the sources with the next chunk of source objects, once the chunk is fetched.
+     * The previous chunk is released.
+     * @return future completed with true if there was a next chunk, false if all chunks have been processed
+     */
+    public CompletableFuture<Boolean> nextSourceChunk() {
+        sources = new ArrayList<>();
+        return sourceChunks.next().thenApply(chunk -> {
+            chunk.ifPresent(objects -> sources = objects);
+            return chunk.isPresent();
+        });
+    }
+
+    /**
+     * Replace the target chunk with the next chunk of target objects, once the chunk is fetched.
+     * The previous chunk is released.
+     * @return future completed with true if there was a next chunk, false if all chunks have been processed
+     */
+    public CompletableFuture<Boolean> nextTargetChunk() {
+        targetChunk = new ArrayList<>();
+        return targetChunks.next().thenApply(chunk -> {
+            chunk.ifPresent(objects -> targetChunk = objects);
+            return chunk.isPresent();
+        });
+    }
+
+    /**
+     * Get the current chunk of target objects, to be enriched and then added to the targets.
+     * @return target chunk
+     */
+    public List<DiscoveredObject> getTargetChunk() {
+        return targetChunk;
+    }
+
+    /**
+     * Add the current chunk of target objects to the targets. If a target store is set then the full properties
+     * of each target are written to the store and only the retained properties are kept in the targets.
+     */
+    public void addTargetChunk() {
+        if (targetStore == null) {
+            targets.addAll(targetChunk);
+        } else {
+            targetChunk.forEach(target -> targets.add(targetStore.add(target)));
+        }
+        targetChunk = new ArrayList<>();
+    }
+
+    /**
+     * Get the store of the full target properties, set when discovering in chunks if the job requires only some of
+     * the target properties.
+     * @return optional target store
+     */
+    public Optional<TargetPropertiesStore> getTargetStore() {
+        return Optional.ofNullable(targetStore);
+    }
+
+    public void setTargetStore(TargetPropertiesStore targetStore) {
+        this.targetStore = targetStore;
+    }
+
+    /**
+     * Get the full properties of a target object, reading them from the target store if set.
+     * @param target target object
+     * @return target properties
+     */
+    public Map<String, Object> getTargetProperties(DiscoveredObject target) {
+        return targetStore == null ? target.getProperties() : targetStore.getProperties(target);
+    }
+
+    /**
+     * Close the source and target chunks, releasing a fetch waiting for a chunk to be taken, and close the
+     * target store.
+     */
+    public void closeChunks() {
+        if (sourceChunks != null) {
+            sourceChunks.close();
+            targetChunks.close();
+        }
+        if (targetStore != null) {
+            targetStore.close();
+        }
+    }
+
+    public MultiValuedMap<MultiKey<Object>, DiscoveredObject> getTargetsLinkIndex() {
+        return targetsLinkIndex;
+    }
+
+    public void setTargetsLinkIndex(MultiValuedMap<MultiKey<Object>, DiscoveredObject> targetsLinkIndex) {
+        this.targetsLinkIndex = targetsLinkIndex;
+    }
+
+    /**
+     * Get the filter pass contexts of the SOURCE filters, keyed by filter name. These are reused for each chunk
+     * when discovering in chunks, so the targets are only indexed once.
+     * @return filter pass contexts
+     */
+    public Map<String, FilterPassContext> getSourceFilterPassContexts() {
+        return sourceFilterPassContexts;
+    }
+
+    /**
+     * Get the distinct projections of the source properties required to evaluate the TARGET filters
+     * when discovering in chunks.
+     * @return source projections
+     */
+    public Set<Map<String, Object>> getSourceProjections() {
+        return sourceProjections;
+    }
+
     public List<DiscoveredObject> getTargets() {
         return targets;
     }
@@ -164,4 +330,53 @@ public class DiscoveryContext {
     public boolean isAutoReconcile() {
         return autoReconcile;
     }
+
+    /**
+     * Get the filter parallelism requested in the job execution options.
+     * @return optional filter parallelism
+     */
+    public Optional<Integer> getFilterParallelism() {
+        return Optional.ofNullable(filterParallelism);
+    }
+
+    /**
+     * Get the chunk size requested in the job execution options.
+     * @return optional chunk size
+     */
+    public Optional<Integer> getChunkSize() {
+        return Optional.ofNullable(chunkSize);
+    }
+
+    /**
+     * Get the task concurrency requested in the job execution options.
+     * @return optional task concurrency
+     */
+    public Optional<Integer> getTaskConcurrency() {
+        return Optional.ofNullable(taskConcurrency);
+    }
+
+    public Long getJobScheduleId() {
+        return jobScheduleId;
+    }
+
+    /**
+     * Return true if incremental discovery is requested in the job execution options and applicable to the job.
+     * Incremental discovery applies to scheduled jobs which link the sources and targets.
+     * @return true if incremental discovery, otherwise false
+     */
+    public boolean isIncrementalDiscovery() {
+        return incrementalDiscovery && jobScheduleId != null && StringUtils.isNotEmpty(getSourceAndTargetsLink());
+    }
+
+    /**
+     * Get the changes since the previous job of the schedule, set when discovering incrementally.
+     * @return optional discovery delta
+     */
+    public Optional<DiscoveryDelta> getDiscoveryDelta() {
+        return Optional.ofNullable(discoveryDelta);
+    }
+
+    public void setDiscoveryDelta(DiscoveryDelta discoveryDelta) {
+        this.discoveryDelta = discoveryDelta;
+    }
 }
\ No newline at end of file
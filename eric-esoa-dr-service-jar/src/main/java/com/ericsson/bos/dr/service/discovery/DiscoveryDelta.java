@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+
+package com.ericsson.bos.dr.service.discovery;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.ericsson.bos.dr.web.v1.api.model.DiscoveryDeltaDto;
+
+/**
+ * Changes in the discovered objects since the previous successful job of the same schedule, identified by comparing
+ * the fingerprint of each object key with the fingerprint recorded by the previous job.
+ * An object key identifies a linked source and target pair, or an unlinked source or target.
+ * <p>
+ * The filter results of an unchanged object depend on the objects it is compared against. The previous filter results
+ * of the unchanged sources are only carried forward if all targets are unchanged and none were removed, and
+ * likewise for the unchanged targets. Otherwise the unchanged objects are evaluated against the filters again.
+ * </p>
+ */
+public class DiscoveryDelta {
+
+    private final Long previousJobId;
+    private final Map<String, String> previousFingerprints;
+    private final Map<String, String> fingerprints = new HashMap<>();
+    private final Set<String> unchangedKeys = new HashSet<>();
+    private final Set<DiscoveredObject.TYPE> carriedForwardTypes = EnumSet.noneOf(DiscoveredObject.TYPE.class);
+    private int newCount;
+    private int changedCount;
+
+    /**
+     * DiscoveryDelta.
+     * @param previousJobId id of the previous job of the schedule, null if there is no previous job
+     * @param previousFingerprints fingerprints recorded by the previous job, keyed on object key
+     */
+    public DiscoveryDelta(final Long previousJobId, final Map<String, String> previousFingerprints) {
+        this.previousJobId = previousJobId;
+        this.previousFingerprints = previousFingerprints;
+    }
+
+    /**
+     * Record the fingerprint of an object key.
+     * @param objectKey object key
+     * @param fingerprint fingerprint
+     * @return true if the fingerprint is the same as in the previous job, otherwise false
+     */
+    public boolean add(final String objectKey, final String fingerprint) {
+        fingerprints.put(objectKey, fingerprint);
+        final String previousFingerprint = previousFingerprints.get(objectKey);
+        if (previousFingerprint == null) {
+            newCount++;
+            return false;
+        }
+        if (!previousFingerprint.equals(fingerprint)) {
+            changedCount++;
+            return false;
+        }
+        unchangedKeys.add(objectKey);
+        return true;
+    }
+
+    public Optional<Long> getPreviousJobId() {
+        return Optional.ofNullable(previousJobId);
+    }
+
+    public Map<String, String> getFingerprints() {
+        return fingerprints;
+    }
+
+    /**
+     * Check if an object key is unchanged since the previous job.
+     * @param objectKey object key
+     * @return true if unchanged
+     */
+    public boolean isUnchanged(final String objectKey) {
+        return unchangedKeys.contains(objectKey);
+    }
+
+    /**
+     * Carry forward the previous filter results of the unchanged objects of a type. To be called only if all objects
+     * of the other type, which they are compared against, are unchanged. Not applied if any object was removed.
+     * @param type type of the objects whose filter results are carried forward
+     */
+    public void carryForwardFilterResults(final DiscoveredObject.TYPE type) {
+        if (getRemovedCount() == 0) {
+            carriedForwardTypes.add(type);
+        }
+    }
+
+    /**
+     * Check if the previous filter results of an object are carried forward, in which case the object is not
+     * evaluated against the filters.
+     * @param discoveredObject discovered object
+     * @return true if the object is unchanged and the objects it is compared against are all unchanged
+     */
+    public boolean isFilterResultsCarriedForward(final DiscoveredObject discoveredObject) {
+        return discoveredObject.isUnchanged() && carriedForwardTypes.contains(discoveredObject.getType());
+    }
+
+    /**
+     * Return the delta counts.
+     * @return DiscoveryDeltaDto
+     */
+    public DiscoveryDeltaDto toDto() {
+        return new DiscoveryDeltaDto()
+                .newObjectsCount(newCount)
+                .changedObjectsCount(changedCount)
+                .unchangedObjectsCount(unchangedKeys.size())
+                .removedObjectsCount(getRemovedCount());
+    }
+
+    private int getRemovedCount() {
+        return (int) previousFingerprints.keySet().stream().filter(k -> !fingerprints.containsKey(k)).count();
+    }
+}
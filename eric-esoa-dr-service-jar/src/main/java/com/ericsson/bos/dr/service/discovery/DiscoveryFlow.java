@@ -16,15 +16,22 @@
 package com.ericsson.bos.dr.service.discovery;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
 import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 import com.ericsson.bos.dr.service.discovery.functions.DiscoveryFunctionFactory;
+import com.ericsson.bos.dr.service.job.JobTasksScheduler;
+import com.ericsson.bos.dr.service.utils.AsyncConsumer;
 import com.ericsson.bos.dr.service.utils.Futures;
+import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationActionDto;
+import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationActionDtoBatch;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +47,16 @@ import org.springframework.stereotype.Component;
  *     <li>Optionally Enrich source and target objects concurrently.</li>
  *     <li>Compare source and target objects to identify discrepancies.</li>
  * </ol>
+ * When discovering in chunks, see <code>PrepareChunks</code>, the chunks of source and target objects are processed
+ * while they are still being fetched. Each chunk of targets is enriched and added to the targets as it is fetched, and
+ * then each chunk of sources is enriched, linked, compared and saved in turn, before the target filters are applied
+ * and the targets saved. Only the current chunk of source objects is retained. Incremental discovery is not applied
+ * when discovering in chunks.
+ * Objects are enriched individually, or in batches when the enrich action is configured with a batch.
+ * The enrichment operations are scheduled within the concurrency window of the job, see <code>JobTasksScheduler</code>,
+ * and do not hold a thread while waiting for the response to the enrich action.
+ * When discovering incrementally, the objects which are unchanged since the previous job of the schedule are identified
+ * after fetching, and are then not enriched, see <code>ComputeDiscoveryDelta</code>.
  * The <code>DiscoveryContext</code> is updated throughout the flow.
  */
 @Component
@@ -54,6 +71,9 @@ public class DiscoveryFlow {
     @Qualifier("tasksExecutor")
     private Executor executor;
 
+    @Autowired
+    private JobTasksScheduler tasksScheduler;
+
     /**
      * Execute the discovery flow.
      * @param discoveryContext discovery context.
@@ -61,13 +81,59 @@ public class DiscoveryFlow {
      */
     public CompletableFuture<Void> execute(DiscoveryContext discoveryContext) {
         return validateInputs(discoveryContext)
-                .thenCompose(x -> CompletableFuture.allOf(fetchSources(discoveryContext), fetchTargets(discoveryContext)))
+                .thenCompose(x -> prepareChunks(discoveryContext))
+                .thenCompose(x -> discoveryContext.isChunked() ? discoverInChunks(discoveryContext)
+                        : CompletableFuture.allOf(fetchSources(discoveryContext), fetchTargets(discoveryContext))
+                                .thenCompose(y -> compareAndSave(discoveryContext)))
+                .thenCompose(x -> discoveryCompleted(discoveryContext))
+                .exceptionally(discoveryFailed(discoveryContext))
+                .whenComplete((x, t) -> discoveryContext.closeChunks());
+    }
+
+    private CompletableFuture<Void> compareAndSave(DiscoveryContext discoveryContext) {
+        return computeDiscoveryDelta(discoveryContext)
                 .thenCompose(x -> Futures.allOfCancelOnFailure(enrichSourcesAndTargets(discoveryContext)))
                 .thenCompose(x -> linkSourcesAndTargets(discoveryContext))
                 .thenCompose(x -> compareSourcesAndTargets(discoveryContext))
-                .thenCompose(x -> saveDiscoveryObjects(discoveryContext))
-                .thenCompose(x -> discoveryCompleted(discoveryContext))
-                .exceptionally(discoveryFailed(discoveryContext));
+                .thenCompose(x -> saveDiscoveryObjects(discoveryContext));
+    }
+
+    /**
+     * The fetches fill the chunks while they are processed. If either the fetches or the processing fails then the
+     * chunks are closed, so that the fetches do not wait for the chunks to be taken. Taking a chunk then fails with a
+     * <code>CancellationException</code>, which is not recorded as the failure has already been recorded.
+     */
+    private CompletableFuture<Void> discoverInChunks(DiscoveryContext discoveryContext) {
+        final CompletableFuture<Void> processChunks = processTargetChunks(discoveryContext)
+                .thenCompose(x -> processSourceChunks(discoveryContext))
+                .whenComplete((x, t) -> {
+                    if (t != null) {
+                        discoveryContext.closeChunks();
+                    }
+                });
+        return CompletableFuture.allOf(fetchSources(discoveryContext), fetchTargets(discoveryContext), processChunks)
+                .thenCompose(x -> compareTargets(discoveryContext))
+                .thenCompose(x -> saveTargets(discoveryContext));
+    }
+
+    private CompletableFuture<Void> processTargetChunks(DiscoveryContext discoveryContext) {
+        return discoveryContext.nextTargetChunk()
+                .thenComposeAsync(hasChunk -> !hasChunk ? CompletableFuture.completedFuture(null)
+                        : Futures.allOfCancelOnFailure(enrichObjects(discoveryContext,
+                                discoveryContext.getDiscoveryTargetEnrichAction().isPresent() ? discoveryContext.getTargetChunk() : List.of()))
+                        .thenCompose(x -> addTargetChunk(discoveryContext))
+                        .thenCompose(x -> processTargetChunks(discoveryContext)), executor);
+    }
+
+    private CompletableFuture<Void> processSourceChunks(DiscoveryContext discoveryContext) {
+        return discoveryContext.nextSourceChunk()
+                .thenComposeAsync(hasChunk -> !hasChunk ? CompletableFuture.completedFuture(null)
+                        : Futures.allOfCancelOnFailure(enrichObjects(discoveryContext,
+                                discoveryContext.getDiscoverySourceEnrichAction().isPresent() ? discoveryContext.getSources() : List.of()))
+                        .thenCompose(x -> linkSourcesAndTargets(discoveryContext))
+                        .thenCompose(x -> compareSources(discoveryContext))
+                        .thenCompose(x -> saveSources(discoveryContext))
+                        .thenCompose(x -> processSourceChunks(discoveryContext)), executor);
     }
 
     private CompletableFuture<Void> validateInputs(DiscoveryContext discoveryContext) {
@@ -75,6 +141,11 @@ public class DiscoveryFlow {
                 .exceptionally(exceptionally(discoveryContext, "Validation error"));
     }
 
+    private CompletableFuture<Void> prepareChunks(DiscoveryContext discoveryContext) {
+        return CompletableFuture.runAsync(() -> factory.getPrepareChunks().accept(discoveryContext), executor)
+                .exceptionally(exceptionally(discoveryContext, "Preparing chunks failed"));
+    }
+
     private CompletableFuture<Void> fetchSources(DiscoveryContext discoveryContext) {
         return CompletableFuture.runAsync(() -> factory.getFetchSources().accept(discoveryContext), executor)
                 .exceptionally(exceptionally(discoveryContext, "Fetch sources failed"));
@@ -85,23 +156,73 @@ public class DiscoveryFlow {
                 .exceptionally(exceptionally(discoveryContext, "Fetch targets failed"));
     }
 
+    private CompletableFuture<Void> computeDiscoveryDelta(DiscoveryContext discoveryContext) {
+        return CompletableFuture.runAsync(() -> factory.getComputeDiscoveryDelta().accept(discoveryContext), executor)
+                .exceptionally(exceptionally(discoveryContext, "Incremental discovery failed"));
+    }
+
     private CompletableFuture<Void>[] enrichSourcesAndTargets(DiscoveryContext discoveryContext) {
         final List<DiscoveredObject> discoveredObjects = new ArrayList<>();
         discoveryContext.getDiscoverySourceEnrichAction().ifPresent(a -> discoveredObjects.addAll(discoveryContext.getSources()));
         discoveryContext.getDiscoveryTargetEnrichAction().ifPresent(a -> discoveredObjects.addAll(discoveryContext.getTargets()));
-        final List<CompletableFuture<Void>> enrichmentOperations = discoveredObjects.stream()
-                .map(s -> CompletableFuture.runAsync(() ->
-                                        factory.getEnrichDiscoveryObject(s).accept(discoveryContext), executor)
-                        .exceptionally(exceptionally(discoveryContext, "Enrichment failed")))
-                .collect(Collectors.toList());
+        discoveredObjects.removeIf(DiscoveredObject::isUnchanged);
+        return enrichObjects(discoveryContext, discoveredObjects);
+    }
+
+    private CompletableFuture<Void>[] enrichObjects(DiscoveryContext discoveryContext, List<DiscoveredObject> discoveredObjects) {
+        final Optional<Integer> sourceBatchSize = getEnrichBatchSize(discoveryContext.getDiscoverySourceEnrichAction());
+        final Optional<Integer> targetBatchSize = getEnrichBatchSize(discoveryContext.getDiscoveryTargetEnrichAction());
+        final List<CompletableFuture<Void>> enrichmentOperations = new ArrayList<>();
+        final Map<DiscoveredObject.TYPE, List<DiscoveredObject>> batches = new EnumMap<>(DiscoveredObject.TYPE.class);
+        for (final DiscoveredObject discoveredObject : discoveredObjects) {
+            final DiscoveredObject.TYPE type = discoveredObject.getType();
+            final Optional<Integer> batchSize = DiscoveredObject.TYPE.SOURCE.equals(type) ? sourceBatchSize : targetBatchSize;
+            if (batchSize.isEmpty()) {
+                enrichmentOperations.add(enrich(discoveryContext, () -> factory.getEnrichDiscoveryObject(discoveredObject)));
+                continue;
+            }
+            final List<DiscoveredObject> batch = batches.computeIfAbsent(type, t -> new ArrayList<>());
+            batch.add(discoveredObject);
+            if (batch.size() >= batchSize.get()) {
+                enrichmentOperations.add(enrich(discoveryContext, () -> factory.getEnrichDiscoveryObjects(batch)));
+                batches.remove(type);
+            }
+        }
+        batches.values().forEach(batch ->
+                enrichmentOperations.add(enrich(discoveryContext, () -> factory.getEnrichDiscoveryObjects(batch))));
         return enrichmentOperations.toArray(CompletableFuture[]::new);
     }
 
+    private CompletableFuture<Void> enrich(DiscoveryContext discoveryContext, Supplier<AsyncConsumer<DiscoveryContext>> enrichFunction) {
+        return tasksScheduler.submit(discoveryContext.getJobId(), discoveryContext.getTaskConcurrency(),
+                        () -> enrichFunction.get().acceptAsync(discoveryContext))
+                .exceptionally(exceptionally(discoveryContext, "Enrichment failed"));
+    }
+
+    private Optional<Integer> getEnrichBatchSize(Optional<ApplicationConfigurationActionDto> enrichAction) {
+        return enrichAction.map(ApplicationConfigurationActionDto::getBatch).map(ApplicationConfigurationActionDtoBatch::getSize);
+    }
+
     private CompletableFuture<Void> compareSourcesAndTargets(DiscoveryContext discoveryContext) {
         return CompletableFuture.runAsync(() -> factory.getCompareSourcesAndTargets().accept(discoveryContext), executor)
                 .exceptionally(exceptionally(discoveryContext, "Comparison failed"));
     }
 
+    private CompletableFuture<Void> compareSources(DiscoveryContext discoveryContext) {
+        return CompletableFuture.runAsync(() -> factory.getCompareSources().accept(discoveryContext), executor)
+                .exceptionally(exceptionally(discoveryContext, "Comparison failed"));
+    }
+
+    private CompletableFuture<Void> compareTargets(DiscoveryContext discoveryContext) {
+        return CompletableFuture.runAsync(() -> factory.getCompareTargets().accept(discoveryContext), executor)
+                .exceptionally(exceptionally(discoveryContext, "Comparison failed"));
+    }
+
+    private CompletableFuture<Void> addTargetChunk(DiscoveryContext discoveryContext) {
+        return CompletableFuture.runAsync(discoveryContext::addTargetChunk, executor)
+                .exceptionally(exceptionally(discoveryContext, "Storing targets failed"));
+    }
+
     private CompletableFuture<Void> linkSourcesAndTargets(DiscoveryContext discoveryContext) {
         return CompletableFuture.runAsync(() -> factory.getLinkSourcesAndTargets().accept(discoveryContext), executor)
                 .exceptionally(exceptionally(discoveryContext, "Mapping sources to targets failed"));
@@ -112,6 +233,16 @@ public class DiscoveryFlow {
                 .exceptionally(exceptionally(discoveryContext, "Persist discovered objects failed"));
     }
 
+    private CompletableFuture<Void> saveSources(DiscoveryContext discoveryContext) {
+        return CompletableFuture.runAsync(() -> factory.getSaveSources().accept(discoveryContext), executor)
+                .exceptionally(exceptionally(discoveryContext, "Persist discovered objects failed"));
+    }
+
+    private CompletableFuture<Void> saveTargets(DiscoveryContext discoveryContext) {
+        return CompletableFuture.runAsync(() -> factory.getSaveTargets().accept(discoveryContext), executor)
+                .exceptionally(exceptionally(discoveryContext, "Persist discovered objects failed"));
+    }
+
     private CompletableFuture<Void> discoveryCompleted(DiscoveryContext discoveryContext) {
         return CompletableFuture.runAsync(() -> factory.getDiscoveryCompleted().accept(discoveryContext), executor)
                 .exceptionally(exceptionally(discoveryContext, "Discovery completion error"));
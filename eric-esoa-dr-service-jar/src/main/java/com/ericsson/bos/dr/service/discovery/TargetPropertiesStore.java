@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.service.discovery;
+
+import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.ericsson.bos.dr.service.utils.JSON;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the full properties of the target objects in a temporary file when discovering in chunks, so that only the
+ * target properties required to link and compare the targets are retained in memory. The full properties of a target
+ * are read back from the file when the target is linked to a source and when the target is saved.
+ * <p>
+ * The file is deleted when the store is closed.
+ * </p>
+ */
+public class TargetPropertiesStore implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TargetPropertiesStore.class);
+
+    private final Set<String> retainedProperties;
+    private final Path file;
+    private final FileChannel channel;
+    private long position;
+
+    /**
+     * TargetPropertiesStore.
+     * @param directory directory in which to create the file
+     * @param retainedProperties names of the target properties retained in memory
+     */
+    public TargetPropertiesStore(final Path directory, final Set<String> retainedProperties) {
+        this.retainedProperties = retainedProperties;
+        try {
+            file = Files.createTempFile(directory, "targets-", ".tmp");
+            channel = FileChannel.open(file, READ, WRITE, DELETE_ON_CLOSE);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write the full properties of the target to the store.
+     * @param target target object
+     * @return target object retaining only the retained properties
+     */
+    public DiscoveredObject add(final DiscoveredObject target) {
+        final ByteBuffer content = ByteBuffer.wrap(JSON.toString(target.getProperties()).getBytes(StandardCharsets.UTF_8));
+        final var storedTarget = new StoredTarget(target.getJobId(), retain(target.getProperties()), position, content.remaining());
+        storedTarget.setObjectKey(target.getObjectKey());
+        try {
+            while (content.hasRemaining()) {
+                position += channel.write(content, position);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return storedTarget;
+    }
+
+    /**
+     * Get the full properties of the target, reading them from the store if the target was added to the store.
+     * @param target target object
+     * @return target properties
+     */
+    public Map<String, Object> getProperties(final DiscoveredObject target) {
+        if (!(target instanceof StoredTarget storedTarget)) {
+            return target.getProperties();
+        }
+        final ByteBuffer content = ByteBuffer.allocate(storedTarget.length);
+        try {
+            while (content.hasRemaining()) {
+                if (channel.read(content, storedTarget.position + content.position()) < 0) {
+                    throw new EOFException("Target properties not found in " + file);
+                }
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return JSON.read(new String(content.array(), StandardCharsets.UTF_8), new TypeReference<>() {});
+    }
+
+    /**
+     * Restore the target with its full properties. The object key, additional properties and filter results of the
+     * target are kept.
+     * @param target target object
+     * @return target object with its full properties
+     */
+    public DiscoveredObject restore(final DiscoveredObject target) {
+        if (!(target instanceof StoredTarget)) {
+            return target;
+        }
+        final var restoredTarget = new DiscoveredObject(target.getJobId(), target.getType(), getProperties(target));
+        restoredTarget.setObjectKey(target.getObjectKey());
+        restoredTarget.setAdditionalProperties(target.getAdditionalProperties());
+        target.getFilterResults().forEach(restoredTarget::addFilterResult);
+        return restoredTarget;
+    }
+
+    /**
+     * Close the store, deleting the file.
+     */
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            LOGGER.warn("Failed to delete target properties file {}", file, e);
+        }
+    }
+
+    private Map<String, Object> retain(final Map<String, Object> properties) {
+        final Map<String, Object> retained = new HashMap<>(retainedProperties.size() * 2);
+        retainedProperties.stream().filter(properties::containsKey).forEach(name -> retained.put(name, properties.get(name)));
+        return retained;
+    }
+
+    /**
+     * Target object retaining a subset of its properties, with the position of its full properties in the file.
+     */
+    private static class StoredTarget extends DiscoveredObject {
+
+        private final long position;
+        private final int length;
+
+        StoredTarget(final long jobId, final Map<String, Object> properties, final long position, final int length) {
+            super(jobId, TYPE.TARGET, properties);
+            this.position = position;
+            this.length = length;
+        }
+    }
+}
\ No newline at end of file
@@ -42,4 +42,23 @@ public class CompareSourcesAndTargets implements Consumer<DiscoveryContext> {
         LOGGER.info("Applying filters for jobId={}", discoveryContext.getJobId());
         comparisonEngine.applyFilters(discoveryContext);
     }
+
+    /**
+     * Apply the SOURCE filters to the current chunk of source objects.
+     * @param discoveryContext discovery context
+     */
+    public void compareSources(DiscoveryContext discoveryContext) {
+        LOGGER.debug("Applying source filters to {} sources for jobId={}", discoveryContext.getSources().size(),
+                discoveryContext.getJobId());
+        comparisonEngine.applySourceFilters(discoveryContext);
+    }
+
+    /**
+     * Apply the TARGET filters once all chunks of source objects have been processed.
+     * @param discoveryContext discovery context
+     */
+    public void compareTargets(DiscoveryContext discoveryContext) {
+        LOGGER.info("Applying target filters for jobId={}", discoveryContext.getJobId());
+        comparisonEngine.applyTargetFilters(discoveryContext);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+
+package com.ericsson.bos.dr.service.discovery.functions;
+
+import static com.ericsson.bos.dr.web.v1.api.model.JobSummaryDto.StatusEnum.COMPLETED;
+import static com.ericsson.bos.dr.web.v1.api.model.JobSummaryDto.StatusEnum.DISCOVERED;
+import static com.ericsson.bos.dr.web.v1.api.model.JobSummaryDto.StatusEnum.PARTIALLY_RECONCILED;
+import static com.ericsson.bos.dr.web.v1.api.model.JobSummaryDto.StatusEnum.RECONCILE_FAILED;
+import static com.ericsson.bos.dr.web.v1.api.model.JobSummaryDto.StatusEnum.RECONCILE_INPROGRESS;
+import static com.ericsson.bos.dr.web.v1.api.model.JobSummaryDto.StatusEnum.RECONCILE_REQUESTED;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import com.ericsson.bos.dr.jpa.DiscoveryFingerprintStore;
+import com.ericsson.bos.dr.jpa.JobRepository;
+import com.ericsson.bos.dr.jpa.model.JobEntity;
+import com.ericsson.bos.dr.service.compare.filters.MultiKeyBuilder;
+import com.ericsson.bos.dr.service.compare.filters.PropertiesArg;
+import com.ericsson.bos.dr.service.discovery.DiscoveredObject;
+import com.ericsson.bos.dr.service.discovery.DiscoveryContext;
+import com.ericsson.bos.dr.service.discovery.DiscoveryDelta;
+import com.ericsson.bos.dr.web.v1.api.model.JobSummaryDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.apache.commons.collections4.keyvalue.MultiKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Identify the discovered objects which are unchanged since the previous successful job of the same schedule,
+ * when discovering incrementally.
+ * <p>
+ * Each linked source and target pair, or unlinked source or target, is identified by an object key built from the
+ * values of the link properties. A fingerprint is computed from the fetched properties of the source and target,
+ * together with the discovery configuration and job inputs, so that a configuration change invalidates all fingerprints.
+ * Objects whose fingerprint is the same as recorded by the previous job are marked as unchanged, so they are not
+ * enriched. Their enriched properties recorded by the previous job are restored instead, so that the other objects
+ * are compared against the same properties as if they had been enriched. The previous filter results of the unchanged
+ * objects are carried forward only if the objects they are compared against are all unchanged, see
+ * <code>DiscoveryDelta</code>.
+ * Objects without a value for the link properties, or sharing an object key with another object of the same type,
+ * are always enriched and compared.
+ * </p>
+ * Incremental discovery is not applied when the sources are processed in chunks.
+ */
+@Component
+@DiscoveryFunction
+public class ComputeDiscoveryDelta implements Consumer<DiscoveryContext> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ComputeDiscoveryDelta.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+    private static final List<String> DISCOVERED_JOB_STATES = Stream.of(DISCOVERED, RECONCILE_REQUESTED, RECONCILE_INPROGRESS,
+            PARTIALLY_RECONCILED, RECONCILE_FAILED, COMPLETED).map(JobSummaryDto.StatusEnum::name).toList();
+
+    @Autowired
+    private MultiKeyBuilder multiKeyBuilder;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private DiscoveryFingerprintStore fingerprintStore;
+
+    @Override
+    public void accept(final DiscoveryContext discoveryContext) {
+        if (!discoveryContext.isIncrementalDiscovery() || discoveryContext.isChunked()) {
+            return;
+        }
+        final var propertiesArg = new PropertiesArg(discoveryContext.getSourceAndTargetsLink());
+        final Map<String, DiscoveredObject> sourcesByKey = indexByObjectKey(discoveryContext.getSources(), propertiesArg.getSourceArgs());
+        final Map<String, DiscoveredObject> targetsByKey = indexByObjectKey(discoveryContext.getTargets(), propertiesArg.getTargetArgs());
+
+        final Optional<JobEntity> previousJob = jobRepository.findFirstByJobScheduleIdAndIdLessThanAndJobStatusInOrderByIdDesc(
+                discoveryContext.getJobScheduleId(), discoveryContext.getJobId(), DISCOVERED_JOB_STATES);
+        final var discoveryDelta = new DiscoveryDelta(previousJob.map(JobEntity::getId).orElse(null),
+                previousJob.map(j -> fingerprintStore.findByJobId(j.getId())).orElse(Map.of()));
+
+        final String configuration = toJson(List.of(discoveryContext.getDiscoveryJobConf(),
+                Optional.ofNullable(discoveryContext.getInputs()).orElse(Map.of())));
+        final Set<String> objectKeys = new LinkedHashSet<>(sourcesByKey.keySet());
+        objectKeys.addAll(targetsByKey.keySet());
+        for (final String objectKey : objectKeys) {
+            final Optional<DiscoveredObject> source = Optional.ofNullable(sourcesByKey.get(objectKey));
+            final Optional<DiscoveredObject> target = Optional.ofNullable(targetsByKey.get(objectKey));
+            final String fingerprint = sha256(configuration,
+                    toJson(source.map(DiscoveredObject::getProperties).orElse(null)),
+                    toJson(target.map(DiscoveredObject::getProperties).orElse(null)));
+            final boolean unchanged = discoveryDelta.add(objectKey, fingerprint);
+            Stream.of(source, target).flatMap(Optional::stream).forEach(o -> {
+                o.setObjectKey(objectKey);
+                o.setUnchanged(unchanged);
+            });
+        }
+        previousJob.ifPresent(job -> restoreEnrichedProperties(discoveryContext, job.getId(), discoveryDelta,
+                sourcesByKey, targetsByKey));
+        if (discoveryContext.getTargets().stream().allMatch(DiscoveredObject::isUnchanged)) {
+            discoveryDelta.carryForwardFilterResults(DiscoveredObject.TYPE.SOURCE);
+        }
+        if (discoveryContext.getSources().stream().allMatch(DiscoveredObject::isUnchanged)) {
+            discoveryDelta.carryForwardFilterResults(DiscoveredObject.TYPE.TARGET);
+        }
+        discoveryContext.setDiscoveryDelta(discoveryDelta);
+        LOGGER.info("Incremental discovery for jobId={}, previousJobId={}, delta={}", discoveryContext.getJobId(),
+                discoveryDelta.getPreviousJobId().orElse(null), discoveryDelta.toDto());
+    }
+
+    private void restoreEnrichedProperties(final DiscoveryContext discoveryContext, final long previousJobId,
+                                           final DiscoveryDelta discoveryDelta,
+                                           final Map<String, DiscoveredObject> sourcesByKey,
+                                           final Map<String, DiscoveredObject> targetsByKey) {
+        final List<DiscoveredObject> enrichedObjects = new ArrayList<>();
+        discoveryContext.getDiscoverySourceEnrichAction().ifPresent(a -> enrichedObjects.addAll(sourcesByKey.values()));
+        discoveryContext.getDiscoveryTargetEnrichAction().ifPresent(a -> enrichedObjects.addAll(targetsByKey.values()));
+        enrichedObjects.removeIf(o -> !o.isUnchanged());
+        if (enrichedObjects.isEmpty()) {
+            return;
+        }
+        final Set<DiscoveredObject> restoredObjects = Collections.newSetFromMap(new IdentityHashMap<>());
+        fingerprintStore.findEnrichedProperties(previousJobId, discoveryDelta::isUnchanged, fingerprint -> {
+            restore(sourcesByKey.get(fingerprint.getObjectKey()), fingerprint.getSourceProperties(), restoredObjects);
+            restore(targetsByKey.get(fingerprint.getObjectKey()), fingerprint.getTargetProperties(), restoredObjects);
+        });
+        // enrich the unchanged objects whose enriched properties were not recorded by the previous job
+        enrichedObjects.stream().filter(o -> !restoredObjects.contains(o)).forEach(o -> o.setUnchanged(false));
+    }
+
+    private static void restore(final DiscoveredObject discoveredObject, final Map<String, Object> enrichedProperties,
+                                final Set<DiscoveredObject> restoredObjects) {
+        if (discoveredObject != null && discoveredObject.isUnchanged() && enrichedProperties != null) {
+            discoveredObject.updateProperties(enrichedProperties);
+            restoredObjects.add(discoveredObject);
+        }
+    }
+
+    private Map<String, DiscoveredObject> indexByObjectKey(final List<DiscoveredObject> discoveredObjects, final List<String> linkArgs) {
+        final Map<String, DiscoveredObject> objectsByKey = new HashMap<>();
+        final Set<String> duplicateKeys = new HashSet<>();
+        for (final DiscoveredObject discoveredObject : discoveredObjects) {
+            final Optional<MultiKey<Object>> multiKey = multiKeyBuilder.build(discoveredObject.getProperties(), linkArgs);
+            if (multiKey.isPresent()) {
+                final String objectKey = sha256(toJson(multiKey.get().getKeys()));
+                if (objectsByKey.putIfAbsent(objectKey, discoveredObject) != null) {
+                    duplicateKeys.add(objectKey);
+                }
+            }
+        }
+        duplicateKeys.forEach(objectsByKey::remove);
+        return objectsByKey;
+    }
+
+    private static String toJson(final Object value) {
+        try {
+            return MAPPER.writeValueAsString(value);
+        } catch (final JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String sha256(final String... values) {
+        try {
+            final var messageDigest = MessageDigest.getInstance("SHA-256");
+            for (final String value : values) {
+                messageDigest.update(value.getBytes(StandardCharsets.UTF_8));
+                messageDigest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(messageDigest.digest());
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
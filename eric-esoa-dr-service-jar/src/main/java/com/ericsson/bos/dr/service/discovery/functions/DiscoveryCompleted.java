@@ -21,6 +21,7 @@ import com.ericsson.bos.dr.jpa.DiscoveryObjectRepository;
 import com.ericsson.bos.dr.jpa.model.StatusCount;
 import com.ericsson.bos.dr.service.JobService;
 import com.ericsson.bos.dr.service.discovery.DiscoveryContext;
+import com.ericsson.bos.dr.service.discovery.DiscoveryDelta;
 import com.ericsson.bos.dr.web.v1.api.model.JobSummaryDto.StatusEnum;
 
 import org.slf4j.Logger;
@@ -49,6 +50,7 @@ public class DiscoveryCompleted implements Consumer<DiscoveryContext> {
                 .filter(sc -> sc.getStatus().equals(StatusEnum.DISCOVERED.name())).findFirst()
                 .map(StatusCount::getCount).orElse(0);
         LOGGER.info("Discovery completed for jobId={}, discoveredObjectsCount={}", discoveryContext.getJobId(), discoveredCount);
-        jobService.discoveryCompleted(discoveryContext.getJobId(), discoveredCount);
+        jobService.discoveryCompleted(discoveryContext.getJobId(), discoveredCount,
+                discoveryContext.getDiscoveryDelta().map(DiscoveryDelta::toDto).orElse(null));
     }
 }
@@ -22,11 +22,12 @@ import java.util.stream.Collectors;
 
 import com.ericsson.bos.dr.service.JobService;
 import com.ericsson.bos.dr.service.discovery.DiscoveryContext;
+import com.ericsson.bos.dr.service.execution.executors.command.ProcessExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
- * Update discovery job after failure.
+ * Update discovery job after failure, killing any processes still executing for the job.
  */
 @DiscoveryFunction
 @Component
@@ -35,8 +36,12 @@ public class DiscoveryFailed implements Consumer<DiscoveryContext> {
     @Autowired
     private JobService jobService;
 
+    @Autowired
+    private ProcessExecutor processExecutor;
+
     @Override
     public void accept(DiscoveryContext discoveryContext) {
+        processExecutor.cancelJobProcesses(discoveryContext.getJobId());
         final var errorMessage = discoveryContext.getExceptions().stream()
                 .map(Throwable::getMessage)
                 .collect(Collectors.joining(";"));
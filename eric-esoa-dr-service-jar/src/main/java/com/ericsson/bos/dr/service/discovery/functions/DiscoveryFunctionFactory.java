@@ -15,10 +15,12 @@
  ******************************************************************************/
 package com.ericsson.bos.dr.service.discovery.functions;
 
+import java.util.List;
 import java.util.function.Consumer;
 
 import com.ericsson.bos.dr.service.discovery.DiscoveredObject;
 import com.ericsson.bos.dr.service.discovery.DiscoveryContext;
+import com.ericsson.bos.dr.service.utils.AsyncConsumer;
 import jakarta.inject.Provider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -36,6 +38,10 @@ public class DiscoveryFunctionFactory {
         return getDiscoveryFunction(ValidateInputs.class);
     }
 
+    public Consumer<DiscoveryContext> getPrepareChunks() {
+        return getDiscoveryFunction(PrepareChunks.class);
+    }
+
     public Consumer<DiscoveryContext> getFetchSources() {
         return getDiscoveryFunction(FetchSources.class);
     }
@@ -44,10 +50,30 @@ public class DiscoveryFunctionFactory {
         return getDiscoveryFunction(FetchTargets.class);
     }
 
+    public Consumer<DiscoveryContext> getComputeDiscoveryDelta() {
+        return getDiscoveryFunction(ComputeDiscoveryDelta.class);
+    }
+
     public Consumer<DiscoveryContext> getSaveDiscoveryObjects() {
         return getDiscoveryFunction(SaveDiscoveryObjects.class);
     }
 
+    /**
+     * Get <code>SaveDiscoveryObjects</code> function persisting the source objects only.
+     * @return discovery function
+     */
+    public Consumer<DiscoveryContext> getSaveSources() {
+        return ((SaveDiscoveryObjects) getDiscoveryFunction(SaveDiscoveryObjects.class))::saveSources;
+    }
+
+    /**
+     * Get <code>SaveDiscoveryObjects</code> function persisting the target objects only.
+     * @return discovery function
+     */
+    public Consumer<DiscoveryContext> getSaveTargets() {
+        return ((SaveDiscoveryObjects) getDiscoveryFunction(SaveDiscoveryObjects.class))::saveTargets;
+    }
+
     public Consumer<DiscoveryContext> getDiscoveryCompleted() {
         return getDiscoveryFunction(DiscoveryCompleted.class);
     }
@@ -61,9 +87,20 @@ public class DiscoveryFunctionFactory {
      * @param discoveredObject discovered object
      * @return EnrichDiscoveredObject discovery function
      */
-    public Consumer<DiscoveryContext> getEnrichDiscoveryObject(final DiscoveredObject discoveredObject) {
-        final Consumer<DiscoveryContext> function = getDiscoveryFunction(EnrichDiscoveryObject.class);
-        ((EnrichDiscoveryObject)function).setDiscoveredObject(discoveredObject);
+    public AsyncConsumer<DiscoveryContext> getEnrichDiscoveryObject(final DiscoveredObject discoveredObject) {
+        final var function = (EnrichDiscoveryObject) getDiscoveryFunction(EnrichDiscoveryObject.class);
+        function.setDiscoveredObject(discoveredObject);
+        return function;
+    }
+
+    /**
+     * Get <code>EnrichDiscoveredObject</code> function for a batch of discovered objects of the same type.
+     * @param discoveredObjects discovered objects
+     * @return EnrichDiscoveredObject discovery function
+     */
+    public AsyncConsumer<DiscoveryContext> getEnrichDiscoveryObjects(final List<DiscoveredObject> discoveredObjects) {
+        final var function = (EnrichDiscoveryObject) getDiscoveryFunction(EnrichDiscoveryObject.class);
+        function.setDiscoveredObjects(discoveredObjects);
         return function;
     }
 
@@ -71,6 +108,22 @@ public class DiscoveryFunctionFactory {
         return getDiscoveryFunction(CompareSourcesAndTargets.class);
     }
 
+    /**
+     * Get <code>CompareSourcesAndTargets</code> function applying the SOURCE filters only.
+     * @return discovery function
+     */
+    public Consumer<DiscoveryContext> getCompareSources() {
+        return ((CompareSourcesAndTargets) getDiscoveryFunction(CompareSourcesAndTargets.class))::compareSources;
+    }
+
+    /**
+     * Get <code>CompareSourcesAndTargets</code> function applying the TARGET filters only.
+     * @return discovery function
+     */
+    public Consumer<DiscoveryContext> getCompareTargets() {
+        return ((CompareSourcesAndTargets) getDiscoveryFunction(CompareSourcesAndTargets.class))::compareTargets;
+    }
+
     public Consumer<DiscoveryContext> getLinkSourcesAndTargets() {
         return getDiscoveryFunction(LinkSourceAndTarget.class);
     }
@@ -16,6 +16,7 @@
 package com.ericsson.bos.dr.service.discovery.functions;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
@@ -25,11 +26,14 @@ import com.ericsson.bos.dr.service.discovery.DiscoveryContext;
 
 /**
  * The available substitution context during discovery.
+ * For a single discovered object, its properties are available as 'source' or 'target'. For a batch of discovered
+ * objects, the list of their properties is available as 'sources' or 'targets'.
  */
 public class DiscoverySubstitutionCtx implements Supplier<Map<String, Object>> {
 
     private final DiscoveryContext discoveryContext;
     private final DiscoveredObject discoveredObject;
+    private final List<DiscoveredObject> discoveredObjects;
 
     /**
      * Constructor.
@@ -38,7 +42,7 @@ public class DiscoverySubstitutionCtx implements Supplier<Map<String, Object>> {
      *         discovery context
      */
     public DiscoverySubstitutionCtx(final DiscoveryContext discoveryContext) {
-        this(discoveryContext, null);
+        this(discoveryContext, (DiscoveredObject) null);
     }
 
     /**
@@ -52,6 +56,21 @@ public class DiscoverySubstitutionCtx implements Supplier<Map<String, Object>> {
     public DiscoverySubstitutionCtx(final DiscoveryContext discoveryContext, final DiscoveredObject discoveredObject) {
         this.discoveryContext = discoveryContext;
         this.discoveredObject = discoveredObject;
+        this.discoveredObjects = null;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param discoveryContext
+     *         discovery context
+     * @param discoveredObjects
+     *         batch of discovered objects of the same type
+     */
+    public DiscoverySubstitutionCtx(final DiscoveryContext discoveryContext, final List<DiscoveredObject> discoveredObjects) {
+        this.discoveryContext = discoveryContext;
+        this.discoveredObject = null;
+        this.discoveredObjects = discoveredObjects;
     }
 
     @Override
@@ -61,6 +80,9 @@ public class DiscoverySubstitutionCtx implements Supplier<Map<String, Object>> {
         substitutionCtx.put("job", getJobExecutionContext());
         Optional.ofNullable(discoveredObject).ifPresent(
                 o -> substitutionCtx.put(discoveredObject.getType().name().toLowerCase(), discoveredObject.getProperties()));
+        Optional.ofNullable(discoveredObjects).filter(objects -> !objects.isEmpty()).ifPresent(
+                objects -> substitutionCtx.put(objects.get(0).getType().name().toLowerCase() + "s",
+                        objects.stream().map(DiscoveredObject::getProperties).toList()));
         return substitutionCtx;
     }
 
@@ -15,11 +15,23 @@
  ******************************************************************************/
 package com.ericsson.bos.dr.service.discovery.functions;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.ericsson.bos.dr.service.compare.filters.MultiKeyBuilder;
+import com.ericsson.bos.dr.service.compare.filters.PropertiesArg;
 import com.ericsson.bos.dr.service.discovery.DiscoveredObject;
 import com.ericsson.bos.dr.service.discovery.DiscoveryContext;
 import com.ericsson.bos.dr.service.execution.ExecutionContext;
 import com.ericsson.bos.dr.service.execution.ExecutionEngine;
+import com.ericsson.bos.dr.service.execution.ExecutionResult;
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationActionDto;
+import org.apache.commons.collections4.MultiValuedMap;
+import org.apache.commons.collections4.keyvalue.MultiKey;
+import org.apache.commons.collections4.multimap.ArrayListValuedHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,22 +49,84 @@ class EnrichAction {
     @Autowired
     private ExecutionEngine executionEngine;
 
+    @Autowired
+    private MultiKeyBuilder multiKeyBuilder;
+
     /**
-     * Execute the enrichment action.
+     * Execute the enrichment action asynchronously.
      * The <code>DiscoveredObject</code> is updated with the enriched properties after successful
      * execution of the action. The enriched properties will overwrite the existing properties if
      * there are name conflicts.
      * @param enrichAction enrich action definition
      * @param discoveredObject discovered object
      * @param discoveryContext discovery context
+     * @return CompletableFuture completed when the object is enriched
      */
-    public void execute(final ApplicationConfigurationActionDto enrichAction, final DiscoveredObject discoveredObject,
-                 final DiscoveryContext discoveryContext) {
+    public CompletableFuture<Void> executeAsync(final ApplicationConfigurationActionDto enrichAction,
+                                                final DiscoveredObject discoveredObject, final DiscoveryContext discoveryContext) {
         LOGGER.info("Executing {} object enrichment action: jobId={}, objectProperties={}", discoveredObject.getType().toString().toLowerCase(),
                 discoveryContext.getJobId(), discoveredObject.getProperties());
         final var executionContext = new ExecutionContext(discoveryContext.getFeaturePackId(), enrichAction,
-                new DiscoverySubstitutionCtx(discoveryContext, discoveredObject).get());
-        final var executionResult = executionEngine.execute(executionContext);
-        discoveredObject.updateProperties(executionResult.getMappedCommandResponse().get(0));
+                new DiscoverySubstitutionCtx(discoveryContext, discoveredObject).get())
+                .withMetricTags(discoveryContext.getFeaturePackName(), discoveryContext.getAppName(), discoveryContext.getJobName(),
+                        "enrich_" + discoveredObject.getType().toString().toLowerCase());
+        return executionEngine.executeAsync(executionContext)
+                .thenAccept(executionResult -> discoveredObject.updateProperties(executionResult.getMappedCommandResponse().get(0)));
+    }
+
+    /**
+     * Execute the enrichment action asynchronously, once for a batch of discovered objects.
+     * Each mapped result is correlated to a <code>DiscoveredObject</code> using the batch key of the action, in the format
+     * 'objectProp1:resultProp1&amp;objectProp2:resultProp2'. Each <code>DiscoveredObject</code> is updated with the
+     * properties of its correlated result. Objects with no correlated result are not updated. Where more than one
+     * result correlates to an object, the first result is used and the duplicates are logged.
+     * @param enrichAction enrich action definition
+     * @param discoveredObjects batch of discovered objects of the same type
+     * @param discoveryContext discovery context
+     * @return CompletableFuture completed when the objects are enriched
+     */
+    public CompletableFuture<Void> executeAsync(final ApplicationConfigurationActionDto enrichAction,
+                                                final List<DiscoveredObject> discoveredObjects, final DiscoveryContext discoveryContext) {
+        final String objectType = discoveredObjects.get(0).getType().toString().toLowerCase();
+        LOGGER.info("Executing {} object enrichment action for batch: jobId={}, objectsCount={}", objectType,
+                discoveryContext.getJobId(), discoveredObjects.size());
+        final var executionContext = new ExecutionContext(discoveryContext.getFeaturePackId(), enrichAction,
+                new DiscoverySubstitutionCtx(discoveryContext, discoveredObjects).get())
+                .withMetricTags(discoveryContext.getFeaturePackName(), discoveryContext.getAppName(), discoveryContext.getJobName(),
+                        "enrich_" + objectType);
+        return executionEngine.executeAsync(executionContext)
+                .thenAccept(executionResult -> updateProperties(enrichAction, discoveredObjects, executionResult, discoveryContext));
+    }
+
+    private void updateProperties(final ApplicationConfigurationActionDto enrichAction, final List<DiscoveredObject> discoveredObjects,
+                                  final ExecutionResult executionResult, final DiscoveryContext discoveryContext) {
+        final String objectType = discoveredObjects.get(0).getType().toString().toLowerCase();
+        final var batchKey = new PropertiesArg(enrichAction.getBatch().getKey());
+        final MultiValuedMap<MultiKey<Object>, Map<String, Object>> resultsByKey = new ArrayListValuedHashMap<>();
+        for (final Map<String, Object> result : executionResult.getMappedCommandResponse()) {
+            multiKeyBuilder.build(result, batchKey.getTargetArgs()).ifPresent(key -> resultsByKey.put(key, result));
+        }
+        int uncorrelated = 0;
+        int duplicated = 0;
+        for (final DiscoveredObject discoveredObject : discoveredObjects) {
+            final Collection<Map<String, Object>> results = multiKeyBuilder.build(discoveredObject.getProperties(), batchKey.getSourceArgs())
+                    .map(resultsByKey::get).orElse(Collections.emptyList());
+            if (results.isEmpty()) {
+                uncorrelated++;
+                continue;
+            }
+            if (results.size() > 1) {
+                duplicated++;
+            }
+            discoveredObject.updateProperties(results.iterator().next());
+        }
+        if (duplicated > 0) {
+            LOGGER.warn("Multiple enrichment results for {} of {} {} objects, using the first: jobId={}, batchKey={}", duplicated,
+                    discoveredObjects.size(), objectType, discoveryContext.getJobId(), enrichAction.getBatch().getKey());
+        }
+        if (uncorrelated > 0) {
+            LOGGER.warn("No enrichment result for {} of {} {} objects: jobId={}, batchKey={}", uncorrelated, discoveredObjects.size(),
+                    objectType, discoveryContext.getJobId(), enrichAction.getBatch().getKey());
+        }
     }
 }
\ No newline at end of file
@@ -15,12 +15,14 @@
  ******************************************************************************/
 package com.ericsson.bos.dr.service.discovery.functions;
 
+import java.util.List;
 import java.util.Objects;
-import java.util.function.Consumer;
+import java.util.concurrent.CompletableFuture;
 
 import com.ericsson.bos.dr.service.discovery.DiscoveredObject;
 import com.ericsson.bos.dr.service.discovery.DiscoveryContext;
 import com.ericsson.bos.dr.service.execution.ExecutionEngine;
+import com.ericsson.bos.dr.service.utils.AsyncConsumer;
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationActionDto;
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationDiscoverDto;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,12 +31,14 @@ import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
 
 /**
- * Enrich an individual discovered source or target object.
+ * Enrich an individual discovered source or target object, or a batch of discovered objects of the same type
+ * when the enrich action is configured with a batch.
+ * The enrich action is executed asynchronously, see <code>ExecutionEngine.executeAsync</code>.
  */
 @Component
 @DiscoveryFunction
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
-public class EnrichDiscoveryObject implements Consumer<DiscoveryContext> {
+public class EnrichDiscoveryObject implements AsyncConsumer<DiscoveryContext> {
 
     @Autowired
     private ExecutionEngine executionEngine;
@@ -44,16 +48,28 @@ public class EnrichDiscoveryObject implements Consumer<DiscoveryContext> {
 
     private DiscoveredObject discoveredObject;
 
+    private List<DiscoveredObject> discoveredObjects;
+
     @Override
-    public void accept(DiscoveryContext discoveryContext) {
+    public CompletableFuture<Void> acceptAsync(DiscoveryContext discoveryContext) {
+        if (discoveredObjects != null) {
+            return enrichAction.executeAsync(getEnrichAction(discoveryContext, discoveredObjects.get(0)), discoveredObjects, discoveryContext);
+        }
         Objects.requireNonNull(discoveredObject, "DiscoveredObject must be set");
+        return enrichAction.executeAsync(getEnrichAction(discoveryContext, discoveredObject), discoveredObject, discoveryContext);
+    }
+
+    private ApplicationConfigurationActionDto getEnrichAction(final DiscoveryContext discoveryContext, final DiscoveredObject object) {
         final ApplicationConfigurationDiscoverDto discoveryJobConf = discoveryContext.getDiscoveryJobConf();
-        final ApplicationConfigurationActionDto action = DiscoveredObject.TYPE.SOURCE.equals(discoveredObject.getType()) ?
+        return DiscoveredObject.TYPE.SOURCE.equals(object.getType()) ?
                 discoveryJobConf.getSource().getEnrichAction() : discoveryJobConf.getTarget().getEnrichAction();
-        enrichAction.execute(action, discoveredObject, discoveryContext);
     }
 
     public void setDiscoveredObject(DiscoveredObject discoveredObject) {
         this.discoveredObject = discoveredObject;
     }
+
+    public void setDiscoveredObjects(List<DiscoveredObject> discoveredObjects) {
+        this.discoveredObjects = discoveredObjects;
+    }
 }
\ No newline at end of file
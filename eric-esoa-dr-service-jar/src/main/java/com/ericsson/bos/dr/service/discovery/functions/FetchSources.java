@@ -21,6 +21,7 @@ import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import com.ericsson.bos.dr.service.discovery.DiscoveredObject;
+import com.ericsson.bos.dr.service.discovery.DiscoveredObjectChunks;
 import com.ericsson.bos.dr.service.discovery.DiscoveryContext;
 import com.ericsson.bos.dr.service.execution.ExecutionContext;
 import com.ericsson.bos.dr.service.execution.ExecutionEngine;
@@ -33,6 +34,8 @@ import org.springframework.stereotype.Component;
 
 /**
  * Fetch the source objects based on the configuration in the discovery job.
+ * If discovering in chunks, see <code>PrepareChunks</code>, then the source objects are added to the source chunks
+ * in the <code>DiscoveryContext</code> as they are mapped, to be processed one chunk at a time while the fetch continues.
  */
 @Component
 @DiscoveryFunction
@@ -50,7 +53,15 @@ public class FetchSources implements Consumer<DiscoveryContext> {
         final ApplicationConfigurationActionDto fetchSourceAction = discoveryJobConf.getSource().getFetchAction();
 
         final var executionContext = new ExecutionContext(discoveryContext.getFeaturePackId(), fetchSourceAction,
-                new DiscoverySubstitutionCtx(discoveryContext).get());
+                new DiscoverySubstitutionCtx(discoveryContext).get())
+                .withMetricTags(discoveryContext.getFeaturePackName(), discoveryContext.getAppName(), discoveryContext.getJobName(),
+                        "fetch_source");
+        if (discoveryContext.isChunked()) {
+            final DiscoveredObjectChunks sourceChunks = discoveryContext.getSourceChunks();
+            sourceChunks.fill(sources -> executionEngine.execute(executionContext, sources));
+            LOGGER.info("{} source objects fetched in chunks", sourceChunks.size());
+            return;
+        }
         final var sourceExecutionResult = executionEngine.execute(executionContext);
         final List<DiscoveredObject> sourceObjects = sourceExecutionResult.getMappedCommandResponse().stream()
                 .map(props -> new DiscoveredObject(discoveryContext.getJobId(), SOURCE, props)).collect(Collectors.toList());
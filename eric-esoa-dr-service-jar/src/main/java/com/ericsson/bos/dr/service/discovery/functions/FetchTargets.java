@@ -22,6 +22,7 @@ import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import com.ericsson.bos.dr.service.discovery.DiscoveredObject;
+import com.ericsson.bos.dr.service.discovery.DiscoveredObjectChunks;
 import com.ericsson.bos.dr.service.discovery.DiscoveryContext;
 import com.ericsson.bos.dr.service.execution.ExecutionContext;
 import com.ericsson.bos.dr.service.execution.ExecutionEngine;
@@ -36,6 +37,8 @@ import org.springframework.stereotype.Component;
 
 /**
  * Fetch the target objects based on the configuration in the discovery job.
+ * If discovering in chunks, see <code>PrepareChunks</code>, then the target objects are added to the target chunks
+ * in the <code>DiscoveryContext</code> as they are mapped.
  */
 @Component
 @DiscoveryFunction
@@ -56,12 +59,22 @@ public class FetchTargets implements Consumer<DiscoveryContext> {
         if (fetchTargetAction.isPresent()) {
             LOGGER.info("Fetching targets for jobId={}", discoveryContext.getJobId());
             final var executionContext = new ExecutionContext(discoveryContext.getFeaturePackId(), fetchTargetAction.get(),
-                    new DiscoverySubstitutionCtx(discoveryContext).get());
+                    new DiscoverySubstitutionCtx(discoveryContext).get())
+                    .withMetricTags(discoveryContext.getFeaturePackName(), discoveryContext.getAppName(), discoveryContext.getJobName(),
+                            "fetch_target");
+            if (discoveryContext.isChunked()) {
+                final DiscoveredObjectChunks targetChunks = discoveryContext.getTargetChunks();
+                targetChunks.fill(targets -> executionEngine.execute(executionContext, targets));
+                LOGGER.info("{} target objects fetched in chunks", targetChunks.size());
+                return;
+            }
             final var targetExecutionResult = executionEngine.execute(executionContext);
             final List<DiscoveredObject> targetObjects = targetExecutionResult.getMappedCommandResponse().stream()
                     .map(props -> new DiscoveredObject(discoveryContext.getJobId(), TARGET, props)).collect(Collectors.toList());
             discoveryContext.setTargets(targetObjects);
             LOGGER.info("{} target objects fetched", targetObjects.size());
+        } else if (discoveryContext.isChunked()) {
+            discoveryContext.getTargetChunks().complete();
         }
     }
 }
\ No newline at end of file
@@ -19,10 +19,16 @@ import static com.ericsson.bos.dr.service.exceptions.ErrorCode.NON_UNIQUE_SOURCE
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Consumer;
 
+import com.ericsson.bos.dr.service.compare.ComparisonEngine;
 import com.ericsson.bos.dr.service.compare.filters.PropertiesArg;
 import com.ericsson.bos.dr.service.discovery.DiscoveredObject;
 import com.ericsson.bos.dr.service.discovery.DiscoveryContext;
@@ -41,6 +47,10 @@ import org.springframework.stereotype.Component;
 /**
  * Link source and target objects as specified in the 'linkSourceAndTarget' tag
  * in the application configuration. The target properties are set in the mapped source.
+ * The targets index is built on the first invocation and kept in the <code>DiscoveryContext</code>, so that it is
+ * reused for each chunk when the sources are processed in chunks. In that case the linked target retains only a copy
+ * of the linked source properties, and the source properties required by the TARGET filters, rather than the full
+ * source properties, so that the sources of a chunk can be released once the chunk is processed.
  */
 @Component
 @DiscoveryFunction
@@ -51,6 +61,9 @@ public class LinkSourceAndTarget implements Consumer<DiscoveryContext> {
     @Autowired
     private MultiKeyBuilder multiKeyBuilder;
 
+    @Autowired
+    private ComparisonEngine comparisonEngine;
+
     @Override
     public void accept(final DiscoveryContext discoveryContext) {
         if (StringUtils.isEmpty(discoveryContext.getSourceAndTargetsLink())) {
@@ -58,13 +71,12 @@ public class LinkSourceAndTarget implements Consumer<DiscoveryContext> {
         }
         LOGGER.info("Linking sources and targets for jobId={}", discoveryContext.getJobId());
         final var propertiesArg = new PropertiesArg(discoveryContext.getSourceAndTargetsLink());
-        final List<String> targetArgs = propertiesArg.getTargetArgs();
         final List<String> sourceArgs = propertiesArg.getSourceArgs();
-        final MultiValuedMap<MultiKey<Object>, DiscoveredObject> targetsByValueOfTargetArgs = new ArrayListValuedHashMap<>();
-        for (final DiscoveredObject target : discoveryContext.getTargets()) {
-            final Optional<MultiKey<Object>>  multiKey =  multiKeyBuilder.build(target.getProperties(), targetArgs);
-            multiKey.ifPresent(mk -> targetsByValueOfTargetArgs.put(mk, target));
+        if (discoveryContext.getTargetsLinkIndex() == null) {
+            discoveryContext.setTargetsLinkIndex(indexTargets(discoveryContext.getTargets(), propertiesArg.getTargetArgs()));
         }
+        final MultiValuedMap<MultiKey<Object>, DiscoveredObject> targetsByValueOfTargetArgs = discoveryContext.getTargetsLinkIndex();
+        final Set<String> linkedSourceProperties = getLinkedSourceProperties(discoveryContext, sourceArgs);
         for (final DiscoveredObject source : discoveryContext.getSources()) {
             final Optional<MultiKey<Object>> multiKey = multiKeyBuilder.build(source.getProperties(), sourceArgs);
             final Collection<DiscoveredObject> matchedTargets = new ArrayList<>();
@@ -76,10 +88,35 @@ public class LinkSourceAndTarget implements Consumer<DiscoveryContext> {
                         NON_UNIQUE_SOURCE_TARGET_MAPPING, discoveryContext.getSourceAndTargetsLink());
             }
             for (final DiscoveredObject target : matchedTargets) {
-                source.setAdditionalProperties(target.getProperties());
-                target.setAdditionalProperties(source.getProperties());
+                source.setAdditionalProperties(discoveryContext.getTargetProperties(target));
+                target.setAdditionalProperties(linkedSourceProperties.isEmpty() ? source.getProperties()
+                        : copyProperties(source.getProperties(), linkedSourceProperties));
             }
         }
     }
 
+    private Set<String> getLinkedSourceProperties(final DiscoveryContext discoveryContext, final List<String> sourceArgs) {
+        if (!discoveryContext.isChunked()) {
+            return Collections.emptySet();
+        }
+        final Set<String> linkedSourceProperties = new LinkedHashSet<>(sourceArgs);
+        comparisonEngine.getRequiredSourceProperties(discoveryContext).ifPresent(linkedSourceProperties::addAll);
+        return linkedSourceProperties;
+    }
+
+    private Map<String, Object> copyProperties(final Map<String, Object> properties, final Set<String> names) {
+        final Map<String, Object> copy = new HashMap<>(names.size() * 2);
+        names.forEach(name -> copy.put(name, properties.get(name)));
+        return copy;
+    }
+
+    private MultiValuedMap<MultiKey<Object>, DiscoveredObject> indexTargets(final List<DiscoveredObject> targets,
+                                                                            final List<String> targetArgs) {
+        final MultiValuedMap<MultiKey<Object>, DiscoveredObject> targetsByValueOfTargetArgs = new ArrayListValuedHashMap<>();
+        for (final DiscoveredObject target : targets) {
+            final Optional<MultiKey<Object>>  multiKey =  multiKeyBuilder.build(target.getProperties(), targetArgs);
+            multiKey.ifPresent(mk -> targetsByValueOfTargetArgs.put(mk, target));
+        }
+        return targetsByValueOfTargetArgs;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.service.discovery.functions;
+
+import static com.ericsson.bos.dr.service.discovery.DiscoveredObject.TYPE.SOURCE;
+import static com.ericsson.bos.dr.service.discovery.DiscoveredObject.TYPE.TARGET;
+
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import com.ericsson.bos.dr.service.compare.ComparisonEngine;
+import com.ericsson.bos.dr.service.compare.filters.PropertiesArg;
+import com.ericsson.bos.dr.service.discovery.DiscoveredObjectChunks;
+import com.ericsson.bos.dr.service.discovery.DiscoveryContext;
+import com.ericsson.bos.dr.service.discovery.TargetPropertiesStore;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Prepare to discover in chunks, if a chunk size is set in the job execution options and the job filters can be
+ * applied in chunks. The source and target objects are then handed to the discovery flow in chunks as they are
+ * fetched, see <code>DiscoveredObjectChunks</code>.
+ * If the job filters and the link between sources and targets require only some of the target properties, then only
+ * these are retained in memory for each target, and the full target properties are held in a
+ * <code>TargetPropertiesStore</code>.
+ * Incremental discovery is not applied when discovering in chunks.
+ */
+@Component
+@DiscoveryFunction
+public class PrepareChunks implements Consumer<DiscoveryContext> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrepareChunks.class);
+
+    @Autowired
+    private ComparisonEngine comparisonEngine;
+
+    @Value("${service.jobs.execution.discovery-chunks.dir}")
+    private String targetStoreDir;
+
+    @Override
+    public void accept(DiscoveryContext discoveryContext) {
+        final Optional<Integer> chunkSize = discoveryContext.getChunkSize();
+        if (chunkSize.isEmpty()) {
+            return;
+        }
+        if (!comparisonEngine.supportsChunkedComparison(discoveryContext)) {
+            LOGGER.info("Job filters require all source objects, ignoring chunk size for jobId={}", discoveryContext.getJobId());
+            return;
+        }
+        if (discoveryContext.isIncrementalDiscovery()) {
+            LOGGER.warn("Incremental discovery is not applied when discovering in chunks for jobId={}", discoveryContext.getJobId());
+        }
+        discoveryContext.setChunks(new DiscoveredObjectChunks(discoveryContext.getJobId(), SOURCE, chunkSize.get()),
+                new DiscoveredObjectChunks(discoveryContext.getJobId(), TARGET, chunkSize.get()));
+        final Optional<Set<String>> requiredTargetProperties = comparisonEngine.getRequiredTargetProperties(discoveryContext);
+        if (requiredTargetProperties.isPresent()) {
+            final Set<String> retainedProperties = new LinkedHashSet<>(requiredTargetProperties.get());
+            if (StringUtils.isNotEmpty(discoveryContext.getSourceAndTargetsLink())) {
+                retainedProperties.addAll(new PropertiesArg(discoveryContext.getSourceAndTargetsLink()).getTargetArgs());
+            }
+            discoveryContext.setTargetStore(new TargetPropertiesStore(Path.of(targetStoreDir), retainedProperties));
+        }
+        LOGGER.info("Discovering in chunks of {} objects for jobId={}, retaining {} target properties", chunkSize.get(),
+                discoveryContext.getJobId(), requiredTargetProperties.isPresent() ? "the required" : "all");
+    }
+}
\ No newline at end of file
@@ -16,35 +16,83 @@
 package com.ericsson.bos.dr.service.discovery.functions;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import com.ericsson.bos.dr.jpa.DiscoveryObjectRepository;
+import com.ericsson.bos.dr.jpa.DiscoveryFingerprintStore;
+import com.ericsson.bos.dr.jpa.DiscoveryObjectBulkWriter;
+import com.ericsson.bos.dr.jpa.model.DiscoveryFingerprint;
 import com.ericsson.bos.dr.jpa.model.DiscoveryObjectEntity;
 import com.ericsson.bos.dr.model.mappers.DiscoveryObjectEntityMapper;
 import com.ericsson.bos.dr.service.discovery.DiscoveredObject;
 import com.ericsson.bos.dr.service.discovery.DiscoveryContext;
+import com.ericsson.bos.dr.service.discovery.DiscoveryDelta;
+import com.ericsson.bos.dr.service.discovery.FilterResult;
+import com.ericsson.bos.dr.service.discovery.TargetPropertiesStore;
+import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationFilterDto;
+import org.apache.commons.collections4.ListUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
  * Persist the discovered source and target objects which have matched at least one filter.
+ * The objects are written in bulk, see <code>DiscoveryObjectBulkWriter</code>.
+ * When discovering incrementally, the filters matched in the previous job are carried forward to the objects whose
+ * filter results were not evaluated, and the fingerprints and enriched properties of all objects are recorded for the
+ * next job of the schedule.
  */
 @Component
 @DiscoveryFunction
 public class SaveDiscoveryObjects implements Consumer<DiscoveryContext> {
 
     @Autowired
-    private DiscoveryObjectRepository discoveryObjectRepository;
+    private DiscoveryObjectBulkWriter discoveryObjectBulkWriter;
+
+    @Autowired
+    private DiscoveryFingerprintStore fingerprintStore;
 
     @Override
     public void accept(DiscoveryContext discoveryContext) {
+        discoveryContext.getDiscoveryDelta().ifPresent(delta -> carryForwardFilterResults(discoveryContext, delta));
+        saveSources(discoveryContext);
+        saveTargets(discoveryContext);
+        discoveryContext.getDiscoveryDelta().ifPresent(delta -> saveFingerprints(discoveryContext, delta));
+    }
+
+    /**
+     * Persist the source objects which have matched at least one filter.
+     * When discovering in chunks, these are the source objects of the current chunk.
+     * @param discoveryContext discovery context
+     */
+    public void saveSources(DiscoveryContext discoveryContext) {
         final List<DiscoveryObjectEntity> sourceEntities =
                 getDiscoveryObjectEntitiesWithFilterMatch(discoveryContext.getSources());
-        discoveryObjectRepository.saveAll(sourceEntities);
-        final List<DiscoveryObjectEntity> targetEntities =
-                getDiscoveryObjectEntitiesWithFilterMatch(discoveryContext.getTargets());
-        discoveryObjectRepository.saveAll(targetEntities);
+        discoveryObjectBulkWriter.insert(sourceEntities);
+    }
+
+    /**
+     * Persist the target objects which have matched at least one filter.
+     * If the full target properties are held in a target store, then the matched targets are restored from the store
+     * and persisted in batches of the chunk size.
+     * @param discoveryContext discovery context
+     */
+    public void saveTargets(DiscoveryContext discoveryContext) {
+        final Optional<TargetPropertiesStore> targetStore = discoveryContext.getTargetStore();
+        if (targetStore.isEmpty()) {
+            final List<DiscoveryObjectEntity> targetEntities =
+                    getDiscoveryObjectEntitiesWithFilterMatch(discoveryContext.getTargets());
+            discoveryObjectBulkWriter.insert(targetEntities);
+            return;
+        }
+        final List<DiscoveredObject> matchedTargets = discoveryContext.getTargets().stream()
+                .filter(DiscoveredObject::hasFilterMatch).toList();
+        ListUtils.partition(matchedTargets, discoveryContext.getChunkSize().orElse(Integer.MAX_VALUE)).forEach(batch ->
+                discoveryObjectBulkWriter.insert(batch.stream().map(targetStore.get()::restore)
+                        .map(o -> new DiscoveryObjectEntityMapper().apply(o)).collect(Collectors.toList())));
     }
 
     private List<DiscoveryObjectEntity> getDiscoveryObjectEntitiesWithFilterMatch(final List<DiscoveredObject> discoveredObjects) {
@@ -53,4 +101,48 @@ public class SaveDiscoveryObjects implements Consumer<DiscoveryContext> {
                 .map(o -> new DiscoveryObjectEntityMapper().apply(o))
                 .collect(Collectors.toList());
     }
+
+    private void carryForwardFilterResults(final DiscoveryContext discoveryContext, final DiscoveryDelta discoveryDelta) {
+        discoveryDelta.getPreviousJobId().ifPresent(previousJobId -> {
+            final Map<String, ApplicationConfigurationFilterDto> filterDefs = discoveryContext.getJobConf().getDiscover().getFilters();
+            carryForwardFilterResults(previousJobId, true, discoveryContext.getSources(), discoveryDelta, filterDefs);
+            carryForwardFilterResults(previousJobId, false, discoveryContext.getTargets(), discoveryDelta, filterDefs);
+        });
+    }
+
+    private void carryForwardFilterResults(final long previousJobId, final boolean sources, final List<DiscoveredObject> discoveredObjects,
+                                           final DiscoveryDelta discoveryDelta,
+                                           final Map<String, ApplicationConfigurationFilterDto> filterDefs) {
+        final Map<String, DiscoveredObject> objectsByKey = discoveredObjects.stream()
+                .filter(discoveryDelta::isFilterResultsCarriedForward)
+                .collect(Collectors.toMap(DiscoveredObject::getObjectKey, Function.identity()));
+        if (objectsByKey.isEmpty()) {
+            return;
+        }
+        fingerprintStore.findMatchedFilters(previousJobId, sources, (objectKey, filterName) -> {
+            final DiscoveredObject discoveredObject = objectsByKey.get(objectKey);
+            final ApplicationConfigurationFilterDto filterDef = filterDefs.get(filterName);
+            if (discoveredObject != null && filterDef != null) {
+                discoveredObject.addFilterResult(new FilterResult(filterName, filterDef, true));
+            }
+        });
+    }
+
+    private void saveFingerprints(final DiscoveryContext discoveryContext, final DiscoveryDelta discoveryDelta) {
+        final Map<String, Map<String, Object>> sourceProperties = discoveryContext.getDiscoverySourceEnrichAction().isPresent()
+                ? getPropertiesByObjectKey(discoveryContext.getSources()) : Map.of();
+        final Map<String, Map<String, Object>> targetProperties = discoveryContext.getDiscoveryTargetEnrichAction().isPresent()
+                ? getPropertiesByObjectKey(discoveryContext.getTargets()) : Map.of();
+        final List<DiscoveryFingerprint> fingerprints = discoveryDelta.getFingerprints().entrySet().stream()
+                .map(e -> new DiscoveryFingerprint(e.getKey(), e.getValue(), sourceProperties.get(e.getKey()),
+                        targetProperties.get(e.getKey())))
+                .toList();
+        fingerprintStore.insert(discoveryContext.getJobId(), fingerprints);
+    }
+
+    private static Map<String, Map<String, Object>> getPropertiesByObjectKey(final List<DiscoveredObject> discoveredObjects) {
+        return discoveredObjects.stream()
+                .filter(o -> Objects.nonNull(o.getObjectKey()))
+                .collect(Collectors.toMap(DiscoveredObject::getObjectKey, DiscoveredObject::getProperties));
+    }
 }
\ No newline at end of file
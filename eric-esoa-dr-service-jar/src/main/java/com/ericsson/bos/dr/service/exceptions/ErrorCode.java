@@ -78,6 +78,7 @@ public enum ErrorCode {
     KAFKA_SECRET_NOT_FOUND("DR-55", HttpStatus.INTERNAL_SERVER_ERROR),
     KAFKA_SECRET_DATA_FIELD_NOT_FOUND("DR-56", HttpStatus.INTERNAL_SERVER_ERROR),
     CANNOT_FORCE_DELETE_INPROGRESS_SCHEDULED_JOBS("DR-57", HttpStatus.CONFLICT),
+    OUTBOUND_LIMIT_EXCEEDED("DR-58", HttpStatus.TOO_MANY_REQUESTS),
     GENERAL_ERROR("DR-500", HttpStatus.INTERNAL_SERVER_ERROR);
 
 
@@ -19,6 +19,7 @@ package com.ericsson.bos.dr.service.execution;
 import java.util.Map;
 
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationActionDto;
+import io.micrometer.core.instrument.Tags;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
@@ -30,6 +31,8 @@ public class ExecutionContext {
     private final long featurePackId;
     private final ApplicationConfigurationActionDto actionDto;
     private final Map<String, Object> substitutionCtx;
+    private final ExecutionPlan executionPlan;
+    private final Tags metricTags;
 
     /**
      * ExecutionContext.
@@ -38,9 +41,47 @@ public class ExecutionContext {
      * @param substitutionCtx substitution context
      */
     public ExecutionContext(long featurePackId, ApplicationConfigurationActionDto actionDto, Map<String, Object> substitutionCtx) {
+        this(featurePackId, actionDto, substitutionCtx, null, ExecutionMetrics.NO_TAGS);
+    }
+
+    private ExecutionContext(long featurePackId, ApplicationConfigurationActionDto actionDto, Map<String, Object> substitutionCtx,
+                             ExecutionPlan executionPlan, Tags metricTags) {
         this.featurePackId = featurePackId;
         this.actionDto = actionDto;
         this.substitutionCtx = substitutionCtx;
+        this.executionPlan = executionPlan;
+        this.metricTags = metricTags;
+    }
+
+    /**
+     * Copy of this context with the compiled plan of the action.
+     * @param executionPlan execution plan of the action
+     * @return ExecutionContext
+     */
+    public ExecutionContext withExecutionPlan(ExecutionPlan executionPlan) {
+        return new ExecutionContext(featurePackId, actionDto, substitutionCtx, executionPlan, metricTags);
+    }
+
+    /**
+     * Copy of this context with a different substitution context.
+     * @param substitutionCtx substitution context
+     * @return ExecutionContext
+     */
+    public ExecutionContext withSubstitutionCtx(Map<String, Object> substitutionCtx) {
+        return new ExecutionContext(featurePackId, actionDto, substitutionCtx, executionPlan, metricTags);
+    }
+
+    /**
+     * Copy of this context with the metric tags of the action, see <code>ExecutionMetrics</code>.
+     * @param featurePack feature pack name
+     * @param application application name
+     * @param job job name in the application configuration
+     * @param action role of the action in the job, for example 'fetch_source'
+     * @return ExecutionContext
+     */
+    public ExecutionContext withMetricTags(String featurePack, String application, String job, String action) {
+        return new ExecutionContext(featurePackId, actionDto, substitutionCtx, executionPlan,
+                ExecutionMetrics.tags(featurePack, application, job, action));
     }
 
     public long getFeaturePackId() {
@@ -55,6 +96,18 @@ public class ExecutionContext {
         return substitutionCtx;
     }
 
+    /**
+     * Get the execution plan of the action, set when executed by the <code>ExecutionEngine</code>.
+     * @return <code>ExecutionPlan</code>, or null if the action was not compiled
+     */
+    public ExecutionPlan getExecutionPlan() {
+        return executionPlan;
+    }
+
+    public Tags getMetricTags() {
+        return metricTags;
+    }
+
     @Override
     public String toString() {
         return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
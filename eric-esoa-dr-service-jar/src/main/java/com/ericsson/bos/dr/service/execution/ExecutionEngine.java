@@ -15,9 +15,22 @@
  ******************************************************************************/
 package com.ericsson.bos.dr.service.execution;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 import com.ericsson.bos.dr.service.execution.executors.CommandExecutorException;
 import com.ericsson.bos.dr.service.execution.executors.CommandResponse;
@@ -26,11 +39,16 @@ import com.ericsson.bos.dr.service.execution.steps.ExecutionStep;
 import com.ericsson.bos.dr.service.execution.steps.JsonMappingStep;
 import com.ericsson.bos.dr.service.execution.steps.PostFunctionStep;
 import com.ericsson.bos.dr.service.execution.steps.PreFunctionStep;
+import com.ericsson.bos.dr.service.utils.Futures;
 import com.ericsson.bos.dr.service.utils.JSON;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
+import org.springframework.util.function.ThrowingConsumer;
 
 /**
  * Execution Engine is capable of executing an action defined by <code>ApplicationConfigurationActionDto</code>.
@@ -45,6 +63,21 @@ import org.springframework.stereotype.Component;
  *     in the response string.</li>
  *     <li>Map the command response using JQ, as per the mappings defined in the action.</li>
  * </ol>
+ * When executed asynchronously, the command is executed without holding the calling thread while waiting for the
+ * command response, if supported by the <code>CommandExecutor</code>. The PostFunction and mapping steps are then
+ * executed on the tasks executor.
+ * <p>
+ * The action is compiled into an <code>ExecutionPlan</code> on first execution, see <code>ExecutionPlanCompiler</code>,
+ * and the steps executed from the plan.
+ * </p>
+ * <p>
+ * The time of each step, the command response size and the number of mapped rows are recorded,
+ * see <code>ExecutionMetrics</code>.
+ * </p>
+ * <p>
+ * A command response held in a file is mapped as it is read from the file, when there is no PostFunction, and is
+ * otherwise read in full for the PostFunction. The file is deleted once the response is mapped.
+ * </p>
  */
 @Component
 public class ExecutionEngine {
@@ -54,27 +87,168 @@ public class ExecutionEngine {
     @Autowired
     private List<ExecutionStep<?, ?>> executionSteps;
 
+    @Autowired
+    @Qualifier("tasksExecutor")
+    private Executor executor;
+
+    @Autowired
+    private ExecutionPlanCompiler executionPlanCompiler;
+
+    private final Map<Class<?>, ExecutionStep<?, ?>> stepsByClass = new HashMap<>();
+
+    /**
+     * Index the execution steps by class, so each step is looked up without scanning the steps.
+     */
+    @PostConstruct
+    void init() {
+        executionSteps.forEach(step -> stepsByClass.put(step.getClass(), step));
+    }
+
     /**
      * Execute the action with available substitution context.
      * @param executionContext the action execution context
      * @return <code>ExecutionResult</code>
      */
-    public ExecutionResult execute(ExecutionContext executionContext) {
+    public ExecutionResult execute(ExecutionContext actionContext) {
+        final List<Map<String, Object>> jsonMappingOutput = new ArrayList<>();
+        final CommandResponse commandOutput = execute(actionContext, jsonMappingOutput::add);
+        return toExecutionResult(commandOutput, jsonMappingOutput);
+    }
+
+    /**
+     * Execute the action with available substitution context, passing each mapped object to the consumer
+     * as it is mapped rather than collecting the mapped objects. The command response is read incrementally
+     * when there is no PostFunction, so the caller decides how many mapped objects are held in memory.
+     * @param actionContext the action execution context
+     * @param consumer consumer of each mapped object, called in the executing thread
+     * @return the command response
+     */
+    public CommandResponse execute(ExecutionContext actionContext, Consumer<Map<String, Object>> consumer) {
         if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug("Executing action with ctx: {}", executionContext);
+            LOGGER.debug("Executing action with ctx: {}", actionContext);
         }
 
+        final ExecutionContext executionContext = executionPlanCompiler.compile(actionContext);
+        final var metrics = new ExecutionMetrics(executionContext);
         final Map<String, Object> initialInput = executionContext.getSubstitutionCtx();
-        final Map<String, Object> preFunctionOutput = executeStep(getStep(PreFunctionStep.class), initialInput, executionContext, exceptionHandler());
-        final CommandResponse commandOutput = executeStep(getStep(CommandStep.class), preFunctionOutput, executionContext, exceptionHandler());
-        final String postFunctionOutput = executeStep(getStep(PostFunctionStep.class), commandOutput.getResponse(), executionContext,
-                commandOutputExceptionHandler(commandOutput));
+        final Map<String, Object> preFunctionOutput = executeStep(getStep(PreFunctionStep.class), initialInput, executionContext,
+                metrics, exceptionHandler());
+        final CommandResponse commandOutput = executeStep(getStep(CommandStep.class), preFunctionOutput, executionContext,
+                metrics, exceptionHandler());
+        mapCommandOutput(commandOutput, preFunctionOutput, executionContext, metrics, consumer);
+        return commandOutput;
+    }
+
+    /**
+     * Execute the action with available substitution context, without holding the calling thread while
+     * waiting for the command response. The PreFunction is executed in the calling thread.
+     * @param executionContext the action execution context
+     * @return <code>CompletableFuture</code> of the <code>ExecutionResult</code>, completed exceptionally
+     * with the <code>ExecutionEngineException</code> if a step fails
+     */
+    public CompletableFuture<ExecutionResult> executeAsync(ExecutionContext actionContext) {
         if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug("PreFunction: {}, CommandResponse: {}, PostFunction: {}",
-                    JSON.toString(preFunctionOutput), commandOutput, postFunctionOutput);
+            LOGGER.debug("Executing action asynchronously with ctx: {}", actionContext);
+        }
+
+        final ExecutionContext executionContext;
+        final ExecutionMetrics metrics;
+        final Map<String, Object> preFunctionOutput;
+        try {
+            executionContext = executionPlanCompiler.compile(actionContext);
+            metrics = new ExecutionMetrics(executionContext);
+            preFunctionOutput = executeStep(getStep(PreFunctionStep.class), executionContext.getSubstitutionCtx(), executionContext,
+                    metrics, exceptionHandler());
+        } catch (final ExecutionEngineException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        final var commandStep = (CommandStep) this.<Map<String, Object>, CommandResponse>getStep(CommandStep.class);
+        final Timer.Sample commandSample = metrics.start();
+        CompletableFuture<CommandResponse> commandOutput;
+        try {
+            commandOutput = commandStep.executeAsync(preFunctionOutput, executionContext).toCompletableFuture();
+        } catch (final Exception e) {
+            commandOutput = CompletableFuture.failedFuture(e);
+        }
+        final BiFunction<CommandResponse, Throwable, ExecutionResult> mapping = (commandResponse, throwable) -> {
+            metrics.stop(commandSample, CommandStep.class, throwable == null);
+            if (throwable != null) {
+                throw new CompletionException(toExecutionEngineException(commandStep, Futures.unwrap(throwable), exceptionHandler()));
+            }
+            final List<Map<String, Object>> jsonMappingOutput = new ArrayList<>();
+            mapCommandOutput(commandResponse, preFunctionOutput, executionContext, metrics, jsonMappingOutput::add);
+            return toExecutionResult(commandResponse, jsonMappingOutput);
+        };
+        // continue in the calling thread if the command completed synchronously, do not map on a web client thread
+        return commandOutput.isDone() ? commandOutput.handle(mapping) : commandOutput.handleAsync(mapping, executor);
+    }
+
+    private void mapCommandOutput(CommandResponse commandOutput, Map<String, Object> preFunctionOutput,
+                                  ExecutionContext executionContext, ExecutionMetrics metrics,
+                                  Consumer<Map<String, Object>> consumer) {
+        metrics.recordResponseSize(commandOutput);
+        final var mappedRows = new AtomicInteger();
+        final Consumer<Map<String, Object>> rowConsumer = row -> {
+            mappedRows.incrementAndGet();
+            consumer.accept(row);
+        };
+        final Optional<Path> responseFile = commandOutput.getResponseFile();
+        try {
+            if (responseFile.isPresent() && executionContext.getExecutionPlan().getPostFunction() == null) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("PreFunction: {}, CommandResponse: {}", JSON.toString(preFunctionOutput), commandOutput);
+                }
+                mapEach(step -> {
+                    try (Reader reader = Files.newBufferedReader(responseFile.get(), StandardCharsets.UTF_8)) {
+                        step.execute(reader, executionContext, rowConsumer);
+                    }
+                }, commandOutput, metrics);
+            } else {
+                final String response = responseFile.isPresent() ? readResponseFile(responseFile.get(), commandOutput)
+                        : commandOutput.getResponse();
+                final String postFunctionOutput = executeStep(getStep(PostFunctionStep.class), response, executionContext,
+                        metrics, commandOutputExceptionHandler(commandOutput));
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("PreFunction: {}, CommandResponse: {}, PostFunction: {}",
+                            JSON.toString(preFunctionOutput), commandOutput, postFunctionOutput);
+                }
+                mapEach(step -> step.execute(postFunctionOutput, executionContext, rowConsumer), commandOutput, metrics);
+            }
+        } finally {
+            responseFile.ifPresent(this::deleteResponseFile);
         }
-        final List<Map<String, Object>> jsonMappingOutput = executeStep(getStep(JsonMappingStep.class), postFunctionOutput, executionContext,
-                commandOutputExceptionHandler(commandOutput));
+        metrics.recordMappedRows(mappedRows.get());
+    }
+
+    private void mapEach(ThrowingConsumer<JsonMappingStep> mapping, CommandResponse commandOutput, ExecutionMetrics metrics) {
+        final var jsonMappingStep = (JsonMappingStep) this.<String, List<Map<String, Object>>>getStep(JsonMappingStep.class);
+        final Timer.Sample sample = metrics.start();
+        try {
+            mapping.acceptWithException(jsonMappingStep);
+        } catch (final Exception e) {
+            metrics.stop(sample, JsonMappingStep.class, false);
+            throw toExecutionEngineException(jsonMappingStep, e, commandOutputExceptionHandler(commandOutput));
+        }
+        metrics.stop(sample, JsonMappingStep.class, true);
+    }
+
+    private String readResponseFile(Path responseFile, CommandResponse commandOutput) {
+        try {
+            return Files.readString(responseFile, StandardCharsets.UTF_8);
+        } catch (final IOException e) {
+            throw toExecutionEngineException(getStep(PostFunctionStep.class), e, commandOutputExceptionHandler(commandOutput));
+        }
+    }
+
+    private void deleteResponseFile(Path responseFile) {
+        try {
+            Files.deleteIfExists(responseFile);
+        } catch (final IOException e) {
+            LOGGER.warn("Failed to delete command response file {}", responseFile, e);
+        }
+    }
+
+    private ExecutionResult toExecutionResult(CommandResponse commandOutput, List<Map<String, Object>> jsonMappingOutput) {
         final var executionResult = new ExecutionResult(commandOutput, jsonMappingOutput);
 
         if (LOGGER.isDebugEnabled()) {
@@ -84,16 +258,47 @@ public class ExecutionEngine {
     }
 
     private <I, O> O executeStep(ExecutionStep<I, O> executionStep, I input,
-                                 ExecutionContext executionContext,
+                                 ExecutionContext executionContext, ExecutionMetrics metrics,
                                  BiFunction<ExecutionStep<I,O>, Exception, ExecutionEngineException>  exceptionHandler) {
+        final boolean timed = isDefined(executionStep, executionContext);
+        final Timer.Sample sample = timed ? metrics.start() : null;
+        final O output;
         try {
-            return executionStep.execute(input, executionContext);
-        } catch (final CommandExecutorException e) {
-            throw new ExecutionEngineException(e, executionStep.getClass().getSimpleName(),
-                    new CommandResponse(e.getCommand(), e.getCommandOutput()));
+            output = executionStep.execute(input, executionContext);
         } catch (final Exception e) {
-            throw exceptionHandler.apply(executionStep, e);
+            if (timed) {
+                metrics.stop(sample, executionStep.getClass(), false);
+            }
+            throw toExecutionEngineException(executionStep, e, exceptionHandler);
+        }
+        if (timed) {
+            metrics.stop(sample, executionStep.getClass(), true);
+        }
+        return output;
+    }
+
+    /**
+     * PreFunction and PostFunction steps not defined in the action are executed, returning the input, but not timed.
+     */
+    private boolean isDefined(ExecutionStep<?, ?> executionStep, ExecutionContext executionContext) {
+        final ExecutionPlan executionPlan = executionContext.getExecutionPlan();
+        if (executionStep instanceof PreFunctionStep) {
+            return executionPlan.getPreFunction() != null;
+        } else if (executionStep instanceof PostFunctionStep) {
+            return executionPlan.getPostFunction() != null;
+        }
+        return true;
+    }
+
+    private <I, O> ExecutionEngineException toExecutionEngineException(ExecutionStep<I, O> executionStep, Throwable throwable,
+                                 BiFunction<ExecutionStep<I,O>, Exception, ExecutionEngineException>  exceptionHandler) {
+        if (throwable instanceof CommandExecutorException e) {
+            return new ExecutionEngineException(e, executionStep.getClass().getSimpleName(),
+                    new CommandResponse(e.getCommand(), e.getCommandOutput()));
+        } else if (throwable instanceof Exception e) {
+            return exceptionHandler.apply(executionStep, e);
         }
+        throw (Error) throwable;
     }
 
     private <I,O> BiFunction<ExecutionStep<I,O>, Exception, ExecutionEngineException> exceptionHandler() {
@@ -105,7 +310,7 @@ public class ExecutionEngine {
     }
 
     private <I, O> ExecutionStep<I, O> getStep(final Class<? extends ExecutionStep> clazz) {
-        return (ExecutionStep<I, O>) executionSteps.stream().filter(step -> step.getClass().equals(clazz)).findAny()
+        return (ExecutionStep<I, O>) Optional.ofNullable(stepsByClass.get(clazz))
                 .orElseThrow(() -> new IllegalArgumentException("Invalid step " + clazz.getName()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.service.execution;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import com.ericsson.bos.dr.service.execution.executors.CommandResponse;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Metrics of an action execution by the <code>ExecutionEngine</code>.
+ * <ul>
+ *     <li><code>execution_step</code> timer of each executed step, tagged with the step and outcome.</li>
+ *     <li><code>execution_command_response_size</code> summary of the command response size in bytes, the UTF-8
+ *     encoded length for a response in memory and the file size for a response held in a file.</li>
+ *     <li><code>execution_mapped_rows</code> summary of the number of mapped rows.</li>
+ * </ul>
+ * All metrics are tagged with the feature pack, application, job and action role set in the
+ * <code>ExecutionContext</code>, and the executor type of the action. The job is the name of the job in the
+ * application configuration, not the name given to a job instance, so the number of tag values is bounded by
+ * the configuration. Tags not set in the <code>ExecutionContext</code> have the value 'none'.
+ */
+public class ExecutionMetrics {
+
+    static final String NONE = "none";
+
+    static final Tags NO_TAGS = tags(null, null, null, null);
+
+    private static final String STEP_TIMER = "execution_step";
+    private static final String RESPONSE_SIZE_SUMMARY = "execution_command_response_size";
+    private static final String MAPPED_ROWS_SUMMARY = "execution_mapped_rows";
+
+    private final Tags tags;
+
+    /**
+     * ExecutionMetrics for the action in the execution context.
+     * @param executionContext execution context
+     */
+    public ExecutionMetrics(final ExecutionContext executionContext) {
+        final String executor = Optional.ofNullable(executionContext.getActionDto().getType())
+                .map(type -> type.toString().toLowerCase()).orElse(NONE);
+        this.tags = executionContext.getMetricTags().and("executor", executor);
+    }
+
+    /**
+     * Create the metric tags of an action.
+     * @param featurePack feature pack name
+     * @param application application name
+     * @param job job name in the application configuration
+     * @param action role of the action in the job, for example 'fetch_source'
+     * @return <code>Tags</code>
+     */
+    public static Tags tags(final String featurePack, final String application, final String job, final String action) {
+        return Tags.of("feature_pack", valueOrNone(featurePack), "application", valueOrNone(application),
+                "job", valueOrNone(job), "action", valueOrNone(action));
+    }
+
+    /**
+     * Start timing a step.
+     * @return <code>Timer.Sample</code>
+     */
+    public Timer.Sample start() {
+        return Timer.start(Metrics.globalRegistry);
+    }
+
+    /**
+     * Stop timing a step.
+     * @param sample sample started for the step
+     * @param step executed step
+     * @param success true if the step completed successfully
+     */
+    public void stop(final Timer.Sample sample, final Class<?> step, final boolean success) {
+        sample.stop(Timer.builder(STEP_TIMER)
+                .tags(tags)
+                .tag("step", step.getSimpleName())
+                .tag("outcome", success ? "success" : "failed")
+                .register(Metrics.globalRegistry));
+    }
+
+    /**
+     * Record the size of the command response.
+     * @param commandResponse command response
+     */
+    public void recordResponseSize(final CommandResponse commandResponse) {
+        final Optional<Path> responseFile = commandResponse.getResponseFile();
+        final long size;
+        if (responseFile.isPresent()) {
+            try {
+                size = Files.size(responseFile.get());
+            } catch (final IOException e) {
+                return;
+            }
+        } else {
+            size = Optional.ofNullable(commandResponse.getResponse()).map(response -> response.getBytes(StandardCharsets.UTF_8).length).orElse(0);
+        }
+        DistributionSummary.builder(RESPONSE_SIZE_SUMMARY)
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(Metrics.globalRegistry)
+                .record(size);
+    }
+
+    /**
+     * Record the number of mapped rows.
+     * @param rows number of mapped rows
+     */
+    public void recordMappedRows(final int rows) {
+        DistributionSummary.builder(MAPPED_ROWS_SUMMARY)
+                .tags(tags)
+                .register(Metrics.globalRegistry)
+                .record(rows);
+    }
+
+    private static String valueOrNone(final String value) {
+        return value == null || value.isEmpty() ? NONE : value;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.service.execution;
+
+import java.util.Collections;
+import java.util.Map;
+
+import com.ericsson.bos.dr.service.execution.executors.CommandExecutor;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Immutable execution plan of an action, created by the <code>ExecutionPlanCompiler</code>.
+ * Holds everything derived from the action which does not change between executions, so that it is
+ * not derived again for each execution of the same action.
+ */
+public class ExecutionPlan {
+
+    private final long featurePackId;
+    private final CommandExecutor executor;
+    private final String preFunction;
+    private final boolean preFunctionResultObject;
+    private final String postFunction;
+    private final Map<String, Object> mappings;
+    private final Map<String, Object> properties;
+
+    /**
+     * ExecutionPlan.
+     * @param featurePackId feature pack id
+     * @param executor the executor of the action command
+     * @param preFunction the preFunction template, with any asset content resolved, or null if not defined
+     * @param preFunctionResultObject true if the preFunction result is to be converted to an Object
+     * @param postFunction the postFunction template, with any asset content resolved, or null if not defined
+     * @param mappings the jq mappings
+     * @param properties the action properties, with case-insensitive keys
+     */
+    public ExecutionPlan(long featurePackId, CommandExecutor executor, String preFunction, boolean preFunctionResultObject,
+                         String postFunction, Map<String, Object> mappings, Map<String, Object> properties) {
+        this.featurePackId = featurePackId;
+        this.executor = executor;
+        this.preFunction = preFunction;
+        this.preFunctionResultObject = preFunctionResultObject;
+        this.postFunction = postFunction;
+        this.mappings = Collections.unmodifiableMap(mappings);
+        this.properties = Collections.unmodifiableMap(properties);
+    }
+
+    public long getFeaturePackId() {
+        return featurePackId;
+    }
+
+    public CommandExecutor getExecutor() {
+        return executor;
+    }
+
+    public String getPreFunction() {
+        return preFunction;
+    }
+
+    public boolean isPreFunctionResultObject() {
+        return preFunctionResultObject;
+    }
+
+    public String getPostFunction() {
+        return postFunction;
+    }
+
+    public Map<String, Object> getMappings() {
+        return mappings;
+    }
+
+    public Map<String, Object> getProperties() {
+        return properties;
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
+    }
+}
\ No newline at end of file
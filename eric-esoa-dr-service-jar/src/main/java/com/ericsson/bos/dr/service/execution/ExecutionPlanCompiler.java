@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.service.execution;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import com.ericsson.bos.dr.service.AssetService;
+import com.ericsson.bos.dr.service.execution.executors.CommandExecutor;
+import com.ericsson.bos.dr.service.execution.steps.CommandStep;
+import com.ericsson.bos.dr.service.execution.steps.PostFunctionStep;
+import com.ericsson.bos.dr.service.execution.steps.PreFunctionStep;
+import com.ericsson.bos.dr.service.utils.JSON;
+import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationActionDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+/**
+ * Compiles an action into an immutable <code>ExecutionPlan</code>, on first execution of the action.
+ * The plan resolves the command executor, the preFunction and postFunction templates, including the content
+ * of referenced assets, and whether the preFunction result is converted to an Object.
+ * <p>
+ * Plans are cached against the action instance, compared by identity, so an action in the application
+ * configuration of a job is compiled once for all executions in the job. The cache holds the actions weakly,
+ * a plan is removed once its action is no longer referenced. Hit and miss counts are recorded in the
+ * <code>cache.gets</code> metrics of the <code>execution_plan_cache</code>.
+ * </p>
+ */
+@Component
+public class ExecutionPlanCompiler {
+
+    private static final String ASSET_PREFIX = "@";
+
+    private final Cache<ApplicationConfigurationActionDto, ExecutionPlan> plans = Caffeine.newBuilder()
+            .weakKeys()
+            .recordStats()
+            .build();
+
+    @Autowired
+    private List<CommandExecutor> executors;
+
+    @Autowired
+    private AssetService assetService;
+
+    /**
+     * Constructor, registering cache metrics.
+     */
+    public ExecutionPlanCompiler() {
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, plans, "execution_plan_cache");
+    }
+
+    /**
+     * Get the execution context with the plan of its action, compiling the plan if not already compiled.
+     * @param executionContext execution context
+     * @return <code>ExecutionContext</code> with the <code>ExecutionPlan</code>
+     * @throws ExecutionEngineException if the plan cannot be compiled, originating from the step whose
+     * part of the plan failed
+     */
+    public ExecutionContext compile(final ExecutionContext executionContext) {
+        final ApplicationConfigurationActionDto action = executionContext.getActionDto();
+        final long featurePackId = executionContext.getFeaturePackId();
+        ExecutionPlan plan = plans.get(action, a -> compile(a, featurePackId));
+        if (plan.getFeaturePackId() != featurePackId) {
+            plan = compile(action, featurePackId);
+            plans.put(action, plan);
+        }
+        return executionContext.withExecutionPlan(plan);
+    }
+
+    private ExecutionPlan compile(final ApplicationConfigurationActionDto action, final long featurePackId) {
+        final String preFunction = compileStep(PreFunctionStep.class, () -> getTemplate(action.getPreFunction(), featurePackId));
+        final CommandExecutor executor = compileStep(CommandStep.class, () -> getExecutor(action));
+        final String postFunction = compileStep(PostFunctionStep.class, () -> getTemplate(action.getPostFunction(), featurePackId));
+        final Map<String, Object> properties = new LinkedCaseInsensitiveMap<>();
+        Optional.ofNullable(action.getProperties()).ifPresent(properties::putAll);
+        final Map<String, Object> mappings = Optional.ofNullable(action.getMapping()).orElse(Collections.emptyMap());
+        return new ExecutionPlan(featurePackId, executor, preFunction, preFunction != null && isPreFunctionResultObject(action), postFunction,
+                mappings, properties);
+    }
+
+    private <T> T compileStep(final Class<?> step, final Supplier<T> supplier) {
+        try {
+            return supplier.get();
+        } catch (final Exception e) {
+            throw new ExecutionEngineException(e, step.getSimpleName());
+        }
+    }
+
+    private String getTemplate(final String function, final long featurePackId) {
+        if (function != null && function.startsWith(ASSET_PREFIX)) {
+            return new String(assetService.getAssetContent(function.substring(1), featurePackId), StandardCharsets.UTF_8);
+        }
+        return function;
+    }
+
+    private CommandExecutor getExecutor(final ApplicationConfigurationActionDto action) {
+        final var commandType = action.getType().toString();
+        return executors.stream().filter(e -> e.canExecute(commandType)).findAny()
+                .orElseThrow(() -> new IllegalArgumentException("No executor found for type " + commandType));
+    }
+
+    /**
+     * The preFunction result is converted to an Object, unless the command properties substitute
+     * the result directly, '{{preFunction}}'.
+     */
+    private boolean isPreFunctionResultObject(final ApplicationConfigurationActionDto action) {
+        final var propertiesString = JSON.toString(action.getProperties());
+        return !StringUtils.deleteWhitespace(propertiesString).contains("{{preFunction}}");
+    }
+}
\ No newline at end of file
@@ -15,6 +15,9 @@
  ******************************************************************************/
 package com.ericsson.bos.dr.service.execution.executors;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
 import com.ericsson.bos.dr.service.execution.ExecutionContext;
 
 /**
@@ -29,6 +32,22 @@ public interface CommandExecutor {
      */
     CommandResponse execute(ExecutionContext executionContext);
 
+    /**
+     * Execute the command asynchronously. The returned stage is completed with the <code>CommandResponse</code>,
+     * or completed exceptionally with the <code>CommandExecutorException</code>.
+     * Executors able to wait for the command without holding a thread should override this method,
+     * by default the command is executed synchronously in the calling thread.
+     * @param executionContext execution context
+     * @return <code>CompletionStage</code> of the <code>CommandResponse</code>
+     */
+    default CompletionStage<CommandResponse> executeAsync(ExecutionContext executionContext) {
+        try {
+            return CompletableFuture.completedFuture(execute(executionContext));
+        } catch (final RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
     /**
      * Check if executor support the type defined in the action.
      * @param type the command type e.g rest, shell
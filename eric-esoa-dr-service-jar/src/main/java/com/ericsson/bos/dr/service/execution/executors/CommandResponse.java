@@ -15,6 +15,15 @@
  ******************************************************************************/
 package com.ericsson.bos.dr.service.execution.executors;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 
@@ -22,11 +31,19 @@ import com.ericsson.bos.dr.service.utils.JSON;
 
 /**
  * Command response.
+ * <p>
+ * A large response may be held in a file rather than in memory. In that case the response string contains only
+ * the start of the response, and the full response is read from the file. The file is deleted by the
+ * <code>ExecutionEngine</code> once the response has been mapped.
+ * </p>
  */
 public class CommandResponse {
 
+    private static final int FILE_RESPONSE_PREVIEW_SIZE = 1024;
+
     private String command;
     private String response;
+    private Path responseFile;
 
     /**
      * CommandResponse.
@@ -40,6 +57,17 @@ public class CommandResponse {
         this.response = JSON.compact(commandResponse);
     }
 
+    /**
+     * CommandResponse for a response held in a file.
+     * @param command the executed command
+     * @param responseFile file containing the command response
+     */
+    public CommandResponse(String command, Path responseFile) {
+        this.command = command;
+        this.responseFile = responseFile;
+        this.response = readPreview(responseFile);
+    }
+
     public String getCommand() {
         return command;
     }
@@ -48,6 +76,25 @@ public class CommandResponse {
         return response;
     }
 
+    public Optional<Path> getResponseFile() {
+        return Optional.ofNullable(responseFile);
+    }
+
+    /**
+     * Read the start of a response held in a file.
+     * @param responseFile file containing the command response
+     * @return start of the response, followed by '...' if truncated
+     */
+    public static String readPreview(final Path responseFile) {
+        try (Reader reader = Files.newBufferedReader(responseFile, StandardCharsets.UTF_8)) {
+            final char[] preview = new char[FILE_RESPONSE_PREVIEW_SIZE];
+            final int length = IOUtils.read(reader, preview);
+            return length < FILE_RESPONSE_PREVIEW_SIZE ? new String(preview, 0, length) : new String(preview) + "...";
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @Override
     public String toString() {
         return ToStringBuilder.reflectionToString(this, ToStringStyle.NO_CLASS_NAME_STYLE);
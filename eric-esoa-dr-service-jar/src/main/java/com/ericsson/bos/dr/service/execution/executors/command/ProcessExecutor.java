@@ -19,61 +19,165 @@ import static com.ericsson.bos.dr.service.execution.executors.command.CommandFor
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import com.ericsson.bos.dr.service.execution.ExecutionContext;
 import com.ericsson.bos.dr.service.execution.executors.CommandExecutorException;
 import com.ericsson.bos.dr.service.execution.executors.CommandResponse;
+import com.ericsson.bos.dr.service.http.ResponseBuffer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
  * Executes commands/scripts in the shell
+ * <p>
+ * The process output is read as it is written, into a <code>ResponseBuffer</code> which writes the output to a
+ * temporary file once it exceeds the configured threshold. The process is killed, together with any processes it
+ * started, if it exceeds its timeout or if the job it is executed for fails. Once a job has failed, no further
+ * process is started for it until it is reconciled again.
+ * </p>
+ * <p>
+ * The time to start a process is available in the <code>process_executor_spawn</code> metric and the process
+ * runtime in the <code>process_executor_runtime</code> metric, tagged with the outcome.
+ * </p>
  */
 @Component
 public class ProcessExecutor {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProcessExecutor.class);
+
     private static final Pattern NON_ASCII_CHARS = Pattern.compile("[^\\p{ASCII}]");
 
+    private static final String TIMEOUT_PROPERTY = "timeoutSeconds";
+
+    private static final ExecutorService OUTPUT_READERS = Executors.newCachedThreadPool(runnable -> {
+        final var thread = new Thread(runnable, "process-output-reader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     /**
      * Limit the process to executing commands in the configured path.
      */
     @Value("${service.shell-executor.process-path}")
     private String processPath;
 
+    @Value("${service.process-executor.timeout}")
+    private long timeout;
+
+    @Value("${service.process-executor.output.threshold-kb}")
+    private long outputThresholdKb;
+
+    @Value("${service.process-executor.output.dir}")
+    private String outputDir;
+
+    private final Map<Long, Set<RunningProcess>> jobProcesses = new ConcurrentHashMap<>();
+
     /**
-     * Executes the given command and returns the response.
+     * Jobs whose processes have been cancelled. Expired after an hour, by which time the tasks of the failed
+     * job have completed.
+     */
+    private final Cache<Long, Boolean> cancelledJobs = Caffeine.newBuilder().expireAfterWrite(Duration.ofHours(1)).build();
+
+    /**
+     * Executes the given command for the action being executed and returns the response.
+     * The process is killed if it exceeds the action 'timeoutSeconds' property, or the configured
+     * default timeout, or if the job it is executed for fails.
      *
      * @param command   command to execute
      * @param env variables to include in the process env
+     * @param executionContext execution context of the action
      * @return CommandResponse
      * @throws IOException          IOException
      * @throws InterruptedException InterruptedException
      */
-    public CommandResponse executeProcess(String command, Map<String, String> env) throws IOException, InterruptedException {
-        final List<String> commandsToExecute = constructFullCommand(command);
-        final var processBuilder = new ProcessBuilder(commandsToExecute).redirectErrorStream(true);
-        setProcessPathEnv(processBuilder);
-        processBuilder.environment().putAll(env);
-        Process process = null;
+    public CommandResponse executeProcess(String command, Map<String, String> env, ExecutionContext executionContext)
+            throws IOException, InterruptedException {
+        return executeProcess(command, env, getTimeout(executionContext), getJobId(executionContext));
+    }
+
+    /**
+     * Get the timeout of the action being executed, which is the action 'timeoutSeconds' property if set,
+     * otherwise the configured default timeout.
+     *
+     * @param executionContext execution context of the action
+     * @return timeout
+     */
+    public Duration getTimeout(final ExecutionContext executionContext) {
+        final Object actionTimeout = Optional.ofNullable(executionContext.getActionDto().getProperties())
+                .map(properties -> properties.get(TIMEOUT_PROPERTY)).orElse(null);
+        return Duration.ofSeconds(actionTimeout == null ? timeout : Double.valueOf(actionTimeout.toString()).longValue());
+    }
+
+    /**
+     * Make a call to a process which was not started by this executor, such as a long-lived worker process,
+     * for the action being executed. The process is killed if the job the action is executed for fails, and the
+     * call is refused if the job has already failed.
+     *
+     * @param command   command executed by the call
+     * @param process   process called
+     * @param executionContext execution context of the action
+     * @param call      the call
+     * @param <T>       call result type
+     * @return call result
+     * @throws IOException IOException
+     */
+    public <T> T callProcess(final String command, final Process process, final ExecutionContext executionContext,
+                             final ProcessCall<T> call) throws IOException {
+        final Optional<Long> jobId = getJobId(executionContext);
+        if (jobId.isPresent() && isCancelled(jobId.get())) {
+            throw new CommandExecutorException(command, "Process not started as the job failed");
+        }
+        final var runningProcess = new RunningProcess(process);
+        jobId.ifPresent(id -> register(id, runningProcess));
         try {
-            process = processBuilder.start();
-            final var commandOutput = readProcessInputStream(process);
-            process.waitFor();
-            if (process.exitValue() != 0) {
-                throw new CommandExecutorException(commandsToExecute.toString(), commandOutput);
+            return call.call();
+        } catch (final IOException e) {
+            if (runningProcess.isCancelled()) {
+                throw new CommandExecutorException(command, "Process killed as the job failed");
             }
-            return new CommandResponse(commandsToExecute.toString(), commandOutput);
+            throw e;
         } finally {
-            if (process != null) {
-                process.destroy();
-            }
+            jobId.ifPresent(id -> unregister(id, runningProcess));
         }
     }
 
+    /**
+     * Executes the given command and returns the response.
+     *
+     * @param command   command to execute
+     * @param env variables to include in the process env
+     * @return CommandResponse
+     * @throws IOException          IOException
+     * @throws InterruptedException InterruptedException
+     */
+    public CommandResponse executeProcess(String command, Map<String, String> env) throws IOException, InterruptedException {
+        return executeProcess(command, env, Duration.ofSeconds(timeout), Optional.empty());
+    }
+
     /**
      * Executes the given command and returns the response.
      *
@@ -86,19 +190,234 @@ public class ProcessExecutor {
         return executeProcess(command, Collections.emptyMap());
     }
 
-    private String readProcessInputStream(final Process process) throws IOException {
-        String output;
+    /**
+     * Kill the processes executing for the job, together with any processes they started.
+     *
+     * @param jobId job id
+     */
+    public void cancelJobProcesses(final long jobId) {
+        cancelledJobs.put(jobId, true);
+        final Set<RunningProcess> processes = jobProcesses.remove(jobId);
+        if (processes != null) {
+            LOGGER.info("Killing {} process(es) of failed job {}", processes.size(), jobId);
+            processes.forEach(RunningProcess::cancel);
+        }
+    }
+
+    /**
+     * Allow processes to be executed again for a job whose processes were cancelled, when the job is reconciled again.
+     *
+     * @param jobId job id
+     */
+    public void allowJobProcesses(final long jobId) {
+        cancelledJobs.invalidate(jobId);
+    }
+
+    /**
+     * Format the output of a command, trimming each line and removing non-ascii characters.
+     *
+     * @param lines output lines
+     * @return formatted output
+     */
+    public static String formatOutput(final Stream<String> lines) {
+        return lines.map(ProcessExecutor::formatLine)
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+
+    private CommandResponse executeProcess(final String command, final Map<String, String> env, final Duration timeout,
+                                           final Optional<Long> jobId) throws IOException, InterruptedException {
+        final List<String> commandsToExecute = constructFullCommand(command);
+        final String executedCommand = commandsToExecute.toString();
+        if (jobId.isPresent() && isCancelled(jobId.get())) {
+            throw new CommandExecutorException(executedCommand, "Process not started as the job failed");
+        }
+        final var processBuilder = new ProcessBuilder(commandsToExecute).redirectErrorStream(true);
+        setProcessPathEnv(processBuilder);
+        processBuilder.environment().putAll(env);
+        final long spawnStartTime = System.nanoTime();
+        final Process process = processBuilder.start();
+        final long startTime = System.nanoTime();
+        Metrics.timer("process_executor_spawn").record(startTime - spawnStartTime, TimeUnit.NANOSECONDS);
+
+        final var runningProcess = new RunningProcess(process);
+        jobId.ifPresent(id -> register(id, runningProcess));
+        final var output = new ResponseBuffer(outputThresholdKb * 1024, Path.of(outputDir));
+        final Future<?> outputReader = OUTPUT_READERS.submit(() -> readProcessOutput(process, output));
+        String outcome = "failed";
+        boolean outputReturned = false;
+        try {
+            if (!waitFor(process, outputReader, timeout)) {
+                outcome = "timed_out";
+                throw new CommandExecutorException(executedCommand,
+                        String.format("Process timed out after %d seconds", timeout.toSeconds()));
+            }
+            if (runningProcess.isCancelled()) {
+                outcome = "cancelled";
+                throw new CommandExecutorException(executedCommand, "Process killed as the job failed");
+            }
+            output.complete();
+            if (process.exitValue() != 0) {
+                throw new CommandExecutorException(executedCommand, output.getFile().map(CommandResponse::readPreview)
+                        .orElseGet(() -> Optional.ofNullable(output.asString()).orElse("")));
+            }
+            outcome = "success";
+            outputReturned = true;
+            final Optional<Path> outputFile = output.getFile();
+            if (outputFile.isPresent()) {
+                LOGGER.debug("Process output of {} bytes written to file {}", output.getSize(), outputFile.get());
+                return new CommandResponse(executedCommand, outputFile.get());
+            }
+            return new CommandResponse(executedCommand, Optional.ofNullable(output.asString()).orElse(""));
+        } catch (final InterruptedException e) {
+            outcome = "cancelled";
+            throw e;
+        } finally {
+            jobId.ifPresent(id -> unregister(id, runningProcess));
+            if (process.isAlive()) {
+                destroyProcessTree(process);
+            }
+            outputReader.cancel(true);
+            if (!outputReturned) {
+                output.delete();
+            }
+            Metrics.timer("process_executor_runtime", "outcome", outcome)
+                    .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Register the process of a job. The process is killed straight away if the job processes have been cancelled
+     * in the meantime.
+     */
+    private void register(final long jobId, final RunningProcess runningProcess) {
+        jobProcesses.compute(jobId, (id, processes) -> {
+            if (isCancelled(id)) {
+                runningProcess.cancel();
+                return processes;
+            }
+            final Set<RunningProcess> jobRunningProcesses = processes == null ? ConcurrentHashMap.newKeySet() : processes;
+            jobRunningProcesses.add(runningProcess);
+            return jobRunningProcesses;
+        });
+    }
+
+    private void unregister(final long jobId, final RunningProcess runningProcess) {
+        jobProcesses.computeIfPresent(jobId, (id, processes) -> {
+            processes.remove(runningProcess);
+            return processes.isEmpty() ? null : processes;
+        });
+    }
+
+    private boolean isCancelled(final long jobId) {
+        return cancelledJobs.getIfPresent(jobId) != null;
+    }
+
+    /**
+     * Wait for the process to exit and its output to be read.
+     * @return false if the timeout is exceeded, in which case the process is killed
+     */
+    private boolean waitFor(final Process process, final Future<?> outputReader, final Duration timeout)
+            throws InterruptedException, IOException {
+        final boolean bounded = !timeout.isZero() && !timeout.isNegative();
+        final long deadline = System.nanoTime() + timeout.toNanos();
+        if (bounded && !process.waitFor(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+            destroyProcessTree(process);
+            return false;
+        }
+        process.waitFor();
+        try {
+            if (bounded) {
+                outputReader.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } else {
+                outputReader.get();
+            }
+            return true;
+        } catch (final TimeoutException e) {
+            // the output is held open by a process started by the command
+            destroyProcessTree(process);
+            return false;
+        } catch (final ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private void readProcessOutput(final Process process, final ResponseBuffer output) {
         try (BufferedReader br = new BufferedReader(new InputStreamReader(process.getInputStream()))) { // NOSONAR
-            output = br.lines().map(String::trim)
-                    .collect(Collectors.joining(System.lineSeparator()));
-            final var m = NON_ASCII_CHARS.matcher(output);
-            output = m.replaceAll("");
+            final byte[] lineSeparator = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+            String line;
+            boolean first = true;
+            while ((line = br.readLine()) != null) {
+                if (!first) {
+                    output.write(lineSeparator, 0, lineSeparator.length);
+                }
+                final byte[] formattedLine = formatLine(line).getBytes(StandardCharsets.UTF_8);
+                output.write(formattedLine, 0, formattedLine.length);
+                first = false;
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return output;
+    }
+
+    private static String formatLine(final String line) {
+        return NON_ASCII_CHARS.matcher(line.trim()).replaceAll("");
+    }
+
+    private static void destroyProcessTree(final Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    private static Optional<Long> getJobId(final ExecutionContext executionContext) {
+        return Optional.ofNullable(executionContext.getSubstitutionCtx())
+                .map(substitutionCtx -> substitutionCtx.get("job"))
+                .filter(Map.class::isInstance)
+                .map(job -> ((Map<?, ?>) job).get("id"))
+                .filter(Number.class::isInstance)
+                .map(id -> ((Number) id).longValue());
     }
 
     private void setProcessPathEnv(final ProcessBuilder processBuilder) {
         final Map<String, String> env = processBuilder.environment();
         env.put("PATH", processPath);
     }
-}
\ No newline at end of file
+
+    /**
+     * Call made to a process.
+     *
+     * @param <T> call result type
+     */
+    @FunctionalInterface
+    public interface ProcessCall<T> {
+
+        /**
+         * Make the call.
+         *
+         * @return call result
+         * @throws IOException IOException
+         */
+        T call() throws IOException;
+    }
+
+    /**
+     * Process executing for a job, which is killed if the job fails.
+     */
+    private static final class RunningProcess {
+
+        private final Process process;
+        private volatile boolean cancelled;
+
+        private RunningProcess(final Process process) {
+            this.process = process;
+        }
+
+        private void cancel() {
+            cancelled = true;
+            destroyProcessTree(process);
+        }
+
+        private boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
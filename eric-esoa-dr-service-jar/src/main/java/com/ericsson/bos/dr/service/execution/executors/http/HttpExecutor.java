@@ -15,9 +15,23 @@
  ******************************************************************************/
 package com.ericsson.bos.dr.service.execution.executors.http;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClientRequestException;
@@ -28,11 +42,21 @@ import com.ericsson.bos.dr.service.execution.ExecutionContext;
 import com.ericsson.bos.dr.service.execution.executors.CommandExecutor;
 import com.ericsson.bos.dr.service.execution.executors.CommandExecutorException;
 import com.ericsson.bos.dr.service.execution.executors.CommandResponse;
+import com.ericsson.bos.dr.service.execution.executors.http.HttpResponseCache.CachedResponse;
 import com.ericsson.bos.dr.service.http.HttpClient;
 import com.ericsson.bos.dr.service.http.HttpRequest;
+import com.ericsson.bos.dr.service.http.ResponseBuffer;
+import com.ericsson.bos.dr.service.utils.Futures;
+import com.ericsson.bos.dr.service.utils.SingleFlight;
 
 /**
  * Executes http requests based on the action properties from the application configuration.
+ * A response exceeding the http client large response threshold is returned in a file.
+ * Responses are cached in the <code>HttpResponseCache</code> for actions which set the 'cacheTtlSeconds' property.
+ * Concurrent executions of the same request, in the same feature pack, share a single request for actions which set
+ * the 'coalesce' property. Each sharing execution is given its own copy of a response held in a file, as the file
+ * is deleted once the response is mapped. The copies are made on the tasks executor rather than the web client thread.
+ * Requests are sent within the outbound limits configured for the feature pack and host in <code>HttpOutboundLimits</code>.
  */
 @Component
 public class HttpExecutor implements CommandExecutor {
@@ -45,29 +69,163 @@ public class HttpExecutor implements CommandExecutor {
     @Autowired
     private HttpClient httpClient;
 
+    @Autowired
+    private HttpResponseCache responseCache;
+
+    @Autowired
+    private HttpOutboundLimits outboundLimits;
+
+    @Autowired
+    @Qualifier("tasksExecutor")
+    private Executor executor;
+
+    private SingleFlight<CoalescingKey, CommandResponse> singleFlight;
+
+    /**
+     * Initialize the SingleFlight coalescing the requests.
+     */
+    @PostConstruct
+    void init() {
+        singleFlight = new SingleFlight<>("http_executor", HttpExecutor::copyResponseFile, executor);
+    }
+
     @Override
     public CommandResponse execute(final ExecutionContext executionContext) {
-        final HttpRequest properties = httpPropertiesParser.parse(executionContext.getActionDto(),
-            executionContext.getSubstitutionCtx(), executionContext.getFeaturePackId());
-        LOGGER.debug("Executing http request: {}, with substitution ctx: {}", properties, executionContext.getSubstitutionCtx());
+        return Futures.join(executeAsync(executionContext));
+    }
+
+    /**
+     * Execute the http request without holding the calling thread while waiting for the response.
+     * The returned stage is completed on a web client thread, or on a tasks executor thread for an execution sharing
+     * a coalesced request.
+     * @param executionContext execution context
+     * @return <code>CompletionStage</code> of the <code>CommandResponse</code>
+     */
+    @Override
+    public CompletionStage<CommandResponse> executeAsync(final ExecutionContext executionContext) {
+        final HttpRequest properties = parse(executionContext);
+        final long featurePackId = executionContext.getFeaturePackId();
+        if (properties.isCoalesce()) {
+            final var key = new CoalescingKey(featurePackId, responseCache.getKey(properties));
+            return singleFlight.execute(key, () -> executeAsync(featurePackId, properties));
+        }
+        return executeAsync(featurePackId, properties);
+    }
+
+    private CompletableFuture<CommandResponse> executeAsync(final long featurePackId, final HttpRequest properties) {
+        final Optional<Integer> cacheTtlSeconds = properties.getCacheTtlSeconds();
+        if (cacheTtlSeconds.isPresent()) {
+            return executeCachedAsync(featurePackId, properties, cacheTtlSeconds.get());
+        }
+        return executeRequestAsync(featurePackId, properties);
+    }
 
+    private CompletableFuture<ResponseEntity<ResponseBuffer>> send(final long featurePackId, final HttpRequest properties) {
+        return outboundLimits.execute(featurePackId, properties, () -> httpClient.executeBufferedRequestAsync(properties));
+    }
+
+    private CompletableFuture<CommandResponse> executeRequestAsync(final long featurePackId, final HttpRequest properties) {
+        return send(featurePackId, properties)
+                .handle((response, throwable) -> {
+                    if (throwable != null) {
+                        throw toCommandExecutorException(properties, Futures.unwrap(throwable));
+                    }
+                    return toCommandResponse(properties, response);
+                });
+    }
+
+    private CompletableFuture<CommandResponse> executeCachedAsync(final long featurePackId, final HttpRequest properties,
+                                                                  final int ttlSeconds) {
+        final String key = responseCache.getKey(properties);
+        final Optional<CachedResponse> cachedResponse = responseCache.get(key);
+        if (cachedResponse.isPresent() && cachedResponse.get().isFresh()) {
+            LOGGER.debug("Using cached http response");
+            return CompletableFuture.completedFuture(new CommandResponse(properties.toString(), cachedResponse.get().body()));
+        }
+        final Optional<CachedResponse> revalidatedResponse = cachedResponse.filter(CachedResponse::hasValidators);
+        revalidatedResponse.ifPresent(r -> {
+            if (properties.getHeaders().isEmpty()) {
+                properties.setHeaders(new HashMap<>());
+            }
+            r.addConditionalHeaders(properties.getHeaders().get());
+        });
+        return send(featurePackId, properties)
+                .handle((response, throwable) -> {
+                    if (throwable != null) {
+                        throw toCommandExecutorException(properties, Futures.unwrap(throwable));
+                    }
+                    if (revalidatedResponse.isPresent()) {
+                        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                            LOGGER.debug("Cached http response not modified");
+                            return new CommandResponse(properties.toString(),
+                                    responseCache.revalidated(key, revalidatedResponse.get(), ttlSeconds).body());
+                        }
+                        responseCache.modified(key);
+                    }
+                    final ResponseBuffer body = response.getBody();
+                    if (body == null || body.getFile().isPresent() || !response.getStatusCode().is2xxSuccessful()) {
+                        return toCommandResponse(properties, response);
+                    }
+                    final String responseBody = body.asString();
+                    responseCache.put(key, responseBody, response.getHeaders(), ttlSeconds);
+                    return new CommandResponse(properties.toString(), responseBody);
+                });
+    }
+
+    private CommandResponse toCommandResponse(final HttpRequest properties, final ResponseEntity<ResponseBuffer> response) {
+        final ResponseBuffer body = response.getBody();
+        if (body != null && body.getFile().isPresent()) {
+            LOGGER.debug("Http response of {} bytes written to file {}", body.getSize(), body.getFile().get());
+            return new CommandResponse(properties.toString(), body.getFile().get());
+        }
+        return new CommandResponse(properties.toString(), body == null ? null : body.asString());
+    }
+
+    private static CommandResponse copyResponseFile(final CommandResponse commandResponse) {
+        final Optional<Path> responseFile = commandResponse.getResponseFile();
+        if (responseFile.isEmpty()) {
+            return commandResponse;
+        }
         try {
-            final ResponseEntity<String> response = httpClient.executeRequest(properties);
-            return new CommandResponse(properties.toString(), response.getBody());
+            final Path responseFileCopy = Files.createTempFile(responseFile.get().getParent(), "response-", ".tmp");
+            Files.copy(responseFile.get(), responseFileCopy, StandardCopyOption.REPLACE_EXISTING);
+            return new CommandResponse(commandResponse.getCommand(), responseFileCopy);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-        } catch (final WebClientRequestException requestException) {
-            throw new CommandExecutorException(properties.toString(),
+    private HttpRequest parse(final ExecutionContext executionContext) {
+        final HttpRequest properties = httpPropertiesParser.parse(executionContext);
+        LOGGER.debug("Executing http request: {}, with substitution ctx: {}", properties, executionContext.getSubstitutionCtx());
+        return properties;
+    }
+
+    private RuntimeException toCommandExecutorException(final HttpRequest properties, final Throwable throwable) {
+        if (throwable instanceof WebClientRequestException requestException) {
+            return new CommandExecutorException(properties.toString(),
                 String.format("Failed to reach external service. Cause: %s.", requestException.getCause().getMessage()));
-        } catch (final WebClientResponseException responseException) {
+        } else if (throwable instanceof WebClientResponseException responseException) {
             final String body = responseException.getResponseBodyAsString();
-            throw new CommandExecutorException(properties.toString(), body);
-        } catch (final DRServiceException drServiceException) {
-            throw new CommandExecutorException(properties.toString(), drServiceException.getMessage());
+            return new CommandExecutorException(properties.toString(), body);
+        } else if (throwable instanceof DRServiceException drServiceException) {
+            return new CommandExecutorException(properties.toString(), drServiceException.getMessage());
+        } else if (throwable instanceof RuntimeException runtimeException) {
+            return runtimeException;
         }
+        return new IllegalStateException(throwable);
     }
 
     @Override
     public boolean canExecute(final String type) {
         return "rest".equalsIgnoreCase(type);
     }
-}
+
+    /**
+     * Key of coalesced requests.
+     * @param featurePackId feature pack id
+     * @param request method, url, headers and body of the request
+     */
+    private record CoalescingKey(long featurePackId, String request) {
+    }
+}
\ No newline at end of file
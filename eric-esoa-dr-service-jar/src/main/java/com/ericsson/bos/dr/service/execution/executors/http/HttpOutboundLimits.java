@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.service.execution.executors.http;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.ericsson.bos.dr.service.PropertiesService;
+import com.ericsson.bos.dr.service.http.HttpRequest;
+import com.ericsson.bos.dr.service.http.OutboundLimiter;
+import com.ericsson.bos.dr.service.http.OutboundLimiter.Limits;
+
+/**
+ * Applies outbound request limits per feature pack and host, using an <code>OutboundLimiter</code> for each.
+ * <p>
+ * The default limits are configured in the application properties, and may be overridden for a host in the
+ * feature pack properties configuration, using the 'httpLimits' property. For example:
+ * </p>
+ * <pre>
+ * properties:
+ *   - name: httpLimits
+ *     value:
+ *       enm.example.com:
+ *         requestsPerSecond: 10
+ *         maxConcurrentRequests: 5
+ *         maxWaitingRequests: 100
+ * </pre>
+ * <p>
+ * The host limits are read from the feature pack properties once for each version of the cached properties. When
+ * the limits change, they are updated on the existing limiter so that the requests in progress and waiting are
+ * kept. Limiters which are not accessed within the cache access expiry are discarded.
+ * </p>
+ */
+@Component
+public class HttpOutboundLimits {
+
+    static final String LIMITS_PROPERTY = "httpLimits";
+
+    @Autowired
+    private PropertiesService propertiesService;
+
+    @Value("${service.http-client.limits.requests-per-second}")
+    private double requestsPerSecond;
+
+    @Value("${service.http-client.limits.max-concurrent-requests}")
+    private int maxConcurrentRequests;
+
+    @Value("${service.http-client.limits.max-waiting-requests}")
+    private int maxWaitingRequests;
+
+    @Value("${spring.caches.http-outbound-limiter.access-expiry}")
+    private long limiterCacheAccessExpiry;
+
+    private Cache<LimiterKey, OutboundLimiter> limiters;
+
+    private Cache<Long, FeaturePackLimits> featurePackLimits;
+
+    /**
+     * Initialize the limiter and feature pack limits caches.
+     */
+    @PostConstruct
+    public void init() {
+        limiters = Caffeine.newBuilder()
+                .expireAfterAccess(limiterCacheAccessExpiry, TimeUnit.SECONDS)
+                .build();
+        featurePackLimits = Caffeine.newBuilder()
+                .expireAfterAccess(limiterCacheAccessExpiry, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Send the request once permitted by the limits for the feature pack and host.
+     * @param featurePackId feature pack id
+     * @param properties http request properties
+     * @param request sends the request
+     * @param <T> response type
+     * @return CompletableFuture of the response
+     */
+    public <T> CompletableFuture<T> execute(final long featurePackId, final HttpRequest properties,
+                                            final Supplier<CompletableFuture<T>> request) {
+        final String host = UriComponentsBuilder.fromUriString(properties.getUrl()).build().getHost();
+        if (host == null) {
+            return request.get();
+        }
+        final Limits limits = getLimits(featurePackId, host);
+        final var key = new LimiterKey(featurePackId, host);
+        if (limits.isUnlimited()) {
+            final OutboundLimiter limiter = limiters.getIfPresent(key);
+            if (limiter != null) {
+                limiter.setLimits(limits);
+            }
+            return request.get();
+        }
+        final OutboundLimiter limiter = limiters.get(key, k -> new OutboundLimiter(host, limits));
+        limiter.setLimits(limits);
+        return limiter.execute(request);
+    }
+
+    private Limits getLimits(final long featurePackId, final String host) {
+        final Map<String, Object> properties = propertiesService.getProperties(featurePackId);
+        FeaturePackLimits limits = featurePackLimits.getIfPresent(featurePackId);
+        if (limits == null || limits.properties() != properties) {
+            limits = new FeaturePackLimits(properties, parseHostLimits(properties));
+            featurePackLimits.put(featurePackId, limits);
+        }
+        return limits.hostLimits().getOrDefault(host, new Limits(requestsPerSecond, maxConcurrentRequests, maxWaitingRequests));
+    }
+
+    private Map<String, Limits> parseHostLimits(final Map<String, Object> properties) {
+        final Map<String, Limits> hostLimits = new HashMap<>();
+        if (properties != null && properties.get(LIMITS_PROPERTY) instanceof Map<?, ?> limitsProperty) {
+            limitsProperty.forEach((host, value) -> {
+                if (value instanceof Map<?, ?> limits) {
+                    hostLimits.put(String.valueOf(host), new Limits(
+                            toNumber(limits.get("requestsPerSecond"), requestsPerSecond).doubleValue(),
+                            toNumber(limits.get("maxConcurrentRequests"), maxConcurrentRequests).intValue(),
+                            toNumber(limits.get("maxWaitingRequests"), maxWaitingRequests).intValue()));
+                }
+            });
+        }
+        return hostLimits;
+    }
+
+    private static Number toNumber(final Object value, final Number defaultValue) {
+        if (value instanceof Number number) {
+            return number;
+        }
+        return value == null ? defaultValue : Double.valueOf(value.toString());
+    }
+
+    /**
+     * Key of the limiter.
+     * @param featurePackId feature pack id
+     * @param host host
+     */
+    private record LimiterKey(long featurePackId, String host) {
+    }
+
+    /**
+     * Host limits parsed from a version of the feature pack properties.
+     * @param properties feature pack properties from which the limits were parsed
+     * @param hostLimits limits by host
+     */
+    private record FeaturePackLimits(Map<String, Object> properties, Map<String, Limits> hostLimits) {
+    }
+}
\ No newline at end of file
@@ -15,6 +15,7 @@
  ******************************************************************************/
 package com.ericsson.bos.dr.service.execution.executors.http;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -26,10 +27,11 @@ import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
 import org.springframework.util.LinkedCaseInsensitiveMap;
 
+import com.ericsson.bos.dr.service.execution.ExecutionContext;
+import com.ericsson.bos.dr.service.execution.ExecutionPlan;
 import com.ericsson.bos.dr.service.execution.executors.CommandExecutorException;
 import com.ericsson.bos.dr.service.http.HttpRequest;
 import com.ericsson.bos.dr.service.substitution.SubstitutionEngine;
-import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationActionDto;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -38,7 +40,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  * is part of the application configuration.
  * Performs substitution on the url, headers and body.
  * Properties are stored in a <code>LinkedCaseInsensitiveMap</code> so that
- * the parser is not sensitive to the case of provided property names.
+ * the parser is not sensitive to the case of provided property names. The properties are taken from the
+ * execution plan when the action is compiled, rather than copied for each request.
  */
 @Component
 class HttpPropertiesParser {
@@ -54,16 +57,14 @@ class HttpPropertiesParser {
     /**
      * Parse the http properties from the action configuration. Performs substitution.
      *
-     * @param action the action configuration
-     * @param substitutionCtx substitution context
-     * @param featurePackId feature pack id
+     * @param executionContext the action execution context
      *
      * @return substituted http properties wrapped in <code>HttpRequest</code>
      */
-    HttpRequest parse(final ApplicationConfigurationActionDto action, final Map<String, Object> substitutionCtx,
-                                           final long featurePackId) {
-        final Map<String, Object> caseInsensitiveProperties = new LinkedCaseInsensitiveMap<>();
-        caseInsensitiveProperties.putAll(action.getProperties());
+    HttpRequest parse(final ExecutionContext executionContext) {
+        final Map<String, Object> substitutionCtx = executionContext.getSubstitutionCtx();
+        final long featurePackId = executionContext.getFeaturePackId();
+        final Map<String, Object> caseInsensitiveProperties = getProperties(executionContext);
 
         final var requestProperties = new HttpRequest();
 
@@ -79,9 +80,21 @@ class HttpPropertiesParser {
         requestProperties.setConnectTimeoutSeconds((Integer)caseInsensitiveProperties.get("connectTimeoutSeconds"));
         requestProperties.setReadTimeoutSeconds((Integer)caseInsensitiveProperties.get("readTimeoutSeconds"));
         requestProperties.setWriteTimeoutSeconds((Integer)caseInsensitiveProperties.get("writeTimeoutSeconds"));
+        requestProperties.setCacheTtlSeconds((Integer)caseInsensitiveProperties.get("cacheTtlSeconds"));
+        requestProperties.setCoalesce(Boolean.TRUE.equals(caseInsensitiveProperties.get("coalesce")));
         return requestProperties;
     }
 
+    private Map<String, Object> getProperties(final ExecutionContext executionContext) {
+        final ExecutionPlan executionPlan = executionContext.getExecutionPlan();
+        if (executionPlan != null) {
+            return executionPlan.getProperties();
+        }
+        final Map<String, Object> caseInsensitiveProperties = new LinkedCaseInsensitiveMap<>();
+        caseInsensitiveProperties.putAll(executionContext.getActionDto().getProperties());
+        return caseInsensitiveProperties;
+    }
+
     private void initCustomRequestProperties(final HttpRequest requestProperties,
                                              final String url, final Map<String, Object> substitutionCtx,
                                              final long featurePackId, final Map<String, Object> actionProperties) {
@@ -140,13 +153,13 @@ class HttpPropertiesParser {
             final Map<String, Object> substitutionCtx, final long featurePackId) {
         Map<String, List<String>> substitutedHeaders = null;
         if (headers != null) {
+            substitutedHeaders = new LinkedHashMap<>();
             for(final Map.Entry<String, List<String>> entry: headers.entrySet()) {
                 final List<String> substitutedHeaderValues = entry.getValue().stream()
                         .map(headerValue -> substitutionEngine.render(headerValue, substitutionCtx, featurePackId))
                         .toList();
-                headers.put(entry.getKey(), substitutedHeaderValues);
+                substitutedHeaders.put(entry.getKey(), substitutedHeaderValues);
             }
-            substitutedHeaders =  headers;
         }
         return substitutedHeaders;
     }
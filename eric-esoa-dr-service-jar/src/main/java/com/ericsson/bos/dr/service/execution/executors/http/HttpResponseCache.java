@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.service.execution.executors.http;
+
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import com.ericsson.bos.dr.service.http.HttpRequest;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache of http responses for actions which enable caching with the 'cacheTtlSeconds' property.
+ * Responses are keyed on the substituted method, url, headers and body of the request.
+ * <p>
+ * A cached response is used without sending the request until its ttl expires. After that, if the response had an
+ * ETag or Last-Modified header, the request is sent with If-None-Match or If-Modified-Since, and the cached
+ * response is used again if the server replies 304 Not Modified. Responses with Cache-Control no-store are not cached.
+ * </p>
+ * <p>
+ * The cache is bounded by the total size of the cached response bodies. The cache statistics are available in
+ * the <code>http_response_cache</code> metrics, and the revalidation outcomes in the
+ * <code>http_response_cache_revalidations</code> metric.
+ * </p>
+ */
+@Component
+public class HttpResponseCache {
+
+    @Value("${spring.caches.http-response.max-size-kb}")
+    private long maxSizeKb;
+
+    @Value("${spring.caches.http-response.access-expiry}")
+    private long accessExpiry;
+
+    private Cache<String, CachedResponse> responses;
+    private Counter notModifiedCounter;
+    private Counter modifiedCounter;
+
+    /**
+     * Initialize the cache.
+     */
+    @PostConstruct
+    void init() {
+        responses = Caffeine.newBuilder()
+                .maximumWeight(maxSizeKb * 1024)
+                .weigher((String key, CachedResponse response) -> key.length() + response.body().length())
+                .expireAfterAccess(accessExpiry, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, responses, "http_response_cache");
+        notModifiedCounter = Metrics.counter("http_response_cache_revalidations", "result", "not_modified");
+        modifiedCounter = Metrics.counter("http_response_cache_revalidations", "result", "modified");
+    }
+
+    /**
+     * Get the cache key for the request.
+     * @param request http request
+     * @return cache key
+     */
+    public String getKey(final HttpRequest request) {
+        final var key = new StringJoiner("\n");
+        key.add(request.getMethod());
+        key.add(request.getUrl());
+        key.add(request.getHeaders().map(HttpHeaders::toString).orElse(""));
+        key.add(request.getBody().map(Object::toString).orElse(""));
+        return key.toString();
+    }
+
+    /**
+     * Get the cached response for the key.
+     * @param key cache key
+     * @return optional cached response
+     */
+    public Optional<CachedResponse> get(final String key) {
+        return Optional.ofNullable(responses.getIfPresent(key));
+    }
+
+    /**
+     * Cache the response, unless the response headers do not allow it to be stored.
+     * @param key cache key
+     * @param body response body
+     * @param headers response headers
+     * @param ttlSeconds seconds for which the response is used without revalidation
+     */
+    public void put(final String key, final String body, final HttpHeaders headers, final int ttlSeconds) {
+        if (body == null || isNoStore(headers)) {
+            return;
+        }
+        final String lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+        responses.put(key, new CachedResponse(body, headers.getETag(), lastModified, expiresAt(ttlSeconds)));
+    }
+
+    /**
+     * Record that the cached response was revalidated by the server and can be used for a further ttl period.
+     * @param key cache key
+     * @param cachedResponse revalidated response
+     * @param ttlSeconds seconds for which the response is used without revalidation
+     * @return revalidated response
+     */
+    public CachedResponse revalidated(final String key, final CachedResponse cachedResponse, final int ttlSeconds) {
+        notModifiedCounter.increment();
+        final var revalidatedResponse = new CachedResponse(cachedResponse.body(), cachedResponse.eTag(),
+                cachedResponse.lastModified(), expiresAt(ttlSeconds));
+        responses.put(key, revalidatedResponse);
+        return revalidatedResponse;
+    }
+
+    /**
+     * Record that the cached response was modified on the server.
+     * @param key cache key
+     */
+    public void modified(final String key) {
+        modifiedCounter.increment();
+        responses.invalidate(key);
+    }
+
+    private static boolean isNoStore(final HttpHeaders headers) {
+        final String cacheControl = headers.getCacheControl();
+        return cacheControl != null && cacheControl.toLowerCase().contains(CacheControl.noStore().getHeaderValue());
+    }
+
+    private static long expiresAt(final int ttlSeconds) {
+        return System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    /**
+     * Cached response body with its validators.
+     * @param body response body
+     * @param eTag ETag header, if any
+     * @param lastModified Last-Modified header, if any
+     * @param expiresAt nano time at which the response must be revalidated
+     */
+    public record CachedResponse(String body, String eTag, String lastModified, long expiresAt) {
+
+        /**
+         * Check if the response can be used without revalidation.
+         * @return true if the ttl has not expired
+         */
+        public boolean isFresh() {
+            return System.nanoTime() - expiresAt < 0;
+        }
+
+        /**
+         * Check if the response can be revalidated with a conditional request.
+         * @return true if the response has an ETag or Last-Modified header
+         */
+        public boolean hasValidators() {
+            return eTag != null || lastModified != null;
+        }
+
+        /**
+         * Add the If-None-Match and If-Modified-Since headers for the response validators.
+         * @param headers request headers
+         */
+        public void addConditionalHeaders(final HttpHeaders headers) {
+            if (eTag != null) {
+                headers.setIfNoneMatch(eTag);
+            }
+            if (lastModified != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+            }
+        }
+    }
+}
\ No newline at end of file
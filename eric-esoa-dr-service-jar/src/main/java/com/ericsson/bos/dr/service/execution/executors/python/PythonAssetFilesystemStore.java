@@ -16,49 +16,88 @@
 package com.ericsson.bos.dr.service.execution.executors.python;
 
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashSet;
+import java.nio.file.StandardCopyOption;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import com.ericsson.bos.dr.jpa.model.AssetEntity;
 import com.ericsson.bos.dr.jpa.model.FeaturePackEntity;
 import com.ericsson.bos.dr.service.AssetService;
 import com.ericsson.bos.dr.service.exceptions.DRServiceException;
 import com.ericsson.bos.dr.service.exceptions.ErrorCode;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.PreRemove;
-import org.apache.commons.collections4.map.HashedMap;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.util.FileSystemUtils;
 
 /**
  * Manage Python assets on the filesystem.
+ * <p>
+ * Asset contents are stored once in a content directory, named by the SHA-256 hash of the contents, and each
+ * feature pack asset is a hard link to its content file in the feature pack directory. Identical assets in
+ * different feature packs therefore share a single file, while assets in the same feature pack can still import
+ * each other. Files already on the filesystem, for example after a restart, are not rewritten.
+ * </p>
+ * <p>
+ * The python assets of a feature pack are written asynchronously once the persisted feature pack is committed, and
+ * byte-compiled with the python interpreter on the process path if precompilation is enabled, so that modules imported
+ * by the scripts are not compiled on first execution. Assets written for a feature pack which is rolled back are deleted.
+ * Writes are guarded by striped locks on the asset and on the content, rather than a single lock.
+ * </p>
  */
 @Component
 public class PythonAssetFilesystemStore {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PythonAssetFilesystemStore.class);
 
-    private static final Map<Long, Set<String>> STORED_ASSETS = new HashedMap();
+    private static final Map<Long, Set<String>> STORED_ASSETS = new ConcurrentHashMap<>();
+
+    private static final String CONTENT_DIR = "content";
+
+    private static final String PYTHON_EXTENSION = ".py";
+
+    private static final int LOCK_STRIPES = 64;
+
+    private static final Object[] ASSET_LOCKS = createLocks();
+
+    private static final Object[] CONTENT_LOCKS = createLocks();
 
     private static String PYTHON_ASSETS_DIR;
 
+    private static boolean PRECOMPILE;
+
+    private static String PROCESS_PATH;
+
     @Autowired
     private AssetService assetService;
 
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
     /**
      * Get the path to the python asset on the filesystem. If not existing, then the
      * asset is first written to the filesystem. Subsequent requests for the same asset
      * will return the path directly without checking for its existence on the filesystem. This
      * is to limit filesystem reads.
      * The method is thread-safe. If asset is not already stored, then the check for its existence and
-     * writing  to the filesystem is performed in a synchronized block.
+     * writing to the filesystem is performed holding the lock for the asset.
      *
      * @param featurePackId feature pack id
      * @param assetName     asset name
@@ -67,55 +106,206 @@ public class PythonAssetFilesystemStore {
     public Path getPath(final Long featurePackId, final String assetName) {
         final var assetPath = Path.of(PYTHON_ASSETS_DIR, featurePackId.toString(), assetName);
         if (!isAssetStored(featurePackId, assetName)) {
-            synchronized (this) {
-                if (!Files.exists(assetPath)) {
-                    final AssetEntity asset = assetService.getAsset(assetName, featurePackId);
-                    writeAsset(new String(asset.getContents()), assetPath);
+            synchronized (assetLock(featurePackId, assetName)) {
+                if (!isAssetStored(featurePackId, assetName)) {
+                    if (!Files.exists(assetPath)) {
+                        final AssetEntity asset = assetService.getAsset(assetName, featurePackId);
+                        writeAsset(asset.getContents(), assetPath);
+                    }
+                    storeAsset(featurePackId, assetName);
                 }
-                storeAsset(featurePackId, assetName);
             }
         }
         return assetPath;
     }
 
+    /**
+     * Publish the python assets of a feature pack when it is persisted, so that they are written to the
+     * filesystem once the transaction is committed.
+     *
+     * @param featurePack feature pack entity
+     */
+    @PostPersist
+    public void storeAssetsForFeaturePack(final FeaturePackEntity featurePack) {
+        final Map<String, byte[]> pythonAssets = featurePack.getAssets().stream()
+                .filter(asset -> asset.getName().endsWith(PYTHON_EXTENSION))
+                .collect(Collectors.toMap(AssetEntity::getName, AssetEntity::getContents));
+        if (!pythonAssets.isEmpty()) {
+            applicationEventPublisher.publishEvent(new PythonAssetsEvent(featurePack.getId(), pythonAssets));
+        }
+    }
+
+    /**
+     * Write the python assets to the filesystem once the feature pack is committed, and byte-compile them
+     * if precompilation is enabled. This is done asynchronously, so that the feature pack upload is not blocked.
+     *
+     * @param event python assets event
+     */
+    @Async("asyncExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    void storeAssets(final PythonAssetsEvent event) {
+        final var featurePackDir = Paths.get(PYTHON_ASSETS_DIR, String.valueOf(event.getFeaturePackId()));
+        try {
+            for (final Map.Entry<String, byte[]> asset : event.getAssets().entrySet()) {
+                synchronized (assetLock(event.getFeaturePackId(), asset.getKey())) {
+                    writeAsset(asset.getValue(), featurePackDir.resolve(asset.getKey()));
+                    storeAsset(event.getFeaturePackId(), asset.getKey());
+                }
+            }
+        } catch (final DRServiceException e) {
+            // assets not stored are written on first execution instead
+            LOGGER.warn("Error storing python assets in {}", featurePackDir, e);
+            return;
+        }
+        if (PRECOMPILE) {
+            precompile(featurePackDir);
+        }
+    }
+
+    /**
+     * Delete any python assets written for a feature pack whose transaction is rolled back.
+     *
+     * @param event python assets event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    void deleteAssets(final PythonAssetsEvent event) {
+        deleteAssets(event.getFeaturePackId());
+    }
+
     private void storeAsset(final Long featurePackId, final String assetName) {
-        final Set<String> assets = STORED_ASSETS.computeIfAbsent(featurePackId, id -> new HashSet<>());
-        assets.add(assetName);
+        STORED_ASSETS.computeIfAbsent(featurePackId, id -> ConcurrentHashMap.newKeySet()).add(assetName);
     }
 
     private boolean isAssetStored(final Long featurePackId, final String assetName) {
-        return STORED_ASSETS.containsKey(featurePackId) && STORED_ASSETS.get(featurePackId).contains(assetName);
+        final Set<String> assets = STORED_ASSETS.get(featurePackId);
+        return assets != null && assets.contains(assetName);
     }
 
     /**
-     * Delete the feature pack assets when feature pack is deleted.
+     * Delete the feature pack assets when feature pack is deleted, together with any content
+     * no longer used by another feature pack.
      *
      * @param featurePack feature pack entity
      */
     @PreRemove
     public void deleteAssetsForFeaturePack(final FeaturePackEntity featurePack) {
-        final var featurePackDir = Paths.get(PYTHON_ASSETS_DIR, featurePack.getId().toString());
+        deleteAssets(featurePack.getId());
+    }
+
+    private void deleteAssets(final Long featurePackId) {
+        final var featurePackDir = Paths.get(PYTHON_ASSETS_DIR, featurePackId.toString());
         try {
             LOGGER.info("Removing assets directory: {}", featurePackDir);
-            STORED_ASSETS.remove(featurePack.getId());
+            STORED_ASSETS.remove(featurePackId);
             if (Files.isDirectory(featurePackDir)) {
                 FileSystemUtils.deleteRecursively(featurePackDir);
+                deleteUnusedContent();
             }
         } catch (IOException e) {
             LOGGER.warn("Error deleting directory {}", featurePackDir, e);
         }
     }
 
-    private void writeAsset(final String contents, final Path path) {
+    private void writeAsset(final byte[] contents, final Path path) {
+        final String hash = DigestUtils.sha256Hex(contents);
+        final var contentPath = Path.of(PYTHON_ASSETS_DIR, CONTENT_DIR, hash);
         try {
-            LOGGER.debug("Writing python asset: {}", path);
+            LOGGER.debug("Writing python asset: {}, content: {}", path, hash);
             Files.createDirectories(path.getParent());
-            Files.writeString(path, contents);
+            synchronized (contentLock(hash)) {
+                if (!Files.exists(contentPath)) {
+                    writeContent(contents, contentPath);
+                }
+                if (Files.exists(path) && Files.isSameFile(path, contentPath)) {
+                    return;
+                }
+                Files.deleteIfExists(path);
+                try {
+                    Files.createLink(path, contentPath);
+                } catch (final IOException | UnsupportedOperationException e) {
+                    LOGGER.debug("Unable to link {} to {}, copying: {}", path, contentPath, e.getMessage());
+                    Files.copy(contentPath, path, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
         } catch (IOException e) {
             throw new DRServiceException(ErrorCode.EXECUTOR_FILE_ERROR, e.getMessage());
         }
     }
 
+    private static void writeContent(final byte[] contents, final Path contentPath) throws IOException {
+        Files.createDirectories(contentPath.getParent());
+        final Path tempPath = Files.createTempFile(contentPath.getParent(), "asset-", ".tmp");
+        try {
+            Files.write(tempPath, contents);
+            Files.move(tempPath, contentPath, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    private void deleteUnusedContent() throws IOException {
+        final var contentDir = Path.of(PYTHON_ASSETS_DIR, CONTENT_DIR);
+        if (!Files.isDirectory(contentDir)) {
+            return;
+        }
+        try (DirectoryStream<Path> contentFiles = Files.newDirectoryStream(contentDir)) {
+            for (final Path contentPath : contentFiles) {
+                synchronized (contentLock(contentPath.getFileName().toString())) {
+                    if (getLinkCount(contentPath) == 1) {
+                        LOGGER.debug("Removing unused python asset content: {}", contentPath);
+                        Files.deleteIfExists(contentPath);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int getLinkCount(final Path path) {
+        try {
+            return (int) Files.getAttribute(path, "unix:nlink");
+        } catch (final IOException | UnsupportedOperationException | IllegalArgumentException e) {
+            // link count not available, content may be in use
+            return -1;
+        }
+    }
+
+    private static void precompile(final Path featurePackDir) {
+        try {
+            final var processBuilder = new ProcessBuilder(PythonWorkerPool.getPythonExecutable(PROCESS_PATH), "-m", "compileall", "-q",
+                    featurePackDir.toString())
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD);
+            processBuilder.environment().put("PATH", PROCESS_PATH);
+            final Process process = processBuilder.start();
+            if (!process.waitFor(60, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                LOGGER.warn("Timed out byte-compiling python assets in {}", featurePackDir);
+            } else if (process.exitValue() != 0) {
+                LOGGER.warn("Failed to byte-compile python assets in {}, exit code {}", featurePackDir, process.exitValue());
+            }
+        } catch (final IOException e) {
+            LOGGER.warn("Unable to byte-compile python assets in {}: {}", featurePackDir, e.getMessage());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Object assetLock(final Long featurePackId, final String assetName) {
+        return ASSET_LOCKS[Math.floorMod(Objects.hash(featurePackId, assetName), LOCK_STRIPES)];
+    }
+
+    private static Object contentLock(final String hash) {
+        return CONTENT_LOCKS[Math.floorMod(hash.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static Object[] createLocks() {
+        final var locks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+
     /**
      * Set configured python assets directory to static variable, so
      * it is available in @PreRemove method.
@@ -125,4 +315,51 @@ public class PythonAssetFilesystemStore {
     void setPythonAssetsDir(String dir) {
         PythonAssetFilesystemStore.PYTHON_ASSETS_DIR = dir;
     }
+
+    /**
+     * Set configured precompile flag to static variable, so
+     * it is available when storing the assets.
+     * @param precompile true to byte-compile python assets
+     */
+    @Value("${service.python-executor.precompile}")
+    void setPrecompile(boolean precompile) {
+        PythonAssetFilesystemStore.PRECOMPILE = precompile;
+    }
+
+    /**
+     * Set configured process path to static variable, so
+     * it is available when byte-compiling the assets.
+     * @param processPath process path
+     */
+    @Value("${service.shell-executor.process-path}")
+    void setProcessPath(String processPath) {
+        PythonAssetFilesystemStore.PROCESS_PATH = processPath;
+    }
+
+    /**
+     * Python assets of a persisted feature pack.
+     */
+    public static class PythonAssetsEvent {
+
+        private final long featurePackId;
+        private final Map<String, byte[]> assets;
+
+        /**
+         * PythonAssetsEvent.
+         * @param featurePackId feature pack id
+         * @param assets python asset contents by name
+         */
+        public PythonAssetsEvent(final long featurePackId, final Map<String, byte[]> assets) {
+            this.featurePackId = featurePackId;
+            this.assets = assets;
+        }
+
+        public long getFeaturePackId() {
+            return featurePackId;
+        }
+
+        public Map<String, byte[]> getAssets() {
+            return assets;
+        }
+    }
 }
\ No newline at end of file
@@ -20,6 +20,7 @@ import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.ericsson.bos.dr.service.execution.ExecutionContext;
@@ -30,6 +31,8 @@ import com.ericsson.bos.dr.service.execution.executors.command.ProcessExecutor;
 
 /**
  * Constructs and executes python scripts
+ * Scripts are executed in a new python process, or in a long-lived worker process from the
+ * <code>PythonWorkerPool</code> when the pooled execution mode is enabled.
  */
 @Component
 public class PythonExecutor implements CommandExecutor {
@@ -45,6 +48,12 @@ public class PythonExecutor implements CommandExecutor {
     @Autowired
     private PythonEnvSupplier pythonEnvSupplier;
 
+    @Autowired
+    private PythonWorkerPool pythonWorkerPool;
+
+    @Value("${service.python-executor.pool.enabled}")
+    private boolean poolEnabled;
+
     @Override
     public CommandResponse execute(final ExecutionContext executionContext) {
         final var pythonCommand = pythonCommandProcessor.parse(executionContext);
@@ -52,8 +61,12 @@ public class PythonExecutor implements CommandExecutor {
         final long startTime = System.currentTimeMillis();
         final CommandResponse commandResponse;
         try {
-            final Map<String, String> env = pythonEnvSupplier.get();
-            commandResponse = processExecutor.executeProcess(command, env);
+            if (poolEnabled) {
+                commandResponse = pythonWorkerPool.execute(pythonCommand, executionContext);
+            } else {
+                final Map<String, String> env = pythonEnvSupplier.get();
+                commandResponse = processExecutor.executeProcess(command, env, executionContext);
+            }
         } catch (final InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new CommandExecutorException(pythonCommand.getFinalCommand(), e);
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.service.execution.executors.python;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.ericsson.bos.dr.service.utils.JSON;
+import com.fasterxml.jackson.core.type.TypeReference;
+
+/**
+ * Long-lived python process executing scripts on request, avoiding the interpreter start-up and module import
+ * cost of a process per script.
+ * <p>
+ * Each request and response is framed as a 4 byte length followed by a json document, written to the stdin and
+ * read from the stdout of the process. A call exceeding its timeout kills the process, after which the worker can
+ * no longer be used. A worker only executes the scripts of the feature pack it is started for.
+ * </p>
+ */
+public class PythonWorker implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PythonWorker.class);
+
+    private final Process process;
+    private final long featurePackId;
+    private final DataOutputStream requests;
+    private final DataInputStream responses;
+    private int calls;
+    private volatile boolean timedOut;
+
+    /**
+     * PythonWorker.
+     * @param process python process running the worker script
+     * @param featurePackId id of the feature pack whose scripts are executed by the worker
+     */
+    public PythonWorker(final Process process, final long featurePackId) {
+        this.process = process;
+        this.featurePackId = featurePackId;
+        this.requests = new DataOutputStream(process.getOutputStream());
+        this.responses = new DataInputStream(process.getInputStream());
+    }
+
+    /**
+     * Start a python worker process.
+     * @param python python executable
+     * @param workerScript worker script source
+     * @param env variables to include in the process env
+     * @param featurePackId id of the feature pack whose scripts are executed by the worker
+     * @return PythonWorker
+     * @throws IOException if the process cannot be started
+     */
+    public static PythonWorker start(final String python, final String workerScript, final Map<String, String> env,
+                                     final long featurePackId) throws IOException {
+        final var processBuilder = new ProcessBuilder(python, "-u", "-c", workerScript)
+                .redirectError(ProcessBuilder.Redirect.INHERIT);
+        processBuilder.environment().putAll(env);
+        final var worker = new PythonWorker(processBuilder.start(), featurePackId);
+        LOGGER.debug("Started python worker, pid={}, featurePackId={}", worker.process.pid(), featurePackId);
+        return worker;
+    }
+
+    /**
+     * Execute a script in the worker.
+     * @param script script path
+     * @param args script arguments, split as a shell would
+     * @param timeout call timeout
+     * @param timeoutScheduler scheduler used to kill the process on timeout
+     * @return Result
+     * @throws IOException if the worker process has exited or the call timed out
+     */
+    public Result call(final Path script, final String args, final Duration timeout,
+                       final ScheduledExecutorService timeoutScheduler) throws IOException {
+        calls++;
+        final ScheduledFuture<?> timeoutTask = timeoutScheduler.schedule(() -> {
+            timedOut = true;
+            process.destroyForcibly();
+        }, timeout.toMillis(), TimeUnit.MILLISECONDS);
+        try {
+            final byte[] request = JSON.toString(Map.of("script", script.toString(), "args", args))
+                    .getBytes(StandardCharsets.UTF_8);
+            requests.writeInt(request.length);
+            requests.write(request);
+            requests.flush();
+            final byte[] response = new byte[responses.readInt()];
+            responses.readFully(response);
+            final Map<String, Object> result = JSON.read(new String(response, StandardCharsets.UTF_8),
+                    new TypeReference<>() {});
+            return new Result(((Number) result.get("exitCode")).intValue(), (String) result.get("output"));
+        } catch (final IOException e) {
+            if (timedOut) {
+                throw new IOException(String.format("Python worker call timed out after %s seconds", timeout.toSeconds()), e);
+            }
+            if (e instanceof EOFException) {
+                throw new IOException("Python worker exited unexpectedly", e);
+            }
+            throw e;
+        } finally {
+            timeoutTask.cancel(false);
+        }
+    }
+
+    /**
+     * Get the worker process.
+     * @return process
+     */
+    public Process getProcess() {
+        return process;
+    }
+
+    /**
+     * Get the id of the feature pack whose scripts are executed by the worker.
+     * @return feature pack id
+     */
+    public long getFeaturePackId() {
+        return featurePackId;
+    }
+
+    /**
+     * Get the number of calls made to the worker.
+     * @return calls
+     */
+    public int getCalls() {
+        return calls;
+    }
+
+    /**
+     * Check if the worker process is alive and has not timed out.
+     * @return true if alive
+     */
+    public boolean isAlive() {
+        return !timedOut && process.isAlive();
+    }
+
+    /**
+     * Stop the worker process.
+     */
+    @Override
+    public void close() {
+        LOGGER.debug("Stopping python worker, pid={}, calls={}", process.pid(), calls);
+        process.destroy();
+    }
+
+    /**
+     * Result of a script executed in the worker.
+     * @param exitCode script exit code
+     * @param output script stdout and stderr
+     */
+    public record Result(int exitCode, String output) {
+    }
+}
\ No newline at end of file
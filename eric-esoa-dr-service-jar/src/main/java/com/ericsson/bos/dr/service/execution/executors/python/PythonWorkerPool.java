@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.service.execution.executors.python;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ericsson.bos.dr.service.execution.ExecutionContext;
+import com.ericsson.bos.dr.service.execution.executors.CommandExecutorException;
+import com.ericsson.bos.dr.service.execution.executors.CommandResponse;
+import com.ericsson.bos.dr.service.execution.executors.command.ProcessExecutor;
+
+/**
+ * Pool of long-lived <code>PythonWorker</code> processes, used by the <code>PythonExecutor</code> when the pooled
+ * execution mode is enabled.
+ * <p>
+ * At most the configured pool size of scripts execute concurrently, further calls wait for a worker to become free.
+ * Workers are started on demand with the env from the <code>PythonEnvSupplier</code>, and are replaced after the
+ * configured number of calls, or when the process exits or a call times out.
+ * </p>
+ * <p>
+ * A worker only executes the scripts of one feature pack, so that modules and state left in the interpreter are
+ * never shared between feature packs. At most the pool size of idle workers are kept, the least recently used
+ * idle worker is stopped when a worker is needed for another feature pack.
+ * </p>
+ * <p>
+ * A call is subject to the same timeout as a script executed in a new process, and the worker is killed if the
+ * job the script is executed for fails, see <code>ProcessExecutor</code>.
+ * </p>
+ */
+@Component
+public class PythonWorkerPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PythonWorkerPool.class);
+
+    private static final String PYTHON = "python3";
+    private static final String WORKER_SCRIPT = "/python/python_worker.py";
+
+    @Value("${service.python-executor.pool.size}")
+    private int size;
+
+    @Value("${service.python-executor.pool.max-calls-per-worker}")
+    private int maxCallsPerWorker;
+
+    @Value("${service.shell-executor.process-path}")
+    private String processPath;
+
+    @Autowired
+    private PythonEnvSupplier pythonEnvSupplier;
+
+    @Autowired
+    private ProcessExecutor processExecutor;
+
+    private final Deque<PythonWorker> idleWorkers = new ConcurrentLinkedDeque<>();
+    private Semaphore permits;
+    private ScheduledExecutorService timeoutScheduler;
+    private String workerScript;
+
+    /**
+     * Load the worker script and initialize the pool.
+     * @throws IOException if the worker script cannot be read
+     */
+    @PostConstruct
+    void init() throws IOException {
+        try (InputStream inputStream = PythonWorkerPool.class.getResourceAsStream(WORKER_SCRIPT)) {
+            workerScript = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        permits = new Semaphore(size, true);
+        timeoutScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "python-worker-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Execute the python command in a pooled worker.
+     * @param pythonCommand python command
+     * @param executionContext execution context of the action
+     * @return CommandResponse
+     * @throws IOException if the worker cannot be started, exits or times out
+     * @throws InterruptedException if interrupted while waiting for a free worker
+     */
+    public CommandResponse execute(final PythonCommand pythonCommand, final ExecutionContext executionContext)
+            throws IOException, InterruptedException {
+        final String command = pythonCommand.getFinalCommand();
+        final String args = StringUtils.join(pythonCommand.getSubstitutedProperties(), " ");
+        final Duration timeout = processExecutor.getTimeout(executionContext);
+        permits.acquire();
+        PythonWorker worker = null;
+        try {
+            worker = getWorker(executionContext.getFeaturePackId());
+            final PythonWorker pythonWorker = worker;
+            final PythonWorker.Result result = processExecutor.callProcess(command, worker.getProcess(), executionContext,
+                    () -> pythonWorker.call(pythonCommand.getPath(), args, timeout, timeoutScheduler));
+            final String output = ProcessExecutor.formatOutput(result.output().lines());
+            if (result.exitCode() != 0) {
+                throw new CommandExecutorException(command, output);
+            }
+            return new CommandResponse(command, output);
+        } finally {
+            release(worker);
+            permits.release();
+        }
+    }
+
+    private PythonWorker getWorker(final long featurePackId) throws IOException {
+        for (final PythonWorker worker : idleWorkers) {
+            if (worker.getFeaturePackId() == featurePackId && idleWorkers.remove(worker)) {
+                if (worker.isAlive()) {
+                    return worker;
+                }
+                worker.close();
+            }
+        }
+        final Map<String, String> env = new HashMap<>(pythonEnvSupplier.get());
+        env.put("PATH", processPath);
+        return PythonWorker.start(getPythonExecutable(processPath), workerScript, env, featurePackId);
+    }
+
+    private void release(final PythonWorker worker) {
+        if (worker == null) {
+            return;
+        }
+        if (worker.isAlive() && worker.getCalls() < maxCallsPerWorker) {
+            idleWorkers.push(worker);
+            if (idleWorkers.size() > size) {
+                Optional.ofNullable(idleWorkers.pollLast()).ifPresent(PythonWorker::close);
+            }
+        } else {
+            LOGGER.debug("Recycling python worker after {} calls", worker.getCalls());
+            worker.close();
+        }
+    }
+
+    /**
+     * Get the python interpreter on the process path, otherwise 'python3' to be resolved from the PATH.
+     * @param processPath process path
+     * @return python executable
+     */
+    static String getPythonExecutable(final String processPath) {
+        for (final String dir : StringUtils.split(processPath, File.pathSeparator)) {
+            final Path python = Path.of(dir, PYTHON);
+            if (Files.isExecutable(python)) {
+                return python.toString();
+            }
+        }
+        return PYTHON;
+    }
+
+    /**
+     * Stop the idle workers.
+     */
+    @PreDestroy
+    void shutdown() {
+        PythonWorker worker;
+        while ((worker = idleWorkers.poll()) != null) {
+            worker.close();
+        }
+        timeoutScheduler.shutdownNow();
+    }
+}
\ No newline at end of file
@@ -15,6 +15,8 @@
  ******************************************************************************/
 package com.ericsson.bos.dr.service.execution.executors.shell;
 
+import java.util.Collections;
+
 import com.ericsson.bos.dr.service.execution.ExecutionContext;
 import com.ericsson.bos.dr.service.execution.executors.CommandExecutor;
 import com.ericsson.bos.dr.service.execution.executors.CommandExecutorException;
@@ -45,7 +47,7 @@ public class ShellExecutor implements CommandExecutor {
         final String command = shellCommandProcessor.parse(executionContext);
         try {
             LOGGER.info("Command :: {} execute. ", command);
-            return processExecutor.executeProcess(command);
+            return processExecutor.executeProcess(command, Collections.emptyMap(), executionContext);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new CommandExecutorException(command, e);
@@ -15,34 +15,45 @@
  ******************************************************************************/
 package com.ericsson.bos.dr.service.execution.steps;
 
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
 
 import com.ericsson.bos.dr.service.execution.ExecutionContext;
 import com.ericsson.bos.dr.service.execution.executors.CommandExecutor;
 import com.ericsson.bos.dr.service.execution.executors.CommandResponse;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
  * Command step which executes the defined command and returns the command response string.
+ * The command is executed by the executor resolved in the execution plan.
  */
 @Component
 public class CommandStep implements ExecutionStep<Map<String, Object>, CommandResponse>{
 
-    @Autowired
-    private List<CommandExecutor> executors;
-
     @Override
     public CommandResponse execute(Map<String, Object> substitutionCtx, ExecutionContext executionContext) {
-        final var commandType = executionContext.getActionDto().getType().toString();
-        final CommandExecutor executor = executors.stream().filter(e -> e.canExecute(commandType)).findAny()
-                .orElseThrow(() -> new IllegalArgumentException("No executor found for type " + commandType));
-        final var cmdExecutionContext = new ExecutionContext(executionContext.getFeaturePackId(), executionContext.getActionDto(), substitutionCtx);
-        final var commandResponse = executor.execute(cmdExecutionContext);
+        final var commandResponse = getExecutor(executionContext).execute(toCommandExecutionContext(substitutionCtx, executionContext));
         if (LOGGER.isDebugEnabled()) {
             LOGGER.trace("Command output: {}", commandResponse);
         }
         return commandResponse;
     }
+
+    /**
+     * Execute the defined command asynchronously, see <code>CommandExecutor.executeAsync</code>.
+     * @param substitutionCtx substitution context
+     * @param executionContext execution context
+     * @return <code>CompletionStage</code> of the command response
+     */
+    public CompletionStage<CommandResponse> executeAsync(Map<String, Object> substitutionCtx, ExecutionContext executionContext) {
+        return getExecutor(executionContext).executeAsync(toCommandExecutionContext(substitutionCtx, executionContext));
+    }
+
+    private CommandExecutor getExecutor(ExecutionContext executionContext) {
+        return executionContext.getExecutionPlan().getExecutor();
+    }
+
+    private ExecutionContext toCommandExecutionContext(Map<String, Object> substitutionCtx, ExecutionContext executionContext) {
+        return executionContext.withSubstitutionCtx(substitutionCtx);
+    }
 }
\ No newline at end of file
@@ -15,44 +15,67 @@
  ******************************************************************************/
 package com.ericsson.bos.dr.service.execution.steps;
 
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.StreamSupport;
+import java.util.function.Consumer;
 
 import com.ericsson.bos.dr.service.execution.ExecutionContext;
 import com.ericsson.bos.dr.service.utils.JQ;
 import com.ericsson.bos.dr.service.utils.JSON;
-import com.fasterxml.jackson.databind.JsonNode;
 import org.apache.commons.collections4.MapUtils;
 import org.springframework.stereotype.Component;
 
 /**
  * Json Mapping steps which applies the defined jq mappings on the command response.
+ * <p>
+ * The response is read incrementally, one top-level array element at a time, and the mappings
+ * applied to each element in turn. The full json tree of the response is never built, so memory
+ * used by the mapping is bounded by the size of the largest element rather than the whole response.
+ * </p>
  */
 @Component
 public class JsonMappingStep implements ExecutionStep<String, List<Map<String, Object>>> {
 
     @Override
     public List<Map<String, Object>> execute(String input, ExecutionContext executionContext) {
-        final Map<String, Object> mappings = executionContext.getActionDto().getMapping();
         final List<Map<String, Object>> mappingOutput = new ArrayList<>();
-        if (MapUtils.isEmpty(mappings)) {
-            return mappingOutput;
-        }
-        final JsonNode node = JSON.read(input, JsonNode.class);
-        if (node.isArray()) {
-            StreamSupport.stream(node.spliterator(), false)
-                    .forEach(childNode -> mappingOutput.add(JQ.queryEach(mappings, childNode)));
-        } else if (node.isObject()) {
-            mappingOutput.add(JQ.queryEach(mappings, node));
-        } else {
-            throw new IllegalArgumentException("Unexpected input: " + input);
-        }
+        execute(input, executionContext, mappingOutput::add);
 
         if (LOGGER.isDebugEnabled()) {
             LOGGER.trace("JSON mapping output: {}", mappingOutput);
         }
         return mappingOutput;
     }
+
+    /**
+     * Apply the mappings to the json string, emitting each mapped element to the consumer
+     * as soon as it is mapped. Nothing is emitted if no mappings are defined in the action.
+     * @param input json array or object string
+     * @param executionContext execution context
+     * @param consumer consumer of each mapped element
+     */
+    public void execute(String input, ExecutionContext executionContext, Consumer<Map<String, Object>> consumer) {
+        final Map<String, Object> mappings = executionContext.getExecutionPlan().getMappings();
+        if (MapUtils.isEmpty(mappings)) {
+            return;
+        }
+        JSON.readEach(input, node -> consumer.accept(JQ.queryEach(mappings, node)));
+    }
+
+    /**
+     * Apply the mappings to the json read from the reader, emitting each mapped element to the consumer
+     * as soon as it is mapped. Nothing is emitted if no mappings are defined in the action.
+     * @param input json array or object reader
+     * @param executionContext execution context
+     * @param consumer consumer of each mapped element
+     */
+    public void execute(Reader input, ExecutionContext executionContext, Consumer<Map<String, Object>> consumer) {
+        final Map<String, Object> mappings = executionContext.getExecutionPlan().getMappings();
+        if (MapUtils.isEmpty(mappings)) {
+            return;
+        }
+        JSON.readEach(input, node -> consumer.accept(JQ.queryEach(mappings, node)));
+    }
 }
\ No newline at end of file
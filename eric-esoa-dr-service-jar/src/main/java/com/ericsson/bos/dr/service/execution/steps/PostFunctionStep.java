@@ -15,12 +15,10 @@
  ******************************************************************************/
 package com.ericsson.bos.dr.service.execution.steps;
 
-import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
 
-import com.ericsson.bos.dr.service.AssetService;
 import com.ericsson.bos.dr.service.execution.ExecutionContext;
 import com.ericsson.bos.dr.service.substitution.SubstitutionEngine;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,7 +27,8 @@ import org.springframework.stereotype.Component;
 /**
  * PostFunction step which performs substitution of the defined 'postFunction' using the
  * original command response string as the substitution context. The command response
- * string is made accessible via the key 'originalOutputs'.
+ * string is made accessible via the key 'originalOutputs'. The postFunction template is taken from
+ * the execution plan.
  */
 @Component
 public class PostFunctionStep implements ExecutionStep<String, String> {
@@ -37,19 +36,14 @@ public class PostFunctionStep implements ExecutionStep<String, String> {
     @Autowired
     private SubstitutionEngine substitutionEngine;
 
-    @Autowired
-    private AssetService assetService;
-
     @Override
     public String execute(String substitutionInput, ExecutionContext executionContext) {
-        return Optional.ofNullable(executionContext.getActionDto().getPostFunction())
+        return Optional.ofNullable(executionContext.getExecutionPlan().getPostFunction())
                 .map(f -> applyPostFunction(f, substitutionInput, executionContext))
                 .orElse(substitutionInput);
     }
 
-    private String applyPostFunction(final String postFunction, final String substitutionInput, ExecutionContext executionContext) {
-        final String template = postFunction.startsWith("@") ?
-                getAsset(postFunction.substring(1), executionContext.getFeaturePackId()) : postFunction;
+    private String applyPostFunction(final String template, final String substitutionInput, ExecutionContext executionContext) {
         final Map<String, Object> substitutionCtx = Collections.singletonMap("originalOutputs", substitutionInput);
         final String substitutedPostFunction = substitutionEngine.render(template, substitutionCtx, executionContext.getFeaturePackId());
         if (LOGGER.isDebugEnabled()) {
@@ -57,8 +51,4 @@ public class PostFunctionStep implements ExecutionStep<String, String> {
         }
         return substitutedPostFunction;
     }
-
-    private String getAsset(String postFunction, final long featurePackId) {
-        return new String(assetService.getAssetContent(postFunction, featurePackId), StandardCharsets.UTF_8);
-    }
 }
\ No newline at end of file
@@ -15,16 +15,14 @@
  ******************************************************************************/
 package com.ericsson.bos.dr.service.execution.steps;
 
-import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
-import com.ericsson.bos.dr.service.AssetService;
 import com.ericsson.bos.dr.service.execution.ExecutionContext;
+import com.ericsson.bos.dr.service.execution.ExecutionPlan;
 import com.ericsson.bos.dr.service.substitution.SubstitutionEngine;
 import com.ericsson.bos.dr.service.utils.JSON;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -36,7 +34,8 @@ import org.springframework.stereotype.Component;
  * The preFunction result may be the raw substitution string or converted to an Object depending on its usage in
  * the command properties. This allows to either substitute the preFunction directly as a json payload '{{preFunction}}
  * or access the properties '{{preFunction.prop1}}. The command properties are checked to determine whether the result
- * should be converted or not.
+ * should be converted or not. The preFunction template and whether to convert the result are taken from the
+ * execution plan.
  */
 @Component
 public class PreFunctionStep implements ExecutionStep<Map<String, Object>, Map<String, Object>> {
@@ -44,23 +43,19 @@ public class PreFunctionStep implements ExecutionStep<Map<String, Object>, Map<S
     @Autowired
     private SubstitutionEngine substitutionEngine;
 
-    @Autowired
-    private AssetService assetService;
-
     @Override
     public Map<String, Object> execute(Map<String, Object> input, ExecutionContext executionContext) {
-        return Optional.ofNullable(executionContext.getActionDto().getPreFunction())
+        final ExecutionPlan executionPlan = executionContext.getExecutionPlan();
+        return Optional.ofNullable(executionPlan.getPreFunction())
                 .map(f -> applyPreFunction(f, input, executionContext))
                 .orElse(input);
     }
 
-    private Map<String, Object> applyPreFunction(final String preFunction, final Map<String, Object> substitutionCtx,
+    private Map<String, Object> applyPreFunction(final String template, final Map<String, Object> substitutionCtx,
                                                  ExecutionContext executionContext) {
-        final String template = preFunction.startsWith("@") ?
-                getAsset(preFunction.substring(1), executionContext.getFeaturePackId()) : preFunction;
         final String substitutedPreFunction = substitutionEngine.render(template, substitutionCtx, executionContext.getFeaturePackId());
         final Map<String, Object> preFunctionSubstitutionCtx = new HashMap<>();
-        if (shouldConvertResultToObject(executionContext)) {
+        if (executionContext.getExecutionPlan().isPreFunctionResultObject()) {
             preFunctionSubstitutionCtx.put("preFunction", JSON.readObject(substitutedPreFunction));
         } else {
             preFunctionSubstitutionCtx.put("preFunction", substitutedPreFunction);
@@ -71,13 +66,4 @@ public class PreFunctionStep implements ExecutionStep<Map<String, Object>, Map<S
         }
         return preFunctionSubstitutionCtx;
     }
-
-    private boolean shouldConvertResultToObject(ExecutionContext executionContext) {
-        final var propertiesString = JSON.toString(executionContext.getActionDto().getProperties());
-        return !StringUtils.deleteWhitespace(propertiesString).contains("{{preFunction}}");
-    }
-
-    private String getAsset(String preFunction, final long featurePackId) {
-        return new String(assetService.getAssetContent(preFunction, featurePackId), StandardCharsets.UTF_8);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.service.http;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Circuit breaker for the requests to a single host.
+ * <p>
+ * The circuit opens once the configured number of consecutive requests have failed to reach the host. While open,
+ * requests are rejected without being sent. Once the open duration has elapsed the circuit is half-open, and a single
+ * probe request is let through: the circuit closes if the probe reaches the host, or opens again if it does not.
+ * </p>
+ * <p>
+ * The transitions are available in the <code>http_client_circuit_breaker_transitions</code> metric, tagged with the
+ * host. The state metric is registered by the <code>HttpClient</code>, which holds the circuit breaker per host.
+ * </p>
+ */
+public class CircuitBreaker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    /**
+     * Circuit breaker state.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String host;
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openedAt;
+    private boolean probeInFlight;
+
+    /**
+     * CircuitBreaker.
+     * @param host host to which the requests are sent
+     * @param failureThreshold number of consecutive failures which opens the circuit
+     * @param openDuration duration the circuit stays open before a probe request is let through
+     * @param clock clock
+     */
+    public CircuitBreaker(final String host, final int failureThreshold, final Duration openDuration, final Clock clock) {
+        this.host = host;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    /**
+     * Acquire permission to send a request. Permission is always granted while closed, and only granted for a
+     * single probe request once the open duration has elapsed.
+     * @return true if the request may be sent
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && !clock.instant().isBefore(openedAt.plus(openDuration))) {
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                return false;
+            }
+            probeInFlight = true;
+            return true;
+        }
+        return state == State.CLOSED;
+    }
+
+    /**
+     * Record a request which reached the host, closing the circuit.
+     */
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        if (state != State.CLOSED) {
+            transitionTo(State.CLOSED);
+        }
+    }
+
+    /**
+     * Record a request which failed to reach the host. A failed probe, or reaching the failure threshold, opens
+     * the circuit.
+     */
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            openedAt = clock.instant();
+            transitionTo(State.OPEN);
+        }
+    }
+
+    /**
+     * Record a request which was cancelled before its outcome was known, releasing the probe if it was one.
+     */
+    public synchronized void onCancel() {
+        probeInFlight = false;
+    }
+
+    /**
+     * Get the circuit state.
+     * @return state
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void transitionTo(final State newState) {
+        LOGGER.info("Circuit breaker for host {} transitioned from {} to {}", host, state, newState);
+        state = newState;
+        Metrics.counter("http_client_circuit_breaker_transitions", "host", host, "state", newState.name().toLowerCase())
+                .increment();
+    }
+}
\ No newline at end of file
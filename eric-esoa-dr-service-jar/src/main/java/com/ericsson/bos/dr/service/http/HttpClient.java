@@ -15,16 +15,27 @@
  ******************************************************************************/
 package com.ericsson.bos.dr.service.http;
 
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Clock;
 import java.time.Duration;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
@@ -39,6 +50,9 @@ import com.ericsson.bos.dr.service.exceptions.ErrorCode;
 import com.ericsson.bos.dr.service.utils.ExceptionChecks;
 import com.ericsson.bos.so.common.logging.security.SecurityLogger;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import io.netty.channel.ChannelOption;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.timeout.ReadTimeoutException;
@@ -46,6 +60,7 @@ import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.WriteTimeoutException;
 import io.netty.handler.timeout.WriteTimeoutHandler;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.netty.resources.ConnectionProvider;
 import reactor.netty.transport.logging.AdvancedByteBufFormat;
 import reactor.util.retry.Retry;
@@ -53,7 +68,25 @@ import reactor.util.retry.RetryBackoffSpec;
 
 /**
  * Executes a http request
- * Uses Spring Fwk WebClient in synchronous mode for now, i.e. blocking
+ * Uses Spring Fwk WebClient, either blocking until the response is received or asynchronously
+ * without holding the calling thread.
+ * <p>
+ * A WebClient is built once for each distinct combination of connect, read and write timeouts, and reused for all
+ * requests with the same timeouts. The cached clients are discarded when the SslContext is recreated.
+ * The cache statistics are available in the <code>http_client_cache</code> metrics.
+ * </p>
+ * <p>
+ * A buffered request receives the response body into a <code>ResponseBuffer</code>, which writes the body to a temporary
+ * file once it exceeds the large response threshold, rather than decoding it into a string in memory.
+ * </p>
+ * <p>
+ * Requests failing with a retryable connection issue are retried with an exponential backoff with jitter, until either
+ * the maximum attempts are exhausted or the retry deadline, being the maximum time spent retrying a request, is reached.
+ * A <code>CircuitBreaker</code> per host rejects requests without sending them while the host is known to be
+ * unreachable. The circuit breakers are cached and removed once a host has not been requested for a period. The state
+ * of the circuit breaker currently cached for a host is available in the <code>http_client_circuit_breaker_state</code>
+ * metric (0=closed, 1=open, 2=half-open), which reports closed once the host has been removed.
+ * </p>
  */
 @Component
 public class HttpClient {
@@ -73,16 +106,52 @@ public class HttpClient {
     @Value("${service.http-client.retry.delay}")
     private long retryDelay;
 
+    @Value("${service.http-client.retry.max-delay}")
+    private long retryMaxDelay;
+
+    @Value("${service.http-client.retry.jitter}")
+    private double retryJitter;
+
+    @Value("${service.http-client.retry.deadline}")
+    private long retryDeadline;
+
+    @Value("${service.http-client.circuit-breaker.failure-threshold}")
+    private int circuitBreakerFailureThreshold;
+
+    @Value("${service.http-client.circuit-breaker.open-duration}")
+    private long circuitBreakerOpenDuration;
+
+    @Value("${service.http-client.large-response.threshold-kb}")
+    private long largeResponseThresholdKb;
+
+    @Value("${service.http-client.large-response.dir}")
+    private String largeResponseDir;
+
     @Autowired
     private SslContextSupplier sslContextSupplier;
 
     @Autowired
     private ConnectionProviderProperties connectionProviderProperties;
 
+    @Value("${spring.caches.http-client.max-size}")
+    private long clientCacheMaxSize;
+
+    @Value("${spring.caches.http-client.access-expiry}")
+    private long clientCacheAccessExpiry;
+
+    @Value("${spring.caches.http-circuit-breaker.access-expiry}")
+    private long circuitBreakerCacheAccessExpiry;
+
     private ConnectionProvider connectionProvider;
 
+    private Cache<WebClientKey, WebClient> webClients;
+
+    private volatile int sslContextGeneration;
+
+    private Cache<String, CircuitBreaker> circuitBreakers;
+
     /**
-     * Initialize ConnectionProvider.
+     * Initialize ConnectionProvider, the WebClient cache and the CircuitBreaker cache.
      */
     @PostConstruct
     void init() {
@@ -94,6 +163,16 @@ public class HttpClient {
                 .disposeInactivePoolsInBackground(connectionProviderProperties.getDisposeInterval(),
                         connectionProviderProperties.getPoolInactivityTime())
                 .build();
+        webClients = Caffeine.newBuilder()
+                .maximumSize(clientCacheMaxSize)
+                .expireAfterAccess(clientCacheAccessExpiry, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, webClients, "http_client_cache");
+        circuitBreakers = Caffeine.newBuilder()
+                .expireAfterAccess(circuitBreakerCacheAccessExpiry, TimeUnit.SECONDS)
+                .build();
+        sslContextGeneration = sslContextSupplier.getGeneration();
     }
 
     /**
@@ -102,29 +181,79 @@ public class HttpClient {
      * @return ResponseEntity response from the Http request
      */
     public ResponseEntity<String> executeRequest(final HttpRequest properties) {
-        final var webClient = webClientBuilder.clone()
-            .clientConnector(configureHttpClient(properties))
-            .exchangeStrategies(ExchangeStrategies      //remove in https://eteamproject.internal.ericsson.com/browse/ESOA-12901
-                .builder()
-                .codecs(codecs -> codecs
-                    .defaultCodecs()
-                    .maxInMemorySize(Integer.parseInt(webClientInMemorySize) * 1024))
-                .build())
-            .build();
+        return exchange(properties).block();
+    }
+
+    /**
+     * Executes an Http request using the web client, without blocking the calling thread. The returned future is
+     * completed on a web client thread when the response is received, or when the retries are exhausted.
+     * @param properties the Http request properties, e.g. url, method, header and body
+     * @return CompletableFuture of the ResponseEntity from the Http request
+     */
+    public CompletableFuture<ResponseEntity<String>> executeRequestAsync(final HttpRequest properties) {
+        return exchange(properties).toFuture();
+    }
+
+    /**
+     * Executes an Http request using the web client, without blocking the calling thread, buffering the response
+     * body in a <code>ResponseBuffer</code>. A body exceeding the large response threshold is written to a temporary
+     * file, which must be deleted by the caller once read. The body is buffered on the bounded elastic scheduler, so
+     * the file writes do not block the web client event loop.
+     * @param properties the Http request properties, e.g. url, method, header and body
+     * @return CompletableFuture of the ResponseEntity from the Http request
+     */
+    public CompletableFuture<ResponseEntity<ResponseBuffer>> executeBufferedRequestAsync(final HttpRequest properties) {
+        return exchange(properties, responseSpec -> responseSpec.toEntityFlux(DataBuffer.class)
+            .flatMap(entity -> {
+                final var responseBuffer = new ResponseBuffer(largeResponseThresholdKb * 1024, Path.of(largeResponseDir));
+                return Objects.requireNonNull(entity.getBody())
+                    .publishOn(Schedulers.boundedElastic())
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                    .reduce(responseBuffer, ResponseBuffer::write)
+                    .map(ResponseBuffer::complete)
+                    .doOnError(error -> responseBuffer.delete())
+                    .doOnCancel(responseBuffer::delete)
+                    .map(body -> new ResponseEntity<>(body, entity.getHeaders(), entity.getStatusCode()));
+            })).toFuture();
+    }
+
+    private Mono<ResponseEntity<String>> exchange(final HttpRequest properties) {
+        return exchange(properties, responseSpec -> responseSpec.toEntity(String.class));
+    }
+
+    private <T> Mono<ResponseEntity<T>> exchange(final HttpRequest properties,
+                                                 final Function<WebClient.ResponseSpec, Mono<ResponseEntity<T>>> bodyExtractor) {
+        final var webClient = getWebClient(properties);
 
         final UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromUriString(properties.getUrl());
         if (properties.isEncodeUrl()) {
             uriBuilder.encode();
         }
         final var url = uriBuilder.build().toUri();
+        final var circuitBreaker = getCircuitBreaker(url);
 
-        final ResponseEntity<String> response = webClient.method(Objects.requireNonNull(HttpMethod.valueOf(properties.getMethod())))
+        final WebClient.ResponseSpec responseSpec = webClient.method(Objects.requireNonNull(HttpMethod.valueOf(properties.getMethod())))
             .uri(url)
             .headers(httpHeaders -> properties.getHeaders().ifPresent(httpHeaders::addAll))
             .bodyValue(properties.getBody().orElse(BodyInserters.empty()))
-            .retrieve()
-            .toEntity(String.class)
-            .retryWhen(configureRetry(properties))
+            .retrieve();
+        final Mono<ResponseEntity<T>> attempt = Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquire()) {
+                return Mono.error(new DRServiceException(ErrorCode.GENERAL_ERROR,
+                    String.format("Failed to reach external service. Cause: Circuit breaker is open for host %s.", url.getHost())));
+            }
+            return bodyExtractor.apply(responseSpec)
+                .doOnSuccess(response -> circuitBreaker.onSuccess())
+                .doOnError(error -> {
+                    if (isConnectionIssue(error)) {
+                        circuitBreaker.onFailure();
+                    } else {
+                        circuitBreaker.onSuccess();
+                    }
+                })
+                .doOnCancel(circuitBreaker::onCancel);
+        });
+        return Mono.defer(() -> withRetry(attempt, properties))
             .onErrorResume(error -> {
                 if (ExceptionChecks.isNonRetryableConnectionIssue(error)) {
                     SecurityLogger.withFacility(
@@ -132,39 +261,60 @@ public class HttpClient {
                     );
                 }
                 return Mono.error(error);
-            }).block();
+            })
+            .doOnNext(response -> {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Http Response: code={}, headers={}", response.getStatusCode(), response.getHeaders());
+                }
+                if (LOGGER.isTraceEnabled()) {
+                    LOGGER.trace("Http Response body: {}", response.getBody());
+                }
+            });
+    }
 
-        Optional.ofNullable(response).ifPresent(r -> {
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("Http Response: code={}, headers={}", response.getStatusCode(), response.getHeaders());
-            }
-            if (LOGGER.isTraceEnabled()) {
-                LOGGER.trace("Http Response body: {}", response.getBody());
-            }
-        });
+    private WebClient getWebClient(final HttpRequest properties) {
+        final int currentSslContextGeneration = sslContextSupplier.getGeneration();
+        if (currentSslContextGeneration != sslContextGeneration) {
+            LOGGER.info("SslContext has been recreated, discarding cached web clients");
+            webClients.invalidateAll();
+            sslContextGeneration = currentSslContextGeneration;
+        }
+        final var key = new WebClientKey(properties.getConnectTimeoutSeconds(), properties.getReadTimeoutSeconds(),
+                properties.getWriteTimeoutSeconds(), currentSslContextGeneration);
+        return webClients.get(key, this::createWebClient);
+    }
 
-        return response;
+    private WebClient createWebClient(final WebClientKey key) {
+        return webClientBuilder.clone()
+            .clientConnector(configureHttpClient(key))
+            .exchangeStrategies(ExchangeStrategies      //remove in https://eteamproject.internal.ericsson.com/browse/ESOA-12901
+                .builder()
+                .codecs(codecs -> codecs
+                    .defaultCodecs()
+                    .maxInMemorySize(Integer.parseInt(webClientInMemorySize) * 1024))
+                .build())
+            .build();
     }
 
-    private ReactorClientHttpConnector configureHttpClient(final HttpRequest properties) {
+    private ReactorClientHttpConnector configureHttpClient(final WebClientKey key) {
         var httpClient = reactor.netty.http.client.HttpClient.create(connectionProvider)
                 .wiretap("reactor.netty.http.client.HttpClient", LogLevel.DEBUG, AdvancedByteBufFormat.TEXTUAL);
 
-        final Optional<Integer> connectTimeoutSeconds = properties.getConnectTimeoutSeconds();
+        final Optional<Integer> connectTimeoutSeconds = key.connectTimeoutSeconds();
         if (connectTimeoutSeconds.isPresent()) {
             LOGGER.debug("Configuring connection timeout: {}", connectTimeoutSeconds.get());
             httpClient = httpClient.option(
                 ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) TimeUnit.SECONDS.toMillis(connectTimeoutSeconds.get()));
         }
 
-        final Optional<Integer> writeTimeoutSeconds = properties.getWriteTimeoutSeconds();
+        final Optional<Integer> writeTimeoutSeconds = key.writeTimeoutSeconds();
         if (writeTimeoutSeconds.isPresent()) {
             LOGGER.debug("Configuring write timeout: {}", writeTimeoutSeconds.get());
             httpClient = httpClient.doOnConnected(
                 connection -> connection.addHandlerLast(new WriteTimeoutHandler(writeTimeoutSeconds.get())));
         }
 
-        final Optional<Integer> readTimeoutSeconds = properties.getReadTimeoutSeconds();
+        final Optional<Integer> readTimeoutSeconds = key.readTimeoutSeconds();
         if (readTimeoutSeconds.isPresent()) {
             LOGGER.debug("Configuring read timeout: {}", readTimeoutSeconds.get());
             httpClient = httpClient.doOnConnected(
@@ -174,30 +324,81 @@ public class HttpClient {
         return new ReactorClientHttpConnector(httpClient);
     }
 
-    private RetryBackoffSpec configureRetry(final HttpRequest properties) {
-        return Retry.fixedDelay(retryAttempts, Duration.ofSeconds(retryDelay))
-            .filter(ExceptionChecks::isRetryableConnectionIssue)
-            .onRetryExhaustedThrow((retryBackoffSpec, retrySignal) -> {
-                final Throwable cause = retrySignal.failure().getCause();
-                final String causeMessage;
-                // Note: setting cause for read & write timeout as
-                // ReadTimeoutException & WriteTimeoutException do not contain a message
-                if (cause instanceof ReadTimeoutException) {
-                    causeMessage = "Read timeout exceeded";
-                } else if (cause instanceof WriteTimeoutException) {
-                    causeMessage = "Write timeout exceeded";
-                } else {
-                    causeMessage = cause.getMessage();
-                }
-                SecurityLogger.withFacility(
-                    () -> LOGGER.error("Lost connectivity - retries exhausted: {}. Properties: [{}]", causeMessage.trim(), properties)
-                );
-                throw new DRServiceException(ErrorCode.GENERAL_ERROR,
-                    String.format("Failed to reach external service after %d %s. Cause: %s.",
-                        retrySignal.totalRetries(),
-                        retrySignal.totalRetries() == 1 ? "retry" : "retries",
-                        causeMessage)
-                );
+    private CircuitBreaker getCircuitBreaker(final URI url) {
+        final int port = url.getPort() != -1 ? url.getPort() : ("https".equalsIgnoreCase(url.getScheme()) ? 443 : 80);
+        return circuitBreakers.get(url.getHost() + ":" + port, host -> {
+            registerCircuitBreakerGauge(host);
+            return new CircuitBreaker(host, circuitBreakerFailureThreshold, Duration.ofSeconds(circuitBreakerOpenDuration),
+                    Clock.systemUTC());
+        });
+    }
+
+    /**
+     * Register the state gauge for the host, reading the circuit breaker currently cached for the host so that the
+     * gauge follows the circuit breaker recreated after an expiry. The gauge is registered once per host and reading
+     * it does not count as an access of the cached circuit breaker.
+     */
+    private void registerCircuitBreakerGauge(final String host) {
+        Gauge.builder("http_client_circuit_breaker_state", circuitBreakers, cache ->
+                        Optional.ofNullable(cache.policy().getIfPresentQuietly(host))
+                                .map(CircuitBreaker::getState)
+                                .orElse(CircuitBreaker.State.CLOSED).ordinal())
+                .tag("host", host)
+                .register(Metrics.globalRegistry);
+    }
+
+    private static boolean isConnectionIssue(final Throwable error) {
+        return ExceptionChecks.isRetryableConnectionIssue(error) || ExceptionChecks.isNonRetryableConnectionIssue(error);
+    }
+
+    /**
+     * Retry the request with an exponential backoff with jitter. Once the retry deadline is reached a failure is no
+     * longer retried, and is reported in the same way as when the maximum attempts are exhausted.
+     */
+    private <T> Mono<T> withRetry(final Mono<T> attempt, final HttpRequest properties) {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(retryDeadline);
+        final var totalRetries = new AtomicLong();
+        final RetryBackoffSpec retry = Retry.backoff(retryAttempts, Duration.ofSeconds(retryDelay))
+            .maxBackoff(Duration.ofSeconds(retryMaxDelay))
+            .jitter(retryJitter)
+            .filter(error -> ExceptionChecks.isRetryableConnectionIssue(error) && System.nanoTime() < deadline)
+            .doBeforeRetry(retrySignal -> totalRetries.set(retrySignal.totalRetries() + 1))
+            .onRetryExhaustedThrow((retryBackoffSpec, retrySignal) ->
+                retriesExhausted(retrySignal.failure(), retrySignal.totalRetries(), properties));
+        return attempt.retryWhen(retry)
+            .onErrorMap(ExceptionChecks::isRetryableConnectionIssue, error -> {
+                LOGGER.warn("Retry deadline of {}s reached", retryDeadline);
+                return retriesExhausted(error, totalRetries.get(), properties);
             });
     }
+
+    private DRServiceException retriesExhausted(final Throwable failure, final long totalRetries, final HttpRequest properties) {
+        final Throwable cause = failure.getCause();
+        final String causeMessage;
+        // Note: setting cause for read & write timeout as
+        // ReadTimeoutException & WriteTimeoutException do not contain a message
+        if (cause instanceof ReadTimeoutException) {
+            causeMessage = "Read timeout exceeded";
+        } else if (cause instanceof WriteTimeoutException) {
+            causeMessage = "Write timeout exceeded";
+        } else {
+            causeMessage = cause.getMessage();
+        }
+        SecurityLogger.withFacility(
+            () -> LOGGER.error("Lost connectivity - retries exhausted: {}. Properties: [{}]", causeMessage.trim(), properties)
+        );
+        return new DRServiceException(ErrorCode.GENERAL_ERROR,
+            String.format("Failed to reach external service after %d %s. Cause: %s.",
+                totalRetries,
+                totalRetries == 1 ? "retry" : "retries",
+                causeMessage)
+        );
+    }
+
+    /**
+     * Configuration distinguishing the cached web clients.
+     */
+    private record WebClientKey(Optional<Integer> connectTimeoutSeconds, Optional<Integer> readTimeoutSeconds,
+                                Optional<Integer> writeTimeoutSeconds, int sslContextGeneration) {
+    }
 }
\ No newline at end of file
@@ -40,6 +40,8 @@ public class HttpRequest {
     private Integer readTimeoutSeconds;
     private Integer writeTimeoutSeconds;
     private Integer connectTimeoutSeconds;
+    private Integer cacheTtlSeconds;
+    private boolean coalesce;
     private boolean encodeUrl = true;
 
     public String getUrl() {
@@ -123,6 +125,22 @@ public class HttpRequest {
         this.connectTimeoutSeconds = connectTimeoutSeconds;
     }
 
+    public Optional<Integer> getCacheTtlSeconds() {
+        return Optional.ofNullable(cacheTtlSeconds);
+    }
+
+    public void setCacheTtlSeconds(final Integer cacheTtlSeconds) {
+        this.cacheTtlSeconds = cacheTtlSeconds;
+    }
+
+    public boolean isCoalesce() {
+        return coalesce;
+    }
+
+    public void setCoalesce(final boolean coalesce) {
+        this.coalesce = coalesce;
+    }
+
     public boolean isEncodeUrl() {
         return encodeUrl;
     }
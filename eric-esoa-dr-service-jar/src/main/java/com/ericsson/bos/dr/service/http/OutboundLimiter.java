@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.service.http;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.ericsson.bos.dr.service.exceptions.DRServiceException;
+import com.ericsson.bos.dr.service.exceptions.ErrorCode;
+
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Limits the outbound requests to a single host, without blocking the calling thread.
+ * <p>
+ * A bulkhead limits the number of concurrent requests. Requests exceeding the limit wait in a queue
+ * until a request completes. A rate limit spaces the start of requests evenly, delaying a request until its
+ * permit is due. The requests waiting for either are bounded by the maximum waiting requests, and further requests
+ * are rejected with a <code>DRServiceException</code>. A limit less than or equal to zero is not applied.
+ * </p>
+ * <p>
+ * The limits may be updated while requests are in progress or waiting, see {@link #setLimits(Limits)}.
+ * </p>
+ * <p>
+ * The number of rejected requests is available in the <code>http_client_outbound_limit_rejections</code> metric,
+ * tagged with the host.
+ * </p>
+ */
+public class OutboundLimiter {
+
+    private final String host;
+    private final Deque<Runnable> waitingRequests = new ArrayDeque<>();
+    private final Counter rejections;
+
+    private Limits limits;
+    private long permitIntervalNanos;
+    private int activeRequests;
+    private int delayedRequests;
+    private long nextPermitNanos = System.nanoTime();
+
+    /**
+     * OutboundLimiter.
+     * @param host host to which the requests are sent
+     * @param limits limits to apply
+     */
+    public OutboundLimiter(final String host, final Limits limits) {
+        this.host = host;
+        this.limits = limits;
+        this.permitIntervalNanos = getPermitIntervalNanos(limits);
+        this.rejections = Metrics.counter("http_client_outbound_limit_rejections", "host", host);
+    }
+
+    /**
+     * Send the request once permitted by the limits.
+     * @param request sends the request
+     * @param <T> response type
+     * @return CompletableFuture of the response, completed exceptionally if the request is rejected
+     */
+    public <T> CompletableFuture<T> execute(final Supplier<? extends CompletionStage<T>> request) {
+        final var result = new CompletableFuture<T>();
+        final var snapshot = ContextSnapshot.captureAll();
+        final Runnable start = () -> startWhenPermitted(snapshot, request, result);
+        synchronized (this) {
+            final boolean waitForRequest = limits.maxConcurrentRequests() > 0 && activeRequests >= limits.maxConcurrentRequests();
+            final boolean waitForPermit = permitIntervalNanos > 0 && nextPermitNanos > System.nanoTime();
+            if ((waitForRequest || waitForPermit) && getWaitingCount() >= limits.maxWaitingRequests()) {
+                rejections.increment();
+                return CompletableFuture.failedFuture(new DRServiceException(ErrorCode.OUTBOUND_LIMIT_EXCEEDED, host,
+                        String.valueOf(getWaitingCount())));
+            }
+            if (waitForRequest) {
+                waitingRequests.add(start);
+                return result;
+            }
+            activeRequests++;
+        }
+        start.run();
+        return result;
+    }
+
+    /**
+     * Get the limits applied.
+     * @return limits
+     */
+    public synchronized Limits getLimits() {
+        return limits;
+    }
+
+    /**
+     * Update the limits applied. Requests in progress and waiting are kept, and waiting requests are started
+     * if permitted by the new concurrency limit. The new rate limit applies to permits not yet reserved.
+     * @param limits limits to apply
+     */
+    public void setLimits(final Limits limits) {
+        final List<Runnable> startedRequests = new ArrayList<>();
+        synchronized (this) {
+            if (this.limits.equals(limits)) {
+                return;
+            }
+            this.limits = limits;
+            this.permitIntervalNanos = getPermitIntervalNanos(limits);
+            while (!waitingRequests.isEmpty()
+                    && (limits.maxConcurrentRequests() <= 0 || activeRequests < limits.maxConcurrentRequests())) {
+                startedRequests.add(waitingRequests.poll());
+                activeRequests++;
+            }
+        }
+        startedRequests.forEach(Runnable::run);
+    }
+
+    private <T> void startWhenPermitted(final ContextSnapshot snapshot, final Supplier<? extends CompletionStage<T>> request,
+                                        final CompletableFuture<T> result) {
+        final long delayNanos = reservePermit();
+        if (delayNanos > 0) {
+            CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(() -> {
+                permitted();
+                send(snapshot, request, result);
+            });
+        } else {
+            send(snapshot, request, result);
+        }
+    }
+
+    private <T> void send(final ContextSnapshot snapshot, final Supplier<? extends CompletionStage<T>> request,
+                          final CompletableFuture<T> result) {
+        try (ContextSnapshot.Scope scope = snapshot.setThreadLocals()) {
+            request.get().whenComplete((response, throwable) -> {
+                release();
+                if (throwable != null) {
+                    result.completeExceptionally(throwable);
+                } else {
+                    result.complete(response);
+                }
+            });
+        } catch (final RuntimeException e) {
+            release();
+            result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Reserve the next permit, counting the request as delayed until the permit is due.
+     */
+    private synchronized long reservePermit() {
+        if (permitIntervalNanos == 0) {
+            return 0;
+        }
+        final long now = System.nanoTime();
+        final long permitNanos = Math.max(nextPermitNanos, now);
+        nextPermitNanos = permitNanos + permitIntervalNanos;
+        if (permitNanos > now) {
+            delayedRequests++;
+        }
+        return permitNanos - now;
+    }
+
+    private synchronized void permitted() {
+        delayedRequests--;
+    }
+
+    private int getWaitingCount() {
+        return waitingRequests.size() + delayedRequests;
+    }
+
+    /**
+     * Hand the completed request's place to the next waiting request, unless the concurrency limit was lowered
+     * below the requests in progress.
+     */
+    private void release() {
+        Runnable next = null;
+        synchronized (this) {
+            if (!waitingRequests.isEmpty()
+                    && (limits.maxConcurrentRequests() <= 0 || activeRequests <= limits.maxConcurrentRequests())) {
+                next = waitingRequests.poll();
+            } else {
+                activeRequests--;
+            }
+        }
+        if (next != null) {
+            next.run();
+        }
+    }
+
+    private static long getPermitIntervalNanos(final Limits limits) {
+        return limits.requestsPerSecond() > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / limits.requestsPerSecond()) : 0;
+    }
+
+    /**
+     * Outbound request limits.
+     * @param requestsPerSecond maximum rate at which requests are started
+     * @param maxConcurrentRequests maximum number of requests in progress
+     * @param maxWaitingRequests maximum number of requests waiting for a request in progress to complete or for a permit
+     */
+    public record Limits(double requestsPerSecond, int maxConcurrentRequests, int maxWaitingRequests) {
+
+        /**
+         * Check if neither a rate nor a concurrency limit is applied.
+         * @return true if unlimited
+         */
+        public boolean isUnlimited() {
+            return requestsPerSecond <= 0 && maxConcurrentRequests <= 0;
+        }
+    }
+}
\ No newline at end of file
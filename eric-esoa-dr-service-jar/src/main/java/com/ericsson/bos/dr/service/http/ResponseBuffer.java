@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.service.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+
+/**
+ * Buffers a http response body as it is received. The body is held in memory until its size exceeds the
+ * threshold, at which point the received content is written to a temporary file and the remainder of the body
+ * streamed to the file. A large response therefore uses bounded heap and is not subject to the web client
+ * in-memory limit. The same buffering is applied to the output of a process.
+ * <p>
+ * The temporary file is owned by the caller, who must call {@link #delete()} once the body has been read.
+ * </p>
+ */
+public class ResponseBuffer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResponseBuffer.class);
+
+    private final long threshold;
+    private final Path directory;
+    private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+    private Path file;
+    private OutputStream fileOutput;
+    private long size;
+
+    /**
+     * ResponseBuffer.
+     * @param threshold size in bytes above which the body is written to a file
+     * @param directory directory in which to create the file
+     */
+    public ResponseBuffer(final long threshold, final Path directory) {
+        this.threshold = threshold;
+        this.directory = directory;
+    }
+
+    /**
+     * Append the content of the data buffer to the body. The data buffer is released.
+     * @param dataBuffer received content
+     * @return this ResponseBuffer
+     */
+    public ResponseBuffer write(final DataBuffer dataBuffer) {
+        final int count = dataBuffer.readableByteCount();
+        try (InputStream content = dataBuffer.asInputStream(true)) {
+            if (file == null && size + count > threshold) {
+                spill();
+            }
+            content.transferTo(file == null ? memory : fileOutput);
+            size += count;
+            return this;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Append the bytes to the body.
+     * @param bytes received content
+     * @param offset offset of the content in the bytes
+     * @param length length of the content
+     * @return this ResponseBuffer
+     */
+    public ResponseBuffer write(final byte[] bytes, final int offset, final int length) {
+        try {
+            if (file == null && size + length > threshold) {
+                spill();
+            }
+            (file == null ? memory : fileOutput).write(bytes, offset, length);
+            size += length;
+            return this;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Complete the body once all content has been received.
+     * @return this ResponseBuffer
+     */
+    public ResponseBuffer complete() {
+        if (fileOutput != null) {
+            try {
+                fileOutput.close();
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Get the file containing the body, if the body exceeded the threshold.
+     * @return optional body file
+     */
+    public Optional<Path> getFile() {
+        return Optional.ofNullable(file);
+    }
+
+    /**
+     * Get the body size in bytes.
+     * @return body size
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Get the body as a string. If the body is held in a file then it is read in full.
+     * @return body string, or null if the body is empty
+     */
+    public String asString() {
+        if (size == 0) {
+            return null;
+        }
+        if (file == null) {
+            return memory.toString(StandardCharsets.UTF_8);
+        }
+        try {
+            return Files.readString(file, StandardCharsets.UTF_8);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Delete the body file, if any.
+     */
+    public void delete() {
+        if (file != null) {
+            try {
+                fileOutput.close();
+                Files.deleteIfExists(file);
+            } catch (final IOException e) {
+                LOGGER.warn("Failed to delete response file {}", file, e);
+            }
+        }
+    }
+
+    private void spill() throws IOException {
+        file = Files.createTempFile(directory, "response-", ".tmp");
+        LOGGER.debug("Response exceeds {} bytes, writing to file {}", threshold, file);
+        fileOutput = Files.newOutputStream(file);
+        memory.writeTo(fileOutput);
+        memory = null;
+    }
+}
\ No newline at end of file
@@ -50,7 +50,8 @@ import org.springframework.stereotype.Component;
  * The SslContext will be secure or unsecure based on the security property 'security.tls.enabled'.
  * For secure context, the truststore and keystores are managed by eric-eso-mtls-helper library which created and updates the
  * stores based on the configured secrets.
- * If the keystores are updated then the secure SslContext is recreated using the updated stores.
+ * If the keystores are updated then the secure SslContext is recreated using the updated stores, and the
+ * generation is incremented so that clients built with the previous SslContext can be rebuilt.
  */
 @Component
 public class SslContextSupplier implements Supplier<SslContext> {
@@ -71,6 +72,8 @@ public class SslContextSupplier implements Supplier<SslContext> {
 
     private SslContext sslContext;
 
+    private int generation;
+
     /**
      * Initialize the SslContext.
      */
@@ -92,6 +95,15 @@ public class SslContextSupplier implements Supplier<SslContext> {
         return sslContext;
     }
 
+    /**
+     * Get the generation of the SslContext, incremented each time the SslContext is created.
+     *
+     * @return SslContext generation
+     */
+    public synchronized int getGeneration() {
+        return generation;
+    }
+
     private synchronized void createSecureSslCtx() {
         try {
             sslContext = SslContextBuilder
@@ -99,6 +111,7 @@ public class SslContextSupplier implements Supplier<SslContext> {
                     .trustManager(getTrustManagerFactory())
                     .keyManager(getKeyManagerFactory())
                     .build();
+            generation++;
         } catch (Exception e) {
             throw new DRServiceException(ErrorCode.GENERAL_ERROR, e.getMessage());
         }
@@ -110,6 +123,7 @@ public class SslContextSupplier implements Supplier<SslContext> {
                     .forClient()
                     .trustManager(InsecureTrustManagerFactory.INSTANCE)
                     .build();
+            generation++;
         } catch (Exception e) {
             throw new DRServiceException(ErrorCode.GENERAL_ERROR, e.getMessage());
         }
@@ -32,6 +32,7 @@ import com.ericsson.bos.dr.service.utils.JobNameGenerator;
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationInputsDto;
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationJobDto;
 import com.ericsson.bos.dr.web.v1.api.model.ExecuteJobDto;
+import com.ericsson.bos.dr.web.v1.api.model.ExecuteJobDtoExecutionOptions;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -48,6 +49,7 @@ import org.springframework.stereotype.Component;
  *     <li>Check the application job exists.</li>
  *     <li>Check mandatory discovery inputs are provided.</li>
  *     <li>Check mandatory reconcile inputs are provided if autoreconcile is true.</li>
+ *     <li>Check discovery chunk size and incremental discovery are not both set.</li>
  * </ul>
  */
 @Component
@@ -62,6 +64,7 @@ public class CreateJobValidator implements Consumer<ExecuteJobDto> {
     @Override
     public void accept(final ExecuteJobDto executeJobDto) {
         validateFeaturePackAndApplicationProperties(executeJobDto);
+        validateExecutionOptions(executeJobDto);
         validateJobNameSetElseAutoGenerate(executeJobDto);
         final FeaturePackEntity featurePackEntity = validateFeaturePackExists(executeJobDto);
         final ApplicationEntity applicationEntity = validateApplicationExists(executeJobDto, featurePackEntity);
@@ -76,6 +79,15 @@ public class CreateJobValidator implements Consumer<ExecuteJobDto> {
         }
     }
 
+    private void validateExecutionOptions(final ExecuteJobDto executeJobDto) {
+        final ExecuteJobDtoExecutionOptions executionOptions = executeJobDto.getExecutionOptions();
+        if (executionOptions != null && executionOptions.getDiscoveryChunkSize() != null
+                && Boolean.TRUE.equals(executionOptions.getIncrementalDiscovery())) {
+            throw new DRServiceException(ErrorCode.BAD_REQUEST_PARAM,
+                    "executionOptions.discoveryChunkSize cannot be combined with executionOptions.incrementalDiscovery");
+        }
+    }
+
     private void validateJobNameSetElseAutoGenerate(final ExecuteJobDto executeJobDto) {
         if (executeJobDto.getName() == null) {
             executeJobDto.setName(new JobNameGenerator().apply(executeJobDto));
@@ -113,7 +125,7 @@ public class CreateJobValidator implements Consumer<ExecuteJobDto> {
             final List<ApplicationConfigurationInputsDto> discoveryInputs = Optional.ofNullable(
                     appJobDto.getDiscover().getInputs()).orElse(Collections.emptyList());
             inputsValidator.validate(discoveryInputs, executeJobDto.getInputs());
-            if (executeJobDto.getExecutionOptions() != null && executeJobDto.getExecutionOptions().getAutoReconcile()) {
+            if (executeJobDto.getExecutionOptions() != null && Boolean.TRUE.equals(executeJobDto.getExecutionOptions().getAutoReconcile())) {
                 final List<ApplicationConfigurationInputsDto> reconcileInputs = Optional.ofNullable(
                         appJobDto.getReconcile().getInputs()).orElse(Collections.emptyList());
                 inputsValidator.validate(reconcileInputs, executeJobDto.getInputs());
@@ -61,7 +61,7 @@ public class DiscoveryJob extends ExecutableJob {
         jobService.setJobInProgress(jobEntity.getId(), StatusEnum.DISCOVERY_INPROGRESS.toString());
         discoveryService.executeDiscovery(jobEntity);
         final var executionOptions = jobEntity.getExecutionOptions();
-        if (executionOptions != null && executionOptions.getAutoReconcile().booleanValue()) {
+        if (executionOptions != null && Boolean.TRUE.equals(executionOptions.getAutoReconcile())) {
             jobRepository.findById(jobEntity.getId()).ifPresent(latestEntity -> {
                 if (StatusEnum.DISCOVERED.toString().equals(latestEntity.getJobStatus())) {
                     LOGGER.info("autoReconcile is true, starting reconcile for job {}", jobEntity.getId());
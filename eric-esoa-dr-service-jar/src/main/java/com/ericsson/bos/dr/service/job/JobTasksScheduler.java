@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+
+package com.ericsson.bos.dr.service.job;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.context.ContextSnapshot;
+
+/**
+ * Schedules the tasks of the running jobs on the shared task executor.
+ * <p>
+ * Each job has a concurrency window limiting the number of its tasks in flight on the task executor. Further tasks are
+ * held in a queue for the job until one of its tasks completes. The total number of tasks in flight is limited to the
+ * task executor pool size, and the jobs with queued tasks are served in round-robin order as the pool threads become free.
+ * A single job with many tasks therefore does not fill the task executor queue and delay the tasks of other jobs.
+ * </p>
+ * <p>
+ * Asynchronous tasks, submitted with {@link #submit(long, Optional, Supplier)}, hold a pool thread only until the task
+ * returns its <code>CompletionStage</code>, for example once a http request is sent. They remain in flight for the job,
+ * within its concurrency window, until the stage completes.
+ * </p>
+ * <p>
+ * A job is only known to the scheduler while it has tasks queued or in flight.
+ * </p>
+ */
+@Component
+public class JobTasksScheduler {
+
+    private static final CompletionStage<Void> COMPLETED = CompletableFuture.completedFuture(null);
+
+    @Autowired
+    @Qualifier("tasksExecutor")
+    private Executor executor;
+
+    @Value("${service.jobs.execution.task-executor.max-size}")
+    private int capacity;
+
+    @Value("${service.jobs.execution.task-executor.default-job-concurrency}")
+    private int defaultJobConcurrency;
+
+    private final Map<Long, JobTasks> jobs = new HashMap<>();
+    private final Deque<JobTasks> readyJobs = new ArrayDeque<>();
+    private int inFlight;
+
+    /**
+     * Get an executor for the tasks of a job. Tasks submitted to the executor are scheduled on the task executor
+     * within the concurrency window of the job.
+     *
+     * @param jobId job id
+     * @param concurrency maximum number of tasks in flight for the job, the service default is used if not set
+     * @return Executor
+     */
+    public Executor getExecutor(final long jobId, final Optional<Integer> concurrency) {
+        final int maxInFlight = concurrency.orElse(defaultJobConcurrency);
+        return task -> schedule(jobId, maxInFlight, () -> {
+            task.run();
+            return COMPLETED;
+        });
+    }
+
+    /**
+     * Submit an asynchronous task of a job. The task is scheduled on the task executor within the concurrency
+     * window of the job, and remains in flight for the job until the stage returned by the task completes.
+     * The pool thread is released as soon as the task returns the stage.
+     * A task which is cancelled before it is started is not executed.
+     *
+     * @param jobId job id
+     * @param concurrency maximum number of tasks in flight for the job, the service default is used if not set
+     * @param task task returning a stage which is completed when the task completes
+     * @param <T> result type
+     * @return CompletableFuture completed with the result of the stage returned by the task
+     */
+    public <T> CompletableFuture<T> submit(final long jobId, final Optional<Integer> concurrency,
+                                           final Supplier<? extends CompletionStage<T>> task) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        schedule(jobId, concurrency.orElse(defaultJobConcurrency), () -> {
+            if (result.isDone()) {
+                return COMPLETED;
+            }
+            try {
+                return task.get().whenComplete((r, t) -> {
+                    if (t != null) {
+                        result.completeExceptionally(t);
+                    } else {
+                        result.complete(r);
+                    }
+                });
+            } catch (final RuntimeException e) {
+                result.completeExceptionally(e);
+                return COMPLETED;
+            }
+        });
+        return result;
+    }
+
+    private synchronized void schedule(final long jobId, final int maxInFlight, final Supplier<CompletionStage<?>> task) {
+        final var jobTasks = jobs.computeIfAbsent(jobId, id -> new JobTasks(id, Math.max(maxInFlight, 1)));
+        jobTasks.queued.add(new JobTask(ContextSnapshot.captureAll(), task));
+        markReady(jobTasks);
+        dispatch();
+    }
+
+    private void dispatch() {
+        while (inFlight < capacity && !readyJobs.isEmpty()) {
+            final var jobTasks = readyJobs.pollFirst();
+            jobTasks.ready = false;
+            final JobTask task = jobTasks.queued.poll();
+            jobTasks.inFlight++;
+            inFlight++;
+            markReady(jobTasks);
+            try {
+                executor.execute(() -> run(jobTasks, task));
+            } catch (final RuntimeException e) {
+                inFlight--;
+                jobTaskCompleted(jobTasks);
+                throw e;
+            }
+        }
+    }
+
+    private void run(final JobTasks jobTasks, final JobTask task) {
+        CompletionStage<?> completion = COMPLETED;
+        try (ContextSnapshot.Scope scope = task.snapshot.setThreadLocals()) {
+            completion = task.work.get();
+        } finally {
+            synchronized (this) {
+                inFlight--;
+                dispatch();
+            }
+            completion.whenComplete((r, t) -> {
+                synchronized (this) {
+                    jobTaskCompleted(jobTasks);
+                    dispatch();
+                }
+            });
+        }
+    }
+
+    private void jobTaskCompleted(final JobTasks jobTasks) {
+        jobTasks.inFlight--;
+        markReady(jobTasks);
+        if (jobTasks.inFlight == 0 && jobTasks.queued.isEmpty()) {
+            jobs.remove(jobTasks.jobId);
+        }
+    }
+
+    private void markReady(final JobTasks jobTasks) {
+        if (!jobTasks.ready && !jobTasks.queued.isEmpty() && jobTasks.inFlight < jobTasks.maxInFlight) {
+            jobTasks.ready = true;
+            readyJobs.addLast(jobTasks);
+        }
+    }
+
+    /**
+     * Number of tasks in flight on the task executor, holding a pool thread.
+     *
+     * @return tasks in flight
+     */
+    public synchronized int getInFlightCount() {
+        return inFlight;
+    }
+
+    /**
+     * Queued and in flight tasks of a job.
+     */
+    private static class JobTasks {
+        private final long jobId;
+        private final int maxInFlight;
+        private final Queue<JobTask> queued = new ArrayDeque<>();
+        private int inFlight;
+        private boolean ready;
+
+        JobTasks(final long jobId, final int maxInFlight) {
+            this.jobId = jobId;
+            this.maxInFlight = maxInFlight;
+        }
+    }
+
+    /**
+     * Task of a job with the context captured when it was scheduled.
+     */
+    private record JobTask(ContextSnapshot snapshot, Supplier<CompletionStage<?>> work) {
+    }
+}
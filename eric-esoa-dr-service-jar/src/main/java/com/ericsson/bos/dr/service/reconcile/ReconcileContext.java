@@ -29,6 +29,7 @@ import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationFilterDto;
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationJobDto;
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationReconcileDtoSource;
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationReconcileDtoTarget;
+import com.ericsson.bos.dr.web.v1.api.model.ExecuteJobDtoExecutionOptions;
 import com.ericsson.bos.dr.web.v1.api.model.ExecuteReconcileDto;
 import com.ericsson.bos.dr.web.v1.api.model.ExecuteReconcileDtoObjectsInner;
 import org.apache.commons.collections4.CollectionUtils;
@@ -42,11 +43,14 @@ public class ReconcileContext {
     private String jobName;
     private long featurePackId;
     private String featurePackName;
+    private String appName;
+    private String appJobName;
     private List<String> filters;
     private Map<String, Object> inputs;
     private List<ExecuteReconcileDtoObjectsInner> reconcileObjects;
     private ApplicationConfigurationJobDto jobConf;
     private List<DiscoveryObjectEntity> sources;
+    private Integer taskConcurrency;
 
     private ReconcileContext() {
     }
@@ -82,6 +86,27 @@ public class ReconcileContext {
         this.featurePackName = featurePackName;
     }
 
+    public String getAppName() {
+        return appName;
+    }
+
+    public void setAppName(final String appName) {
+        this.appName = appName;
+    }
+
+    /**
+     * Get the name of the job in the application configuration.
+     *
+     * @return application job name
+     */
+    public String getAppJobName() {
+        return appJobName;
+    }
+
+    public void setAppJobName(final String appJobName) {
+        this.appJobName = appJobName;
+    }
+
     public List<String> getFilters() {
         return filters;
     }
@@ -122,6 +147,19 @@ public class ReconcileContext {
         this.sources = sources;
     }
 
+    /**
+     * Get the task concurrency requested in the job execution options.
+     *
+     * @return optional task concurrency
+     */
+    public Optional<Integer> getTaskConcurrency() {
+        return Optional.ofNullable(taskConcurrency);
+    }
+
+    public void setTaskConcurrency(Integer taskConcurrency) {
+        this.taskConcurrency = taskConcurrency;
+    }
+
     /**
      * Get the named filter action
      *
@@ -182,8 +220,12 @@ public class ReconcileContext {
         reconcileContext.setJobName(jobEntity.getName());
         reconcileContext.setFeaturePackId(jobEntity.getFeaturePackId());
         reconcileContext.setFeaturePackName(jobEntity.getFeaturePackName());
+        reconcileContext.setAppName(jobEntity.getApplicationName());
+        reconcileContext.setAppJobName(jobEntity.getApplicationJobName());
         reconcileContext.setInputs(MapUtils.merge(reconcileDetails.getInputs(), jobEntity.getInputs()));
         reconcileContext.setJobConf(jobConf);
+        reconcileContext.setTaskConcurrency(Optional.ofNullable(jobEntity.getExecutionOptions())
+                .map(ExecuteJobDtoExecutionOptions::getTaskConcurrency).orElse(null));
         final List<String> filters;
         if (CollectionUtils.isNotEmpty(reconcileDetails.getFilters())) {
             // include filters passed in request
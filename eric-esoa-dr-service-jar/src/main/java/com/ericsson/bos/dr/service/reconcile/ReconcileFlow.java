@@ -22,6 +22,7 @@ import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import com.ericsson.bos.dr.service.job.JobTasksScheduler;
 import com.ericsson.bos.dr.service.reconcile.functions.ReconcileFunctionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,6 +37,8 @@ import org.springframework.stereotype.Component;
  *     <li>Optionally Enrich source and target objects concurrently.</li>
  *     <li>Reconcile the specified objects concurrently.</li>
  * </ol>
+ * The enrichment and reconcile operations are scheduled within the concurrency window of the job,
+ * see <code>JobTasksScheduler</code>, and do not hold a thread while waiting for the response to the actions.
  */
 @Component
 public class ReconcileFlow {
@@ -46,6 +49,9 @@ public class ReconcileFlow {
     @Qualifier("tasksExecutor")
     private Executor executor;
 
+    @Autowired
+    private JobTasksScheduler tasksScheduler;
+
     @Autowired
     private ReconcileFunctionFactory reconcileFunctionFactory;
 
@@ -73,8 +79,8 @@ public class ReconcileFlow {
         final boolean enrichTargetActionPresent = reconcileContext.getTargetEnrichAction().isPresent();
         if (enrichSourceActionPresent || enrichTargetActionPresent) {
             final List<CompletableFuture<Void>> sources = reconcileContext.getReconcileObjects().stream()
-                    .map(s -> CompletableFuture.runAsync(() -> reconcileFunctionFactory.getEnrichSourceAndTarget(s).accept(reconcileContext),
-                            executor))
+                    .map(s -> tasksScheduler.submit(reconcileContext.getJobId(), reconcileContext.getTaskConcurrency(),
+                            () -> reconcileFunctionFactory.getEnrichSourceAndTarget(s).acceptAsync(reconcileContext)))
                     .collect(Collectors.toList());
             return sources.toArray(CompletableFuture[]::new);
         }
@@ -84,8 +90,8 @@ public class ReconcileFlow {
 
     private CompletableFuture<Void>[] reconcileTargets(ReconcileContext reconcileContext) {
         final List<CompletableFuture<Void>> sources = reconcileContext.getReconcileObjects().stream()
-                .map(s -> CompletableFuture.runAsync(() -> reconcileFunctionFactory.getReconcileSingleObject(s).accept(reconcileContext),
-                        executor))
+                .map(s -> tasksScheduler.submit(reconcileContext.getJobId(), reconcileContext.getTaskConcurrency(),
+                        () -> reconcileFunctionFactory.getReconcileSingleObject(s).acceptAsync(reconcileContext)))
                 .collect(Collectors.toList());
         return sources.toArray(CompletableFuture[]::new);
     }
@@ -16,8 +16,9 @@
 
 package com.ericsson.bos.dr.service.reconcile.functions;
 
+import java.util.Map;
 import java.util.Optional;
-import java.util.function.Consumer;
+import java.util.concurrent.CompletableFuture;
 
 import com.ericsson.bos.dr.jpa.DiscoveryObjectRepository;
 import com.ericsson.bos.dr.jpa.model.DiscoveryObjectEntity;
@@ -25,6 +26,8 @@ import com.ericsson.bos.dr.service.execution.ExecutionContext;
 import com.ericsson.bos.dr.service.execution.ExecutionEngine;
 import com.ericsson.bos.dr.service.execution.ExecutionResult;
 import com.ericsson.bos.dr.service.reconcile.ReconcileContext;
+import com.ericsson.bos.dr.service.utils.AsyncConsumer;
+import com.ericsson.bos.dr.service.utils.Futures;
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationActionDto;
 import com.ericsson.bos.dr.web.v1.api.model.ExecuteReconcileDtoObjectsInner;
 
@@ -37,12 +40,12 @@ import org.springframework.stereotype.Component;
 
 /**
  * Enrich a source object and its target after discovery based on the enrichment configuration defined in the
- * reconciliation job.
+ * reconciliation job. The enrich actions are executed asynchronously, see <code>ExecutionEngine.executeAsync</code>.
  */
 @Component
 @ReconcileFunction
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
-public class EnrichSourceAndTargetBeforeReconcile implements Consumer<ReconcileContext> {
+public class EnrichSourceAndTargetBeforeReconcile implements AsyncConsumer<ReconcileContext> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(EnrichSourceAndTargetBeforeReconcile.class);
 
@@ -58,50 +61,63 @@ public class EnrichSourceAndTargetBeforeReconcile implements Consumer<ReconcileC
     private ExecuteReconcileDtoObjectsInner reconcileObject;
 
     @Override
-    public void accept(ReconcileContext reconcileContext) {
+    public CompletableFuture<Void> acceptAsync(ReconcileContext reconcileContext) {
         final Optional<ApplicationConfigurationActionDto> enrichSourceAction = reconcileContext.getSourceEnrichAction();
         final Optional<ApplicationConfigurationActionDto> enrichTargetAction = reconcileContext.getTargetEnrichAction();
 
         if (!enrichSourceAction.isPresent() && !enrichTargetAction.isPresent()) {
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
         final var discoveryObjectEntity =
                 discoveryObjectRepository.findById(Long.valueOf(reconcileObject.getObjectId()))
                         .orElseThrow(() -> new IllegalStateException("Discovery object not found"));
 
+        CompletableFuture<Void> enrichment = CompletableFuture.completedFuture(null);
         if (enrichSourceAction.isPresent()) {
-            LOGGER.info("Executing source object enrichment action: jobId={}, objectProperties={}", reconcileContext.getJobId(),
-                    discoveryObjectEntity.getSourceProperties());
-            final var executionResult = execute(enrichSourceAction.get(), reconcileContext,
-                    reconcileObject, discoveryObjectEntity);
-            discoveryObjectEntity.getSourceProperties().putAll(executionResult.getMappedCommandResponse().get(0));
+            enrichment = enrichment.thenCompose(x -> {
+                LOGGER.info("Executing source object enrichment action: jobId={}, objectProperties={}", reconcileContext.getJobId(),
+                        discoveryObjectEntity.getSourceProperties());
+                return enrich(enrichSourceAction.get(), "reconcile_enrich_source", reconcileContext, discoveryObjectEntity,
+                        discoveryObjectEntity.getSourceProperties());
+            });
         }
 
         if (enrichTargetAction.isPresent()) {
-            LOGGER.info("Executing target object enrichment action: jobId={}, objectProperties={}", reconcileContext.getJobId(),
-                    discoveryObjectEntity.getTargetProperties());
-            final var executionResult = execute(enrichTargetAction.get(), reconcileContext,
-                    reconcileObject, discoveryObjectEntity);
-            discoveryObjectEntity.getTargetProperties().putAll(executionResult.getMappedCommandResponse().get(0));
+            enrichment = enrichment.thenCompose(x -> {
+                LOGGER.info("Executing target object enrichment action: jobId={}, objectProperties={}", reconcileContext.getJobId(),
+                        discoveryObjectEntity.getTargetProperties());
+                return enrich(enrichTargetAction.get(), "reconcile_enrich_target", reconcileContext, discoveryObjectEntity,
+                        discoveryObjectEntity.getTargetProperties());
+            });
         }
 
-        discoveryObjectRepository.save(discoveryObjectEntity);
+        return enrichment.thenRun(() -> discoveryObjectRepository.save(discoveryObjectEntity));
     }
 
-    private ExecutionResult execute(final ApplicationConfigurationActionDto action,
-                                    final ReconcileContext reconcileContext,
-                                    final ExecuteReconcileDtoObjectsInner reconcileObject,
-                                    final DiscoveryObjectEntity discoveryObjectEntity) {
+    private CompletableFuture<Void> enrich(final ApplicationConfigurationActionDto action,
+                                           final String actionRole,
+                                           final ReconcileContext reconcileContext,
+                                           final DiscoveryObjectEntity discoveryObjectEntity,
+                                           final Map<String, Object> properties) {
+        CompletableFuture<ExecutionResult> executionResult;
         try {
             final var substitutionCtx = new ReconcileSubstitutionCtx(
                     discoveryObjectEntity, reconcileContext, reconcileObject).get();
-            final var executionContext = new ExecutionContext(reconcileContext.getFeaturePackId(), action, substitutionCtx);
-            return executionEngine.execute(executionContext);
+            final var executionContext = new ExecutionContext(reconcileContext.getFeaturePackId(), action, substitutionCtx)
+                    .withMetricTags(reconcileContext.getFeaturePackName(), reconcileContext.getAppName(), reconcileContext.getAppJobName(),
+                            actionRole);
+            executionResult = executionEngine.executeAsync(executionContext);
         } catch (final Exception e) {
-            reconcileStateHandler.setDiscoveryObjectStateFailed(discoveryObjectEntity, e);
-            throw e;
+            executionResult = CompletableFuture.failedFuture(e);
         }
+        return executionResult.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                final Throwable cause = Futures.unwrap(throwable);
+                reconcileStateHandler.setDiscoveryObjectStateFailed(discoveryObjectEntity,
+                        cause instanceof Exception e ? e : new IllegalStateException(cause));
+            }
+        }).thenAccept(result -> properties.putAll(result.getMappedCommandResponse().get(0)));
     }
 
     public void setReconcileObject(ExecuteReconcileDtoObjectsInner reconcileObject) {
@@ -22,6 +22,7 @@ import java.util.function.Consumer;
 import com.ericsson.bos.dr.jpa.DiscoveryObjectRepository;
 import com.ericsson.bos.dr.jpa.model.DiscoveredObjectStatusCounts;
 import com.ericsson.bos.dr.service.JobService;
+import com.ericsson.bos.dr.service.execution.executors.command.ProcessExecutor;
 import com.ericsson.bos.dr.service.reconcile.ReconcileContext;
 import com.ericsson.bos.dr.jpa.model.StatusCount;
 
@@ -31,7 +32,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
- * Update model after a failed reconciliation.
+ * Update model after a failed reconciliation, killing any processes still executing for the job.
  */
 @Component
 @ReconcileFunction
@@ -45,8 +46,12 @@ public class ReconcileFailed implements Consumer<ReconcileContext> {
     @Autowired
     private DiscoveryObjectRepository discoveryObjectRepository;
 
+    @Autowired
+    private ProcessExecutor processExecutor;
+
     @Override
     public void accept(ReconcileContext reconcileContext) {
+        processExecutor.cancelJobProcesses(reconcileContext.getJobId());
         final List<StatusCount> statusCounts = discoveryObjectRepository.getCountsGroupedByStatus(reconcileContext.getJobId());
         final DiscoveredObjectStatusCounts discoveredObjectStatusCounts = new DiscoveredObjectStatusCounts(statusCounts);
         LOGGER.info("Reconcile failed for jobId={}, counts={}", reconcileContext.getJobId(), discoveredObjectStatusCounts);
@@ -18,6 +18,7 @@ package com.ericsson.bos.dr.service.reconcile.functions;
 import java.util.function.Consumer;
 
 import com.ericsson.bos.dr.service.reconcile.ReconcileContext;
+import com.ericsson.bos.dr.service.utils.AsyncConsumer;
 import com.ericsson.bos.dr.web.v1.api.model.ExecuteReconcileDtoObjectsInner;
 import jakarta.inject.Provider;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -49,7 +50,7 @@ public class ReconcileFunctionFactory {
      * @param reconcileObject reconcile object
      * @return EnrichSourceAndTargetBeforeReconcile consumer function
      */
-    public Consumer<ReconcileContext> getEnrichSourceAndTarget(ExecuteReconcileDtoObjectsInner reconcileObject) {
+    public AsyncConsumer<ReconcileContext> getEnrichSourceAndTarget(ExecuteReconcileDtoObjectsInner reconcileObject) {
 
         final EnrichSourceAndTargetBeforeReconcile function =
                 (EnrichSourceAndTargetBeforeReconcile) getReconcileFunction(EnrichSourceAndTargetBeforeReconcile.class);
@@ -62,7 +63,7 @@ public class ReconcileFunctionFactory {
      * @param reconcileObject reconcile object
      * @return ReconcileSingleObject consumer function
      */
-    public Consumer<ReconcileContext> getReconcileSingleObject(ExecuteReconcileDtoObjectsInner reconcileObject) {
+    public AsyncConsumer<ReconcileContext> getReconcileSingleObject(ExecuteReconcileDtoObjectsInner reconcileObject) {
         final ReconcileSingleObject function = (ReconcileSingleObject) getReconcileFunction(ReconcileSingleObject.class);
         function.setReconcileObject(reconcileObject);
         return function;
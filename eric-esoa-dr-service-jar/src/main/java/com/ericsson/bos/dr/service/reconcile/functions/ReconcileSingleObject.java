@@ -16,8 +16,9 @@
 
 package com.ericsson.bos.dr.service.reconcile.functions;
 
+import java.util.Iterator;
 import java.util.List;
-import java.util.function.Consumer;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import com.ericsson.bos.dr.jpa.model.DiscoveryObjectEntity;
@@ -28,10 +29,13 @@ import com.ericsson.bos.dr.service.execution.ExecutionEngine;
 import com.ericsson.bos.dr.service.execution.ExecutionResult;
 import com.ericsson.bos.dr.service.reconcile.ReconcileContext;
 import com.ericsson.bos.dr.service.substitution.SubstitutionEngine;
+import com.ericsson.bos.dr.service.utils.AsyncConsumer;
+import com.ericsson.bos.dr.service.utils.Futures;
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationActionDto;
 import com.ericsson.bos.dr.web.v1.api.model.ExecuteReconcileDtoObjectsInner;
 import com.ericsson.bos.dr.web.v1.api.model.FilterDtoReconcileAction.StatusEnum;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -41,11 +45,12 @@ import org.springframework.stereotype.Component;
 
 /**
  * Perform reconcile for a single discovered object.
+ * The reconcile action of each filter is executed asynchronously in turn, see <code>ExecutionEngine.executeAsync</code>.
  */
 @Component
 @ReconcileFunction
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
-public class ReconcileSingleObject implements Consumer<ReconcileContext> {
+public class ReconcileSingleObject implements AsyncConsumer<ReconcileContext> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ReconcileSingleObject.class);
 
@@ -64,43 +69,63 @@ public class ReconcileSingleObject implements Consumer<ReconcileContext> {
     private ExecuteReconcileDtoObjectsInner reconcileObject;
 
     @Override
-    public void accept(ReconcileContext reconcileContext) {
-        var discoveryObjectEntity = discoveryService.findDiscoveryObjectEntityById(
+    public CompletableFuture<Void> acceptAsync(ReconcileContext reconcileContext) {
+        final var discoveryObjectEntity = discoveryService.findDiscoveryObjectEntityById(
                 Long.valueOf(reconcileObject.getObjectId()));
 
         if (discoveryObjectEntity == null) {
             LOGGER.info("Skipping reconcile for {}. No discovery object found.", reconcileObject.getObjectId());
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
         if (discoveryObjectEntity.isReconcileOngoingOrCompleted()) {
             LOGGER.info("Skipping reconcile for {}. Reconcile is ongoing or completed.", reconcileObject.getObjectId());
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
         final List<String> filters = getExecutableFilters(discoveryObjectEntity, reconcileContext);
         if (filters.isEmpty()) {
             LOGGER.info("Skipping reconcile for {}. No valid filters supplied.", reconcileObject.getObjectId());
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
-        discoveryObjectEntity = reconcileState.setDiscoveryObjectStateReconciling(discoveryObjectEntity);
+        return reconcileFilters(reconcileState.setDiscoveryObjectStateReconciling(discoveryObjectEntity), filters.iterator(),
+                reconcileContext).thenAccept(reconcileState::setDiscoveryObjectState);
+    }
+
+    private CompletableFuture<DiscoveryObjectEntity> reconcileFilters(final DiscoveryObjectEntity discoveryObjectEntity,
+                                                                      final Iterator<String> filters,
+                                                                      final ReconcileContext reconcileContext) {
+        if (!filters.hasNext()) {
+            return CompletableFuture.completedFuture(discoveryObjectEntity);
+        }
+        final String filter = filters.next();
+        return reconcileFilter(reconcileState.setFilterStateInProgress(discoveryObjectEntity, filter), filter, reconcileContext)
+                .thenCompose(entity -> reconcileFilters(entity, filters, reconcileContext));
+    }
 
-        for (final String filter : filters) {
-            discoveryObjectEntity = reconcileState.setFilterStateInProgress(discoveryObjectEntity, filter);
+    private CompletableFuture<DiscoveryObjectEntity> reconcileFilter(final DiscoveryObjectEntity discoveryObjectEntity,
+                                                                     final String filter, final ReconcileContext reconcileContext) {
+        CompletableFuture<ExecutionResult> executionResult;
+        try {
+            final var reconcileAction = reconcileContext.getReconcileAction(filter);
+            LOGGER.info("Executing reconcile action: objectId={},jobId={},filter={}", discoveryObjectEntity.getId(),
+                    reconcileContext.getJobId(), filter);
+            executionResult = reconcile(reconcileAction, discoveryObjectEntity, reconcileContext, reconcileObject);
+        } catch (final Exception e) {
+            executionResult = CompletableFuture.failedFuture(e);
+        }
+        return executionResult.handle((result, throwable) -> {
             try {
-                final var reconcileAction = reconcileContext.getReconcileAction(filter);
-                LOGGER.info("Executing reconcile action: objectId={},jobId={},filter={}", discoveryObjectEntity.getId(),
-                        reconcileContext.getJobId(), filter);
-                final var executionResult = reconcile(reconcileAction, discoveryObjectEntity,
-                        reconcileContext, reconcileObject);
-                discoveryObjectEntity = reconcileState.setFilterStateCompleted(discoveryObjectEntity, filter, executionResult);
+                if (throwable != null) {
+                    ExceptionUtils.rethrow(Futures.unwrap(throwable));
+                }
+                return reconcileState.setFilterStateCompleted(discoveryObjectEntity, filter, result);
             } catch (final Exception e) {
                 reconcileState.setFilterStateFailed(discoveryObjectEntity, filter, e);
-                throw e;
+                return ExceptionUtils.rethrow(e);
             }
-        }
-        reconcileState.setDiscoveryObjectState(discoveryObjectEntity);
+        });
     }
 
     private List<String> getExecutableFilters(final DiscoveryObjectEntity discoveryObjectEntity, final ReconcileContext reconcileContext) {
@@ -119,13 +144,15 @@ public class ReconcileSingleObject implements Consumer<ReconcileContext> {
         return filters.stream().filter(validFilters::contains).toList();
     }
 
-    private ExecutionResult reconcile(ApplicationConfigurationActionDto reconcileAction,
-                                      DiscoveryObjectEntity discoveryObjectEntity, ReconcileContext reconcileContext,
-                                      ExecuteReconcileDtoObjectsInner reconcileObject) {
+    private CompletableFuture<ExecutionResult> reconcile(ApplicationConfigurationActionDto reconcileAction,
+                                                         DiscoveryObjectEntity discoveryObjectEntity, ReconcileContext reconcileContext,
+                                                         ExecuteReconcileDtoObjectsInner reconcileObject) {
         final var substitutionCtx = new ReconcileSubstitutionCtx(
                 discoveryObjectEntity, reconcileContext, reconcileObject).get();
-        final var executionContext = new ExecutionContext(reconcileContext.getFeaturePackId(), reconcileAction, substitutionCtx);
-        return executionEngine.execute(executionContext);
+        final var executionContext = new ExecutionContext(reconcileContext.getFeaturePackId(), reconcileAction, substitutionCtx)
+                .withMetricTags(reconcileContext.getFeaturePackName(), reconcileContext.getAppName(), reconcileContext.getAppJobName(),
+                        "reconcile");
+        return executionEngine.executeAsync(executionContext);
     }
 
     public void setReconcileObject(ExecuteReconcileDtoObjectsInner reconcileObject) {
@@ -19,13 +19,15 @@ package com.ericsson.bos.dr.service.reconcile.functions;
 import java.util.function.Consumer;
 
 import com.ericsson.bos.dr.service.JobService;
+import com.ericsson.bos.dr.service.execution.executors.command.ProcessExecutor;
 import com.ericsson.bos.dr.service.reconcile.ReconcileContext;
 import com.ericsson.bos.dr.web.v1.api.model.JobSummaryDto.StatusEnum;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
- * Update model when reconciliation is started.
+ * Update model when reconciliation is started, allowing processes to be executed again for a job
+ * whose previous reconciliation failed.
  */
 @Component
 @ReconcileFunction
@@ -34,8 +36,12 @@ public class ReconcileStarted implements Consumer<ReconcileContext> {
     @Autowired
     private JobService jobService;
 
+    @Autowired
+    private ProcessExecutor processExecutor;
+
     @Override
     public void accept(ReconcileContext reconcileContext) {
+        processExecutor.allowJobProcesses(reconcileContext.getJobId());
         jobService.setJobInProgress(reconcileContext.getJobId(), StatusEnum.RECONCILE_INPROGRESS.name());
     }
 }
\ No newline at end of file
@@ -19,9 +19,11 @@ package com.ericsson.bos.dr.service.reconcile.functions;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.ericsson.bos.dr.jpa.DiscoveryObjectRepository;
+import com.ericsson.bos.dr.jpa.DiscoveryObjectStateWriter;
 import com.ericsson.bos.dr.jpa.model.DiscoveredObjectStatusEvaluator;
 import com.ericsson.bos.dr.jpa.model.DiscoveryObjectEntity;
 import com.ericsson.bos.dr.service.execution.ExecutionEngineException;
@@ -31,6 +33,14 @@ import com.ericsson.bos.dr.web.v1.api.model.FilterDtoReconcileAction;
 
 /**
  * Handle state updates during the reconciliation flow.
+ * <p>
+ * Unless each transition is configured to be persisted, the transitions while an object is reconciled are kept in
+ * memory and only the start and end of the reconciliation are persisted. The start, setting the object state to
+ * Reconciling, is saved immediately, so a concurrent attempt to reconcile the same object fails on the optimistic
+ * lock. Filter states set InProgress and Completed are not saved. The end state of the object and its filters is
+ * written as one batched update, see <code>DiscoveryObjectStateWriter</code>. A failed filter ends the
+ * reconciliation of the object and is saved immediately.
+ * </p>
  */
 @Component
 public class ReconcileStateHandler {
@@ -38,6 +48,12 @@ public class ReconcileStateHandler {
     @Autowired
     private DiscoveryObjectRepository discoveryObjectRepository;
 
+    @Autowired
+    private DiscoveryObjectStateWriter discoveryObjectStateWriter;
+
+    @Value("${service.jobs.execution.persistence.reconcile-state-transitions}")
+    private boolean persistTransitions;
+
     /**
      * Set the filter state to failed.
      *
@@ -75,7 +91,7 @@ public class ReconcileStateHandler {
             f.setCommand(executionResult.getCommand());
             f.setCommandResponse(executionResult.getCommandResponse());
             f.setErrorMsg(null);
-            return discoveryObjectRepository.save(discoveryObjectEntity);
+            return saveTransition(discoveryObjectEntity);
         }).orElse(discoveryObjectEntity);
     }
 
@@ -92,7 +108,7 @@ public class ReconcileStateHandler {
             f.setCommand(null);
             f.setCommandResponse(null);
             f.setErrorMsg(null);
-            return discoveryObjectRepository.save(discoveryObjectEntity);
+            return saveTransition(discoveryObjectEntity);
         }).orElse(discoveryObjectEntity);
     }
 
@@ -116,7 +132,10 @@ public class ReconcileStateHandler {
      */
     public DiscoveryObjectEntity setDiscoveryObjectState(final DiscoveryObjectEntity discoveryObjectEntity) {
         discoveryObjectEntity.setStatus(DiscoveredObjectStatusEvaluator.evaluate(discoveryObjectEntity));
-        return discoveryObjectRepository.save(discoveryObjectEntity);
+        if (persistTransitions) {
+            return discoveryObjectRepository.save(discoveryObjectEntity);
+        }
+        return discoveryObjectStateWriter.updateState(discoveryObjectEntity);
     }
 
     /**
@@ -130,4 +149,8 @@ public class ReconcileStateHandler {
         discoveryObjectEntity.setErrorMessage(e.getMessage());
         return discoveryObjectRepository.save(discoveryObjectEntity);
     }
+
+    private DiscoveryObjectEntity saveTransition(final DiscoveryObjectEntity discoveryObjectEntity) {
+        return persistTransitions ? discoveryObjectRepository.save(discoveryObjectEntity) : discoveryObjectEntity;
+    }
 }
\ No newline at end of file
@@ -32,6 +32,7 @@ import com.hubspot.jinjava.JinjavaConfig;
 import com.hubspot.jinjava.interpret.RenderResult;
 
 import org.apache.commons.collections4.MapUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,6 +41,11 @@ import org.springframework.stereotype.Component;
 
 /**
  * Substitution Engine.
+ * <p>
+ * Parsed templates are cached by the <code>TemplateCachingInterpreterFactory</code> and the <code>JinjavaConfig</code>
+ * is built once and reused for every render. Literal strings, containing no jinja expression, statement or comment
+ * delimiters, are returned as-is without being rendered.
+ * </p>
  */
 @Component
 public class SubstitutionEngine {
@@ -47,7 +53,7 @@ public class SubstitutionEngine {
     public static final String FP_CTX_VAR = "__featurePackId__";
     private static final Logger LOGGER = LoggerFactory.getLogger(SubstitutionEngine.class);
 
-    private final Jinjava jinjava = new Jinjava();
+    private static final String[] JINJA_DELIMITERS = {"{{", "{%", "{#"};
 
     @Autowired
     private PropertiesService propertiesService;
@@ -55,11 +61,25 @@ public class SubstitutionEngine {
     @Value("${service.substitution.fail-on-unknown-tokens}")
     private boolean failOnUnknownTokens;
 
+    @Value("${spring.caches.jinja-template.max-size}")
+    private long templateCacheMaxSize;
+
+    @Value("${spring.caches.jinja-template.access-expiry}")
+    private long templateCacheAccessExpiry;
+
+    private JinjavaConfig config;
+    private Jinjava jinjava;
+
     /**
-     * Register Jinja functions.
+     * Create the Jinjava instance and register Jinja functions.
      */
     @PostConstruct
     public void registerJinjaFunction() {
+        config = JinjavaConfig.newBuilder()
+                .withFailOnUnknownTokens(failOnUnknownTokens)
+                .withInterperterFactory(new TemplateCachingInterpreterFactory(templateCacheMaxSize, templateCacheAccessExpiry))
+                .build();
+        jinjava = new Jinjava(config);
         Stream.of(new ReplaceAtSymbolFunction(),
                         new JqFunction(),
                         new CurrentTimeStampFunction(),
@@ -78,6 +98,9 @@ public class SubstitutionEngine {
      * @return rendered template
      */
     public String render(final String template, final Map<String, Object> substitutionContext, final Long featurePackId) {
+        if (!StringUtils.containsAny(template, JINJA_DELIMITERS)) {
+            return template;
+        }
         final Map<String, Object> bindings = new HashMap<>(substitutionContext);
 
         if (featurePackId != null) {
@@ -88,7 +111,6 @@ public class SubstitutionEngine {
             LOGGER.debug("Jinja Template is:{}, substitutionContext is:{}", template, JSON.toString(bindings));
         }
 
-        final JinjavaConfig config = JinjavaConfig.newBuilder().withFailOnUnknownTokens(failOnUnknownTokens).build();
         bindings.put(FP_CTX_VAR, featurePackId);
         final RenderResult result = jinjava.renderForResult(template, bindings, config);
 
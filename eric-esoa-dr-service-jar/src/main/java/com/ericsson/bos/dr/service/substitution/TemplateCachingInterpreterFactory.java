@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.service.substitution;
+
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hubspot.jinjava.Jinjava;
+import com.hubspot.jinjava.JinjavaConfig;
+import com.hubspot.jinjava.interpret.Context;
+import com.hubspot.jinjava.interpret.InterpreterFactory;
+import com.hubspot.jinjava.interpret.JinjavaInterpreter;
+import com.hubspot.jinjava.tree.Node;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Jinjava <code>InterpreterFactory</code> creating interpreters which cache the parsed template tree, keyed on the
+ * template text. A template is parsed once and the tree then rendered for each new substitution context, rather than
+ * being re-parsed for every render.
+ * <p>
+ * A template tree is only cached when it is parsed without errors, so syntax errors continue to be reported
+ * on every render. The cache statistics are available in the <code>jinja_template_cache</code> metrics.
+ * </p>
+ */
+public class TemplateCachingInterpreterFactory implements InterpreterFactory {
+
+    private final Cache<String, Node> parsedTemplates;
+
+    /**
+     * TemplateCachingInterpreterFactory.
+     * @param maxSize maximum number of cached templates
+     * @param accessExpiry seconds after which a template not accessed is removed from the cache
+     */
+    public TemplateCachingInterpreterFactory(final long maxSize, final long accessExpiry) {
+        this.parsedTemplates = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(accessExpiry, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, parsedTemplates, "jinja_template_cache");
+    }
+
+    @Override
+    public JinjavaInterpreter newInstance(final JinjavaInterpreter orig) {
+        return new TemplateCachingInterpreter(orig);
+    }
+
+    @Override
+    public JinjavaInterpreter newInstance(final Jinjava application, final Context context, final JinjavaConfig renderConfig) {
+        return new TemplateCachingInterpreter(application, context, renderConfig);
+    }
+
+    /**
+     * Interpreter which looks up the parsed template tree in the cache before parsing.
+     */
+    private class TemplateCachingInterpreter extends JinjavaInterpreter {
+
+        TemplateCachingInterpreter(final JinjavaInterpreter orig) {
+            super(orig);
+        }
+
+        TemplateCachingInterpreter(final Jinjava application, final Context context, final JinjavaConfig renderConfig) {
+            super(application, context, renderConfig);
+        }
+
+        @Override
+        public Node parse(final String template) {
+            final Node cachedTree = parsedTemplates.getIfPresent(template);
+            if (cachedTree != null) {
+                return cachedTree;
+            }
+            final int errorCount = getErrors().size();
+            final Node tree = super.parse(template);
+            if (getErrors().size() == errorCount) {
+                parsedTemplates.put(template, tree);
+            }
+            return tree;
+        }
+    }
+}
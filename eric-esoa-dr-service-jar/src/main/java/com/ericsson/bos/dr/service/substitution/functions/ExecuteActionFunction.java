@@ -66,7 +66,8 @@ public class ExecuteActionFunction extends ELFunctionDefinition {
                     .orElseThrow(() -> new IllegalStateException("Feature Pack id is not set in the context"));
             final var applicationConfigurationActionDto =
                     JSON.read(executionOption, ApplicationConfigurationActionDto.class);
-            final var executionContext = new ExecutionContext(featurePackId, applicationConfigurationActionDto, new HashMap<>());
+            final var executionContext = new ExecutionContext(featurePackId, applicationConfigurationActionDto, new HashMap<>())
+                    .withMetricTags(null, null, null, "function");
             final var executionEngine = SpringContextHolder.getBean(ExecutionEngine.class);
             final var executionResult = executionEngine.execute(executionContext);
 
@@ -21,6 +21,7 @@ import java.util.Optional;
 
 import com.ericsson.bos.dr.service.AssetService;
 import com.ericsson.bos.dr.service.utils.Groovy;
+import com.ericsson.bos.dr.service.utils.GroovyScriptCache;
 import com.ericsson.bos.dr.service.utils.SpringContextHolder;
 import com.hubspot.jinjava.interpret.JinjavaInterpreter;
 import com.hubspot.jinjava.interpret.TemplateError;
@@ -41,7 +42,8 @@ public class GroovyFunction extends ELFunctionDefinition {
 
     /**
      * Evaluate the groovy expression. An expression prefixed with '@' will be treated as
-     * a reference to an asset which will be fetched and executed.
+     * a reference to an asset which will be fetched and executed. Inline expressions are
+     * compiled once and cached.
      * @param expression  groovy expression
      * @param args arguments
      * @return evaluated value
@@ -52,7 +54,7 @@ public class GroovyFunction extends ELFunctionDefinition {
             if (expression.startsWith("@")) {
                 result = Groovy.evalScript(getGroovyScript(expression), args);
             } else {
-                result = Groovy.evalExpression(expression, args);
+                result = SpringContextHolder.getBean(GroovyScriptCache.class).evalExpression(expression, args);
             }
             return result;
         } catch (final Exception e) {
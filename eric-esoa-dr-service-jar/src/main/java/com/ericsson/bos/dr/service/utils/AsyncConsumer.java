@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.service.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Consumer whose operation completes asynchronously, for example while waiting for the response to a http request.
+ * The operation does not hold the calling thread while waiting.
+ * @param <T> type of the input
+ */
+public interface AsyncConsumer<T> extends Consumer<T> {
+
+    /**
+     * Perform the operation on the given argument.
+     * @param t input argument
+     * @return CompletableFuture completed when the operation completes
+     */
+    CompletableFuture<Void> acceptAsync(T t);
+
+    /**
+     * Perform the operation on the given argument, waiting for it to complete.
+     * @param t input argument
+     */
+    @Override
+    default void accept(final T t) {
+        Futures.join(acceptAsync(t));
+    }
+}
@@ -17,6 +17,10 @@ package com.ericsson.bos.dr.service.utils;
 
 import java.util.Arrays;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
 
 /**
  * Utility methods for handling of Futures.
@@ -47,4 +51,28 @@ public class Futures {
         });
         return CompletableFuture.anyOf(failure, CompletableFuture.allOf(futures));
     }
+
+    /**
+     * Wait for the stage to complete and return its result. If the stage completed exceptionally then
+     * the cause is rethrown, rather than a <code>CompletionException</code>.
+     * @param stage completion stage
+     * @param <T> result type
+     * @return result
+     */
+    public static <T> T join(final CompletionStage<T> stage) {
+        try {
+            return stage.toCompletableFuture().join();
+        } catch (final CompletionException e) {
+            return ExceptionUtils.rethrow(unwrap(e));
+        }
+    }
+
+    /**
+     * Get the cause of a <code>CompletionException</code>, otherwise the throwable itself.
+     * @param throwable throwable
+     * @return cause of the CompletionException or the throwable
+     */
+    public static Throwable unwrap(final Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+    }
 }
\ No newline at end of file
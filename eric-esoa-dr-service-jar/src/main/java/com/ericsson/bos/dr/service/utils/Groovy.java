@@ -40,9 +40,7 @@ public abstract class Groovy {
      * @return evaluated value
      */
     public static Object evalScript(final Class<Script> scriptClass, final Object... args) {
-        final Map<String, Object> mapArgs = IntStream.range(0, args.length).mapToObj(Integer.class::cast)
-                .collect(Collectors.toMap(i -> PROPERTY_PREFIX + (i+1), i -> args[i]));
-        return evalScript(scriptClass, mapArgs);
+        return evalScript(scriptClass, toIndexedArgs(args));
     }
 
     /**
@@ -71,9 +69,7 @@ public abstract class Groovy {
      * @return evaluated value
      */
     public static Object evalExpression(final String expression, final Object... args) {
-        final Map<String, Object> mapArgs = IntStream.range(0, args.length).mapToObj(Integer.class::cast)
-                .collect(Collectors.toMap(i -> PROPERTY_PREFIX + (i+1), i -> args[i]));
-        return evalExpression(expression, mapArgs);
+        return evalExpression(expression, toIndexedArgs(args));
     }
 
     /**
@@ -89,4 +85,14 @@ public abstract class Groovy {
         final var groovySh = new GroovyShell(binding);
         return groovySh.evaluate(expression);
     }
+
+    /**
+     * Convert the args array to a map keyed on the arg index e.g arg1,arg2..argn.
+     * @param args args
+     * @return args map
+     */
+    public static Map<String, Object> toIndexedArgs(final Object... args) {
+        return IntStream.range(0, args.length).mapToObj(Integer.class::cast)
+                .collect(Collectors.toMap(i -> PROPERTY_PREFIX + (i+1), i -> args[i]));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.service.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import groovy.lang.Binding;
+import groovy.lang.GroovyShell;
+import groovy.lang.Script;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.codehaus.groovy.runtime.InvokerHelper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache of compiled inline groovy expressions, keyed on the expression text.
+ * <p>
+ * Each expression is compiled once to a <code>Script</code> class, rather than creating a new <code>GroovyShell</code>
+ * and generating a new class for every evaluation. The cache is bounded and entries expire after a period without access,
+ * so the generated classes can be unloaded once evicted. A new <code>Script</code> instance of the cached class, with a
+ * <code>Binding</code> holding the arguments, is created for each evaluation, so variables assigned by an expression are
+ * not visible to other evaluations and no reference to the class is kept outside the cache.
+ * </p>
+ * The cache statistics are recorded in the <code>groovy_expression_cache</code> metrics.
+ */
+@Component
+public class GroovyScriptCache {
+
+    @Value("${spring.caches.groovy-expression.max-size}")
+    private long maxSize;
+
+    @Value("${spring.caches.groovy-expression.access-expiry}")
+    private long accessExpiry;
+
+    private Cache<String, Class<? extends Script>> compiledScripts;
+
+    /**
+     * Create the cache and register the metrics.
+     */
+    @PostConstruct
+    public void init() {
+        compiledScripts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(accessExpiry, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, compiledScripts, "groovy_expression_cache");
+    }
+
+    /**
+     * Evaluate groovy expression passing in the args array. The args will be
+     * accessible in the expression via the arg index e.g arg1,arg2..argn.
+     * @param expression expression
+     * @param args args
+     * @return evaluated value
+     */
+    public Object evalExpression(final String expression, final Object... args) {
+        return evalExpression(expression, Groovy.toIndexedArgs(args));
+    }
+
+    /**
+     * Evaluate groovy expression passing the args map. The args will be accessible via the
+     * key names in the map.
+     * @param expression expression
+     * @param args args
+     * @return evaluated value
+     */
+    public Object evalExpression(final String expression, final Map<String, Object> args) {
+        final Class<? extends Script> scriptClass = compiledScripts.get(expression, e -> new GroovyShell().parse(e).getClass());
+        final Script script = InvokerHelper.createScript(scriptClass, new Binding(new HashMap<>(args)));
+        return script.run();
+    }
+}
\ No newline at end of file
@@ -18,31 +18,63 @@ package com.ericsson.bos.dr.service.utils;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import com.ericsson.bos.dr.service.exceptions.DRServiceException;
 import com.ericsson.bos.dr.service.exceptions.ErrorCode;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import net.thisptr.jackson.jq.JsonQuery;
 import net.thisptr.jackson.jq.Scope;
 import net.thisptr.jackson.jq.exception.JsonQueryException;
 
 /**
  * JQ query operations.
+ * <p>
+ * Compiled jq expressions are cached, keyed on the expression text, so that an expression applied to many json nodes
+ * is only compiled once. The cache is bounded, entries expire after a period without access, and the size and expiry
+ * are configured under <code>spring.caches.jq-expression</code>, see <code>CacheConfiguration</code>. The hit and miss
+ * counts are recorded in the
+ * <code>cache.gets</code> metrics of the <code>jq_expression_cache</code>. A compiled <code>JsonQuery</code> is
+ * immutable and safe to be applied concurrently.
+ * </p>
  */
 public abstract class JQ {
 
+    private static final long DEFAULT_CACHE_MAX_SIZE = 1000;
+    private static final long DEFAULT_CACHE_ACCESS_EXPIRY = 3600;
     private static final Scope SCOPE;
     private static final ObjectMapper OM_INSTANCE = new ObjectMapper();
+    private static final Cache<String, JsonQuery> COMPILED_EXPRESSIONS = Caffeine.newBuilder()
+            .maximumSize(DEFAULT_CACHE_MAX_SIZE)
+            .expireAfterAccess(DEFAULT_CACHE_ACCESS_EXPIRY, TimeUnit.SECONDS)
+            .recordStats()
+            .build();
 
     static {
         SCOPE = Scope.newEmptyScope();
         SCOPE.loadFunctions(Scope.class.getClassLoader());
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, COMPILED_EXPRESSIONS, "jq_expression_cache");
     }
 
     private JQ() {
     }
 
+    /**
+     * Configure the compiled expression cache, replacing the default maximum size and access expiry.
+     * @param maxSize maximum number of cached expressions
+     * @param accessExpiry seconds after which an expression not accessed is removed from the cache
+     */
+    public static void configureCache(final long maxSize, final long accessExpiry) {
+        COMPILED_EXPRESSIONS.policy().eviction().ifPresent(eviction -> eviction.setMaximum(maxSize));
+        COMPILED_EXPRESSIONS.policy().expireAfterAccess()
+                .ifPresent(expiration -> expiration.setExpiresAfter(accessExpiry, TimeUnit.SECONDS));
+    }
+
     /**
      * Apply each jq expression value in the map to the json node.
      * @param jqExpressions jq expressions map
@@ -64,13 +96,23 @@ public abstract class JQ {
      */
     public static JQResult query(final String jqExpression, final JsonNode jsonNode) {
         try {
-            final var jsonQuery = JsonQuery.compile(jqExpression);
+            final var jsonQuery = compile(jqExpression);
             return new JQResult(jsonQuery.apply(SCOPE, jsonNode));
         } catch (JsonQueryException e) {
             throw new DRServiceException(e, ErrorCode.JQ_ERROR, jqExpression, e.getMessage());
         }
     }
 
+    private static JsonQuery compile(final String jqExpression) throws JsonQueryException {
+        final JsonQuery cachedQuery = COMPILED_EXPRESSIONS.getIfPresent(jqExpression);
+        if (cachedQuery != null) {
+            return cachedQuery;
+        }
+        final var jsonQuery = JsonQuery.compile(jqExpression);
+        COMPILED_EXPRESSIONS.put(jqExpression, jsonQuery);
+        return jsonQuery;
+    }
+
     /**
      * JQ Query result.
      */
@@ -17,11 +17,15 @@ package com.ericsson.bos.dr.service.utils;
 
 import static com.fasterxml.jackson.core.JsonParser.Feature.INCLUDE_SOURCE_IN_LOCATION;
 import java.io.IOException;
+import java.io.Reader;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -118,6 +122,49 @@ public abstract class JSON {
         }
     }
 
+    /**
+     * Read json string incrementally, passing each top-level array element to the consumer.
+     * If the json is an object then the object itself is passed to the consumer.
+     * Only a single element is held in memory at a time, the full json tree is never built.
+     * @param value json array or object string
+     * @param consumer consumer of each element
+     */
+    public static void readEach(final String value, final Consumer<JsonNode> consumer) {
+        try (JsonParser parser = INSTANCE.createParser(value)) {
+            readEach(parser, consumer);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Read json incrementally from a reader, passing each top-level array element to the consumer.
+     * If the json is an object then the object itself is passed to the consumer.
+     * Only a single element is held in memory at a time, the full json tree is never built.
+     * @param reader json array or object reader
+     * @param consumer consumer of each element
+     */
+    public static void readEach(final Reader reader, final Consumer<JsonNode> consumer) {
+        try (JsonParser parser = INSTANCE.createParser(reader)) {
+            readEach(parser, consumer);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void readEach(final JsonParser parser, final Consumer<JsonNode> consumer) throws IOException {
+        final JsonToken firstToken = parser.nextToken();
+        if (firstToken == JsonToken.START_ARRAY) {
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                consumer.accept(INSTANCE.readTree(parser));
+            }
+        } else if (firstToken == JsonToken.START_OBJECT) {
+            consumer.accept(INSTANCE.readTree(parser));
+        } else {
+            throw new IllegalArgumentException("Unexpected input: " + (firstToken == null ? "" : parser.getText()));
+        }
+    }
+
     /**
      * Convert Json obect to another type.
      * @param value current value
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.service.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Coalesces concurrent calls with the same key into a single call. The first caller for a key executes the call,
+ * and callers arriving while it is in flight share its result rather than executing the call again.
+ * Once the call completes the key is released, so a later caller executes the call afresh.
+ * <p>
+ * The shared result mapper is applied to the result for each sharing caller on the given executor, rather than on the
+ * thread completing the call, and completes before the result is returned to the caller which executed the call.
+ * This allows each sharing caller to be given its own copy of a resource held by the result, such as a file, before
+ * the executing caller releases it, without blocking the thread completing the call.
+ * </p>
+ * <p>
+ * The number of calls saved by coalescing is available in the <code>single_flight_coalesced_calls</code> metric,
+ * tagged with the name of the SingleFlight.
+ * </p>
+ *
+ * @param <K> key type
+ * @param <V> result type
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Flight> inFlight = new ConcurrentHashMap<>();
+    private final UnaryOperator<V> sharedResultMapper;
+    private final Executor executor;
+    private final Counter coalescedCalls;
+
+    /**
+     * SingleFlight.
+     * @param name name used to tag the metric
+     * @param sharedResultMapper applied to the result for each caller sharing the result of a call in flight
+     * @param executor executor on which the shared result mapper is applied
+     */
+    public SingleFlight(final String name, final UnaryOperator<V> sharedResultMapper, final Executor executor) {
+        this.sharedResultMapper = sharedResultMapper;
+        this.executor = executor;
+        this.coalescedCalls = Metrics.counter("single_flight_coalesced_calls", "name", name);
+    }
+
+    /**
+     * Execute the call, or share the result of the call in flight for the same key.
+     *
+     * @param key call key
+     * @param call call to execute if no call is in flight for the key
+     * @return CompletableFuture of the result
+     */
+    public CompletableFuture<V> execute(final K key, final Supplier<? extends CompletionStage<V>> call) {
+        while (true) {
+            final var flight = new Flight();
+            final Flight existingFlight = inFlight.putIfAbsent(key, flight);
+            if (existingFlight == null) {
+                return flight.execute(key, call);
+            }
+            final Optional<CompletableFuture<V>> sharedResult = existingFlight.join();
+            if (sharedResult.isPresent()) {
+                coalescedCalls.increment();
+                return sharedResult.get();
+            }
+        }
+    }
+
+    /**
+     * Number of keys with a call in flight.
+     *
+     * @return calls in flight
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * A call in flight and the callers sharing its result.
+     */
+    private class Flight {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private final List<CompletableFuture<V>> sharedResults = new ArrayList<>();
+        private boolean completed;
+
+        CompletableFuture<V> execute(final K key, final Supplier<? extends CompletionStage<V>> call) {
+            try {
+                call.get().whenComplete((value, throwable) -> complete(key, value, throwable));
+            } catch (final RuntimeException e) {
+                complete(key, null, e);
+            }
+            return result;
+        }
+
+        synchronized Optional<CompletableFuture<V>> join() {
+            if (completed) {
+                return Optional.empty();
+            }
+            final var sharedResult = new CompletableFuture<V>();
+            sharedResults.add(sharedResult);
+            return Optional.of(sharedResult);
+        }
+
+        private void complete(final K key, final V value, final Throwable throwable) {
+            inFlight.remove(key, this);
+            synchronized (this) {
+                completed = true;
+            }
+            if (throwable != null) {
+                sharedResults.forEach(sharedResult -> sharedResult.completeExceptionally(Futures.unwrap(throwable)));
+                result.completeExceptionally(Futures.unwrap(throwable));
+                return;
+            }
+            final CompletableFuture<?>[] mappedResults = sharedResults.stream()
+                    .map(sharedResult -> map(value, sharedResult))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(mappedResults).whenComplete((v, t) -> result.complete(value));
+        }
+
+        private CompletableFuture<V> map(final V value, final CompletableFuture<V> sharedResult) {
+            try {
+                return CompletableFuture.supplyAsync(() -> sharedResultMapper.apply(value), executor)
+                        .whenComplete((mappedValue, throwable) -> {
+                            if (throwable != null) {
+                                sharedResult.completeExceptionally(Futures.unwrap(throwable));
+                            } else {
+                                sharedResult.complete(mappedValue);
+                            }
+                        });
+            } catch (final RuntimeException e) {
+                sharedResult.completeExceptionally(e);
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+    }
+}
\ No newline at end of file
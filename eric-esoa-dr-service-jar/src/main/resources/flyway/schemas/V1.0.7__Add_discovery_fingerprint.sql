@@ -0,0 +1,14 @@
+create table discovery_fingerprint(
+job_id BIGINT NOT NULL,
+object_key VARCHAR(64) NOT NULL,
+fingerprint VARCHAR(64) NOT NULL,
+source_properties JSONB,
+target_properties JSONB,
+PRIMARY KEY (job_id, object_key),
+FOREIGN KEY (job_id) REFERENCES job ON DELETE CASCADE);
+
+alter table discovered_object
+    add column object_key VARCHAR(64);
+
+alter table job
+    add column discovery_delta JSONB;
@@ -0,0 +1,122 @@
+#
+# COPYRIGHT Ericsson 2023
+#
+#
+#
+# The copyright to the computer program(s) herein is the property of
+#
+# Ericsson Inc. The programs may be used and/or copied only with written
+#
+# permission from Ericsson Inc. or in accordance with the terms and
+#
+# conditions stipulated in the agreement/contract under which the
+#
+# program(s) have been supplied.
+#
+
+"""
+Long-lived python worker, executing python scripts on behalf of the D&R service.
+
+Requests are read from stdin and responses written to stdout, each as a 4 byte big-endian
+length followed by a UTF-8 encoded json document.
+
+Request:  {"script": "/path/to/script.py", "args": "arg1 arg2"}
+Response: {"exitCode": 0, "output": "script stdout and stderr"}
+
+The script is run as __main__ with sys.argv set from the args, split as a shell would.
+Anything the script writes directly to file descriptor 1 is redirected to stderr, so that it
+cannot corrupt the responses.
+
+Each script runs in isolation from the scripts run before it. The modules imported by a script,
+including its helper modules, are removed from sys.modules once it completes, and sys.path,
+sys.argv, os.environ and the working directory are restored. A worker is only used for the
+scripts of a single feature pack, so that a module imported before a script ran, and changed by
+it, is not shared with another feature pack.
+"""
+
+import io
+import json
+import os
+import runpy
+import shlex
+import struct
+import sys
+import traceback
+from contextlib import redirect_stderr, redirect_stdout
+
+
+def read_frame(stream):
+    header = stream.read(4)
+    if len(header) < 4:
+        return None
+    (length,) = struct.unpack('>I', header)
+    return stream.read(length)
+
+
+def write_frame(stream, payload):
+    stream.write(struct.pack('>I', len(payload)))
+    stream.write(payload)
+    stream.flush()
+
+
+def run(request):
+    script = request['script']
+    output = io.StringIO()
+    exit_code = 0
+    state = snapshot()
+    sys.argv = [script] + shlex.split(request.get('args', ''))
+    sys.path.insert(0, os.path.dirname(script))
+    with redirect_stdout(output), redirect_stderr(output):
+        try:
+            runpy.run_path(script, run_name='__main__')
+        except SystemExit as e:
+            if e.code is None:
+                exit_code = 0
+            elif isinstance(e.code, int):
+                exit_code = e.code
+            else:
+                print(e.code, file=sys.stderr)
+                exit_code = 1
+        except Exception:
+            traceback.print_exc()
+            exit_code = 1
+        finally:
+            restore(state)
+    return {'exitCode': exit_code, 'output': output.getvalue()}
+
+
+def snapshot():
+    return {
+        'modules': dict(sys.modules),
+        'path': list(sys.path),
+        'argv': list(sys.argv),
+        'environ': dict(os.environ),
+        'cwd': os.getcwd()
+    }
+
+
+def restore(state):
+    for name in [name for name in sys.modules if name not in state['modules']]:
+        del sys.modules[name]
+    sys.modules.update(state['modules'])
+    sys.path[:] = state['path']
+    sys.argv[:] = state['argv']
+    os.environ.clear()
+    os.environ.update(state['environ'])
+    os.chdir(state['cwd'])
+
+
+def main():
+    requests = sys.stdin.buffer
+    responses = os.fdopen(os.dup(1), 'wb')
+    os.dup2(2, 1)
+    while True:
+        frame = read_frame(requests)
+        if frame is None:
+            break
+        response = run(json.loads(frame.decode('utf-8')))
+        write_frame(responses, json.dumps(response).encode('utf-8'))
+
+
+if __name__ == '__main__':
+    main()
@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+
+package com.ericsson.bos.dr.tests.integration
+
+import com.ericsson.bos.dr.jpa.DiscoveryObjectBulkWriter
+import com.ericsson.bos.dr.jpa.DiscoveryObjectRepository
+import com.ericsson.bos.dr.jpa.DiscoveryObjectStateWriter
+import com.ericsson.bos.dr.jpa.model.DiscoveryObjectEntity
+import com.ericsson.bos.dr.jpa.model.FilterEntity
+import com.ericsson.bos.dr.jpa.model.JobEntity
+import com.ericsson.bos.dr.jpa.model.JobSpecificationEntity
+import com.ericsson.bos.dr.web.v1.api.model.ExecuteJobDtoExecutionOptions
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.dao.DataIntegrityViolationException
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.orm.ObjectOptimisticLockingFailureException
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.support.TransactionTemplate
+
+import java.time.Instant
+
+class DiscoveryObjectPersistenceSpec extends BaseSpec {
+
+    @Autowired
+    DiscoveryObjectBulkWriter discoveryObjectBulkWriter
+
+    @Autowired
+    DiscoveryObjectStateWriter discoveryObjectStateWriter
+
+    @Autowired
+    PlatformTransactionManager platformTransactionManager
+
+    @Autowired
+    JdbcTemplate jdbcTemplate
+
+    @Value('${service.jobs.execution.persistence.write-batch-size}')
+    int batchSize
+
+    def "Discovery objects written in bulk in more than one chunk are read back by jpa"() {
+
+        setup: "Create job"
+        long jobId = createJob()
+
+        and: "Discovery objects with 2 filters each, more than one chunk"
+        List<DiscoveryObjectEntity> entities = (1..batchSize + 1).collect { createDiscoveryObject(jobId, it) }
+
+        when: "Write the discovery objects"
+        discoveryObjectBulkWriter.insert(entities)
+
+        then: "Discovery objects and filters are read back with the generated ids"
+        new TransactionTemplate(platformTransactionManager).execute(status -> {
+            Map<Long, DiscoveryObjectEntity> saved = discoveryObjectRepository
+                    .findAll(DiscoveryObjectRepository.jobIdEquals(jobId)).collectEntries { [it.id, it] }
+            assert saved.keySet() == entities*.id as Set
+            entities.each { entity ->
+                DiscoveryObjectEntity savedEntity = saved[entity.id]
+                assert savedEntity.sourceProperties == entity.sourceProperties
+                assert savedEntity.status == "DISCOVERED"
+                assert savedEntity.objectKey == entity.objectKey
+                assert savedEntity.version == 0L
+                assert savedEntity.filters*.id as Set == entity.filters*.id as Set
+                assert savedEntity.filters*.name as Set == ["f1", "f2"] as Set
+                assert savedEntity.filters.every { it.discoveryObject.id == entity.id && it.version == 0L }
+            }
+            return true
+        })
+    }
+
+    def "Discovery objects of committed chunks are deleted when a later chunk fails"() {
+
+        setup: "Create job"
+        long jobId = createJob()
+
+        and: "Discovery objects where the object in the second chunk refers to a job which does not exist"
+        List<DiscoveryObjectEntity> entities = (1..batchSize).collect { createDiscoveryObject(jobId, it) }
+        entities.add(createDiscoveryObject(jobId + 1000, batchSize + 1))
+
+        when: "Write the discovery objects"
+        discoveryObjectBulkWriter.insert(entities)
+
+        then: "Failure is thrown"
+        thrown(DataIntegrityViolationException)
+
+        and: "No discovery objects or filters are left for the job"
+        discoveryObjectRepository.count(DiscoveryObjectRepository.jobIdEquals(jobId)) == 0
+        jdbcTemplate.queryForObject("SELECT count(*) FROM filter", Long) == 0
+    }
+
+    def "Reconcile state written with versions matching those expected by jpa"() {
+
+        setup: "Write discovery object and read it by jpa"
+        long jobId = createJob()
+        discoveryObjectBulkWriter.insert([createDiscoveryObject(jobId, 1)])
+        DiscoveryObjectEntity entity = discoveryObjectRepository.findAll(DiscoveryObjectRepository.jobIdEquals(jobId)).first()
+        DiscoveryObjectEntity staleEntity = discoveryObjectRepository.findById(entity.id).get()
+
+        when: "Update the reconcile state"
+        entity.status = "RECONCILED"
+        entity.filters.each { it.reconcileStatus = "COMPLETED"; it.command = "cmd"; it.commandResponse = "response" }
+        discoveryObjectStateWriter.updateState(entity)
+
+        then: "State and versions read by jpa match the updated entity"
+        DiscoveryObjectEntity savedEntity = discoveryObjectRepository.findById(entity.id).get()
+        savedEntity.status == "RECONCILED"
+        savedEntity.version == entity.version
+        savedEntity.version == staleEntity.version + 1
+        savedEntity.filters.every { it.reconcileStatus == "COMPLETED" && it.command == "cmd" && it.commandResponse == "response" }
+        savedEntity.filters.collectEntries { [it.id, it.version] } == entity.filters.collectEntries { [it.id, it.version] }
+
+        when: "Update the written entity by jpa"
+        entity.errorMessage = "error"
+        discoveryObjectRepository.save(entity)
+
+        then: "Update is accepted by the jpa optimistic lock"
+        discoveryObjectRepository.findById(entity.id).get().errorMessage == "error"
+
+        when: "Update the entity read before the reconcile state was written by jpa"
+        staleEntity.errorMessage = "stale"
+        discoveryObjectRepository.save(staleEntity)
+
+        then: "Update is rejected by the jpa optimistic lock"
+        thrown(ObjectOptimisticLockingFailureException)
+    }
+
+    def "Reconcile state is not written when the #row version does not match"() {
+
+        setup: "Write discovery object and read it by jpa"
+        long jobId = createJob()
+        discoveryObjectBulkWriter.insert([createDiscoveryObject(jobId, 1)])
+        DiscoveryObjectEntity entity = discoveryObjectRepository.findAll(DiscoveryObjectRepository.jobIdEquals(jobId)).first()
+        long objectVersion = entity.version
+
+        and: "Object or filter modified since read"
+        jdbcTemplate.update(modifySql, entity.id)
+
+        when: "Update the reconcile state"
+        entity.status = "RECONCILED"
+        entity.filters.each { it.reconcileStatus = "COMPLETED" }
+        discoveryObjectStateWriter.updateState(entity)
+
+        then: "Optimistic lock failure is thrown"
+        thrown(ObjectOptimisticLockingFailureException)
+
+        and: "No update is written, as read by jpa"
+        DiscoveryObjectEntity savedEntity = discoveryObjectRepository.findById(entity.id).get()
+        savedEntity.status == "DISCOVERED"
+        savedEntity.version == objectVersion + (row == "object" ? 1 : 0)
+        savedEntity.filters.every { it.reconcileStatus == "NOT_STARTED" }
+
+        where:
+        row      | modifySql
+        "object" | "UPDATE discovered_object SET version = version + 1 WHERE id = ?"
+        "filter" | "UPDATE filter SET version = version + 1 WHERE id = (SELECT min(id) FROM filter WHERE discovered_object_id = ?)"
+    }
+
+    private long createJob() {
+        JobSpecificationEntity jobSpecificationEntity = new JobSpecificationEntity(name: "job-1", description: "my job", applicationId: 1,
+                applicationName: "app_1", featurePackName: "fp-1", featurePackId: 1, executionOptions: new ExecuteJobDtoExecutionOptions(),
+                inputs: [:], applicationJobName: "job-1")
+        return jobRepository.save(new JobEntity(jobSpecification: jobSpecificationEntity, startDate: Date.from(Instant.now()),
+                jobStatus: "DISCOVERED", applicationJobName: "job-1")).id
+    }
+
+    private static DiscoveryObjectEntity createDiscoveryObject(long jobId, int index) {
+        DiscoveryObjectEntity entity = new DiscoveryObjectEntity(jobId: jobId, status: "DISCOVERED", sourceProperties: [id: index],
+                objectKey: "key-${index}".toString())
+        entity.addFilter(new FilterEntity(name: "f1", reconcileStatus: "NOT_STARTED", reconcileAction: "action"))
+        entity.addFilter(new FilterEntity(name: "f2", reconcileStatus: "NOT_STARTED", reconcileAction: "action"))
+        return entity
+    }
+}
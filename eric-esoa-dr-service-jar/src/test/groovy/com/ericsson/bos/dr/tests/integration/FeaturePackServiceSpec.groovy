@@ -132,6 +132,7 @@ class FeaturePackServiceSpec extends BaseSpec {
         "fp-invalid-app-schema11" | ErrorCode.SCHEMA_ERROR
         "fp-invalid-app-schema12" | ErrorCode.SCHEMA_ERROR
         "fp-invalid-app-schema13" | ErrorCode.SCHEMA_ERROR
+        "fp-invalid-app-schema14" | ErrorCode.SCHEMA_ERROR
         "fp-invalid-input-schema" | ErrorCode.SCHEMA_ERROR
         "fp-invalid-listener-schema" | ErrorCode.SCHEMA_ERROR
         "fp-invalid-properties-schema" | ErrorCode.SCHEMA_ERROR
@@ -22,6 +22,7 @@ import com.ericsson.bos.dr.tests.integration.utils.JsonUtils
 import com.ericsson.bos.dr.web.v1.api.model.DeleteJobsResponseDto
 import com.ericsson.bos.dr.web.v1.api.model.DiscoveredObjectListDto
 import com.ericsson.bos.dr.web.v1.api.model.ExecuteJobDto
+import com.ericsson.bos.dr.web.v1.api.model.ExecuteJobDtoExecutionOptions
 import com.ericsson.bos.dr.web.v1.api.model.FeaturePackDto
 import com.ericsson.bos.dr.web.v1.api.model.JobDto
 import com.ericsson.bos.dr.web.v1.api.model.JobListDto
@@ -35,6 +36,7 @@ import java.time.temporal.ChronoUnit
 import java.util.stream.Collectors
 
 import static com.ericsson.bos.dr.service.exceptions.ErrorCode.APP_NOT_FOUND
+import static com.ericsson.bos.dr.service.exceptions.ErrorCode.BAD_REQUEST_PARAM
 import static com.ericsson.bos.dr.service.exceptions.ErrorCode.CANNOT_FORCE_DELETE_INPROGRESS_SCHEDULED_JOBS
 import static com.ericsson.bos.dr.service.exceptions.ErrorCode.CANNOT_DELETE_SCHEDULED_JOB
 import static com.ericsson.bos.dr.service.exceptions.ErrorCode.FP_NOT_FOUND
@@ -103,6 +105,19 @@ class JobServiceSpec extends BaseSpec {
         null          | null            |"1"            | "app_1"
     }
 
+    def "Create job should fail if discovery chunk size and incremental discovery are both set"() {
+        setup: "Create executeJobDto"
+        ExecuteJobDto executeJobDto = new ExecuteJobDto(featurePackName: "fp-1", applicationName: "app_1", applicationJobName: "job1",
+                executionOptions: new ExecuteJobDtoExecutionOptions(discoveryChunkSize: 10, incrementalDiscovery: true))
+
+        when: "Create job"
+        ResultActions result = jobTestSteps.createJobResult(executeJobDto)
+
+        then: "Throw exception"
+        result.andExpect(status().is(400))
+                .andExpect(jsonPath("\$.errorCode").value(BAD_REQUEST_PARAM.errorCode))
+    }
+
     def "Create job should fail if feature pack with id or name does not exist"() {
         setup: "Create executeJobDto"
         ExecuteJobDto executeJobDto = new ExecuteJobDto(featurePackName: featurePackName, featurePackId: featurePackId,
@@ -56,7 +56,17 @@ import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options
         "security.tls.enabled=true",
         "service.http-client.retry.max-attempts=1",
         "service.http-client.retry.delay=1",
+        "service.http-client.retry.max-delay=1",
+        "service.http-client.retry.jitter=0",
+        "service.http-client.retry.deadline=60",
+        "service.http-client.circuit-breaker.failure-threshold=100",
+        "service.http-client.circuit-breaker.open-duration=30",
         "service.substitution.fail-on-unknown-tokens=true",
+        "spring.caches.http-client.max-size=10",
+        "spring.caches.http-client.access-expiry=60",
+        "spring.caches.http-circuit-breaker.access-expiry=60",
+        "service.http-client.large-response.threshold-kb=1",
+        "service.http-client.large-response.dir=\${java.io.tmpdir}",
         "netty.http-client.connection-pool.maxConnections=50",
         "netty.http-client.connection-pool.maxIdleTime=60s",
         "netty.http-client.connection-pool.maxLifeTime=300s",
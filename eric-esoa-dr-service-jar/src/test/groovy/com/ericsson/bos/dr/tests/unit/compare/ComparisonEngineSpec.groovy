@@ -21,19 +21,29 @@ import com.ericsson.bos.dr.jpa.model.JobEntity
 import com.ericsson.bos.dr.service.AssetService
 import com.ericsson.bos.dr.service.compare.ComparisonEngine
 import com.ericsson.bos.dr.service.discovery.DiscoveredObject
+import com.ericsson.bos.dr.service.discovery.DiscoveredObjectChunks
 import com.ericsson.bos.dr.service.discovery.DiscoveryContext
+import com.ericsson.bos.dr.service.discovery.DiscoveryDelta
+import com.ericsson.bos.dr.service.discovery.TargetPropertiesStore
+import com.ericsson.bos.dr.service.utils.GroovyScriptCache
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationDiscoverDto
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationDto
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationFilterDto
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationJobDto
+import com.ericsson.bos.dr.web.v1.api.model.ExecuteJobDtoExecutionOptions
 import com.ericsson.bos.dr.web.v1.api.model.FilterConditionDto
 import org.spockframework.spring.SpringBean
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.boot.test.context.TestConfiguration
+import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.ComponentScan
 import org.springframework.test.context.ContextConfiguration
+import org.springframework.test.context.TestPropertySource
 import spock.lang.Specification
 
+import java.nio.file.Files
+import java.util.concurrent.ForkJoinPool
+
 import static com.ericsson.bos.dr.service.discovery.DiscoveredObject.TYPE.SOURCE
 import static com.ericsson.bos.dr.service.discovery.DiscoveredObject.TYPE.TARGET
 import static com.ericsson.bos.dr.web.v1.api.model.FilterConditionDto.NameEnum.SOURCEINTARGET
@@ -44,6 +54,9 @@ import static com.ericsson.bos.dr.web.v1.api.model.FilterConditionDto.NameEnum.T
 import static com.ericsson.bos.dr.web.v1.api.model.FilterConditionDto.NameEnum.TARGETSCRIPT
 
 @ContextConfiguration(classes = ComparisonEngineTestConfig.class)
+@TestPropertySource(properties = ["service.jobs.execution.filter-executor.default-job-parallelism=1",
+        "service.jobs.execution.filter-executor.min-chunk-size=2",
+        "spring.caches.groovy-expression.max-size=10", "spring.caches.groovy-expression.access-expiry=60"])
 class ComparisonEngineSpec extends Specification {
 
     @Autowired
@@ -434,14 +447,214 @@ class ComparisonEngineSpec extends Specification {
         assertFilterMatching(targetTwo, filterName, filterDto.filter1.filterMatchText)
     }
 
-    DiscoveryContext createDiscoveryContext(List sources, List targets, Map<String, ApplicationConfigurationFilterDto> filterDto) {
+    def "Apply 'SourceInTarget' and 'SourceNotInTarget' conditions matching number, boolean, null and map values"() {
+
+        setup: "'SourceInTarget' and 'SourceNotInTarget' conditions"
+        FilterConditionDto condition1 = new FilterConditionDto(name: SOURCEINTARGET, arg: "propSource:propTarget&idSource:idTarget")
+        ApplicationConfigurationFilterDto filterDto1 = new ApplicationConfigurationFilterDto(
+                condition: condition1, filterMatchText: "Filter one has matched!!!")
+        FilterConditionDto condition2 = new FilterConditionDto(name: SOURCENOTINTARGET, arg: "propSource:propTarget&idSource:idTarget")
+        String filterName2 = "filter2"
+        ApplicationConfigurationFilterDto filterDto2 = new ApplicationConfigurationFilterDto(
+                condition: condition2, filterMatchText: "Filter two has matched!!!")
+        Map<String, ApplicationConfigurationFilterDto> filterDtos = [(filterName): filterDto1, (filterName2): filterDto2]
+
+        and: "Source and target objects"
+        DiscoveredObject sourceOne = new DiscoveredObject(1, SOURCE, ["idSource": 1, "propSource": "true"])
+        DiscoveredObject sourceTwo = new DiscoveredObject(1, SOURCE, ["idSource": "2", "propSource": [k1: "1", k2: "v2"]])
+        DiscoveredObject sourceThree = new DiscoveredObject(1, SOURCE, ["idSource": "3"])
+        DiscoveredObject sourceFour = new DiscoveredObject(1, SOURCE, ["idSource": "4", "propSource": 4])
+        DiscoveredObject targetOne = new DiscoveredObject(1, TARGET, ["idTarget": "1", "propTarget": true])
+        DiscoveredObject targetTwo = new DiscoveredObject(1, TARGET, ["idTarget": 2, "propTarget": [k2: "v2", k1: "1"]])
+        DiscoveredObject targetThree = new DiscoveredObject(1, TARGET, ["idTarget": "3", "propTarget": null])
+        DiscoveredObject targetFour = new DiscoveredObject(1, TARGET, ["idTarget": "4", "propTarget": 4.0])
+        DiscoveryContext discoveryContext = createDiscoveryContext(
+                [sourceOne, sourceTwo, sourceThree, sourceFour], [targetOne, targetTwo, targetThree, targetFour], filterDtos)
+
+        when: "Apply filters"
+        comparisonEngine.applyFilters(discoveryContext)
+
+        then: "Filter one matches as expected"
+        assertFilterMatching(sourceOne, filterName, filterDto1.filterMatchText)
+        assertFilterMatching(sourceTwo, filterName, filterDto1.filterMatchText)
+        assertFilterMatching(sourceThree, filterName, filterDto1.filterMatchText)
+        assertFilterNotMatching(sourceFour, filterName)
+
+        and: "Filter two matches as expected"
+        assertFilterNotMatching(sourceOne, filterName2)
+        assertFilterNotMatching(sourceTwo, filterName2)
+        assertFilterNotMatching(sourceThree, filterName2)
+        assertFilterMatching(sourceFour, filterName2, filterDto2.filterMatchText)
+    }
+
+    def "Parallel filter evaluation gives the same results as sequential evaluation"() {
+
+        setup: "Source, target and script filters"
+        Map<String, ApplicationConfigurationFilterDto> filterDtos = [
+                filter1: new ApplicationConfigurationFilterDto(filterMatchText: "Source in target",
+                        condition: new FilterConditionDto(name: SOURCEINTARGET, arg: "fdnSource:fdnTarget")),
+                filter2: new ApplicationConfigurationFilterDto(filterMatchText: "Source not in target",
+                        condition: new FilterConditionDto(name: SOURCENOTINTARGET, arg: "fdnSource:fdnTarget")),
+                filter3: new ApplicationConfigurationFilterDto(filterMatchText: "Source script",
+                        condition: new FilterConditionDto(name: SOURCESCRIPT, arg: "source.get('id') % 3 == 0")),
+                filter4: new ApplicationConfigurationFilterDto(filterMatchText: "Target not in source",
+                        condition: new FilterConditionDto(name: TARGETNOTINSOURCE, arg: "fdnSource:fdnTarget"))]
+
+        and: "Discovery contexts evaluated sequentially and in parallel"
+        DiscoveryContext sequentialContext = createDiscoveryContext(createSources(), createTargets(), filterDtos)
+        DiscoveryContext parallelContext = createDiscoveryContext(createSources(), createTargets(), filterDtos,
+                new ExecuteJobDtoExecutionOptions(filterParallelism: 4))
+
+        when: "Apply filters"
+        comparisonEngine.applyFilters(sequentialContext)
+        comparisonEngine.applyFilters(parallelContext)
+
+        then: "Filter results are the same"
+        filterResults(parallelContext.sources) == filterResults(sequentialContext.sources)
+        filterResults(parallelContext.targets) == filterResults(sequentialContext.targets)
+        filterResults(parallelContext.sources).every { it.size() == 3 }
+    }
+
+    def "Chunked filter evaluation gives the same results as evaluation of all sources"() {
+
+        setup: "Source and target filters"
+        Map<String, ApplicationConfigurationFilterDto> filterDtos = [
+                filter1: new ApplicationConfigurationFilterDto(filterMatchText: "Source in target",
+                        condition: new FilterConditionDto(name: SOURCEINTARGET, arg: "fdnSource:fdnTarget")),
+                filter2: new ApplicationConfigurationFilterDto(filterMatchText: "Target not in source",
+                        condition: new FilterConditionDto(name: TARGETNOTINSOURCE, arg: "fdnSource:fdnTarget")),
+                filter3: new ApplicationConfigurationFilterDto(filterMatchText: "Source not in target",
+                        condition: new FilterConditionDto(name: SOURCENOTINTARGET, arg: "fdnSource:fdnTarget")),
+                filter4: new ApplicationConfigurationFilterDto(filterMatchText: "Target not linked",
+                        condition: new FilterConditionDto(name: TARGETNOTINSOURCE))]
+
+        and: "Discovery contexts evaluated with all sources and with sources in chunks, retaining the required target properties"
+        DiscoveryContext fullContext = createDiscoveryContext(createSources(), createTargets(), filterDtos)
+        DiscoveryContext chunkedContext = createDiscoveryContext([], [], filterDtos)
+        DiscoveredObjectChunks sourceChunks = new DiscoveredObjectChunks(1, SOURCE, 7)
+        chunkedContext.setChunks(sourceChunks, new DiscoveredObjectChunks(1, TARGET, 7))
+        TargetPropertiesStore targetStore = new TargetPropertiesStore(Files.createTempDirectory("chunks"),
+                comparisonEngine.getRequiredTargetProperties(chunkedContext).get())
+        chunkedContext.setTargets(createTargets().collect { targetStore.add(it) })
+
+        when: "Apply filters"
+        comparisonEngine.applyFilters(fullContext)
+        Thread.start { sourceChunks.fill { sources -> createSources().each { sources.accept(it.properties) } } }
+        List<DiscoveredObject> chunkedSources = []
+        while (chunkedContext.nextSourceChunk().join()) {
+            assert chunkedContext.sources.size() <= 7
+            comparisonEngine.applySourceFilters(chunkedContext)
+            chunkedSources.addAll(chunkedContext.sources)
+        }
+        comparisonEngine.applyTargetFilters(chunkedContext)
+
+        then: "Filter results are the same"
+        chunkedSources.size() == 50
+        filterResults(chunkedSources) == filterResults(fullContext.sources)
+        filterResults(chunkedContext.targets) == filterResults(fullContext.targets)
+        chunkedContext.targets.count { it.filterResults.find { it.name == "filter2" }.matched } == 25
+
+        and: "Only the source properties required by the target filters are retained"
+        chunkedContext.sourceProjections.size() == 50
+        chunkedContext.sourceProjections.every { it.keySet() == ["fdnSource"] as Set }
+
+        and: "Only the target properties required by the filters are retained"
+        chunkedContext.targets.every { it.properties.keySet() == ["fdnTarget"] as Set }
+
+        cleanup:
+        targetStore?.close()
+    }
+
+    def "Target properties required by the filters are identified if all conditions declare them"() {
+
+        setup: "Filters"
+        Map<String, ApplicationConfigurationFilterDto> filterDtos = conditions.collectEntries { name, arg ->
+            [("$name:$arg".toString()): new ApplicationConfigurationFilterDto(condition: new FilterConditionDto(name: name, arg: arg))]
+        }
+
+        expect: "required target properties"
+        comparisonEngine.getRequiredTargetProperties(createDiscoveryContext([], [], filterDtos)) == requiredProperties
+
+        where:
+        conditions                                                                    | requiredProperties
+        [(SOURCEINTARGET): "fdnSource:fdnTarget"]                                     | Optional.of(["fdnTarget"] as Set)
+        [(SOURCENOTINTARGET): "fdnSource:fdnTarget", (TARGETNOTINSOURCE): "id:idT"]   | Optional.of(["fdnTarget", "idT"] as Set)
+        [(TARGETNOTINSOURCE): null, (SOURCEMISMATCHEDINTARGET): "fdnSource:fdnT"]     | Optional.of([] as Set)
+        [(SOURCEINTARGET): "fdnSource:fdnTarget", (SOURCESCRIPT): "source != null"]   | Optional.empty()
+        [(TARGETSCRIPT): "target != null"]                                            | Optional.empty()
+    }
+
+    def "Chunked comparison is supported if target filters do not require the full source objects"() {
+
+        setup: "Filter"
+        Map<String, ApplicationConfigurationFilterDto> filterDtos = [(filterName): new ApplicationConfigurationFilterDto(
+                condition: new FilterConditionDto(name: conditionName, arg: conditionArg))]
+
+        expect: "chunked comparison supported"
+        comparisonEngine.supportsChunkedComparison(createDiscoveryContext([], [], filterDtos)) == supported
+
+        where:
+        conditionName     | conditionArg                               | supported
+        SOURCEINTARGET    | "fdnSource:fdnTarget"                      | true
+        SOURCESCRIPT      | "source.get('id') == 1"                    | true
+        TARGETNOTINSOURCE | "fdnSource:fdnTarget"                      | true
+        TARGETNOTINSOURCE | null                                       | true
+        TARGETSCRIPT      | "sources.stream().noneMatch(s -> true)"    | false
+    }
+
+    def "Only objects whose filter results are not carried forward are evaluated when discovering incrementally"() {
+
+        setup: "'SourceNotInTarget' and 'TargetNotInSource' conditions"
+        Map<String, ApplicationConfigurationFilterDto> filterDtos = [
+                sourceFilter: new ApplicationConfigurationFilterDto(filterMatchText: "source not in target",
+                        condition: new FilterConditionDto(name: SOURCENOTINTARGET, arg: "fdnSource:fdnTarget")),
+                targetFilter: new ApplicationConfigurationFilterDto(filterMatchText: "target not in source",
+                        condition: new FilterConditionDto(name: TARGETNOTINSOURCE, arg: "fdnSource:fdnTarget"))]
+
+        and: "unchanged source and target, and a changed source"
+        DiscoveredObject unchangedSource = new DiscoveredObject(1, SOURCE, ["fdnSource": "fdn=1"])
+        DiscoveredObject changedSource = new DiscoveredObject(1, SOURCE, ["fdnSource": "fdn=2"])
+        DiscoveredObject unchangedTarget = new DiscoveredObject(1, TARGET, ["fdnTarget": "fdn=3"])
+        [unchangedSource, unchangedTarget].each { it.setUnchanged(true) }
+        DiscoveryContext discoveryContext = createDiscoveryContext([unchangedSource, changedSource], [unchangedTarget], filterDtos)
+
+        and: "source filter results are carried forward as all targets are unchanged"
+        DiscoveryDelta discoveryDelta = new DiscoveryDelta(10, [:])
+        discoveryDelta.carryForwardFilterResults(SOURCE)
+        discoveryContext.setDiscoveryDelta(discoveryDelta)
+
+        when: "Apply filters"
+        comparisonEngine.applyFilters(discoveryContext)
+
+        then: "unchanged source is not evaluated"
+        unchangedSource.filterResults.isEmpty()
+        assertFilterMatching(changedSource, "sourceFilter", "source not in target")
+
+        and: "unchanged target is evaluated against the changed sources"
+        assertFilterMatching(unchangedTarget, "targetFilter", "target not in source")
+    }
+
+    List<DiscoveredObject> createSources() {
+        return (1..50).collect { new DiscoveredObject(1, SOURCE, ["id": it, "fdnSource": "fdn=${it}".toString()]) }
+    }
+
+    List<DiscoveredObject> createTargets() {
+        return (25..75).collect { new DiscoveredObject(1, TARGET, ["id": it, "fdnTarget": "fdn=${it}".toString()]) }
+    }
+
+    List<List<String>> filterResults(List<DiscoveredObject> discoveredObjects) {
+        return discoveredObjects.collect { it.filterResults.collect { "${it.name}:${it.matched}".toString() } }
+    }
+
+    DiscoveryContext createDiscoveryContext(List sources, List targets, Map<String, ApplicationConfigurationFilterDto> filterDto,
+                                            ExecuteJobDtoExecutionOptions executionOptions = null) {
         def jobConfigurationDto = new ApplicationConfigurationJobDto(name: "test",
                 discover: new ApplicationConfigurationDiscoverDto(filters: filterDto))
         def applicationEntity = new ApplicationEntity(
                 id: 1, featurePack: new FeaturePackEntity(id: 1), config: new ApplicationConfigurationDto(
                 jobs: [jobConfigurationDto]))
         DiscoveryContext discoveryContext = DiscoveryContext
-                .initialize(applicationEntity, new JobEntity(id: 1, applicationJobName: "test"))
+                .initialize(applicationEntity, new JobEntity(id: 1, applicationJobName: "test", executionOptions: executionOptions))
         discoveryContext.setSources(sources)
         discoveryContext.setTargets(targets)
         return discoveryContext
@@ -462,5 +675,15 @@ class ComparisonEngineSpec extends Specification {
     @TestConfiguration
     @ComponentScan(basePackages = ["com.ericsson.bos.dr.service.compare"])
     static class ComparisonEngineTestConfig {
+
+        @Bean(name = "filtersExecutor", destroyMethod = "shutdown")
+        ForkJoinPool filtersExecutor() {
+            return new ForkJoinPool(4)
+        }
+
+        @Bean
+        GroovyScriptCache groovyScriptCache() {
+            return new GroovyScriptCache()
+        }
     }
 }
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+
+package com.ericsson.bos.dr.tests.unit.compare
+
+import com.ericsson.bos.dr.service.compare.filters.FilterContext
+import com.ericsson.bos.dr.service.compare.filters.FilterPassContext
+import com.ericsson.bos.dr.service.compare.filters.TargetPropertiesIndex
+import com.ericsson.bos.dr.service.discovery.DiscoveredObject
+import spock.lang.Specification
+
+import static com.ericsson.bos.dr.service.discovery.DiscoveredObject.TYPE.SOURCE
+import static com.ericsson.bos.dr.service.discovery.DiscoveredObject.TYPE.TARGET
+
+class FilterPassContextSpec extends Specification {
+
+    List<DiscoveredObject> targets = [new DiscoveredObject(1, TARGET, [id: "1", name: "a"]),
+                                      new DiscoveredObject(1, TARGET, [id: "2", name: "b"])]
+
+    FilterPassContext passContext = new FilterPassContext(targets, 1, [input1: "value1"])
+
+    def "Target properties are an unmodifiable view over the target objects"() {
+
+        when: "Get target properties"
+        List<Map<String, Object>> targetsProperties = passContext.getTargetsProperties()
+
+        then: "Properties of each target are returned without copying"
+        targetsProperties.size() == 2
+        targetsProperties[0].is(targets[0].properties)
+        targetsProperties[1].is(targets[1].properties)
+
+        when: "Modify the target properties"
+        targetsProperties.remove(0)
+
+        then: "UnsupportedOperationException is thrown"
+        thrown(UnsupportedOperationException)
+    }
+
+    def "Targets index is built once per arg and shared by each object in the pass"() {
+
+        when: "Get targets index for the same arg from the context of 2 source objects"
+        FilterContext filterContext1 = passContext.forObject(new DiscoveredObject(1, SOURCE, [sourceId: "2"]))
+        FilterContext filterContext2 = passContext.forObject(new DiscoveredObject(1, SOURCE, [sourceId: "3"]))
+        TargetPropertiesIndex index1 = filterContext1.getTargetsIndex("sourceId:id")
+        TargetPropertiesIndex index2 = filterContext2.getTargetsIndex("sourceId:id")
+
+        then: "Same index is returned"
+        index1.is(index2)
+
+        and: "Index finds the matching target for each source"
+        index1.findMatch(filterContext1.getSourceProperties()).get().is(targets[1].properties)
+        index2.findMatch(filterContext2.getSourceProperties()).isEmpty()
+
+        and: "Different index is built for a different arg"
+        !passContext.getTargetsIndex("sourceName:name").is(index1)
+    }
+
+    def "Filter context exposes the object and the pass context"() {
+
+        setup: "Source object"
+        DiscoveredObject source = new DiscoveredObject(1, SOURCE, [sourceId: "1"])
+
+        when: "Create filter context for the source object"
+        FilterContext filterContext = passContext.forObject(source)
+
+        then: "Filter context returns the source and the pass context properties"
+        filterContext.getSource().is(source)
+        filterContext.getSourceProperties() == [sourceId: "1"]
+        filterContext.getTargetsProperties().is(passContext.getTargetsProperties())
+        filterContext.getFeaturePackId() == 1
+        filterContext.getInputs() == [input1: "value1"]
+    }
+}
@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+
+package com.ericsson.bos.dr.tests.unit.discovery
+
+import com.ericsson.bos.dr.jpa.DiscoveryFingerprintStore
+import com.ericsson.bos.dr.jpa.JobRepository
+import com.ericsson.bos.dr.jpa.model.DiscoveryFingerprint
+import com.ericsson.bos.dr.jpa.model.JobEntity
+import com.ericsson.bos.dr.service.compare.filters.MultiKeyBuilder
+import com.ericsson.bos.dr.service.compare.filters.NumberAndBooleanStringifier
+import com.ericsson.bos.dr.service.discovery.DiscoveredObject
+import com.ericsson.bos.dr.service.discovery.DiscoveryContext
+import com.ericsson.bos.dr.service.discovery.DiscoveryDelta
+import com.ericsson.bos.dr.service.discovery.functions.ComputeDiscoveryDelta
+import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationActionDto
+import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationDiscoverDto
+import spock.lang.Specification
+
+import static com.ericsson.bos.dr.service.discovery.DiscoveredObject.TYPE.SOURCE
+import static com.ericsson.bos.dr.service.discovery.DiscoveredObject.TYPE.TARGET
+
+class ComputeDiscoveryDeltaSpec extends Specification {
+
+    JobRepository jobRepositoryMock = Mock(JobRepository)
+    DiscoveryFingerprintStore fingerprintStoreMock = Mock(DiscoveryFingerprintStore)
+    ComputeDiscoveryDelta computeDiscoveryDelta = new ComputeDiscoveryDelta(jobRepository: jobRepositoryMock,
+            fingerprintStore: fingerprintStoreMock,
+            multiKeyBuilder: new MultiKeyBuilder(numberAndBooleanStringifier: new NumberAndBooleanStringifier()))
+
+    def "Unchanged, changed, new and removed objects are identified against the previous job of the schedule"() {
+
+        setup: "first job has no previous job"
+        List<DiscoveredObject> sources = [source(1, "a"), source(2, "b"), source(3, "c")]
+        List<DiscoveredObject> targets = [target(1, "a"), target(2, "b")]
+        jobRepositoryMock.findFirstByJobScheduleIdAndIdLessThanAndJobStatusInOrderByIdDesc(1, 10, _) >> Optional.empty()
+        DiscoveryDelta firstDelta = computeDelta(10, sources, targets)
+
+        and: "second job changes source 2, removes source 3 and adds source 4"
+        List<DiscoveredObject> secondSources = [source(1, "a"), source(2, "changed"), source(4, "d")]
+        List<DiscoveredObject> secondTargets = [target(1, "a"), target(2, "b")]
+        jobRepositoryMock.findFirstByJobScheduleIdAndIdLessThanAndJobStatusInOrderByIdDesc(1, 11, _) >> Optional.of(new JobEntity(id: 10))
+        fingerprintStoreMock.findByJobId(10) >> firstDelta.fingerprints
+
+        when: "compute delta for the second job"
+        DiscoveryDelta secondDelta = computeDelta(11, secondSources, secondTargets)
+
+        then: "all objects are new in the first job"
+        with(firstDelta.toDto()) {
+            newObjectsCount == 3
+            changedObjectsCount == 0
+            unchangedObjectsCount == 0
+            removedObjectsCount == 0
+        }
+        firstDelta.previousJobId.isEmpty()
+
+        and: "delta is calculated against the first job"
+        secondDelta.previousJobId.get() == 10
+        with(secondDelta.toDto()) {
+            newObjectsCount == 1
+            changedObjectsCount == 1
+            unchangedObjectsCount == 1
+            removedObjectsCount == 1
+        }
+
+        and: "only the linked pair which is unchanged is marked as unchanged"
+        secondSources*.unchanged == [true, false, false]
+        secondTargets*.unchanged == [true, false]
+        secondSources[0].objectKey == secondTargets[0].objectKey
+        secondDelta.isUnchanged(secondSources[0].objectKey)
+
+        and: "filter results are not carried forward as objects were changed and removed"
+        !secondDelta.isFilterResultsCarriedForward(secondSources[0])
+        !secondDelta.isFilterResultsCarriedForward(secondTargets[0])
+    }
+
+    def "Filter results of unchanged objects are carried forward when the objects compared against are unchanged"() {
+
+        setup: "first job"
+        jobRepositoryMock.findFirstByJobScheduleIdAndIdLessThanAndJobStatusInOrderByIdDesc(1, 10, _) >> Optional.empty()
+        DiscoveryDelta firstDelta = computeDelta(10, [source(1, "a"), source(2, "b")], [target(1, "a")])
+
+        and: "second job changes the unlinked source 2"
+        List<DiscoveredObject> secondSources = [source(1, "a"), source(2, "changed")]
+        List<DiscoveredObject> secondTargets = [target(1, "a")]
+        jobRepositoryMock.findFirstByJobScheduleIdAndIdLessThanAndJobStatusInOrderByIdDesc(1, 11, _) >> Optional.of(new JobEntity(id: 10))
+        fingerprintStoreMock.findByJobId(10) >> firstDelta.fingerprints
+
+        when: "compute delta for the second job"
+        DiscoveryDelta secondDelta = computeDelta(11, secondSources, secondTargets)
+
+        then: "filter results of the unchanged source are carried forward as all targets are unchanged"
+        secondDelta.isFilterResultsCarriedForward(secondSources[0])
+        !secondDelta.isFilterResultsCarriedForward(secondSources[1])
+
+        and: "filter results of the unchanged target are not carried forward as a source has changed"
+        secondTargets[0].unchanged
+        !secondDelta.isFilterResultsCarriedForward(secondTargets[0])
+    }
+
+    def "Enriched properties of unchanged objects are restored from the previous job"() {
+
+        setup: "first job"
+        List<DiscoveredObject> sources = [source(1, "a"), source(2, "b")]
+        jobRepositoryMock.findFirstByJobScheduleIdAndIdLessThanAndJobStatusInOrderByIdDesc(1, 10, _) >> Optional.empty()
+        DiscoveryDelta firstDelta = computeDelta(10, sources, [], true)
+
+        and: "second job is unchanged, enriched properties are only recorded for source 1"
+        List<DiscoveredObject> secondSources = [source(1, "a"), source(2, "b")]
+        jobRepositoryMock.findFirstByJobScheduleIdAndIdLessThanAndJobStatusInOrderByIdDesc(1, 11, _) >> Optional.of(new JobEntity(id: 10))
+        fingerprintStoreMock.findByJobId(10) >> firstDelta.fingerprints
+        fingerprintStoreMock.findEnrichedProperties(10, _, _) >> { args ->
+            if (args[1].test(sources[0].objectKey)) {
+                args[2].accept(new DiscoveryFingerprint(sources[0].objectKey, null, [id: 1, name: "a", enriched: "x"], null))
+            }
+        }
+
+        when: "compute delta for the second job"
+        computeDelta(11, secondSources, [], true)
+
+        then: "enriched properties are restored for source 1"
+        secondSources[0].unchanged
+        secondSources[0].properties == [id: 1, name: "a", enriched: "x"]
+
+        and: "source 2 is enriched again"
+        !secondSources[1].unchanged
+        secondSources[1].properties == [id: 2, name: "b"]
+    }
+
+    def "Objects sharing an object key or without link properties are not part of the delta"() {
+
+        setup: "duplicate source and source without link property"
+        List<DiscoveredObject> sources = [source(1, "a"), source(1, "b"), new DiscoveredObject(1, SOURCE, [name: "c"])]
+        jobRepositoryMock.findFirstByJobScheduleIdAndIdLessThanAndJobStatusInOrderByIdDesc(*_) >> Optional.empty()
+
+        when: "compute delta"
+        DiscoveryDelta delta = computeDelta(10, sources, [])
+
+        then: "no object has an object key"
+        delta.fingerprints.isEmpty()
+        sources.every { it.objectKey == null && !it.unchanged }
+    }
+
+    def "Delta is not computed if not an incremental discovery"() {
+
+        setup: "discovery context"
+        DiscoveryContext discoveryContext = Mock(DiscoveryContext)
+        discoveryContext.isIncrementalDiscovery() >> false
+
+        when: "compute delta"
+        computeDiscoveryDelta.accept(discoveryContext)
+
+        then: "no delta is set"
+        0 * jobRepositoryMock._
+        0 * discoveryContext.setDiscoveryDelta(_)
+    }
+
+    DiscoveryDelta computeDelta(long jobId, List<DiscoveredObject> sources, List<DiscoveredObject> targets, boolean enriched = false) {
+        DiscoveryDelta discoveryDelta
+        DiscoveryContext discoveryContext = Mock(DiscoveryContext)
+        discoveryContext.isIncrementalDiscovery() >> true
+        discoveryContext.getJobId() >> jobId
+        discoveryContext.getJobScheduleId() >> 1L
+        discoveryContext.getSourceAndTargetsLink() >> "id:id"
+        discoveryContext.getDiscoveryJobConf() >> new ApplicationConfigurationDiscoverDto()
+        discoveryContext.getInputs() >> [input: "1"]
+        discoveryContext.getSources() >> sources
+        discoveryContext.getTargets() >> targets
+        discoveryContext.getDiscoverySourceEnrichAction() >> Optional.ofNullable(enriched ? new ApplicationConfigurationActionDto() : null)
+        discoveryContext.getDiscoveryTargetEnrichAction() >> Optional.empty()
+        discoveryContext.setDiscoveryDelta(_) >> { args -> discoveryDelta = args[0] }
+        computeDiscoveryDelta.accept(discoveryContext)
+        return discoveryDelta
+    }
+
+    DiscoveredObject source(int id, String name) {
+        return new DiscoveredObject(1, SOURCE, [id: id, name: name])
+    }
+
+    DiscoveredObject target(int id, String name) {
+        return new DiscoveredObject(1, TARGET, [id: String.valueOf(id), name: name])
+    }
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.tests.unit.discovery
+
+import com.ericsson.bos.dr.service.discovery.DiscoveredObjectChunks
+import spock.lang.Specification
+
+import java.util.concurrent.CancellationException
+import java.util.concurrent.TimeUnit
+
+import static com.ericsson.bos.dr.service.discovery.DiscoveredObject.TYPE.SOURCE
+
+class DiscoveredObjectChunksSpec extends Specification {
+
+    def "Chunks are taken as they are filled"() {
+        setup: "Chunks of 3 objects"
+        DiscoveredObjectChunks chunks = new DiscoveredObjectChunks(1, SOURCE, 3)
+
+        when: "Fill 7 objects in another thread"
+        Thread fetch = Thread.start { chunks.fill { objects -> (1..7).each { objects.accept([id: it]) } } }
+
+        and: "Take all chunks"
+        List<List<Integer>> taken = []
+        Optional chunk
+        while ((chunk = chunks.next().get(10, TimeUnit.SECONDS)).isPresent()) {
+            taken.add(chunk.get().collect { it.properties.id })
+        }
+        fetch.join()
+
+        then: "Objects are taken in chunks of 3"
+        taken == [[1, 2, 3], [4, 5, 6], [7]]
+        chunks.size() == 7
+    }
+
+    def "Fill waits while a full chunk is queued"() {
+        setup: "Chunks of 1 object"
+        DiscoveredObjectChunks chunks = new DiscoveredObjectChunks(1, SOURCE, 1)
+
+        when: "Fill 3 objects in another thread, without taking any chunk"
+        Thread fetch = Thread.start { chunks.fill { objects -> (1..3).each { objects.accept([id: it]) } } }
+        fetch.join(500)
+
+        then: "Fill waits after queuing the first chunk and filling the second"
+        fetch.isAlive()
+        chunks.size() == 2
+
+        cleanup:
+        chunks.close()
+        fetch.join()
+    }
+
+    def "Closing the chunks stops the fill and fails the next chunk"() {
+        setup: "Chunks of 1 object"
+        DiscoveredObjectChunks chunks = new DiscoveredObjectChunks(1, SOURCE, 1)
+        Thread fetch = Thread.start { chunks.fill { objects -> (1..3).each { objects.accept([id: it]) } } }
+
+        when: "Close the chunks"
+        chunks.close()
+        fetch.join(10000)
+
+        then: "Fill is stopped"
+        !fetch.isAlive()
+
+        when: "Take the next chunk"
+        chunks.next().join()
+
+        then: "Next chunk fails"
+        thrown(CancellationException)
+    }
+
+    def "Pending chunk fails and the failure is thrown when the fill fails"() {
+        setup: "Chunks of 2 objects, waiting for the first chunk"
+        DiscoveredObjectChunks chunks = new DiscoveredObjectChunks(1, SOURCE, 2)
+        def pending = chunks.next()
+
+        when: "Fill fails after the first object"
+        chunks.fill { objects ->
+            objects.accept([id: 1])
+            throw new IllegalStateException("error!")
+        }
+
+        then: "Fill failure is thrown"
+        thrown(IllegalStateException)
+
+        and: "Pending chunk fails"
+        chunks.isClosed()
+        pending.isCompletedExceptionally()
+    }
+}
\ No newline at end of file
@@ -19,6 +19,7 @@ import com.ericsson.bos.dr.service.discovery.DiscoveryFlow
 import com.ericsson.bos.dr.service.discovery.DiscoveredObject
 import com.ericsson.bos.dr.service.discovery.DiscoveryContext
 import com.ericsson.bos.dr.service.discovery.functions.CompareSourcesAndTargets
+import com.ericsson.bos.dr.service.discovery.functions.ComputeDiscoveryDelta
 import com.ericsson.bos.dr.service.discovery.functions.DiscoveryCompleted
 import com.ericsson.bos.dr.service.discovery.functions.DiscoveryFailed
 import com.ericsson.bos.dr.service.discovery.functions.DiscoveryFunctionFactory
@@ -26,14 +27,20 @@ import com.ericsson.bos.dr.service.discovery.functions.EnrichDiscoveryObject
 import com.ericsson.bos.dr.service.discovery.functions.FetchSources
 import com.ericsson.bos.dr.service.discovery.functions.FetchTargets
 import com.ericsson.bos.dr.service.discovery.functions.LinkSourceAndTarget
+import com.ericsson.bos.dr.service.discovery.functions.PrepareChunks
 import com.ericsson.bos.dr.service.discovery.functions.SaveDiscoveryObjects
 import com.ericsson.bos.dr.service.discovery.functions.ValidateInputs
+import com.ericsson.bos.dr.service.job.JobTasksScheduler
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationActionDto
+import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationActionDtoBatch
 import spock.lang.Specification
 
+import java.util.concurrent.CancellationException
+import java.util.concurrent.CompletableFuture
 import java.util.concurrent.Executor
 import java.util.concurrent.Executors
 import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.Consumer
 
 class DiscoveryFlowSpec extends Specification {
 
@@ -43,26 +50,40 @@ class DiscoveryFlowSpec extends Specification {
 
     DiscoveryFunctionFactory factoryMock = Mock(DiscoveryFunctionFactory)
     ValidateInputs validateInputsMock = Mock(ValidateInputs)
+    PrepareChunks prepareChunksMock = Mock(PrepareChunks)
     FetchSources fetchSourcesMock = Mock(FetchSources)
     FetchTargets fetchTargetsMock = Mock(FetchTargets)
     EnrichDiscoveryObject enrichMock = Mock(EnrichDiscoveryObject)
     CompareSourcesAndTargets compareMock = Mock(CompareSourcesAndTargets)
     SaveDiscoveryObjects saveMock = Mock(SaveDiscoveryObjects)
+    ComputeDiscoveryDelta computeDeltaMock = Mock(ComputeDiscoveryDelta)
     DiscoveryFailed discoveryFailedMock = Mock(DiscoveryFailed)
     DiscoveryCompleted discoveryCompletedMock = Mock(DiscoveryCompleted)
     LinkSourceAndTarget mapSourcesToTargetsMock = Mock(LinkSourceAndTarget)
+    Consumer compareSourcesMock = Mock(Consumer)
+    Consumer compareTargetsMock = Mock(Consumer)
+    Consumer saveSourcesMock = Mock(Consumer)
+    Consumer saveTargetsMock = Mock(Consumer)
 
     def setup() {
-        concurrentDiscoveryFlow = new DiscoveryFlow(executor: executor, factory: factoryMock)
+        JobTasksScheduler tasksScheduler = new JobTasksScheduler(executor: executor, capacity: 2, defaultJobConcurrency: 2)
+        concurrentDiscoveryFlow = new DiscoveryFlow(executor: executor, factory: factoryMock, tasksScheduler: tasksScheduler)
         factoryMock.validateInputs >> validateInputsMock
+        factoryMock.prepareChunks >> prepareChunksMock
         factoryMock.fetchSources >> fetchSourcesMock
         factoryMock.fetchTargets >> fetchTargetsMock
         factoryMock.getEnrichDiscoveryObject(_) >> enrichMock
+        factoryMock.getEnrichDiscoveryObjects(_) >> enrichMock
         factoryMock.compareSourcesAndTargets >> compareMock
         factoryMock.linkSourcesAndTargets >> mapSourcesToTargetsMock
         factoryMock.saveDiscoveryObjects >> saveMock
+        factoryMock.computeDiscoveryDelta >> computeDeltaMock
         factoryMock.discoveryCompleted >> discoveryCompletedMock
         factoryMock.discoveryFailed >> discoveryFailedMock
+        factoryMock.compareSources >> compareSourcesMock
+        factoryMock.compareTargets >> compareTargetsMock
+        factoryMock.saveSources >> saveSourcesMock
+        factoryMock.saveTargets >> saveTargetsMock
     }
 
     def "Discovery flow executes all discovery functions"() {
@@ -73,6 +94,7 @@ class DiscoveryFlowSpec extends Specification {
         DiscoveredObject target2 = Mock(DiscoveredObject)
 
         DiscoveryContext discoveryContext = Mock(DiscoveryContext)
+        discoveryContext.getTaskConcurrency() >> Optional.empty()
         discoveryContext.sources >> [source1, source2]
         discoveryContext.targets >> [target1, target2]
         discoveryContext.getDiscoverySourceEnrichAction() >> Optional.of(new ApplicationConfigurationActionDto())
@@ -84,15 +106,169 @@ class DiscoveryFlowSpec extends Specification {
         then: "Discovery functions are executed"
         1 * validateInputsMock.accept(_)
         1 * fetchTargetsMock.accept(_)
-        4 * enrichMock.accept(_)
+        1 * computeDeltaMock.accept(_)
+        4 * enrichMock.acceptAsync(_) >> CompletableFuture.completedFuture(null)
         1 * compareMock.accept(_)
         1 * mapSourcesToTargetsMock.accept(_)
         1 * saveMock.accept(_)
     }
 
+    def "Discovery flow does not enrich unchanged objects"() {
+        setup: "DiscoveryContext with one unchanged source and target"
+        DiscoveredObject unchangedSource = new DiscoveredObject(1, DiscoveredObject.TYPE.SOURCE, [id: 1])
+        DiscoveredObject unchangedTarget = new DiscoveredObject(1, DiscoveredObject.TYPE.TARGET, [id: 1])
+        DiscoveryContext discoveryContext = Mock(DiscoveryContext)
+        discoveryContext.getTaskConcurrency() >> Optional.empty()
+        discoveryContext.sources >> [unchangedSource, new DiscoveredObject(1, DiscoveredObject.TYPE.SOURCE, [id: 2])]
+        discoveryContext.targets >> [unchangedTarget, new DiscoveredObject(1, DiscoveredObject.TYPE.TARGET, [id: 2])]
+        discoveryContext.getDiscoverySourceEnrichAction() >> Optional.of(new ApplicationConfigurationActionDto())
+        discoveryContext.getDiscoveryTargetEnrichAction() >> Optional.of(new ApplicationConfigurationActionDto())
+
+        when: "Execute Discovery Flow"
+        concurrentDiscoveryFlow.execute(discoveryContext).join()
+
+        then: "Unchanged objects are identified before enrichment"
+        1 * computeDeltaMock.accept(_) >> {
+            unchangedSource.setUnchanged(true)
+            unchangedTarget.setUnchanged(true)
+        }
+
+        then: "Only the changed objects are enriched"
+        0 * factoryMock.getEnrichDiscoveryObject({ it.isUnchanged() })
+        2 * factoryMock.getEnrichDiscoveryObject(_) >> enrichMock
+        2 * enrichMock.acceptAsync(_) >> CompletableFuture.completedFuture(null)
+        1 * compareMock.accept(_)
+        1 * saveMock.accept(_)
+        0 * discoveryFailedMock.accept(_)
+    }
+
+    def "Discovery flow enriches objects in batches"() {
+        setup: "DiscoveryContext with batch enrich action for sources"
+        DiscoveryContext discoveryContext = Mock(DiscoveryContext)
+        discoveryContext.getTaskConcurrency() >> Optional.empty()
+        discoveryContext.sources >> (1..5).collect { new DiscoveredObject(1, DiscoveredObject.TYPE.SOURCE, [id: it]) }
+        discoveryContext.targets >> (1..3).collect { new DiscoveredObject(1, DiscoveredObject.TYPE.TARGET, [id: it]) }
+        discoveryContext.getDiscoverySourceEnrichAction() >> Optional.of(new ApplicationConfigurationActionDto(
+                batch: new ApplicationConfigurationActionDtoBatch(size: 2, key: "id:id")))
+        discoveryContext.getDiscoveryTargetEnrichAction() >> Optional.of(new ApplicationConfigurationActionDto())
+
+        when: "Execute Discovery Flow"
+        concurrentDiscoveryFlow.execute(discoveryContext).join()
+
+        then: "Sources are enriched in batches and targets individually"
+        3 * factoryMock.getEnrichDiscoveryObjects({ it.size() <= 2 }) >> enrichMock
+        3 * factoryMock.getEnrichDiscoveryObject(_) >> enrichMock
+        6 * enrichMock.acceptAsync(_) >> CompletableFuture.completedFuture(null)
+        0 * discoveryFailedMock.accept(_)
+    }
+
+    def "Discovery flow processes sources in chunks"() {
+        setup: "DiscoveryContext with 1 chunk of targets and 3 chunks of sources"
+        DiscoveryContext discoveryContext = Mock(DiscoveryContext)
+        discoveryContext.getTaskConcurrency() >> Optional.empty()
+        discoveryContext.isChunked() >> true
+        discoveryContext.nextTargetChunk() >>> [true, false].collect { CompletableFuture.completedFuture(it) }
+        discoveryContext.nextSourceChunk() >>> [true, true, true, false].collect { CompletableFuture.completedFuture(it) }
+        discoveryContext.sources >> [Mock(DiscoveredObject), Mock(DiscoveredObject)]
+        discoveryContext.targetChunk >> [Mock(DiscoveredObject)]
+        discoveryContext.getDiscoverySourceEnrichAction() >> Optional.of(new ApplicationConfigurationActionDto())
+        discoveryContext.getDiscoveryTargetEnrichAction() >> Optional.of(new ApplicationConfigurationActionDto())
+
+        when: "Execute Discovery Flow"
+        concurrentDiscoveryFlow.execute(discoveryContext).join()
+
+        then: "Sources and targets are fetched"
+        1 * fetchSourcesMock.accept(_)
+        1 * fetchTargetsMock.accept(_)
+
+        and: "The chunk of targets is enriched and added to the targets"
+        1 * discoveryContext.addTargetChunk()
+
+        and: "Each chunk of sources is enriched, linked, compared and saved"
+        7 * enrichMock.acceptAsync(_) >> CompletableFuture.completedFuture(null)
+        3 * mapSourcesToTargetsMock.accept(_)
+        3 * compareSourcesMock.accept(_)
+        3 * saveSourcesMock.accept(_)
+
+        and: "Targets are compared and saved once"
+        1 * compareTargetsMock.accept(_)
+        1 * saveTargetsMock.accept(_)
+        1 * discoveryCompletedMock.accept(_)
+        0 * computeDeltaMock.accept(_)
+        0 * compareMock.accept(_)
+        0 * saveMock.accept(_)
+        0 * discoveryFailedMock.accept(_)
+
+        and: "The chunks are closed"
+        1 * discoveryContext.closeChunks()
+    }
+
+    def "Discovery flow terminates when exception in processing a chunk of sources"() {
+        setup: "DiscoveryContext with 3 chunks of sources"
+        DiscoveryContext discoveryContext = Mock(DiscoveryContext)
+        discoveryContext.getTaskConcurrency() >> Optional.empty()
+        discoveryContext.isChunked() >> true
+        discoveryContext.nextTargetChunk() >> CompletableFuture.completedFuture(false)
+        discoveryContext.nextSourceChunk() >>> [true, true, true, false].collect { CompletableFuture.completedFuture(it) }
+        discoveryContext.sources >> [Mock(DiscoveredObject)]
+        discoveryContext.getDiscoverySourceEnrichAction() >> Optional.empty()
+        discoveryContext.getDiscoveryTargetEnrichAction() >> Optional.empty()
+
+        and: "Throw exception on comparison of the second chunk"
+        compareSourcesMock.accept(discoveryContext) >> {} >> { throw new RuntimeException("error!") }
+
+        when: "Execute Discovery Flow"
+        concurrentDiscoveryFlow.execute(discoveryContext).join()
+
+        then: "DiscoveryFailed function is executed"
+        1 * discoveryFailedMock.accept(_)
+
+        and: "Subsequent chunks and targets are not processed"
+        1 * saveSourcesMock.accept(_)
+        0 * compareTargetsMock.accept(_)
+        0 * saveTargetsMock.accept(_)
+        0 * discoveryCompletedMock.accept(_)
+
+        and: "The chunks are closed, releasing the fetches"
+        (1.._) * discoveryContext.closeChunks()
+    }
+
+    def "Discovery flow terminates when exception in fetching sources in chunks"() {
+        setup: "DiscoveryContext with 1 chunk of targets"
+        DiscoveryContext discoveryContext = Mock(DiscoveryContext)
+        discoveryContext.getTaskConcurrency() >> Optional.empty()
+        discoveryContext.isChunked() >> true
+        discoveryContext.nextTargetChunk() >>> [true, false].collect { CompletableFuture.completedFuture(it) }
+        discoveryContext.targetChunk >> [Mock(DiscoveredObject)]
+        discoveryContext.getDiscoverySourceEnrichAction() >> Optional.empty()
+        discoveryContext.getDiscoveryTargetEnrichAction() >> Optional.empty()
+
+        and: "The source chunks are closed by the failed fetch"
+        discoveryContext.nextSourceChunk() >> CompletableFuture.failedFuture(new CancellationException("closed"))
+        fetchSourcesMock.accept(discoveryContext) >> { throw new RuntimeException("error!") }
+
+        when: "Execute Discovery Flow"
+        concurrentDiscoveryFlow.execute(discoveryContext).join()
+
+        then: "DiscoveryFailed function is executed"
+        1 * discoveryFailedMock.accept(_)
+
+        and: "Only the fetch failure is recorded"
+        1 * discoveryContext.addException({ it.message == "error!" })
+        0 * discoveryContext.addException({ it instanceof CancellationException })
+
+        and: "Sources and targets are not compared or saved"
+        0 * mapSourcesToTargetsMock.accept(_)
+        0 * compareSourcesMock.accept(_)
+        0 * compareTargetsMock.accept(_)
+        0 * saveTargetsMock.accept(_)
+        0 * discoveryCompletedMock.accept(_)
+    }
+
     def "Discovery flow terminates when exception in validateInputs"() {
         setup: "DiscoveryContext"
         DiscoveryContext discoveryContext = Mock(DiscoveryContext)
+        discoveryContext.getTaskConcurrency() >> Optional.empty()
 
         and: "Throw exception on validateInputs"
         1 * validateInputsMock.accept(discoveryContext) >> { throw new RuntimeException("error!") }
@@ -106,7 +282,7 @@ class DiscoveryFlowSpec extends Specification {
         and: "Subsequent Discovery functions are not executed"
         0 * fetchSourcesMock.accept(_)
         0 * fetchTargetsMock.accept(_)
-        0 * enrichMock.accept(_)
+        0 * enrichMock.acceptAsync(_)
         0 * compareMock.accept(_)
         0 * saveMock.accept(_)
     }
@@ -114,6 +290,7 @@ class DiscoveryFlowSpec extends Specification {
     def "Discovery flow terminates when exception in fetchSources"() {
         setup: "DiscoveryContext"
         DiscoveryContext discoveryContext = Mock(DiscoveryContext)
+        discoveryContext.getTaskConcurrency() >> Optional.empty()
 
         and: "Throw exception on fetchSources"
         1 * fetchSourcesMock.accept(discoveryContext) >> { throw new RuntimeException("error!") }
@@ -129,7 +306,7 @@ class DiscoveryFlowSpec extends Specification {
         1 * discoveryFailedMock.accept(_)
 
         and: "Subsequent Discovery functions are not executed"
-        0 * enrichMock.accept(_)
+        0 * enrichMock.acceptAsync(_)
         0 * compareMock.accept(_)
         0 * saveMock.accept(_)
     }
@@ -138,13 +315,14 @@ class DiscoveryFlowSpec extends Specification {
         setup: "DiscoveryContext"
         DiscoveredObject source1 = Mock(DiscoveredObject)
         DiscoveryContext discoveryContext = Mock(DiscoveryContext)
+        discoveryContext.getTaskConcurrency() >> Optional.empty()
         discoveryContext.sources >> [source1]
         discoveryContext.targets >> []
         discoveryContext.getDiscoverySourceEnrichAction() >> Optional.of(new ApplicationConfigurationActionDto())
         discoveryContext.getDiscoveryTargetEnrichAction() >> Optional.empty()
 
         and: "Throw exception on enrichment"
-        1 * enrichMock.accept(discoveryContext) >> { throw new RuntimeException("error!") }
+        1 * enrichMock.acceptAsync(discoveryContext) >> CompletableFuture.failedFuture(new RuntimeException("error!"))
 
         when: "Execute Discovery Flow"
         concurrentDiscoveryFlow.execute(discoveryContext).join()
@@ -161,12 +339,14 @@ class DiscoveryFlowSpec extends Specification {
         setup: "DiscoveryContext"
         DiscoveredObject source1 = Mock(DiscoveredObject)
         DiscoveryContext discoveryContext = Mock(DiscoveryContext)
+        discoveryContext.getTaskConcurrency() >> Optional.empty()
         discoveryContext.sources >> [source1]
         discoveryContext.targets >> []
         discoveryContext.getDiscoverySourceEnrichAction() >> Optional.of(new ApplicationConfigurationActionDto())
         discoveryContext.getDiscoveryTargetEnrichAction() >> Optional.empty()
 
         and: "Throw exception on comparison"
+        enrichMock.acceptAsync(_) >> CompletableFuture.completedFuture(null)
         1 * compareMock.accept(discoveryContext) >> { throw new RuntimeException("error!") }
 
         when: "Execute Discovery Flow"
@@ -183,12 +363,14 @@ class DiscoveryFlowSpec extends Specification {
         setup: "DiscoveryContext"
         DiscoveredObject source1 = Mock(DiscoveredObject)
         DiscoveryContext discoveryContext = Mock(DiscoveryContext)
+        discoveryContext.getTaskConcurrency() >> Optional.empty()
         discoveryContext.sources >> [source1]
         discoveryContext.targets >> []
         discoveryContext.getDiscoverySourceEnrichAction() >> Optional.of(new ApplicationConfigurationActionDto())
         discoveryContext.getDiscoveryTargetEnrichAction() >> Optional.empty()
 
         and: "Throw exception on comparison"
+        enrichMock.acceptAsync(_) >> CompletableFuture.completedFuture(null)
         1 * mapSourcesToTargetsMock.accept(discoveryContext) >> { throw new RuntimeException("error!") }
 
         when: "Execute Discovery Flow"
@@ -205,12 +387,14 @@ class DiscoveryFlowSpec extends Specification {
         setup: "DiscoveryContext"
         DiscoveredObject source1 = Mock(DiscoveredObject)
         DiscoveryContext discoveryContext = Mock(DiscoveryContext)
+        discoveryContext.getTaskConcurrency() >> Optional.empty()
         discoveryContext.sources >> [source1]
         discoveryContext.targets >> []
         discoveryContext.getDiscoverySourceEnrichAction() >> Optional.of(new ApplicationConfigurationActionDto())
         discoveryContext.getDiscoveryTargetEnrichAction() >> Optional.empty()
 
         and: "Throw exception on save"
+        enrichMock.acceptAsync(_) >> CompletableFuture.completedFuture(null)
         1 * saveMock.accept(discoveryContext) >> { throw new RuntimeException("error!") }
 
         when: "Execute Discovery Flow"
@@ -223,14 +407,15 @@ class DiscoveryFlowSpec extends Specification {
     def "Source and target enrichment operations are not executed after an error occurs"() {
         setup: "DiscoveryContext"
         DiscoveryContext discoveryContext = Mock(DiscoveryContext)
+        discoveryContext.getTaskConcurrency() >> Optional.empty()
         discoveryContext.sources >> (1..50).collect { Mock(DiscoveredObject) }
         discoveryContext.targets >> (1..50).collect { Mock(DiscoveredObject) }
 
         and: "Throw exception for one of the enrichment calls"
         AtomicInteger invocations = new AtomicInteger(0)
-        enrichMock.accept(discoveryContext) >> {invocations.incrementAndGet() }
+        enrichMock.acceptAsync(discoveryContext) >> { invocations.incrementAndGet(); CompletableFuture.completedFuture(null) }
                 >> { throw new RuntimeException("error!") }
-                >> {  invocations.incrementAndGet() }
+                >> { invocations.incrementAndGet(); CompletableFuture.completedFuture(null) }
 
         when: "Execute Discovery Flow"
         concurrentDiscoveryFlow.execute(discoveryContext).join()
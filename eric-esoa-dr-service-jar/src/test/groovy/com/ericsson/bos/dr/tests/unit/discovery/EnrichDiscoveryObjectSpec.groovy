@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.tests.unit.discovery
+
+import com.ericsson.bos.dr.jpa.model.ApplicationEntity
+import com.ericsson.bos.dr.jpa.model.FeaturePackEntity
+import com.ericsson.bos.dr.jpa.model.JobEntity
+import com.ericsson.bos.dr.service.compare.filters.MultiKeyBuilder
+import com.ericsson.bos.dr.service.compare.filters.NumberAndBooleanStringifier
+import com.ericsson.bos.dr.service.discovery.DiscoveredObject
+import com.ericsson.bos.dr.service.discovery.DiscoveryContext
+import com.ericsson.bos.dr.service.discovery.functions.EnrichAction
+import com.ericsson.bos.dr.service.discovery.functions.EnrichDiscoveryObject
+import com.ericsson.bos.dr.service.execution.ExecutionContext
+import com.ericsson.bos.dr.service.execution.ExecutionEngine
+import com.ericsson.bos.dr.service.execution.ExecutionResult
+import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationActionDto
+import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationActionDtoBatch
+import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationDiscoverDto
+import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationDiscoverDtoSource
+import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationDto
+import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationJobDto
+import org.spockframework.spring.SpringBean
+import org.springframework.beans.factory.ObjectProvider
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.test.context.ContextConfiguration
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+
+import static com.ericsson.bos.dr.service.discovery.DiscoveredObject.TYPE.SOURCE
+
+@ContextConfiguration(classes = [EnrichDiscoveryObject, EnrichAction, MultiKeyBuilder, NumberAndBooleanStringifier])
+class EnrichDiscoveryObjectSpec extends Specification {
+
+    @Autowired
+    ObjectProvider<EnrichDiscoveryObject> enrichDiscoveryObjectProvider
+
+    @SpringBean
+    ExecutionEngine executionEngine = Mock(ExecutionEngine)
+
+    def "Enrich single source object"() {
+
+        setup: "Source object and enrich action"
+        DiscoveredObject source = new DiscoveredObject(1, SOURCE, ["id": "1"])
+        DiscoveryContext discoveryContext = createDiscoveryContext(new ApplicationConfigurationActionDto())
+
+        when: "Enrich source"
+        EnrichDiscoveryObject enrichDiscoveryObject = enrichDiscoveryObjectProvider.getObject()
+        enrichDiscoveryObject.setDiscoveredObject(source)
+        enrichDiscoveryObject.accept(discoveryContext)
+
+        then: "Action is executed with the source in the substitution context"
+        1 * executionEngine.executeAsync({ ExecutionContext ctx -> ctx.substitutionCtx.source == ["id": "1"] }) >>
+                CompletableFuture.completedFuture(new ExecutionResult(null, [["name": "one"]]))
+
+        and: "Source is enriched"
+        source.properties == ["id": "1", "name": "one"]
+    }
+
+    def "Enrich batch of source objects correlating results by key"() {
+
+        setup: "Source objects and batch enrich action"
+        List<DiscoveredObject> sources = (1..4).collect { new DiscoveredObject(1, SOURCE, ["id": it, "fdn": "fdn=${it}".toString()]) }
+        DiscoveryContext discoveryContext = createDiscoveryContext(new ApplicationConfigurationActionDto(
+                batch: new ApplicationConfigurationActionDtoBatch(size: 10, key: "id:sourceId&fdn:sourceFdn")))
+
+        when: "Enrich sources in a single batch"
+        EnrichDiscoveryObject enrichDiscoveryObject = enrichDiscoveryObjectProvider.getObject()
+        enrichDiscoveryObject.setDiscoveredObjects(sources)
+        enrichDiscoveryObject.accept(discoveryContext)
+
+        then: "Action is executed once with all sources in the substitution context"
+        1 * executionEngine.executeAsync({ ExecutionContext ctx -> ctx.substitutionCtx.sources*.id == [1, 2, 3, 4] }) >>
+                CompletableFuture.completedFuture(new ExecutionResult(null, [
+                        ["sourceId": "3", "sourceFdn": "fdn=3", "name": "three"],
+                        ["sourceId": 1, "sourceFdn": "fdn=1", "name": "one"],
+                        ["sourceId": "2", "sourceFdn": "fdn=other", "name": "other"]]))
+
+        and: "Each source is updated with its correlated result"
+        sources[0].properties.name == "one"
+        sources[2].properties.name == "three"
+
+        and: "Sources without a correlated result are not updated"
+        !sources[1].properties.containsKey("name")
+        !sources[3].properties.containsKey("name")
+    }
+
+    def "Enrich batch of source objects uses the first of multiple correlated results"() {
+
+        setup: "Source objects and batch enrich action"
+        List<DiscoveredObject> sources = (1..2).collect { new DiscoveredObject(1, SOURCE, ["id": it]) }
+        DiscoveryContext discoveryContext = createDiscoveryContext(new ApplicationConfigurationActionDto(
+                batch: new ApplicationConfigurationActionDtoBatch(size: 10, key: "id:sourceId")))
+
+        when: "Enrich sources in a single batch"
+        EnrichDiscoveryObject enrichDiscoveryObject = enrichDiscoveryObjectProvider.getObject()
+        enrichDiscoveryObject.setDiscoveredObjects(sources)
+        enrichDiscoveryObject.accept(discoveryContext)
+
+        then: "Action returns two results for the first source"
+        1 * executionEngine.executeAsync(_) >> CompletableFuture.completedFuture(new ExecutionResult(null, [
+                ["sourceId": "1", "name": "first"],
+                ["sourceId": "1", "name": "second"],
+                ["sourceId": "2", "name": "two"]]))
+
+        and: "First source is updated with the first correlated result"
+        sources[0].properties.name == "first"
+        sources[1].properties.name == "two"
+    }
+
+    DiscoveryContext createDiscoveryContext(ApplicationConfigurationActionDto enrichAction) {
+        def jobConfigurationDto = new ApplicationConfigurationJobDto(name: "test",
+                discover: new ApplicationConfigurationDiscoverDto(source: new ApplicationConfigurationDiscoverDtoSource(enrichAction: enrichAction)))
+        def applicationEntity = new ApplicationEntity(
+                id: 1, featurePack: new FeaturePackEntity(id: 1, name: "fp"), config: new ApplicationConfigurationDto(
+                jobs: [jobConfigurationDto]))
+        return DiscoveryContext.initialize(applicationEntity, new JobEntity(id: 1, applicationJobName: "test"))
+    }
+}
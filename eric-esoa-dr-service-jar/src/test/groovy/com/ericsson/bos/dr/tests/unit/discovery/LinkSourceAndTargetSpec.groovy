@@ -19,13 +19,16 @@ import com.ericsson.bos.dr.jpa.model.ApplicationEntity
 import com.ericsson.bos.dr.jpa.model.FeaturePackEntity
 import com.ericsson.bos.dr.jpa.model.JobEntity
 import com.ericsson.bos.dr.service.compare.filters.NumberAndBooleanStringifier
+import com.ericsson.bos.dr.service.compare.ComparisonEngine
 import com.ericsson.bos.dr.service.discovery.DiscoveredObject
+import com.ericsson.bos.dr.service.discovery.DiscoveredObjectChunks
 import com.ericsson.bos.dr.service.discovery.DiscoveryContext
 import com.ericsson.bos.dr.service.discovery.functions.LinkSourceAndTarget
 import com.ericsson.bos.dr.service.exceptions.DRServiceException
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationDiscoverDto
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationDto
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationJobDto
+import org.spockframework.spring.SpringBean
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.test.context.ContextConfiguration
 import spock.lang.Specification
@@ -40,6 +43,9 @@ class LinkSourceAndTargetSpec extends Specification {
     @Autowired
     LinkSourceAndTarget linkSourceAndTarget;
 
+    @SpringBean
+    ComparisonEngine comparisonEngine = Mock(ComparisonEngine)
+
     def "Link sources and targets links each source to the matching target"() {
 
         setup: "linkSourceAndTarget expression"
@@ -84,6 +90,27 @@ class LinkSourceAndTargetSpec extends Specification {
         ["k1": ["1", "false"]]           | ["k1": [1, false]]
     }
 
+    def "Linked target retains only the linked and required source properties when sources are processed in chunks"() {
+
+        setup: "Source and target objects, with sources processed in chunks"
+        DiscoveredObject source = new DiscoveredObject(1, SOURCE, ["idSource": "1", "name": "a", "description": "large"])
+        DiscoveredObject target = new DiscoveredObject(1, TARGET, ["idTarget": "1", "name": "a"])
+        DiscoveryContext discoveryContext = createDiscoveryContext([], [target], 'idSource:idTarget')
+        discoveryContext.setChunks(new DiscoveredObjectChunks(1, SOURCE, 1), new DiscoveredObjectChunks(1, TARGET, 1))
+        discoveryContext.setSources([source])
+        comparisonEngine.getRequiredSourceProperties(discoveryContext) >> Optional.of(["name"] as Set)
+
+        when: "Link sources and targets"
+        linkSourceAndTarget.accept(discoveryContext)
+
+        then: "source is linked to the full target properties"
+        source.additionalProperties.is(target.properties)
+
+        and: "target is linked to a copy of the linked and required source properties"
+        target.additionalProperties == ["idSource": "1", "name": "a"]
+        !target.additionalProperties.is(source.properties)
+    }
+
     def "Throws DrServiceExceptions when source is linked to more than one target"() {
 
         setup: "linkSourceAndTarget expression"
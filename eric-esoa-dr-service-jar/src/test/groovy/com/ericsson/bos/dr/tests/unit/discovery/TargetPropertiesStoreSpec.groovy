@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2024
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.tests.unit.discovery
+
+import com.ericsson.bos.dr.service.discovery.DiscoveredObject
+import com.ericsson.bos.dr.service.discovery.TargetPropertiesStore
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+import static com.ericsson.bos.dr.service.discovery.DiscoveredObject.TYPE.TARGET
+
+class TargetPropertiesStoreSpec extends Specification {
+
+    @TempDir
+    Path directory
+
+    def "Only the retained properties are kept for a stored target"() {
+        setup: "Store retaining the 'id' property"
+        TargetPropertiesStore store = new TargetPropertiesStore(directory, ["id"] as Set)
+        DiscoveredObject target = new DiscoveredObject(1, TARGET, [id: "1", name: "a", nested: [k1: "v1"]])
+        target.setObjectKey("1")
+
+        when: "Add target"
+        DiscoveredObject storedTarget = store.add(target)
+
+        then: "Stored target retains the 'id' property only"
+        storedTarget.properties == [id: "1"]
+        storedTarget.objectKey == "1"
+
+        and: "Full properties are read back from the store"
+        store.getProperties(storedTarget) == [id: "1", name: "a", nested: [k1: "v1"]]
+
+        cleanup:
+        store.close()
+    }
+
+    def "Stored target is restored with its full properties"() {
+        setup: "Store with 2 targets"
+        TargetPropertiesStore store = new TargetPropertiesStore(directory, [] as Set)
+        DiscoveredObject storedTarget1 = store.add(new DiscoveredObject(1, TARGET, [id: "1", name: "é"]))
+        DiscoveredObject storedTarget2 = store.add(new DiscoveredObject(1, TARGET, [id: "2"]))
+        storedTarget2.setAdditionalProperties([idSource: "2"])
+
+        when: "Restore targets"
+        DiscoveredObject restoredTarget1 = store.restore(storedTarget1)
+        DiscoveredObject restoredTarget2 = store.restore(storedTarget2)
+
+        then: "Full properties and additional properties are restored"
+        restoredTarget1.properties == [id: "1", name: "é"]
+        restoredTarget2.properties == [id: "2"]
+        restoredTarget2.additionalProperties == [idSource: "2"]
+        restoredTarget2.type == TARGET
+
+        cleanup:
+        store.close()
+    }
+
+    def "Properties of a target which is not stored are returned as is"() {
+        setup: "Store"
+        TargetPropertiesStore store = new TargetPropertiesStore(directory, ["id"] as Set)
+        DiscoveredObject target = new DiscoveredObject(1, TARGET, [id: "1", name: "a"])
+
+        expect: "target properties returned"
+        store.getProperties(target).is(target.properties)
+        store.restore(target).is(target)
+
+        cleanup:
+        store.close()
+    }
+
+    def "File is deleted when the store is closed"() {
+        setup: "Store with a target"
+        TargetPropertiesStore store = new TargetPropertiesStore(directory, [] as Set)
+        store.add(new DiscoveredObject(1, TARGET, [id: "1"]))
+
+        when: "Close store"
+        store.close()
+
+        then: "File is deleted"
+        Files.list(directory).count() == 0
+    }
+}
\ No newline at end of file
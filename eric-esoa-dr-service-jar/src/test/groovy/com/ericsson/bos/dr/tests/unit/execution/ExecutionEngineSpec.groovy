@@ -31,6 +31,9 @@ import com.ericsson.bos.dr.service.execution.executors.python.PythonExecutor
 import com.ericsson.bos.dr.service.substitution.SubstitutionEngine
 import com.ericsson.bos.dr.tests.integration.utils.JsonUtils
 import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationActionDto
+import io.micrometer.core.instrument.Metrics
+import io.micrometer.core.instrument.Tags
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
 import org.spockframework.spring.SpringBean
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.boot.test.context.TestConfiguration
@@ -41,12 +44,26 @@ import org.springframework.test.context.TestPropertySource
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.CompletionException
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+
 import static com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationActionDto.OutputFormatEnum
 import static com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationActionDto.TypeEnum
 import static org.springframework.context.annotation.FilterType.ASSIGNABLE_TYPE
 
 @TestPropertySource(properties = ["service.substitution.fail-on-unknown-tokens=true",
-        "security.tls.enabled=false"])
+        "security.tls.enabled=false", "spring.caches.jinja-template.max-size=10", "spring.caches.jinja-template.access-expiry=60",
+        "spring.caches.http-response.max-size-kb=100", "spring.caches.http-response.access-expiry=60",
+        "service.http-client.limits.requests-per-second=0", "service.http-client.limits.max-concurrent-requests=0",
+        "service.http-client.limits.max-waiting-requests=100", "spring.caches.http-outbound-limiter.access-expiry=60",
+        "service.python-executor.pool.size=1", "service.python-executor.precompile=false",
+        "service.python-executor.pool.max-calls-per-worker=10",
+        "service.process-executor.timeout=60", "service.process-executor.output.threshold-kb=1024",
+        "service.process-executor.output.dir=\${java.io.tmpdir}"])
 @ContextConfiguration(classes = ExecutionEngineTestConfig.class)
 class ExecutionEngineSpec extends Specification {
 
@@ -97,6 +114,160 @@ class ExecutionEngineSpec extends Specification {
                  executionWithPreFunctionScript()]
     }
 
+    def "Async execution completes with the mapped command response"() {
+
+        setup: "ApplicationConfigurationActionDto"
+        ApplicationConfigurationActionDto actionDto = new ApplicationConfigurationActionDto()
+                .type(TypeEnum.REST)
+                .properties([commandResult: '{"id": "{{inputs.id}}"}'])
+                .outputFormat(OutputFormatEnum.JSON)
+                .mapping([id: ".id"])
+
+        when: "Execute async"
+        ExecutionResult executionResult = engine.executeAsync(new ExecutionContext(1l, actionDto, [inputs: [id: "1"]])).join()
+
+        then: "The mapped response is returned"
+        executionResult.getCommand() == "a command"
+        executionResult.getMappedCommandResponse() == [[id: "1"]]
+    }
+
+    def "Action is compiled once when executed multiple times"() {
+
+        setup: "ApplicationConfigurationActionDto with preFunction script"
+        ApplicationConfigurationActionDto actionDto = new ApplicationConfigurationActionDto()
+                .type(TypeEnum.REST)
+                .preFunction('@script.groovy')
+                .properties([commandResult: '{"id": "{{preFunction.id}}"}'])
+                .outputFormat(OutputFormatEnum.JSON)
+                .mapping([id: ".id"])
+
+        when: "Execute the action for different inputs"
+        List results = ["1", "2", "3"].collect {
+            engine.execute(new ExecutionContext(1l, actionDto, [inputs: [id: it]])).getMappedCommandResponse()
+        }
+
+        then: "The preFunction script is fetched only once"
+        1 * assetService.getAssetContent("script.groovy", 1l) >> '{"id": "{{inputs.id}}"}'.bytes
+
+        and: "Each execution is substituted with its own inputs"
+        results == [[[id: "1"]], [[id: "2"]], [[id: "3"]]]
+    }
+
+    def "Step timers and response summaries are recorded with the action tags"() {
+
+        setup: "Add meter registry"
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+        Metrics.addRegistry(meterRegistry)
+
+        and: "ApplicationConfigurationActionDto with postFunction"
+        ApplicationConfigurationActionDto actionDto = new ApplicationConfigurationActionDto()
+                .type(TypeEnum.REST)
+                .postFunction('{{originalOutputs}}')
+                .properties([commandResult: '[{"id": "1"}, {"id": "\u00e9"}]'])
+                .outputFormat(OutputFormatEnum.JSON)
+                .mapping([id: ".id"])
+
+        when: "Execute"
+        engine.execute(new ExecutionContext(1l, actionDto, [:]).withMetricTags("fp-metrics", "app1", "job1", "fetch_source"))
+
+        then: "Each defined step is timed"
+        Tags tags = Tags.of("feature_pack", "fp-metrics", "application", "app1", "job", "job1", "action", "fetch_source",
+                "executor", "rest", "outcome", "success")
+        ["CommandStep", "PostFunctionStep", "JsonMappingStep"].every {
+            meterRegistry.find("execution_step").tags(tags).tag("step", it).timer()?.count() == 1
+        }
+        meterRegistry.find("execution_step").tags(tags).tag("step", "PreFunctionStep").timer() == null
+
+        and: "Response size in bytes and mapped rows are recorded"
+        meterRegistry.find("execution_command_response_size").tag("feature_pack", "fp-metrics").summary().totalAmount() ==
+                '[{"id":"1"},{"id":"\u00e9"}]'.getBytes(StandardCharsets.UTF_8).length
+        meterRegistry.find("execution_mapped_rows").tag("feature_pack", "fp-metrics").summary().totalAmount() == 2
+
+        cleanup:
+        Metrics.removeRegistry(meterRegistry)
+    }
+
+    def "Async execution completes exceptionally when jq expression is invalid"() {
+
+        setup: "invalid jqExpression"
+        ApplicationConfigurationActionDto actionDto = new ApplicationConfigurationActionDto()
+                .type(TypeEnum.REST)
+                .properties([commandResult: '{"id": 1}'])
+                .outputFormat(OutputFormatEnum.JSON)
+                .mapping([id: ".id[[["])
+
+        when: "Execute async"
+        engine.executeAsync(new ExecutionContext(1l, actionDto, [:])).join()
+
+        then: "CompletionException is thrown with ExecutionEngineException as the cause"
+        CompletionException exception = thrown(CompletionException)
+        exception.getCause() instanceof ExecutionEngineException
+    }
+
+    @Unroll
+    def "Command response held in a file is mapped and the file deleted"() {
+
+        setup: "Command response file"
+        Path responseFile = Files.createTempFile("response", ".json")
+        Files.writeString(responseFile, '[{"id": 1, "name": "object1"}, {"id": 2, "name": "object2"}]')
+
+        and: "ApplicationConfigurationActionDto"
+        ApplicationConfigurationActionDto actionDto = new ApplicationConfigurationActionDto()
+                .type(TypeEnum.REST)
+                .postFunction(postFunction)
+                .properties([commandResultFile: responseFile.toString()])
+                .outputFormat(OutputFormatEnum.JSON)
+                .mapping([id: ".id"])
+
+        when: "Execute"
+        ExecutionResult executionResult = engine.execute(new ExecutionContext(1l, actionDto, [:]))
+
+        then: "The mapped response is returned"
+        executionResult.getMappedCommandResponse() == [[id: 1], [id: 2]]
+        executionResult.getCommandResponse() == '[{"id": 1, "name": "object1"}, {"id": 2, "name": "object2"}]'
+
+        and: "The response file is deleted"
+        !Files.exists(responseFile)
+
+        where:
+        postFunction << [null, "{{ originalOutputs }}"]
+    }
+
+    @Unroll
+    def "Each mapped object is passed to the consumer when executed with a consumer"() {
+
+        setup: "Command response in memory or held in a file"
+        String response = '[{"id": 1, "name": "object1"}, {"id": 2, "name": "object2"}]'
+        Path responseFile = Files.createTempFile("response", ".json")
+        Files.writeString(responseFile, response)
+        Map properties = inFile ? [commandResultFile: responseFile.toString()] : [commandResult: response]
+
+        and: "ApplicationConfigurationActionDto"
+        ApplicationConfigurationActionDto actionDto = new ApplicationConfigurationActionDto()
+                .type(TypeEnum.REST)
+                .postFunction(postFunction)
+                .properties(properties)
+                .outputFormat(OutputFormatEnum.JSON)
+                .mapping([id: ".id"])
+
+        when: "Execute with consumer"
+        List<Map> mapped = []
+        engine.execute(new ExecutionContext(1l, actionDto, [:]), { mapped.add(it) })
+
+        then: "Each mapped object is passed to the consumer"
+        mapped == [[id: 1], [id: 2]]
+
+        cleanup:
+        Files.deleteIfExists(responseFile)
+
+        where:
+        inFile | postFunction
+        false  | null
+        false  | "{{ originalOutputs }}"
+        true   | null
+        true   | "{{ originalOutputs }}"
+    }
+
     def "Mapped value is null when jq expression returns NullValue"() {
 
         setup: "use jqExpression which results in NullValue "
@@ -203,16 +374,25 @@ class ExecutionEngineSpec extends Specification {
                     PythonCommandProcessor.class]))
     static class ExecutionEngineTestConfig {
 
+        @Bean(name = "tasksExecutor")
+        Executor tasksExecutor() {
+            return Executors.newFixedThreadPool(2)
+        }
+
         @Bean
         CommandExecutor testExecutor(SubstitutionEngine substitutionEngine) {
             /**
              * Test Command Executor which returns the value of the prop 'commandResult' after performing
-             * jinja substitution.
+             * jinja substitution, or the file named by the prop 'commandResultFile'.
              */
             return new CommandExecutor() {
                 @Override
                 CommandResponse execute(ExecutionContext executionContext) {
                     final String command = "a command"
+                    final String commandResultFile = (String) executionContext.getActionDto().getProperties().get("commandResultFile");
+                    if (commandResultFile != null) {
+                        return new CommandResponse(command, Path.of(commandResultFile))
+                    }
                     final String commandResult = (String) executionContext.getActionDto().getProperties().get("commandResult");
                     return new CommandResponse(command, substitutionEngine.render(commandResult, executionContext.getSubstitutionCtx(), -1l));
                 }
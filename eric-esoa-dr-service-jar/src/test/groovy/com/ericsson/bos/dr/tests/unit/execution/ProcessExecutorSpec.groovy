@@ -15,20 +15,26 @@
  ******************************************************************************/
 package com.ericsson.bos.dr.tests.unit.execution
 
+import com.ericsson.bos.dr.service.execution.ExecutionContext
+import com.ericsson.bos.dr.service.execution.executors.CommandExecutorException
 import com.ericsson.bos.dr.service.execution.executors.CommandResponse
 import com.ericsson.bos.dr.service.execution.executors.command.ProcessExecutor
 import com.ericsson.bos.dr.tests.integration.utils.IOUtils
+import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationActionDto
 import org.apache.commons.lang3.SystemUtils
 import spock.lang.IgnoreIf
 import spock.lang.Specification
 
 import java.nio.file.Files
 import java.nio.file.Path
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
 
 @IgnoreIf({ SystemUtils.IS_OS_WINDOWS })
 class ProcessExecutorSpec extends Specification {
 
-    ProcessExecutor processExecutor = new ProcessExecutor(processPath: "/usr/bin:/usr/local/bin")
+    ProcessExecutor processExecutor = new ProcessExecutor(processPath: "/usr/bin:/usr/local/bin", timeout: 60,
+            outputThresholdKb: 1024, outputDir: System.getProperty("java.io.tmpdir"))
 
     def 'Process Executor returns large command output'() {
 
@@ -62,4 +68,100 @@ class ProcessExecutorSpec extends Specification {
         "\$(touch /tmp/test.txt `ls`))" | _
         "`touch /tmp/test.txt \$(ls)`" | _
     }
+
+    def 'Process output exceeding the threshold is returned in a file'() {
+
+        setup: "Process executor with a 1kb output threshold"
+        ProcessExecutor processExecutor = new ProcessExecutor(processPath: "/usr/bin:/usr/local/bin", timeout: 60,
+                outputThresholdKb: 1, outputDir: System.getProperty("java.io.tmpdir"))
+
+        when: "Execute command writing 2000 lines"
+        CommandResponse commandResponse = processExecutor.executeProcess("seq 1 2000")
+
+        then: "Command output is returned in a file"
+        Path responseFile = commandResponse.getResponseFile().get()
+        Files.readAllLines(responseFile) == (1..2000)*.toString()
+
+        cleanup:
+        Files.deleteIfExists(responseFile)
+    }
+
+    def 'Process is killed when it exceeds the action timeout'() {
+
+        setup: "Action with a timeout of 1 second"
+        ExecutionContext executionContext = new ExecutionContext(1L,
+                new ApplicationConfigurationActionDto().properties([timeoutSeconds: 1]), [:])
+
+        when: "Execute command exceeding the timeout"
+        long startTime = System.currentTimeMillis()
+        processExecutor.executeProcess("sleep 30", [:], executionContext)
+
+        then: "CommandExecutorException thrown"
+        CommandExecutorException e = thrown(CommandExecutorException)
+        e.commandOutput == "Process timed out after 1 seconds"
+        System.currentTimeMillis() - startTime < 10000
+    }
+
+    def 'Process is killed when the job fails'() {
+
+        setup: "Action executing for job 10"
+        ExecutionContext executionContext = new ExecutionContext(1L, new ApplicationConfigurationActionDto(),
+                [job: [id: 10L]])
+
+        when: "Execute long running command and cancel the job processes"
+        CompletableFuture<CommandResponse> result = CompletableFuture.supplyAsync {
+            processExecutor.executeProcess("sleep 30", [:], executionContext)
+        }
+        Thread.sleep(1000)
+        processExecutor.cancelJobProcesses(10L)
+        result.join()
+
+        then: "CommandExecutorException thrown"
+        CompletionException e = thrown(CompletionException)
+        e.cause instanceof CommandExecutorException
+        e.cause.commandOutput == "Process killed as the job failed"
+    }
+
+    def 'Process is not started for a failed job until the job is reconciled again'() {
+
+        setup: "Action executing for job 11, which has failed"
+        ExecutionContext executionContext = new ExecutionContext(1L, new ApplicationConfigurationActionDto(),
+                [job: [id: 11L]])
+        processExecutor.cancelJobProcesses(11L)
+
+        when: "Execute command"
+        processExecutor.executeProcess("echo 1", [:], executionContext)
+
+        then: "CommandExecutorException thrown"
+        CommandExecutorException e = thrown(CommandExecutorException)
+        e.commandOutput == "Process not started as the job failed"
+
+        when: "Job is reconciled again"
+        processExecutor.allowJobProcesses(11L)
+        CommandResponse commandResponse = processExecutor.executeProcess("echo 1", [:], executionContext)
+
+        then: "Command output is returned and the process is no longer registered for the job"
+        commandResponse.response == "1"
+        processExecutor.jobProcesses.isEmpty()
+    }
+
+    def 'Output of a failed process exceeding the threshold is truncated in the error'() {
+
+        setup: "Process executor with a 1kb output threshold"
+        ProcessExecutor processExecutor = new ProcessExecutor(processPath: "/usr/bin:/usr/local/bin:/bin", timeout: 60,
+                outputThresholdKb: 1, outputDir: System.getProperty("java.io.tmpdir"))
+        Path path = Files.createTempFile("output", ".txt")
+        Files.write(path, (1..2000)*.toString())
+
+        when: "Execute command writing 2000 lines and then failing"
+        processExecutor.executeProcess("cat ${path.toString()} /does/not/exist")
+
+        then: "CommandExecutorException thrown with the start of the output"
+        CommandExecutorException e = thrown(CommandExecutorException)
+        e.commandOutput.startsWith("1${System.lineSeparator()}2")
+        e.commandOutput.length() == 1027
+
+        cleanup:
+        Files.deleteIfExists(path)
+    }
 }
\ No newline at end of file
@@ -20,6 +20,9 @@ import com.ericsson.bos.dr.jpa.model.AssetEntity
 import com.ericsson.bos.dr.jpa.model.FeaturePackEntity
 import com.ericsson.bos.dr.service.AssetService
 import com.ericsson.bos.dr.service.execution.executors.python.PythonAssetFilesystemStore
+import com.ericsson.bos.dr.service.execution.executors.python.PythonAssetFilesystemStore.PythonAssetsEvent
+import org.apache.commons.codec.digest.DigestUtils
+import org.springframework.context.ApplicationEventPublisher
 import spock.lang.Specification
 
 import java.nio.file.Files
@@ -29,8 +32,9 @@ import java.nio.file.Paths
 class PythonAssetFilesystemStoreSpec extends Specification {
 
     AssetService assetService = Mock(AssetService)
-    PythonAssetFilesystemStore pythonAssetFilesystemStore = new PythonAssetFilesystemStore(assetService: assetService, pythonAssetsDir: System
-            .getProperty("java.io.tmpdir"))
+    ApplicationEventPublisher applicationEventPublisher = Mock(ApplicationEventPublisher)
+    PythonAssetFilesystemStore pythonAssetFilesystemStore = new PythonAssetFilesystemStore(assetService: assetService,
+            applicationEventPublisher: applicationEventPublisher, pythonAssetsDir: System.getProperty("java.io.tmpdir"))
 
     AssetEntity assetEntity = new AssetEntity(contents: "print('hello')".bytes)
 
@@ -107,6 +111,89 @@ class PythonAssetFilesystemStoreSpec extends Specification {
         Files.exists(asset2Path)
     }
 
+    def "identical assets in different feature packs share the same content file"() {
+
+        setup: "Mock get assets"
+        AssetEntity uniqueAsset = new AssetEntity(contents: "print('${System.nanoTime()}')".bytes)
+        assetService.getAsset(_, _) >> uniqueAsset
+
+        when: "Get path for the same asset in 2 feature packs"
+        Path path1 = pythonAssetFilesystemStore.getPath(featurePackId, "asset1.py")
+        Path path2 = pythonAssetFilesystemStore.getPath(featurePackId + 1, "asset1.py")
+
+        then: "Both paths refer to the content file"
+        Path contentPath = Paths.get(System.getProperty("java.io.tmpdir"), "content", DigestUtils.sha256Hex(uniqueAsset.contents))
+        path1 != path2
+        Files.isSameFile(path1, contentPath)
+        Files.isSameFile(path2, contentPath)
+    }
+
+    def "python assets are written to the filesystem when persisted feature pack is committed"() {
+
+        setup: "Feature pack with python and non python assets"
+        FeaturePackEntity featurePack = new FeaturePackEntity(id: featurePackId, assets: [
+                new AssetEntity(name: "asset1.py", contents: "print('asset1')".bytes),
+                new AssetEntity(name: "asset2.txt", contents: "asset2".bytes)] as Set)
+        PythonAssetsEvent event = null
+
+        when: "Feature pack is persisted"
+        pythonAssetFilesystemStore.storeAssetsForFeaturePack(featurePack)
+
+        then: "Event with the python assets is published"
+        1 * applicationEventPublisher.publishEvent(_) >> { args -> event = args[0] }
+        event.featurePackId == featurePackId
+        event.assets.keySet() == ["asset1.py"] as Set
+
+        when: "Transaction is committed"
+        pythonAssetFilesystemStore.storeAssets(event)
+        Path path = pythonAssetFilesystemStore.getPath(featurePackId, "asset1.py")
+
+        then: "Python asset is written without fetching it"
+        0 * assetService.getAsset(_, _)
+        Files.readAllBytes(path) == "print('asset1')".bytes
+        !Files.exists(path.resolveSibling("asset2.txt"))
+    }
+
+    def "python assets are deleted when persisted feature pack is rolled back"() {
+
+        setup: "Python asset written for the feature pack"
+        PythonAssetsEvent event = new PythonAssetsEvent(featurePackId, ["asset1.py": "print('asset1')".bytes])
+        assetService.getAsset(_, _) >> assetEntity
+        Path path = pythonAssetFilesystemStore.getPath(featurePackId, "asset1.py")
+
+        when: "Transaction is rolled back"
+        pythonAssetFilesystemStore.deleteAssets(event)
+
+        then: "Feature pack asset directory is deleted"
+        !Files.exists(path.parent)
+    }
+
+    def "content is deleted when no longer used by any feature pack"() {
+
+        setup: "Mock get assets"
+        AssetEntity uniqueAsset = new AssetEntity(contents: "print('${System.nanoTime()}')".bytes)
+        assetService.getAsset(_, _) >> uniqueAsset
+
+        and: "Same asset stored for 2 feature packs"
+        FeaturePackEntity featurePack1 = new FeaturePackEntity(id: featurePackId)
+        FeaturePackEntity featurePack2 = new FeaturePackEntity(id: featurePackId + 1)
+        pythonAssetFilesystemStore.getPath(featurePack1.getId(), "asset1.py")
+        pythonAssetFilesystemStore.getPath(featurePack2.getId(), "asset1.py")
+        Path contentPath = Paths.get(System.getProperty("java.io.tmpdir"), "content", DigestUtils.sha256Hex(uniqueAsset.contents))
+
+        when: "Delete featurePack1 assets"
+        pythonAssetFilesystemStore.deleteAssetsForFeaturePack(featurePack1)
+
+        then: "Content is still stored"
+        Files.exists(contentPath)
+
+        when: "Delete featurePack2 assets"
+        pythonAssetFilesystemStore.deleteAssetsForFeaturePack(featurePack2)
+
+        then: "Content is deleted"
+        !Files.exists(contentPath)
+    }
+
     private class GetPathThread extends Thread {
 
         Long featurePackId
@@ -41,7 +41,8 @@ class PythonExecutorSpec extends Specification {
     AssetService assetService = Mock(AssetService)
     PythonAssetFilesystemStore pythonAssetFilesystemStore = new PythonAssetFilesystemStore(assetService: assetService,
             pythonAssetsDir: System.getProperty("java.io.tmpdir"))
-    ProcessExecutor processExecutor = new ProcessExecutor(processPath: System.getenv().get("Path"))
+    ProcessExecutor processExecutor = new ProcessExecutor(processPath: System.getenv().get("Path"), timeout: 60,
+            outputThresholdKb: 1024, outputDir: System.getProperty("java.io.tmpdir"))
     SubstitutionEngine substitutionEngine = new SubstitutionEngine(propertiesService: Mock(PropertiesService))
     PythonCommandProcessor pythonCommandProcessor = new PythonCommandProcessor(
             substitutionEngine: substitutionEngine, pythonAssetStore: pythonAssetFilesystemStore)
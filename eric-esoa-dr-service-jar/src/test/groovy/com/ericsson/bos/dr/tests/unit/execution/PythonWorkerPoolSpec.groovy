@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.tests.unit.execution
+
+import com.ericsson.bos.dr.service.execution.ExecutionContext
+import com.ericsson.bos.dr.service.execution.executors.CommandExecutorException
+import com.ericsson.bos.dr.service.execution.executors.CommandResponse
+import com.ericsson.bos.dr.service.execution.executors.command.ProcessExecutor
+import com.ericsson.bos.dr.service.execution.executors.python.PythonCommand
+import com.ericsson.bos.dr.service.execution.executors.python.PythonEnvSupplier
+import com.ericsson.bos.dr.service.execution.executors.python.PythonWorkerPool
+import com.ericsson.bos.dr.web.v1.api.model.ApplicationConfigurationActionDto
+import spock.lang.Ignore
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+
+@Ignore("Python is not available in the docker image used for running tests")
+class PythonWorkerPoolSpec extends Specification {
+
+    ProcessExecutor processExecutor = new ProcessExecutor(processPath: "/usr/local/bin:/usr/bin", timeout: 2,
+            outputThresholdKb: 1024, outputDir: System.getProperty("java.io.tmpdir"))
+    PythonWorkerPool pythonWorkerPool = new PythonWorkerPool(size: 1, maxCallsPerWorker: 2, processExecutor: processExecutor,
+            processPath: "/usr/local/bin:/usr/bin", pythonEnvSupplier: new PythonEnvSupplier(tlsEnabled: false, restServiceUrl: "http://rest-service"))
+    ExecutionContext executionContext = new ExecutionContext(1L, new ApplicationConfigurationActionDto(), [job: [id: 10L]])
+
+    def setup() {
+        pythonWorkerPool.init()
+    }
+
+    def cleanup() {
+        pythonWorkerPool.shutdown()
+    }
+
+    def "Script is executed in a pooled worker with the python env"() {
+
+        setup: "Create python command with args"
+        PythonCommand pythonCommand = createCommand("""import os, sys
+print("Goodbye,", sys.argv[1], sys.argv[2], "!")
+print(os.getenv('REST_SERVICE_URL'))""", ["Athlone", "'Co. Westmeath'"])
+
+        when: "Execute the command twice"
+        CommandResponse commandResponse1 = pythonWorkerPool.execute(pythonCommand, executionContext)
+        CommandResponse commandResponse2 = pythonWorkerPool.execute(pythonCommand, executionContext)
+
+        then: "Response contains the script output"
+        commandResponse1.response == "Goodbye, Athlone Co. Westmeath !${System.lineSeparator()}http://rest-service"
+        commandResponse2.response == commandResponse1.response
+        commandResponse1.command.contains("script.py")
+    }
+
+    def "Worker is reused until the max calls, and then replaced"() {
+
+        setup: "Create python command printing the process id"
+        PythonCommand pythonCommand = createCommand("import os\nprint(os.getpid())", [])
+
+        when: "Execute the command three times"
+        List<String> pids = (1..3).collect { pythonWorkerPool.execute(pythonCommand, executionContext).response }
+
+        then: "First two calls use the same worker, the third a new worker"
+        pids[0] == pids[1]
+        pids[2] != pids[1]
+    }
+
+    def "CommandExecutorException is thrown containing the output when script exits with non-zero code"() {
+
+        setup: "Create python command which exits with an error"
+        PythonCommand pythonCommand = createCommand("import sys\nprint('failed')\nsys.exit(2)", [])
+
+        when: "Execute the command"
+        pythonWorkerPool.execute(pythonCommand, executionContext)
+
+        then: "CommandExecutorException thrown"
+        CommandExecutorException exception = thrown(CommandExecutorException)
+        exception.getCommandOutput() == "failed"
+    }
+
+    def "Worker is replaced when the call exceeds the action timeout"() {
+
+        setup: "Create python commands which sleep and print the process id"
+        PythonCommand sleepCommand = createCommand("import time\ntime.sleep(10)", [])
+        PythonCommand pidCommand = createCommand("import os\nprint(os.getpid())", [])
+        String pid = pythonWorkerPool.execute(pidCommand, executionContext).response
+
+        when: "Execute the command exceeding the action timeout of 1 second"
+        pythonWorkerPool.execute(sleepCommand, new ExecutionContext(1L,
+                new ApplicationConfigurationActionDto().properties([timeoutSeconds: 1]), [:]))
+
+        then: "IOException thrown"
+        IOException exception = thrown(IOException)
+        exception.message.contains("timed out after 1 seconds")
+
+        and: "Next call uses a new worker"
+        pythonWorkerPool.execute(pidCommand, executionContext).response != pid
+    }
+
+    def "Worker is killed when the job fails"() {
+
+        setup: "Create python command which sleeps"
+        PythonCommand sleepCommand = createCommand("import time\ntime.sleep(10)", [])
+
+        when: "Execute the command and cancel the job processes"
+        CompletableFuture<CommandResponse> result = CompletableFuture.supplyAsync {
+            pythonWorkerPool.execute(sleepCommand, executionContext)
+        }
+        Thread.sleep(500)
+        processExecutor.cancelJobProcesses(10L)
+        result.join()
+
+        then: "CommandExecutorException thrown"
+        CompletionException exception = thrown(CompletionException)
+        exception.cause instanceof CommandExecutorException
+        exception.cause.commandOutput == "Process killed as the job failed"
+    }
+
+    def "Modules and env changed by a script are not visible to the next script"() {
+
+        setup: "Create a helper module and a script which changes it, the env and sys.path"
+        PythonCommand changeCommand = createCommand("""import os, sys, helper
+helper.value = 'changed'
+os.environ['CHANGED'] = 'true'
+sys.path.append('/tmp/changed')""", [], "value = 'original'")
+        PythonCommand readCommand = createCommand("""import os, sys
+print('helper' in sys.modules, os.getenv('CHANGED'), '/tmp/changed' in sys.path)""", [])
+
+        when: "Execute the commands in the same worker"
+        pythonWorkerPool.execute(changeCommand, executionContext)
+        CommandResponse commandResponse = pythonWorkerPool.execute(readCommand, executionContext)
+
+        then: "Changes are not visible"
+        commandResponse.response == "False None False"
+    }
+
+    def "Worker is not shared between feature packs"() {
+
+        setup: "Create python command printing the process id"
+        PythonCommand pythonCommand = createCommand("import os\nprint(os.getpid())", [])
+
+        when: "Execute the command for two feature packs"
+        String pid1 = pythonWorkerPool.execute(pythonCommand, executionContext).response
+        String pid2 = pythonWorkerPool.execute(pythonCommand,
+                new ExecutionContext(2L, new ApplicationConfigurationActionDto(), [:])).response
+
+        then: "A different worker is used for each feature pack"
+        pid1 != pid2
+    }
+
+    private static PythonCommand createCommand(String script, List<Object> args, String helper = null) {
+        Path scriptPath = Files.createTempDirectory("python-worker").resolve("script.py")
+        Files.writeString(scriptPath, script)
+        if (helper != null) {
+            Files.writeString(scriptPath.resolveSibling("helper.py"), helper)
+        }
+        return new PythonCommand(command: "script.py", path: scriptPath, substitutedProperties: args)
+    }
+}
\ No newline at end of file
@@ -30,7 +30,8 @@ import spock.lang.Unroll
 
 class ShellExecutorSpec extends Specification {
 
-    ProcessExecutor processExecutor = new ProcessExecutor(processPath: "/usr/bin:/usr/local/bin")
+    ProcessExecutor processExecutor = new ProcessExecutor(processPath: "/usr/bin:/usr/local/bin", timeout: 60,
+            outputThresholdKb: 1024, outputDir: System.getProperty("java.io.tmpdir"))
     ShellCommandProcessor shellCommandProcessor = new ShellCommandProcessor(substitutionEngine: new SubstitutionEngine(
             propertiesService: Mock(PropertiesService)))
 
@@ -22,6 +22,7 @@ import static com.github.tomakehurst.wiremock.client.WireMock.configureFor
 import static com.github.tomakehurst.wiremock.client.WireMock.containing
 import static com.github.tomakehurst.wiremock.client.WireMock.delete
 import static com.github.tomakehurst.wiremock.client.WireMock.deleteRequestedFor
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo
 import static com.github.tomakehurst.wiremock.client.WireMock.exactly
 import static com.github.tomakehurst.wiremock.client.WireMock.get
 import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor
@@ -36,6 +37,7 @@ import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo
 import static com.github.tomakehurst.wiremock.client.WireMock.verify
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options
 
+import org.mockito.Mockito
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.beans.factory.annotation.Value
 import org.springframework.boot.test.context.TestConfiguration
@@ -57,12 +59,37 @@ import com.github.tomakehurst.wiremock.WireMockServer
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+
 @ContextConfiguration(classes = HttpExecutorTestConfig.class)
 @TestPropertySource(properties = ["service.http-client.retry.max-attempts=1",
     "service.http-client.retry.delay=1",
+    "service.http-client.retry.max-delay=1",
+    "service.http-client.retry.jitter=0",
+    "service.http-client.retry.deadline=60",
+    "service.http-client.circuit-breaker.failure-threshold=100",
+    "service.http-client.circuit-breaker.open-duration=30",
     "service.substitution.fail-on-unknown-tokens=true",
+    "spring.caches.jinja-template.max-size=10",
+    "spring.caches.jinja-template.access-expiry=60",
     "service.rest-service.runUrlPath=/rest-service/v1/run",
     "spring.codec.max-in-memory-size-kb=100000",
+    "spring.caches.http-client.max-size=10",
+    "spring.caches.http-client.access-expiry=60",
+    "spring.caches.http-circuit-breaker.access-expiry=60",
+    "spring.caches.http-response.max-size-kb=100",
+    "spring.caches.http-response.access-expiry=60",
+    "service.http-client.limits.requests-per-second=0",
+    "service.http-client.limits.max-concurrent-requests=0",
+    "service.http-client.limits.max-waiting-requests=100",
+    "spring.caches.http-outbound-limiter.access-expiry=60",
+    "service.http-client.large-response.threshold-kb=1",
+    "service.http-client.large-response.dir=\${java.io.tmpdir}",
     "netty.http-client.connection-pool.maxConnections=50",
     "netty.http-client.connection-pool.maxIdleTime=60s",
     "netty.http-client.connection-pool.maxLifeTime=300s",
@@ -74,6 +101,9 @@ class HttpExecutorSpec extends Specification {
     @Autowired
     HttpExecutor httpExecutor
 
+    @Autowired
+    PropertiesService propertiesService
+
     @Value("\${service.rest-service.runUrlPath}")
     def restActionRunPath
 
@@ -208,6 +238,196 @@ class HttpExecutorSpec extends Specification {
         assert response.response == "some response"
     }
 
+    def "Async execution completes with the http response"() {
+
+        setup: "Create actionDto, specifying a get request"
+        def actionProperties =
+                ["url"   : "http://localhost:${wiremockPort}/rest-api/some-endpoint/1".toString(),
+                 "method": "GET"]
+        def actionDto = new ApplicationConfigurationActionDto()
+                .properties(actionProperties)
+
+        and: "Configure expected rest call from the http executor"
+        stubFor(get(urlEqualTo("/rest-api/some-endpoint/1"))
+                .willReturn(okJson("{\"id\":1}")))
+
+        when: "Execute http request async"
+        CommandResponse response = httpExecutor.executeAsync(new ExecutionContext(1l, actionDto, [:])).toCompletableFuture().join()
+
+        then: 'Response as expected'
+        assert response.command.contains("Method: GET")
+        assert response.response == "{\"id\":1}"
+    }
+
+    def "Response exceeding the large response threshold is returned in a file"() {
+
+        setup: "Create actionDto, specifying a get request"
+        def actionProperties =
+                ["url"   : "http://localhost:${wiremockPort}/rest-api/some-endpoint/1".toString(),
+                 "method": "GET"]
+        def actionDto = new ApplicationConfigurationActionDto()
+                .properties(actionProperties)
+
+        and: "Configure rest call returning a response larger than the threshold"
+        String responseBody = '[' + (1..200).collect { '{"id":' + it + '}' }.join(',') + ']'
+        stubFor(get(urlEqualTo("/rest-api/some-endpoint/1"))
+                .willReturn(okJson(responseBody)))
+
+        when: "Execute http request"
+        CommandResponse response = httpExecutor.execute(new ExecutionContext(1l, actionDto, [:]))
+
+        then: "The response file contains the full response"
+        Path responseFile = response.responseFile.get()
+        Files.readString(responseFile) == responseBody
+
+        and: "The response string contains the start of the response"
+        response.response.length() < responseBody.length()
+        responseBody.startsWith(response.response - "...")
+
+        cleanup:
+        responseFile?.with { Files.deleteIfExists(it) }
+    }
+
+    def "Cached response is used until the ttl expires"() {
+
+        setup: "Create actionDto, specifying a get request with response caching"
+        def actionProperties =
+                ["url"            : "http://localhost:${wiremockPort}/rest-api/cached/1".toString(),
+                 "method"         : "GET",
+                 "cacheTtlSeconds": 60]
+        def actionDto = new ApplicationConfigurationActionDto()
+                .properties(actionProperties)
+
+        and: "Configure rest call"
+        stubFor(get(urlEqualTo("/rest-api/cached/1"))
+                .willReturn(okJson("{\"id\":1}")))
+
+        when: "Execute http request twice"
+        List<CommandResponse> responses = (1..2).collect { httpExecutor.execute(new ExecutionContext(1l, actionDto, [:])) }
+
+        then: "The request is sent once and the response returned for both executions"
+        verify(exactly(1), getRequestedFor(urlEqualTo("/rest-api/cached/1")))
+        responses*.response == ["{\"id\":1}", "{\"id\":1}"]
+    }
+
+    def "Cached response is revalidated with the ETag when the ttl expires"() {
+
+        setup: "Create actionDto, specifying a get request with response caching which expires immediately"
+        def actionProperties =
+                ["url"            : "http://localhost:${wiremockPort}/rest-api/cached/2".toString(),
+                 "method"         : "GET",
+                 "cacheTtlSeconds": 0]
+        def actionDto = new ApplicationConfigurationActionDto()
+                .properties(actionProperties)
+
+        and: "Configure rest call returning an ETag, and 304 when the ETag matches"
+        stubFor(get(urlEqualTo("/rest-api/cached/2"))
+                .willReturn(okJson("{\"id\":2}").withHeader("ETag", '"v1"')))
+        stubFor(get(urlEqualTo("/rest-api/cached/2"))
+                .withHeader("If-None-Match", equalTo('"v1"'))
+                .willReturn(aResponse().withStatus(304)))
+
+        when: "Execute http request twice"
+        List<CommandResponse> responses = (1..2).collect { httpExecutor.execute(new ExecutionContext(1l, actionDto, [:])) }
+
+        then: "The second request is conditional and the cached response returned"
+        verify(exactly(1), getRequestedFor(urlEqualTo("/rest-api/cached/2")).withHeader("If-None-Match", equalTo('"v1"')))
+        responses*.response == ["{\"id\":2}", "{\"id\":2}"]
+    }
+
+    def "Response is not cached when caching is not enabled for the action"() {
+
+        setup: "Create actionDto, specifying a get request without response caching"
+        def actionProperties =
+                ["url"   : "http://localhost:${wiremockPort}/rest-api/cached/3".toString(),
+                 "method": "GET"]
+        def actionDto = new ApplicationConfigurationActionDto()
+                .properties(actionProperties)
+
+        and: "Configure rest call"
+        stubFor(get(urlEqualTo("/rest-api/cached/3"))
+                .willReturn(okJson("{\"id\":3}")))
+
+        when: "Execute http request twice"
+        2.times { httpExecutor.execute(new ExecutionContext(1l, actionDto, [:])) }
+
+        then: "The request is sent for each execution"
+        verify(exactly(2), getRequestedFor(urlEqualTo("/rest-api/cached/3")))
+    }
+
+    def "Concurrent executions of the same request share one request when coalescing is enabled"() {
+
+        setup: "Create actionDto, specifying a get request with coalescing"
+        def actionProperties =
+                ["url"     : "http://localhost:${wiremockPort}/rest-api/coalesced/1".toString(),
+                 "method"  : "GET",
+                 "coalesce": true]
+        def actionDto = new ApplicationConfigurationActionDto()
+                .properties(actionProperties)
+
+        and: "Configure rest call with a response delay"
+        stubFor(get(urlEqualTo("/rest-api/coalesced/1"))
+                .willReturn(okJson("{\"id\":1}").withFixedDelay(500)))
+
+        when: "Execute http request concurrently"
+        List<CommandResponse> responses = (1..3).collect { httpExecutor.executeAsync(new ExecutionContext(1l, actionDto, [:])) }
+                .collect { it.toCompletableFuture().join() }
+
+        then: "The request is sent once and the response returned for each execution"
+        verify(exactly(1), getRequestedFor(urlEqualTo("/rest-api/coalesced/1")))
+        responses*.response == ["{\"id\":1}"] * 3
+    }
+
+    def "Requests exceeding the feature pack outbound limits for the host are rejected"() {
+
+        setup: "Configure feature pack limits of one concurrent and one waiting request for the host"
+        Mockito.when(propertiesService.getProperties(2l)).thenReturn(["httpLimits": ["localhost": [
+                "maxConcurrentRequests": 1, "maxWaitingRequests": 1]]])
+
+        and: "Create actionDto, specifying a get request"
+        def actionDto = new ApplicationConfigurationActionDto()
+                .properties(["url": "http://localhost:${wiremockPort}/rest-api/limited/1".toString(), "method": "GET"])
+
+        and: "Configure rest call with a response delay"
+        stubFor(get(urlEqualTo("/rest-api/limited/1"))
+                .willReturn(okJson("{\"id\":1}").withFixedDelay(500)))
+
+        when: "Execute http request concurrently"
+        List<CompletableFuture<CommandResponse>> responses = (1..3)
+                .collect { httpExecutor.executeAsync(new ExecutionContext(2l, actionDto, [:])).toCompletableFuture() }
+        CompletableFuture.allOf(responses[0], responses[1]).join()
+
+        then: "The third request is rejected and the others sent one at a time"
+        responses[2].isCompletedExceptionally()
+        responses[0].join().response == "{\"id\":1}"
+        responses[1].join().response == "{\"id\":1}"
+        verify(exactly(2), getRequestedFor(urlEqualTo("/rest-api/limited/1")))
+    }
+
+    def "Async execution completes exceptionally when http status error response"() {
+
+        setup: "Create actionDto, specifying a delete request"
+        def actionProperties =
+                ["url": "http://localhost:${wiremockPort}/rest-api/some-endpoint/1".toString(),
+                    "method" : "DELETE"]
+        def actionDto = new ApplicationConfigurationActionDto()
+                .properties(actionProperties)
+
+        and: "Configure error response"
+        stubFor(delete(urlEqualTo("/rest-api/some-endpoint/1"))
+                .willReturn(aResponse()
+                .withStatus(500)
+                .withBody("some error response")))
+
+        when: "Execute http request async"
+        httpExecutor.executeAsync(new ExecutionContext(1l, actionDto, [:])).toCompletableFuture().join()
+
+        then: "CompletionException thrown with CommandExecutorException as the cause"
+        CompletionException e = thrown()
+        assert e.cause instanceof CommandExecutorException
+        assert e.cause.message.contains("some error response")
+    }
+
     @Unroll
     def "Exception when http status error response"() {
 
@@ -334,6 +554,11 @@ class HttpExecutorSpec extends Specification {
         @MockBean
         PropertiesService propertiesServiceMock
 
+        @Bean(name = "tasksExecutor")
+        Executor tasksExecutor() {
+            return Executors.newFixedThreadPool(2)
+        }
+
         @Bean
         public WebClient.Builder getWebClientBuilder() {
             return WebClient.builder()
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.tests.unit.http
+
+import com.ericsson.bos.dr.service.http.CircuitBreaker
+import spock.lang.Specification
+
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+
+class CircuitBreakerSpec extends Specification {
+
+    Instant now = Instant.parse("2024-01-01T00:00:00Z")
+    Clock clock = Stub(Clock) {
+        instant() >> { now }
+    }
+    CircuitBreaker circuitBreaker = new CircuitBreaker("host:80", 2, Duration.ofSeconds(30), clock)
+
+    def "Circuit opens once the failure threshold is reached"() {
+
+        when: "Record failures up to the threshold"
+        circuitBreaker.onFailure()
+        boolean acquiredBeforeThreshold = circuitBreaker.tryAcquire()
+        circuitBreaker.onFailure()
+
+        then: "Circuit is open and rejects requests"
+        acquiredBeforeThreshold == true
+        circuitBreaker.getState() == CircuitBreaker.State.OPEN
+        circuitBreaker.tryAcquire() == false
+    }
+
+    def "Success resets the consecutive failures"() {
+
+        when: "Record a failure, a success and a failure"
+        circuitBreaker.onFailure()
+        circuitBreaker.onSuccess()
+        circuitBreaker.onFailure()
+
+        then: "Circuit remains closed"
+        circuitBreaker.getState() == CircuitBreaker.State.CLOSED
+        circuitBreaker.tryAcquire() == true
+    }
+
+    def "Single probe is let through once the open duration has elapsed"() {
+
+        setup: "Open the circuit"
+        circuitBreaker.onFailure()
+        circuitBreaker.onFailure()
+
+        when: "Open duration elapses"
+        now = now.plusSeconds(30)
+
+        then: "Only one probe request is permitted"
+        circuitBreaker.tryAcquire() == true
+        circuitBreaker.getState() == CircuitBreaker.State.HALF_OPEN
+        circuitBreaker.tryAcquire() == false
+    }
+
+    def "Circuit state is #expectedState after the probe #probeOutcome"() {
+
+        setup: "Open the circuit and let a probe through"
+        circuitBreaker.onFailure()
+        circuitBreaker.onFailure()
+        now = now.plusSeconds(30)
+        circuitBreaker.tryAcquire()
+
+        when: "Probe completes"
+        circuitBreaker."${probeOutcome}"()
+
+        then: "Circuit is in expected state"
+        circuitBreaker.getState() == expectedState
+        circuitBreaker.tryAcquire() == acquired
+
+        where:
+        probeOutcome | expectedState                  | acquired
+        "onSuccess"  | CircuitBreaker.State.CLOSED    | true
+        "onFailure"  | CircuitBreaker.State.OPEN      | false
+        "onCancel"   | CircuitBreaker.State.HALF_OPEN | true
+    }
+}
\ No newline at end of file
@@ -36,9 +36,19 @@ import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo
 import static com.github.tomakehurst.wiremock.client.WireMock.verify
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options
 import com.ericsson.bos.dr.service.exceptions.DRServiceException
+import com.ericsson.bos.dr.service.http.CircuitBreaker
 import com.ericsson.bos.dr.service.http.HttpRequest
 import com.ericsson.bos.dr.service.http.HttpClient
+import com.ericsson.bos.dr.service.http.ResponseBuffer
+import com.ericsson.bos.dr.service.http.SslContextSupplier
+import ch.qos.logback.classic.Level
+import ch.qos.logback.classic.Logger
+import ch.qos.logback.classic.spi.ILoggingEvent
+import ch.qos.logback.core.read.ListAppender
 import com.github.tomakehurst.wiremock.WireMockServer
+import io.micrometer.core.instrument.Metrics
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.slf4j.LoggerFactory
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.boot.test.context.TestConfiguration
 import org.springframework.context.annotation.Bean
@@ -52,10 +62,25 @@ import org.springframework.web.reactive.function.client.WebClientResponseExcepti
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.Clock
+import java.time.Duration
+
 @ContextConfiguration(classes = HttpServiceTestConfig.class)
 @TestPropertySource(properties = ["service.http-client.retry.max-attempts=1",
         "service.http-client.retry.delay=1",
+        "service.http-client.retry.max-delay=1",
+        "service.http-client.retry.jitter=0",
+        "service.http-client.retry.deadline=60",
+        "service.http-client.circuit-breaker.failure-threshold=100",
+        "service.http-client.circuit-breaker.open-duration=30",
         "spring.codec.max-in-memory-size-kb=100000",
+        "spring.caches.http-client.max-size=10",
+        "spring.caches.http-client.access-expiry=60",
+        "spring.caches.http-circuit-breaker.access-expiry=60",
+        "service.http-client.large-response.threshold-kb=1",
+        "service.http-client.large-response.dir=\${java.io.tmpdir}",
         "netty.http-client.connection-pool.maxConnections=50",
         "netty.http-client.connection-pool.maxIdleTime=60s",
         "netty.http-client.connection-pool.maxLifeTime=300s",
@@ -67,6 +92,9 @@ class HttpClientSpec extends Specification{
     @Autowired
     HttpClient httpClient
 
+    @Autowired
+    SslContextSupplier sslContextSupplier
+
     static String wiremockPort
 
     static WireMockServer wireMockServer = new WireMockServer(options().dynamicPort())
@@ -224,6 +252,90 @@ class HttpClientSpec extends Specification{
         assert responseEntity.body == null
     }
 
+    def "Web client is reused for requests with the same timeouts and rebuilt when the SslContext is recreated"() {
+
+        setup: "Configure rest call"
+        stubFor(get(urlEqualTo("/rest-api/some-endpoint/1"))
+                .willReturn(okJson("{}")))
+        httpClient.webClients.invalidateAll()
+
+        when: "Execute requests with the same timeouts"
+        2.times { httpClient.executeRequest(getRequest(5)) }
+
+        then: "One web client is cached"
+        httpClient.webClients.asMap().size() == 1
+
+        when: "Execute request with different timeouts"
+        httpClient.executeRequest(getRequest(10))
+
+        then: "Two web clients are cached"
+        httpClient.webClients.asMap().size() == 2
+
+        when: "SslContext is recreated and a request executed"
+        sslContextSupplier.createUnsecureSslCtx()
+        httpClient.executeRequest(getRequest(5))
+
+        then: "Web clients built with the previous SslContext are discarded"
+        httpClient.webClients.asMap().size() == 1
+    }
+
+    def "Buffered request holds the response in memory or in a file depending on its size"() {
+
+        setup: "Configure rest call"
+        stubFor(get(urlEqualTo("/rest-api/some-endpoint/1"))
+                .willReturn(okJson(responseBody)))
+
+        when: "Execute buffered http request"
+        ResponseEntity<ResponseBuffer> responseEntity = httpClient.executeBufferedRequestAsync(getRequest(5)).join()
+        ResponseBuffer responseBuffer = responseEntity.body
+
+        then: "Response is held in a file only when exceeding the threshold"
+        responseBuffer.getFile().isPresent() == inFile
+        responseBuffer.asString() == responseBody
+        responseBuffer.size == responseBody.length()
+
+        when: "Delete the response"
+        Optional<Path> file = responseBuffer.getFile()
+        responseBuffer.delete()
+
+        then: "The file is deleted"
+        file.map { Files.exists(it) }.orElse(false) == false
+
+        where:
+        responseBody                                                   | inFile
+        '{"id":1}'                                                     | false
+        '[' + (1..200).collect { '{"id":' + it + '}' }.join(',') + ']' | true
+    }
+
+    def "Buffered response is not written to a file on the web client event loop"() {
+
+        setup: "Capture the ResponseBuffer debug log written when the response is written to a file"
+        Logger logger = (Logger) LoggerFactory.getLogger(ResponseBuffer.class)
+        Level level = logger.getLevel()
+        ListAppender<ILoggingEvent> appender = new ListAppender<>()
+        appender.start()
+        logger.addAppender(appender)
+        logger.setLevel(Level.DEBUG)
+
+        and: "Configure rest call returning a response exceeding the threshold"
+        stubFor(get(urlEqualTo("/rest-api/some-endpoint/1"))
+                .willReturn(okJson('[' + (1..200).collect { '{"id":' + it + '}' }.join(',') + ']')))
+
+        when: "Execute buffered http request"
+        ResponseBuffer responseBuffer = httpClient.executeBufferedRequestAsync(getRequest(5)).join().body
+
+        then: "The response is written to a file on a thread other than a web client thread"
+        responseBuffer.getFile().isPresent()
+        List<String> threadNames = appender.list.collect { it.threadName }
+        threadNames.size() == 1
+        !threadNames[0].startsWith("reactor-http-")
+
+        cleanup:
+        responseBuffer?.delete()
+        logger.detachAppender(appender)
+        logger.setLevel(level)
+    }
+
     @Unroll
     def "Exception when http status error response"() {
 
@@ -330,6 +442,67 @@ class HttpClientSpec extends Specification{
         assert e.message =~ /(?i)connection refused/
     }
 
+    def "Request is rejected without being sent when the circuit breaker for the host is open"() {
+
+        setup: "Open the circuit breaker for the wiremock host"
+        CircuitBreaker circuitBreaker = new CircuitBreaker("localhost:${wiremockPort}", 1, Duration.ofSeconds(30), Clock.systemUTC())
+        circuitBreaker.onFailure()
+        httpClient.circuitBreakers.put("localhost:${wiremockPort}".toString(), circuitBreaker)
+
+        and: "Configure rest call"
+        stubFor(get(urlEqualTo("/rest-api/some-endpoint/1")).willReturn(okJson("{}")))
+
+        when: "Execute http request"
+        httpClient.executeRequest(getRequest(5))
+
+        then: "DRServiceException thrown"
+        DRServiceException e = thrown()
+        assert e.message.contains("Circuit breaker is open for host localhost")
+
+        and: "Request is not sent"
+        verify(exactly(0), getRequestedFor(urlEqualTo("/rest-api/some-endpoint/1")))
+
+        cleanup:
+        httpClient.circuitBreakers.invalidateAll()
+    }
+
+    def "Circuit breaker state metric reports the circuit breaker currently cached for the host"() {
+
+        setup: "Record circuit breaker metrics"
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+        Metrics.addRegistry(meterRegistry)
+
+        and: "Send a request to the wiremock host, creating its circuit breaker"
+        stubFor(get(urlEqualTo("/rest-api/some-endpoint/1")).willReturn(okJson("{}")))
+        httpClient.executeRequest(getRequest(5))
+        String host = "localhost:${wiremockPort}"
+
+        when: "Replace the circuit breaker with an open circuit breaker, as when recreated after an expiry"
+        CircuitBreaker circuitBreaker = new CircuitBreaker(host, 1, Duration.ofSeconds(30), Clock.systemUTC())
+        circuitBreaker.onFailure()
+        httpClient.circuitBreakers.put(host, circuitBreaker)
+
+        then: "Metric reports the replacing circuit breaker is open"
+        meterRegistry.get("http_client_circuit_breaker_state").tag("host", host).gauge().value() == 1
+
+        when: "Remove the circuit breaker"
+        httpClient.circuitBreakers.invalidateAll()
+
+        then: "Metric reports closed"
+        meterRegistry.get("http_client_circuit_breaker_state").tag("host", host).gauge().value() == 0
+
+        cleanup:
+        httpClient.circuitBreakers.invalidateAll()
+        Metrics.removeRegistry(meterRegistry)
+    }
+
+    private HttpRequest getRequest(int readTimeoutSeconds) {
+        return new HttpRequest(
+                url    : "http://localhost:${wiremockPort}/rest-api/some-endpoint/1".toString(),
+                method : "GET",
+                readTimeoutSeconds: readTimeoutSeconds)
+    }
+
     @TestConfiguration
     @EnableConfigurationProperties
     @ComponentScan(basePackages = ["com.ericsson.bos.dr.service.http"])
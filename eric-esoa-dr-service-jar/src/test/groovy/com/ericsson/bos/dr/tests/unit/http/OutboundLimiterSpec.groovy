@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.tests.unit.http
+
+import com.ericsson.bos.dr.service.exceptions.DRServiceException
+import com.ericsson.bos.dr.service.http.OutboundLimiter
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+
+class OutboundLimiterSpec extends Specification {
+
+    def "Requests exceeding the concurrency limit wait, and are rejected once the queue is full"() {
+
+        setup: "Limiter for one concurrent and one waiting request"
+        OutboundLimiter limiter = new OutboundLimiter("host-1", new OutboundLimiter.Limits(0, 1, 1))
+        CompletableFuture<String> response1 = new CompletableFuture<>()
+        CompletableFuture<String> response2 = new CompletableFuture<>()
+        int sent = 0
+
+        when: "Execute three requests"
+        CompletableFuture<String> result1 = limiter.execute { sent++; response1 }
+        CompletableFuture<String> result2 = limiter.execute { sent++; response2 }
+        CompletableFuture<String> result3 = limiter.execute { sent++; new CompletableFuture<String>() }
+
+        then: "Only the first request is sent, and the third is rejected"
+        sent == 1
+        result3.handle { response, throwable -> throwable }.join() instanceof DRServiceException
+
+        when: "First request completes"
+        response1.complete("response-1")
+        response2.complete("response-2")
+
+        then: "Waiting request is sent"
+        sent == 2
+        result1.join() == "response-1"
+        result2.join() == "response-2"
+    }
+
+    def "Requests are spaced by the rate limit"() {
+
+        setup: "Limiter for 10 requests per second"
+        OutboundLimiter limiter = new OutboundLimiter("host-2", new OutboundLimiter.Limits(10, 0, 10))
+
+        when: "Execute five requests"
+        long start = System.nanoTime()
+        List<CompletableFuture<Long>> results = (1..5).collect {
+            limiter.execute { CompletableFuture.completedFuture(System.nanoTime() - start) }
+        }
+        List<Long> sentAt = results*.join()
+
+        then: "Last request is sent no earlier than 400ms after the first"
+        sentAt[4] - sentAt[0] >= 390_000_000
+    }
+
+    def "Requests waiting for a permit are rejected once the waiting limit is reached"() {
+
+        setup: "Limiter for 1 request per second and two waiting requests"
+        OutboundLimiter limiter = new OutboundLimiter("host-3", new OutboundLimiter.Limits(1, 0, 2))
+        int sent = 0
+
+        when: "Execute four requests"
+        List<CompletableFuture<String>> results = (1..4).collect {
+            limiter.execute { sent++; CompletableFuture.completedFuture("response") }
+        }
+
+        then: "First request is sent, the next two wait for their permit and the fourth is rejected"
+        sent == 1
+        !results[1].isDone()
+        !results[2].isDone()
+        results[3].handle { response, throwable -> throwable }.join() instanceof DRServiceException
+
+        when: "Wait for the permits"
+        results[1].join()
+        results[2].join()
+
+        then: "Waiting requests are sent"
+        sent == 3
+    }
+
+    def "Updated limits are applied to the requests in progress and waiting"() {
+
+        setup: "Limiter for one concurrent and two waiting requests"
+        OutboundLimiter limiter = new OutboundLimiter("host-4", new OutboundLimiter.Limits(0, 1, 2))
+        CompletableFuture<String> response1 = new CompletableFuture<>()
+        int sent = 0
+
+        when: "Execute three requests"
+        limiter.execute { sent++; response1 }
+        List<CompletableFuture<String>> results = (1..2).collect {
+            limiter.execute { sent++; CompletableFuture.completedFuture("response") }
+        }
+
+        then: "Only the first request is sent"
+        sent == 1
+
+        when: "Concurrency limit is raised"
+        limiter.setLimits(new OutboundLimiter.Limits(0, 2, 2))
+
+        then: "One waiting request is sent, and on completion its place is handed to the other waiting request"
+        sent == 3
+        results*.join() == ["response", "response"]
+
+        when: "Concurrency limit is lowered below the requests in progress"
+        CompletableFuture<String> response4 = new CompletableFuture<>()
+        limiter.execute { sent++; response4 }
+        limiter.setLimits(new OutboundLimiter.Limits(0, 1, 2))
+        CompletableFuture<String> result5 = limiter.execute { sent++; CompletableFuture.completedFuture("response") }
+
+        then: "New request waits"
+        sent == 4
+        !result5.isDone()
+
+        when: "One request in progress completes"
+        response1.complete("response")
+
+        then: "New request still waits for the request in progress above the limit"
+        sent == 4
+
+        when: "Other request in progress completes"
+        response4.complete("response")
+
+        then: "New request is sent"
+        sent == 5
+        result5.join() == "response"
+        limiter.getLimits() == new OutboundLimiter.Limits(0, 1, 2)
+    }
+
+    def "Limits with no rate or concurrency limit are unlimited"() {
+        expect:
+        new OutboundLimiter.Limits(0, 0, 10).isUnlimited()
+        !new OutboundLimiter.Limits(1, 0, 10).isUnlimited()
+        !new OutboundLimiter.Limits(0, 1, 10).isUnlimited()
+    }
+}
\ No newline at end of file
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+
+package com.ericsson.bos.dr.tests.unit.job
+
+import com.ericsson.bos.dr.service.job.JobTasksScheduler
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.Executor
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+
+class JobTasksSchedulerSpec extends Specification {
+
+    ExecutorService executorService = Executors.newFixedThreadPool(8)
+
+    def cleanup() {
+        executorService.shutdownNow()
+    }
+
+    def "Tasks in flight for a job are limited to the job concurrency"() {
+
+        setup: "Scheduler with capacity greater than the job concurrency"
+        JobTasksScheduler scheduler = new JobTasksScheduler(executor: executorService, capacity: 8, defaultJobConcurrency: 4)
+        Executor jobExecutor = scheduler.getExecutor(1, Optional.ofNullable(jobConcurrency))
+
+        and: "Tasks recording the number of concurrent tasks"
+        AtomicInteger running = new AtomicInteger()
+        AtomicInteger maxRunning = new AtomicInteger()
+        Runnable task = {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max)
+            sleep(10)
+            running.decrementAndGet()
+        }
+
+        when: "Submit tasks for the job"
+        List<CompletableFuture> futures = (1..30).collect { CompletableFuture.runAsync(task, jobExecutor) }
+        CompletableFuture.allOf(futures as CompletableFuture[]).join()
+
+        then: "All tasks are executed within the job concurrency"
+        futures.every { it.isDone() && !it.isCompletedExceptionally() }
+        maxRunning.get() <= expectedMax
+        scheduler.getInFlightCount() == 0
+
+        where:
+        jobConcurrency | expectedMax
+        2              | 2
+        null           | 4
+    }
+
+    def "Jobs with queued tasks are served in round-robin order"() {
+
+        setup: "Scheduler executing one task at a time on a manually driven executor"
+        List<Runnable> submitted = []
+        JobTasksScheduler scheduler = new JobTasksScheduler(executor: { submitted.add(it) } as Executor, capacity: 1,
+                defaultJobConcurrency: 5)
+        Executor job1Executor = scheduler.getExecutor(1, Optional.empty())
+        Executor job2Executor = scheduler.getExecutor(2, Optional.empty())
+
+        and: "Tasks recording the execution order"
+        List<String> executed = []
+
+        when: "Submit tasks for two jobs"
+        (1..3).each { i -> job1Executor.execute { executed.add("job1-${i}".toString()) } }
+        (1..3).each { i -> job2Executor.execute { executed.add("job2-${i}".toString()) } }
+
+        then: "Only one task is submitted to the executor"
+        submitted.size() == 1
+
+        when: "Execute the submitted tasks one by one"
+        while (!submitted.isEmpty()) {
+            submitted.remove(0).run()
+        }
+
+        then: "Tasks of the two jobs are executed in turn"
+        executed == ["job1-1", "job1-2", "job2-1", "job1-3", "job2-2", "job2-3"]
+        scheduler.getInFlightCount() == 0
+    }
+
+    def "Pending tasks of a job are not executed when cancelled"() {
+
+        setup: "Scheduler with job concurrency 1"
+        JobTasksScheduler scheduler = new JobTasksScheduler(executor: executorService, capacity: 8, defaultJobConcurrency: 1)
+        Executor jobExecutor = scheduler.getExecutor(1, Optional.empty())
+        AtomicInteger executions = new AtomicInteger()
+
+        when: "Submit tasks and cancel them while the first is running"
+        List<CompletableFuture> futures = (1..10).collect {
+            CompletableFuture.runAsync({ executions.incrementAndGet(); sleep(50) }, jobExecutor)
+        }
+        sleep(10)
+        futures.each { it.cancel(true) }
+        sleep(100)
+
+        then: "Only the running task was executed"
+        executions.get() == 1
+        scheduler.getInFlightCount() == 0
+    }
+
+    def "Async tasks hold the job concurrency window but not a pool thread until their stage completes"() {
+
+        setup: "Scheduler with job concurrency 1"
+        JobTasksScheduler scheduler = new JobTasksScheduler(executor: executorService, capacity: 8, defaultJobConcurrency: 1)
+        CompletableFuture<String> stage1 = new CompletableFuture<>()
+        CompletableFuture<String> stage2 = new CompletableFuture<>()
+        AtomicInteger started = new AtomicInteger()
+
+        when: "Submit two async tasks for the job"
+        CompletableFuture<String> result1 = scheduler.submit(1, Optional.empty(), { started.incrementAndGet(); stage1 })
+        CompletableFuture<String> result2 = scheduler.submit(1, Optional.empty(), { started.incrementAndGet(); stage2 })
+        sleep(50)
+
+        then: "Only the first task is started and no pool thread is held"
+        started.get() == 1
+        scheduler.getInFlightCount() == 0
+
+        when: "Complete the stage of the first task"
+        stage1.complete("result1")
+        sleep(50)
+
+        then: "The first result is completed and the second task is started"
+        result1.join() == "result1"
+        started.get() == 2
+        !result2.isDone()
+
+        when: "Complete the stage of the second task exceptionally"
+        stage2.completeExceptionally(new RuntimeException("error!"))
+        result2.join()
+
+        then: "The second result is completed exceptionally"
+        thrown(CompletionException)
+    }
+}
\ No newline at end of file
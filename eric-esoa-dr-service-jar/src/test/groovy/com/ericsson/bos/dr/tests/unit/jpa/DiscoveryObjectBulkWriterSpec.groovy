@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+
+package com.ericsson.bos.dr.tests.unit.jpa
+
+import com.ericsson.bos.dr.jpa.DiscoveryObjectBulkWriter
+import com.ericsson.bos.dr.jpa.model.DiscoveryObjectEntity
+import com.ericsson.bos.dr.jpa.model.FilterEntity
+import org.springframework.dao.DataIntegrityViolationException
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.transaction.support.TransactionTemplate
+import spock.lang.Specification
+
+class DiscoveryObjectBulkWriterSpec extends Specification {
+
+    JdbcTemplate jdbcTemplateMock = Mock(JdbcTemplate)
+    TransactionTemplate transactionTemplateMock = Mock(TransactionTemplate)
+    DiscoveryObjectBulkWriter discoveryObjectBulkWriter = new DiscoveryObjectBulkWriter(jdbcTemplate: jdbcTemplateMock,
+            transactionTemplate: transactionTemplateMock, batchSize: 2)
+
+    def "Discovery objects and filters are inserted in chunks with reserved ids"() {
+
+        setup: "create 3 discovery objects with 2 filters each"
+        List<DiscoveryObjectEntity> entities = (1..3).collect { i ->
+            DiscoveryObjectEntity entity = new DiscoveryObjectEntity(jobId: 1, status: "DISCOVERED", sourceProperties: [id: i])
+            entity.addFilter(new FilterEntity(name: "f1", reconcileStatus: "NOT_STARTED", reconcileAction: "action"))
+            entity.addFilter(new FilterEntity(name: "f2", reconcileStatus: "NOT_STARTED", reconcileAction: "action"))
+            entity
+        }
+        long nextObjectId = 1
+        long nextFilterId = 100
+
+        when: "insert"
+        discoveryObjectBulkWriter.insert(entities)
+
+        then: "each chunk is written in a separate transaction"
+        2 * transactionTemplateMock.executeWithoutResult(_) >> { args -> args[0].accept(null) }
+
+        and: "ids are reserved for each chunk"
+        2 * jdbcTemplateMock.queryForList({ it.contains("discovered_object_id_seq") }, Long, _) >> { args ->
+            (1..args[2][0]).collect { nextObjectId++ } }
+        2 * jdbcTemplateMock.queryForList({ it.contains("filter_id_seq") }, Long, _) >> { args ->
+            (1..args[2][0]).collect { nextFilterId++ } }
+
+        and: "objects and filters are inserted in batches of the chunk size"
+        1 * jdbcTemplateMock.batchUpdate({ it.startsWith("INSERT INTO discovered_object") }, { it.size() == 2 }, 2, _)
+        1 * jdbcTemplateMock.batchUpdate({ it.startsWith("INSERT INTO filter") }, { it.size() == 4 }, 4, _)
+        1 * jdbcTemplateMock.batchUpdate({ it.startsWith("INSERT INTO discovered_object") }, { it.size() == 1 }, 1, _)
+        1 * jdbcTemplateMock.batchUpdate({ it.startsWith("INSERT INTO filter") }, { it.size() == 2 }, 2, _)
+
+        and: "reserved ids and version are set on the entities"
+        entities.collect { it.id } == [1L, 2L, 3L]
+        entities.collectMany { it.filters*.id }.sort() == (100L..105L).toList()
+        entities.every { it.version == 0L && it.creationDate != null }
+        entities.every { e -> e.filters.every { it.discoveryObject.is(e) && it.version == 0L } }
+    }
+
+    def "No filter insert is issued when objects have no filters"() {
+
+        when: "insert"
+        discoveryObjectBulkWriter.insert([new DiscoveryObjectEntity(jobId: 1, status: "DISCOVERED")])
+
+        then: "only the objects are inserted"
+        1 * transactionTemplateMock.executeWithoutResult(_) >> { args -> args[0].accept(null) }
+        1 * jdbcTemplateMock.queryForList(_, Long, _) >> [1L]
+        1 * jdbcTemplateMock.batchUpdate({ it.startsWith("INSERT INTO discovered_object") }, _, 1, _)
+        0 * jdbcTemplateMock.batchUpdate({ it.startsWith("INSERT INTO filter") }, _, _, _)
+    }
+
+    def "Objects of committed chunks are deleted when a later chunk fails"() {
+
+        setup: "create 3 discovery objects"
+        List<DiscoveryObjectEntity> entities = (1..3).collect { new DiscoveryObjectEntity(jobId: 1, status: "DISCOVERED") }
+        long nextObjectId = 1
+
+        when: "insert"
+        discoveryObjectBulkWriter.insert(entities)
+
+        then: "first chunk is inserted and second chunk fails"
+        2 * jdbcTemplateMock.queryForList(_, Long, _) >> { args -> (1..args[2][0]).collect { nextObjectId++ } }
+        1 * jdbcTemplateMock.batchUpdate({ it.startsWith("INSERT INTO discovered_object") }, { it.size() == 2 }, 2, _)
+        1 * jdbcTemplateMock.batchUpdate({ it.startsWith("INSERT INTO discovered_object") }, { it.size() == 1 }, 1, _) >> {
+            throw new DataIntegrityViolationException("error") }
+        3 * transactionTemplateMock.executeWithoutResult(_) >> { args -> args[0].accept(null) }
+
+        and: "objects of the first chunk are deleted"
+        1 * jdbcTemplateMock.batchUpdate({ it.startsWith("DELETE FROM discovered_object") }, { it*.id == [1L, 2L] }, 2, _)
+
+        and: "failure is rethrown"
+        thrown(DataIntegrityViolationException)
+    }
+}
\ No newline at end of file
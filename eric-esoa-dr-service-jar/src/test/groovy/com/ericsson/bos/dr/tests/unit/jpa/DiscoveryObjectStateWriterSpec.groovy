@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.tests.unit.jpa
+
+import com.ericsson.bos.dr.jpa.DiscoveryObjectStateWriter
+import com.ericsson.bos.dr.jpa.model.DiscoveryObjectEntity
+import com.ericsson.bos.dr.jpa.model.FilterEntity
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.orm.ObjectOptimisticLockingFailureException
+import org.springframework.transaction.support.TransactionTemplate
+import spock.lang.Specification
+
+class DiscoveryObjectStateWriterSpec extends Specification {
+
+    JdbcTemplate jdbcTemplateMock = Mock(JdbcTemplate)
+    TransactionTemplate transactionTemplateMock = Mock(TransactionTemplate)
+    DiscoveryObjectStateWriter discoveryObjectStateWriter = new DiscoveryObjectStateWriter(jdbcTemplate: jdbcTemplateMock,
+            transactionTemplate: transactionTemplateMock)
+
+    DiscoveryObjectEntity entity = createEntity()
+
+    def "Object and filters are updated in one transaction and versions incremented"() {
+
+        when: "update state"
+        discoveryObjectStateWriter.updateState(entity)
+
+        then: "object and filters are updated in a single transaction"
+        1 * transactionTemplateMock.executeWithoutResult(_) >> { args -> args[0].accept(null) }
+        1 * jdbcTemplateMock.update({ it.startsWith("UPDATE discovered_object") }, "RECONCILED", null, _, 1L, 3L) >> 1
+        1 * jdbcTemplateMock.batchUpdate({ it.startsWith("UPDATE filter") }, { it.size() == 2 }, 2, _) >> ([[1, 1]] as int[][])
+
+        and: "versions are incremented"
+        entity.version == 4L
+        entity.filters.every { it.version == 6L && it.modifiedDate != null }
+    }
+
+    def "Optimistic lock failure is thrown when #row is modified since read"() {
+
+        setup: "mock updated row counts"
+        transactionTemplateMock.executeWithoutResult(_) >> { args -> args[0].accept(null) }
+        jdbcTemplateMock.update(_, *_) >> objectCount
+        jdbcTemplateMock.batchUpdate(_, _, _, _) >> ([filterCounts] as int[][])
+
+        when: "update state"
+        discoveryObjectStateWriter.updateState(entity)
+
+        then: "optimistic lock failure is thrown and versions are unchanged"
+        thrown(ObjectOptimisticLockingFailureException)
+        entity.version == 3L
+        entity.filters.every { it.version == 5L }
+
+        where:
+        row      | objectCount | filterCounts
+        "object" | 0           | [1, 1]
+        "filter" | 1           | [1, 0]
+    }
+
+    private static DiscoveryObjectEntity createEntity() {
+        DiscoveryObjectEntity entity = new DiscoveryObjectEntity(id: 1, status: "RECONCILED", version: 3)
+        entity.addFilter(new FilterEntity(id: 10, name: "f1", reconcileStatus: "COMPLETED", version: 5))
+        entity.addFilter(new FilterEntity(id: 11, name: "f2", reconcileStatus: "COMPLETED", version: 5))
+        return entity
+    }
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.tests.unit.reconcile
+
+import com.ericsson.bos.dr.jpa.DiscoveryObjectRepository
+import com.ericsson.bos.dr.jpa.DiscoveryObjectStateWriter
+import com.ericsson.bos.dr.jpa.model.DiscoveryObjectEntity
+import com.ericsson.bos.dr.jpa.model.FilterEntity
+import com.ericsson.bos.dr.service.execution.ExecutionResult
+import com.ericsson.bos.dr.service.execution.executors.CommandResponse
+import com.ericsson.bos.dr.service.reconcile.functions.ReconcileStateHandler
+import spock.lang.Specification
+
+import static com.ericsson.bos.dr.web.v1.api.model.DiscoveredObjectDto.StatusEnum.RECONCILED
+import static com.ericsson.bos.dr.web.v1.api.model.DiscoveredObjectDto.StatusEnum.RECONCILE_FAILED
+import static com.ericsson.bos.dr.web.v1.api.model.FilterDtoReconcileAction.StatusEnum.COMPLETED
+import static com.ericsson.bos.dr.web.v1.api.model.FilterDtoReconcileAction.StatusEnum.FAILED
+import static com.ericsson.bos.dr.web.v1.api.model.FilterDtoReconcileAction.StatusEnum.NOT_STARTED
+
+class ReconcileStateHandlerSpec extends Specification {
+
+    DiscoveryObjectRepository discoveryObjectRepositoryMock = Mock()
+    DiscoveryObjectStateWriter discoveryObjectStateWriterMock = Mock()
+
+    ExecutionResult executionResult = new ExecutionResult(new CommandResponse("command", "response"), [])
+
+    def "Only the start and end of reconcile are persisted"() {
+
+        setup: "ReconcileStateHandler not persisting transitions"
+        ReconcileStateHandler reconcileStateHandler = createReconcileStateHandler(false)
+        DiscoveryObjectEntity entity = createEntity()
+
+        when: "Reconcile the object filters"
+        reconcileStateHandler.setDiscoveryObjectStateReconciling(entity)
+        ["f1", "f2"].each {
+            reconcileStateHandler.setFilterStateInProgress(entity, it)
+            reconcileStateHandler.setFilterStateCompleted(entity, it, executionResult)
+        }
+        reconcileStateHandler.setDiscoveryObjectState(entity)
+
+        then: "Reconciling state is saved"
+        1 * discoveryObjectRepositoryMock.save(entity) >> entity
+
+        and: "End state is written once with all filters completed"
+        1 * discoveryObjectStateWriterMock.updateState({
+            it.status == RECONCILED.toString() && it.filters.every { f -> f.reconcileStatus == COMPLETED.toString() }
+        }) >> entity
+        0 * _
+    }
+
+    def "Failed filter is persisted"() {
+
+        setup: "ReconcileStateHandler not persisting transitions"
+        ReconcileStateHandler reconcileStateHandler = createReconcileStateHandler(false)
+        DiscoveryObjectEntity entity = createEntity()
+
+        when: "Filter fails"
+        reconcileStateHandler.setFilterStateInProgress(entity, "f1")
+        reconcileStateHandler.setFilterStateFailed(entity, "f1", new IllegalStateException("error"))
+
+        then: "Failed state is saved"
+        1 * discoveryObjectRepositoryMock.save({
+            it.status == RECONCILE_FAILED.toString() && it.getFilter("f1").get().reconcileStatus == FAILED.toString()
+        }) >> entity
+        0 * _
+    }
+
+    def "Each transition is persisted when configured"() {
+
+        setup: "ReconcileStateHandler persisting transitions"
+        ReconcileStateHandler reconcileStateHandler = createReconcileStateHandler(true)
+        DiscoveryObjectEntity entity = createEntity()
+
+        when: "Reconcile the object filter"
+        reconcileStateHandler.setDiscoveryObjectStateReconciling(entity)
+        reconcileStateHandler.setFilterStateInProgress(entity, "f1")
+        reconcileStateHandler.setFilterStateCompleted(entity, "f1", executionResult)
+        reconcileStateHandler.setDiscoveryObjectState(entity)
+
+        then: "Each transition is saved"
+        4 * discoveryObjectRepositoryMock.save(entity) >> entity
+        0 * discoveryObjectStateWriterMock._
+    }
+
+    private ReconcileStateHandler createReconcileStateHandler(boolean persistTransitions) {
+        return new ReconcileStateHandler(discoveryObjectRepository: discoveryObjectRepositoryMock,
+                discoveryObjectStateWriter: discoveryObjectStateWriterMock, persistTransitions: persistTransitions)
+    }
+
+    private static DiscoveryObjectEntity createEntity() {
+        DiscoveryObjectEntity entity = new DiscoveryObjectEntity(id: 1, version: 0)
+        entity.addFilter(new FilterEntity(id: 10, name: "f1", reconcileStatus: NOT_STARTED.toString(), version: 0))
+        entity.addFilter(new FilterEntity(id: 11, name: "f2", reconcileStatus: NOT_STARTED.toString(), version: 0))
+        return entity
+    }
+}
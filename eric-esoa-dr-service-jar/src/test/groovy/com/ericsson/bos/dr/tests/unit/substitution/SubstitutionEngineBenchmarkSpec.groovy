@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.tests.unit.substitution
+
+import com.ericsson.bos.dr.service.PropertiesService
+import com.ericsson.bos.dr.service.substitution.SubstitutionEngine
+import com.hubspot.jinjava.Jinjava
+import com.hubspot.jinjava.JinjavaConfig
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.mock.mockito.MockBean
+import org.springframework.test.context.ContextConfiguration
+import org.springframework.test.context.TestPropertySource
+import spock.lang.Requires
+import spock.lang.Specification
+
+/**
+ * Micro-benchmark comparing the <code>SubstitutionEngine</code> against rendering with a new config and
+ * template parse on every call, for the url, header and body templates rendered for each http request.
+ * Run with -Dbenchmark=true.
+ */
+@Requires({ sys.benchmark })
+@TestPropertySource(properties = ["service.substitution.fail-on-unknown-tokens=true",
+        "spring.caches.jinja-template.max-size=10", "spring.caches.jinja-template.access-expiry=60"])
+@ContextConfiguration(classes = [SubstitutionEngine.class])
+class SubstitutionEngineBenchmarkSpec extends Specification {
+
+    static final int WARMUP_ITERATIONS = 20_000
+    static final int ITERATIONS = 100_000
+    static final List<String> TEMPLATES = [
+            "https://host:8443/api/v1/nodes",
+            "application/json",
+            "https://host:8443/api/v1/nodes/{{source.id}}?type={{source.type}}",
+            '{"name": "{{source.name}}", {% if source.enabled %}"state": "enabled"{% else %}"state": "disabled"{% endif %}}']
+
+    @Autowired
+    SubstitutionEngine substitutionEngine
+
+    @MockBean
+    PropertiesService propertiesServiceMock
+
+    def "Benchmark rendering of http request templates"() {
+
+        setup: "substitution context and uncached render"
+        Map<String, Object> ctx = [source: [id: "1", type: "node", name: "node1", enabled: true]]
+        Jinjava jinjava = new Jinjava()
+        Closure<String> uncachedRender = { String template ->
+            JinjavaConfig config = JinjavaConfig.newBuilder().withFailOnUnknownTokens(true).build()
+            jinjava.renderForResult(template, new HashMap<>(ctx), config).getOutput()
+        }
+        Closure<String> engineRender = { String template -> substitutionEngine.render(template, ctx, null) }
+
+        when: "render the templates with and without the cache"
+        double uncachedNanos = measure(uncachedRender)
+        double engineNanos = measure(engineRender)
+        System.out.printf("Uncached: %.0f ns/op, SubstitutionEngine: %.0f ns/op, speedup: %.1fx%n",
+                uncachedNanos, engineNanos, uncachedNanos / engineNanos)
+
+        then: "same output and engine is faster"
+        TEMPLATES.collect(uncachedRender) == TEMPLATES.collect(engineRender)
+        engineNanos < uncachedNanos
+    }
+
+    double measure(Closure<String> render) {
+        (1..WARMUP_ITERATIONS).each { TEMPLATES.each(render) }
+        long start = System.nanoTime()
+        (1..ITERATIONS).each { TEMPLATES.each(render) }
+        return (System.nanoTime() - start) / (ITERATIONS * TEMPLATES.size())
+    }
+}
@@ -20,26 +20,43 @@ import com.ericsson.bos.dr.service.PropertiesService
 import com.ericsson.bos.dr.service.exceptions.DRServiceException
 import com.ericsson.bos.dr.service.exceptions.ErrorCode
 import com.ericsson.bos.dr.service.substitution.SubstitutionEngine
+import com.ericsson.bos.dr.service.utils.GroovyScriptCache
 import com.ericsson.bos.dr.service.utils.SpringContextHolder
 import com.google.common.collect.Maps
+import io.micrometer.core.instrument.Metrics
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
 import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.boot.test.mock.mockito.MockBean
 import org.springframework.context.ApplicationContext
 import org.springframework.test.context.ContextConfiguration
 import org.springframework.test.context.TestPropertySource
 import spock.lang.Specification
+import static org.mockito.Mockito.verifyNoInteractions
 import static org.mockito.Mockito.when
 
-@TestPropertySource(properties = ["service.substitution.fail-on-unknown-tokens=true"])
-@ContextConfiguration(classes = [SubstitutionEngine.class])
+@TestPropertySource(properties = ["service.substitution.fail-on-unknown-tokens=true",
+        "spring.caches.groovy-expression.max-size=10", "spring.caches.groovy-expression.access-expiry=60",
+        "spring.caches.jinja-template.max-size=10", "spring.caches.jinja-template.access-expiry=60"])
+@ContextConfiguration(classes = [SubstitutionEngine.class, GroovyScriptCache.class,
+        SpringContextHolder.class])
 class SubstitutionEngineSpec extends Specification {
 
     @Autowired
     SubstitutionEngine substitutionEngine
 
+    @Autowired
+    GroovyScriptCache groovyScriptCache
+
+    @Autowired
+    ApplicationContext applicationContext
+
     @MockBean
     PropertiesService propertiesServiceMock
 
+    def setup() {
+        new SpringContextHolder().setApplicationContext(applicationContext)
+    }
+
     def "Successful substitution using replaceAtSymbol function"() {
 
         setup: "set substitution context map"
@@ -146,6 +163,7 @@ class SubstitutionEngineSpec extends Specification {
         new SpringContextHolder(applicationContext: applicationCtxMock)
 
         applicationCtxMock.getBean(AssetService.class) >> assetServiceMock
+        applicationCtxMock.getBean(GroovyScriptCache.class) >> groovyScriptCache
         assetServiceMock.getGroovyScript(scriptName, 100) >> scriptClass
 
         when: "render the expression using groovy function with script reference"
@@ -180,4 +198,79 @@ class SubstitutionEngineSpec extends Specification {
         DRServiceException exception = thrown(DRServiceException)
         exception.getMessage().contains("No signature of method: static java.lang.System.currentTime() is applicable for argument")
     }
+
+    def "Groovy expression is compiled once and reused"() {
+
+        when: "render the same expression with different arguments"
+        List<String> results = (1..3).collect {
+            substitutionEngine.render("{{fn:groovy('x = arg1 * 2; x', value)}}", [value: it], 100l)
+        }
+
+        then: "each evaluation has its own binding"
+        results == ["2", "4", "6"]
+
+        when: "evaluate an expression returning the script instance twice"
+        Object first = groovyScriptCache.evalExpression("this", [:])
+        Object second = groovyScriptCache.evalExpression("this", [:])
+
+        then: "expression is compiled once and a new script instance is created for each evaluation"
+        first.getClass() == second.getClass()
+        !first.is(second)
+    }
+
+    def "Template is parsed once and rendered for each substitution context"() {
+
+        setup: "record jinja template cache metrics"
+        SimpleMeterRegistry globalMeterRegistry = new SimpleMeterRegistry()
+        Metrics.addRegistry(globalMeterRegistry)
+        double misses = templateCacheGets(globalMeterRegistry, "miss")
+        double hits = templateCacheGets(globalMeterRegistry, "hit")
+
+        when: "render the same template with different contexts"
+        List<String> results = (1..3).collect {
+            substitutionEngine.render("{% if value > 1 %}{{value}}{% else %}none{% endif %}", [value: it], null)
+        }
+
+        then: "each context is rendered"
+        results == ["none", "2", "3"]
+
+        and: "template is parsed once"
+        templateCacheGets(globalMeterRegistry, "miss") == misses + 1
+        templateCacheGets(globalMeterRegistry, "hit") == hits + 2
+
+        cleanup:
+        Metrics.removeRegistry(globalMeterRegistry)
+    }
+
+    def "Template with syntax error is reported on every render"() {
+
+        when: "render template with unclosed tag"
+        substitutionEngine.render("{% if true %}value", [:], null)
+
+        then: "DRServiceException is thrown"
+        thrown(DRServiceException)
+
+        when: "render the same template again"
+        substitutionEngine.render("{% if true %}value", [:], null)
+
+        then: "DRServiceException is thrown"
+        thrown(DRServiceException)
+    }
+
+    def "Literal string is returned without rendering"() {
+
+        setup: "literal string"
+        String literal = "https://host:8080/path?query={value}&other=1"
+
+        when: "render the literal string"
+        String result = substitutionEngine.render(literal, [value: 1], 100l)
+
+        then: "same string is returned and properties are not read"
+        result.is(literal)
+        verifyNoInteractions(propertiesServiceMock)
+    }
+
+    double templateCacheGets(SimpleMeterRegistry meterRegistry, String result) {
+        return meterRegistry.get("cache.gets").tags("cache", "jinja_template_cache", "result", result).functionCounter().count()
+    }
 }
@@ -18,6 +18,8 @@ package com.ericsson.bos.dr.tests.unit.utils
 import com.ericsson.bos.dr.service.utils.JQ
 import com.ericsson.bos.dr.tests.integration.utils.JsonUtils
 import com.fasterxml.jackson.databind.JsonNode
+import io.micrometer.core.instrument.Metrics
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
 import spock.lang.Specification
 
 class JQSpec extends Specification {
@@ -57,4 +59,30 @@ class JQSpec extends Specification {
         result['name'] == "object1"
         result['other'] == null
     }
+
+    def "Compiled jq expression is reused"() {
+        setup: "register meter registry"
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+        Metrics.addRegistry(meterRegistry)
+        String expression = ".id + ${System.nanoTime()}"
+        double misses = cacheGets(meterRegistry, "miss")
+        double hits = cacheGets(meterRegistry, "hit")
+
+        when: "Perform same JQ operation on multiple objects"
+        List results = (1..3).collect { JQ.query(expression, JsonUtils.read("{\"id\": ${it}}", JsonNode.class)).getObject() }
+
+        then: "result is as expected"
+        results.size() == 3
+
+        and: "expression is compiled once"
+        cacheGets(meterRegistry, "miss") == misses + 1
+        cacheGets(meterRegistry, "hit") == hits + 2
+
+        cleanup:
+        Metrics.removeRegistry(meterRegistry)
+    }
+
+    double cacheGets(SimpleMeterRegistry meterRegistry, String result) {
+        return meterRegistry.get("cache.gets").tags("cache", "jq_expression_cache", "result", result).functionCounter().count()
+    }
 }
\ No newline at end of file
@@ -40,4 +40,48 @@ class JSONSpec extends Specification {
         expect: "Call method with non json string"
         "i am not a json string" == JSON.compact("i am not a json string")
     }
+
+    @Unroll
+    def "Should read each top-level element of json string"() {
+
+        when: "Read each element"
+        List elements = []
+        JSON.readEach(json, { elements.add(JSON.toString(it)) })
+
+        then: "Each element is passed to the consumer"
+        elements == expectedElements
+
+        where:
+        json                                            | expectedElements
+        '[{"name":"John"}, {"age":30}, [1, 2], "text"]' | ['{"name":"John"}', '{"age":30}', '[1,2]', '"text"']
+        '{"name":"John","tags":[1,2]}'                  | ['{"name":"John","tags":[1,2]}']
+        '[]'                                            | []
+    }
+
+    def "Should read each top-level element of json from reader"() {
+
+        when: "Read each element from reader"
+        List elements = []
+        JSON.readEach(new StringReader('[{"id":1},{"id":2}]'), { elements.add(it.get("id").asInt()) })
+
+        then: "Each element is passed to the consumer"
+        elements == [1, 2]
+    }
+
+    @Unroll
+    def "Should throw exception reading each element when input is not array or object"() {
+
+        when: "Read each element"
+        JSON.readEach(json, { })
+
+        then: "Exception is thrown"
+        thrown(expectedException)
+
+        where:
+        json       | expectedException
+        '"text"'   | IllegalArgumentException
+        ''         | IllegalArgumentException
+        'not_json' | IllegalStateException
+        '[{"id":1' | IllegalStateException
+    }
 }
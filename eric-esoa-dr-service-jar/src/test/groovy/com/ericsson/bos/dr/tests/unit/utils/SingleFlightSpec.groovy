@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * COPYRIGHT Ericsson 2023
+ *
+ *
+ *
+ * The copyright to the computer program(s) herein is the property of
+ *
+ * Ericsson Inc. The programs may be used and/or copied only with written
+ *
+ * permission from Ericsson Inc. or in accordance with the terms and
+ *
+ * conditions stipulated in the agreement/contract under which the
+ *
+ * program(s) have been supplied.
+ ******************************************************************************/
+package com.ericsson.bos.dr.tests.unit.utils
+
+import com.ericsson.bos.dr.service.utils.SingleFlight
+import io.micrometer.core.instrument.Metrics
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class SingleFlightSpec extends Specification {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+    ExecutorService executor = Executors.newSingleThreadExecutor({ new Thread(it, "mapper") })
+
+    def setup() {
+        Metrics.addRegistry(meterRegistry)
+    }
+
+    def cleanup() {
+        Metrics.removeRegistry(meterRegistry)
+        executor.shutdownNow()
+    }
+
+    def "Concurrent calls with the same key share a single call"() {
+
+        setup: "SingleFlight mapping the shared result"
+        String name = "test-${System.nanoTime()}".toString()
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(name, { "shared-" + it }, executor)
+        CompletableFuture<String> call = new CompletableFuture<>()
+        int calls = 0
+
+        when: "Execute calls for the same key while the first is in flight"
+        List<CompletableFuture<String>> results = (1..3).collect { singleFlight.execute("key", { calls++; call }) }
+
+        then: "Only the first call is executed"
+        calls == 1
+        results.every { !it.isDone() }
+        singleFlight.getInFlightCount() == 1
+
+        when: "Complete the call"
+        call.complete("result")
+
+        then: "The executing caller gets the result and the other callers the mapped result"
+        results*.join() == ["result", "shared-result", "shared-result"]
+        singleFlight.getInFlightCount() == 0
+
+        and: "The coalesced calls are counted"
+        meterRegistry.get("single_flight_coalesced_calls").tags("name", name).counter().count() == 2
+    }
+
+    def "Calls with different keys or after completion are not coalesced"() {
+
+        setup: "SingleFlight"
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test", { it }, executor)
+        int calls = 0
+
+        when: "Execute calls for different keys, and again once completed"
+        singleFlight.execute("key1", { calls++; new CompletableFuture<>() })
+        singleFlight.execute("key2", { calls++; new CompletableFuture<>() })
+        singleFlight.execute("key3", { calls++; CompletableFuture.completedFuture("result") }).join()
+        singleFlight.execute("key3", { calls++; CompletableFuture.completedFuture("result") }).join()
+
+        then: "Each call is executed"
+        calls == 4
+    }
+
+    def "Shared result is mapped on the executor before the executing caller gets the result"() {
+
+        setup: "SingleFlight recording the thread mapping the shared result, with the executor busy"
+        List<String> mappingThreads = []
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test",
+                { mappingThreads << Thread.currentThread().name; it }, executor)
+        CompletableFuture<String> call = new CompletableFuture<>()
+        CompletableFuture<Void> busy = new CompletableFuture<>()
+        executor.execute({ busy.join() })
+
+        when: "Execute calls for the same key and complete the call"
+        List<CompletableFuture<String>> results = (1..2).collect { singleFlight.execute("key", { call }) }
+        call.complete("result")
+
+        then: "The result is not mapped on the thread completing the call, and is not yet returned to any caller"
+        mappingThreads.isEmpty()
+        results.every { !it.isDone() }
+
+        when: "The executor is free"
+        busy.complete(null)
+
+        then: "The shared result is mapped on the executor and each caller gets the result"
+        results*.get(5, TimeUnit.SECONDS) == ["result", "result"]
+        mappingThreads == ["mapper"]
+    }
+
+    def "Failure of the call is shared"() {
+
+        setup: "SingleFlight"
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test", { it }, executor)
+        CompletableFuture<String> call = new CompletableFuture<>()
+
+        when: "Execute calls for the same key and fail the call"
+        List<CompletableFuture<String>> results = (1..2).collect { singleFlight.execute("key", { call }) }
+        call.completeExceptionally(new IllegalStateException("error!"))
+
+        then: "Each caller gets the failure"
+        results.every { it.isCompletedExceptionally() }
+
+        when: "Get the result"
+        results[1].join()
+
+        then: "The cause is the call failure"
+        CompletionException e = thrown()
+        e.cause instanceof IllegalStateException
+    }
+}